@@ -1,5 +1,6 @@
 package com.example.ai.goap_demo;
 
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.pizzabot.PizzaBot;
 
 /**
@@ -32,10 +33,12 @@ public class PizzaBotDemo {
         // Create a plan
         System.out.println("=== Creating Plan ===");
         pizzaBot.createPlan();
+        DiagnosticLog.flush();
         
         // Execute the plan
         System.out.println("\n=== Executing Plan ===");
         boolean success = pizzaBot.executePlan();
+        DiagnosticLog.flush();
         
         // Print final status
         System.out.println("\n=== Final Status ===");
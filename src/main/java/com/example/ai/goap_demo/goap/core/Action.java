@@ -48,6 +48,14 @@ public interface Action {
      */
     List<Effect> getEffects();
     
+    /**
+     * Get the effects this action leaves behind when it fails, if its failures are
+     * predictable; used to plan for the failure before it happens
+     */
+    default List<Effect> getFailureEffects() {
+        return List.of();
+    }
+    
     /**
      * Check if this action is critical (should not be interrupted)
      */
@@ -11,4 +11,23 @@ public interface HeuristicFunction {
      * Calculates the estimated cost from current state to goal
      */
     float calculate(WorldState currentState, Goal goal, List<Action> availableActions);
+    
+    /**
+     * Get the heuristic to use for one search of the given goal over the given actions.
+     * Heuristics that derive data from the goal and actions return one bound to that data,
+     * which the search drops when it ends; others return themselves.
+     */
+    default HeuristicFunction forSearch(Goal goal, List<Action> availableActions) {
+        return this;
+    }
+    
+    /**
+     * Check if the estimate never exceeds the cost of the cheapest path to the goal, nor
+     * drops by more than an action's cost along it, so that a search expanding nodes in f
+     * order finds a cheapest plan. Heuristics that are only admissible for some goals and
+     * actions answer for those through forSearch.
+     */
+    default boolean isAdmissible() {
+        return false;
+    }
 }
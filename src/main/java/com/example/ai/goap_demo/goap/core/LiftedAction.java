@@ -0,0 +1,15 @@
+package com.example.ai.goap_demo.goap.core;
+
+import java.util.List;
+
+/**
+ * An action schema with typed parameters, such as "bake {order} in {oven}".
+ * Instead of being grounded for every combination of objects up front, its
+ * ground actions are created for the objects of the state being searched.
+ */
+public interface LiftedAction extends Action {
+    /**
+     * Get the ground instances of this action whose preconditions hold in the given state
+     */
+    List<Action> ground(WorldState state);
+}
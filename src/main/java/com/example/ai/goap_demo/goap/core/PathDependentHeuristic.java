@@ -0,0 +1,22 @@
+package com.example.ai.goap_demo.goap.core;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A heuristic whose estimate also depends on the path to a state, such as the
+ * landmarks already achieved on the way. The pathfinders keep the progress of
+ * every search node as a bitset and pass it back when evaluating the node.
+ */
+public interface PathDependentHeuristic extends HeuristicFunction {
+    /**
+     * Get the progress after reaching a state from a node with the given progress,
+     * or from the start when parentProgress is null. Must not modify parentProgress.
+     */
+    BitSet progress(BitSet parentProgress, WorldState state, Goal goal, List<Action> availableActions);
+    
+    /**
+     * Calculates the estimated cost from the current state to the goal, given the progress along the path
+     */
+    float calculate(WorldState currentState, BitSet progress, Goal goal, List<Action> availableActions);
+}
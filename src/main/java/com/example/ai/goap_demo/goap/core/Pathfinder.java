@@ -0,0 +1,21 @@
+package com.example.ai.goap_demo.goap.core;
+
+import java.util.List;
+
+/**
+ * Searches for a sequence of actions that leads from a state to a goal.
+ */
+public interface Pathfinder {
+    /**
+     * Searches for a sequence of actions that achieves the goal from the start state
+     */
+    SearchResult search(WorldState startState, Goal goal, List<Action> availableActions);
+    
+    /**
+     * Finds a sequence of actions that achieves the goal, or null if none was found
+     */
+    default List<Action> findPath(WorldState startState, Goal goal, List<Action> availableActions) {
+        SearchResult result = search(startState, goal, availableActions);
+        return result.isFound() ? result.getActions() : null;
+    }
+}
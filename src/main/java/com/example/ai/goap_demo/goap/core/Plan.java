@@ -1,41 +1,200 @@
 package com.example.ai.goap_demo.goap.core;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.UUID;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a plan consisting of a sequence of actions.
+ *
+ * Plans are immutable. Their steps are stored as a list of step arrays linked from the
+ * last array back to the first, so plans made by extending another plan share its steps
+ * instead of copying them. A plan made from a single list is one array; getActions wraps
+ * it directly, and only joins the arrays of an extended plan when first asked for.
+ * Plan ids are unique within the JVM and are handed out in per-thread blocks, so
+ * creating plans concurrently does not contend.
  */
 public class Plan {
-    private final String id;
-    private final List<Action> actions;
+    private static final int ID_BLOCK = 1024;
+    private static final AtomicLong NEXT_ID_BLOCK = new AtomicLong();
+    private static final ThreadLocal<long[]> ID_RANGE = ThreadLocal.withInitial(() -> new long[] { 0, 0 });
+    
+    private final long id;
+    private final Steps last;
+    private final boolean optimal;
+    private final long registryVersion;
+    private final boolean partial;
+    
+    // Built on first use; racing threads build equal lists
+    private List<Action> actions;
+    private String description;
     
     public Plan(List<Action> actions) {
-        this.id = UUID.randomUUID().toString();
-        this.actions = new ArrayList<>(actions);
+        this(actions, false);
+    }
+    
+    public Plan(List<Action> actions, boolean optimal) {
+        this(actions, optimal, -1);
+    }
+    
+    /**
+     * Creates a plan that was made against the given version of an action registry
+     */
+    public Plan(List<Action> actions, boolean optimal, long registryVersion) {
+        this(actions, optimal, registryVersion, false);
+    }
+    
+    /**
+     * Creates a plan that may only lead part of the way to the goal, if the search gave up
+     */
+    public Plan(List<Action> actions, boolean optimal, long registryVersion, boolean partial) {
+        this(Steps.append(null, actions), optimal, registryVersion, partial);
+    }
+    
+    private Plan(Steps last, boolean optimal, long registryVersion, boolean partial) {
+        this.id = nextId();
+        this.last = last;
+        this.optimal = optimal;
+        this.registryVersion = registryVersion;
+        this.partial = partial;
+    }
+    
+    private static long nextId() {
+        long[] range = ID_RANGE.get();
+        if (range[0] == range[1]) {
+            range[0] = NEXT_ID_BLOCK.getAndAdd(ID_BLOCK);
+            range[1] = range[0] + ID_BLOCK;
+        }
+        return range[0]++;
+    }
+    
+    /**
+     * Creates a plan of this plan's steps followed by more actions, sharing this plan's
+     * steps. The new plan is not known to be optimal.
+     */
+    public Plan extend(List<Action> moreActions) {
+        return new Plan(Steps.append(last, moreActions), false, registryVersion, partial);
+    }
+    
+    /**
+     * Creates a plan with the same steps, sharing them, made against the given registry version
+     */
+    public Plan withRegistryVersion(long registryVersion) {
+        return new Plan(last, optimal, registryVersion, partial);
     }
     
     public String getId() {
-        return id;
+        return "plan-" + id;
     }
     
     public List<Action> getActions() {
-        return Collections.unmodifiableList(actions);
+        List<Action> list = actions;
+        if (list == null) {
+            list = new StepList(last != null ? last.toArray() : new Action[0]);
+            actions = list;
+        }
+        return list;
+    }
+    
+    /**
+     * Get the number of steps
+     */
+    public int size() {
+        return last != null ? last.length : 0;
     }
     
     public boolean isEmpty() {
-        return actions.isEmpty();
+        return last == null;
+    }
+    
+    /**
+     * Check if the search that produced this plan guarantees it is a cheapest plan
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+    
+    /**
+     * Get the version of the action registry this plan was made against, or -1 if it was
+     * planned over a plain action list
+     */
+    public long getRegistryVersion() {
+        return registryVersion;
+    }
+    
+    /**
+     * Check if this plan only leads towards the goal, so that the executor has to plan
+     * again from where it ends
+     */
+    public boolean isPartial() {
+        return partial;
     }
     
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Plan ").append(id).append(":\n");
-        for (int i = 0; i < actions.size(); i++) {
-            sb.append(i + 1).append(". ").append(actions.get(i).getName()).append("\n");
+        String text = description;
+        if (text == null) {
+            List<Action> steps = getActions();
+            StringBuilder sb = new StringBuilder();
+            sb.append(partial ? "Partial plan " : "Plan ").append(getId()).append(":\n");
+            for (int i = 0; i < steps.size(); i++) {
+                sb.append(i + 1).append(". ").append(steps.get(i).getName()).append("\n");
+            }
+            text = sb.toString();
+            description = text;
+        }
+        return text;
+    }
+    
+    /**
+     * Consecutive steps of a plan, linked to the steps before them
+     */
+    private static final class Steps {
+        final Action[] actions;
+        final Steps previous;
+        final int length;
+        
+        Steps(Action[] actions, Steps previous) {
+            this.actions = actions;
+            this.previous = previous;
+            this.length = (previous != null ? previous.length : 0) + actions.length;
+        }
+        
+        static Steps append(Steps last, List<Action> actions) {
+            return actions.isEmpty() ? last : new Steps(actions.toArray(new Action[0]), last);
+        }
+        
+        Action[] toArray() {
+            if (previous == null) {
+                return actions;
+            }
+            Action[] all = new Action[length];
+            for (Steps steps = this; steps != null; steps = steps.previous) {
+                System.arraycopy(steps.actions, 0, all, steps.length - steps.actions.length, steps.actions.length);
+            }
+            return all;
+        }
+    }
+    
+    /**
+     * The unmodifiable steps of a plan, in order
+     */
+    private static final class StepList extends AbstractList<Action> implements RandomAccess {
+        private final Action[] steps;
+        
+        StepList(Action[] steps) {
+            this.steps = steps;
+        }
+        
+        @Override
+        public Action get(int index) {
+            return steps[index];
+        }
+        
+        @Override
+        public int size() {
+            return steps.length;
         }
-        return sb.toString();
     }
 }
@@ -0,0 +1,102 @@
+package com.example.ai.goap_demo.goap.core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a search for a sequence of actions.
+ */
+public class SearchResult {
+    private final List<Action> actions;
+    private final boolean optimal;
+    private final int nodesExpanded;
+    private final List<Action> partialActions;
+    private final boolean limitReached;
+    
+    public SearchResult(List<Action> actions, boolean optimal, int nodesExpanded) {
+        this(actions, optimal, nodesExpanded, null, false);
+    }
+    
+    private SearchResult(List<Action> actions, boolean optimal, int nodesExpanded, List<Action> partialActions,
+                         boolean limitReached) {
+        this.actions = actions;
+        this.optimal = optimal;
+        this.nodesExpanded = nodesExpanded;
+        this.partialActions = partialActions;
+        this.limitReached = limitReached;
+    }
+    
+    /**
+     * Creates the result of a search that found no plan
+     */
+    public static SearchResult notFound(int nodesExpanded) {
+        return new SearchResult(null, false, nodesExpanded);
+    }
+    
+    /**
+     * Creates the result of a search that stopped at its node limit before finding a plan,
+     * so a plan may still exist
+     */
+    public static SearchResult limitReached(int nodesExpanded) {
+        return new SearchResult(null, false, nodesExpanded, null, true);
+    }
+    
+    /**
+     * Creates the result of a search that ran out of iterations or memory before finding a
+     * plan, with the actions leading to the most promising state it reached
+     */
+    public static SearchResult partial(List<Action> partialActions, int nodesExpanded) {
+        return new SearchResult(null, false, nodesExpanded, partialActions, true);
+    }
+    
+    /**
+     * Check if a sequence of actions was found
+     */
+    public boolean isFound() {
+        return actions != null;
+    }
+    
+    /**
+     * Get the actions found, or null if no plan was found
+     */
+    public List<Action> getActions() {
+        return actions != null ? Collections.unmodifiableList(actions) : null;
+    }
+    
+    /**
+     * Check if the search gave up with a partial plan instead of a plan
+     */
+    public boolean isPartial() {
+        return partialActions != null;
+    }
+    
+    /**
+     * Get the actions towards the most promising state reached, or null if the search
+     * did not give up with a partial plan
+     */
+    public List<Action> getPartialActions() {
+        return partialActions != null ? Collections.unmodifiableList(partialActions) : null;
+    }
+    
+    /**
+     * Check if the search gave up at a node, iteration or memory limit, rather than
+     * finding a plan or running out of states to explore
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+    
+    /**
+     * Check if the actions are known to be a cheapest plan (assuming an admissible heuristic)
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+    
+    /**
+     * Get the number of nodes the search expanded
+     */
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+}
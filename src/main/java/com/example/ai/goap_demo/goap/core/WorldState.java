@@ -22,6 +22,21 @@ public interface WorldState {
      */
     boolean satisfies(Condition condition);
     
+    /**
+     * Get a numeric property, or 0 if it is missing or not a number
+     */
+    default double getNumber(String key) {
+        Object value = getProperty(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+    
+    /**
+     * Set a numeric property. Implementations may store it in a primitive slot.
+     */
+    default void setNumber(String key, double value) {
+        setProperty(key, value);
+    }
+    
     /**
      * Create a deep copy of this state
      */
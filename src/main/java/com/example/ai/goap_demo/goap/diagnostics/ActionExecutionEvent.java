@@ -0,0 +1,23 @@
+package com.example.ai.goap_demo.goap.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the execution of one plan step. The event duration is the execution time.
+ */
+@Name("com.example.goap.ActionExecution")
+@Label("Action Execution")
+@Category({"GOAP", "Execution"})
+public class ActionExecutionEvent extends Event {
+    @Label("Action")
+    public String actionId;
+    
+    @Label("Critical")
+    public boolean critical;
+    
+    @Label("Success")
+    public boolean success;
+}
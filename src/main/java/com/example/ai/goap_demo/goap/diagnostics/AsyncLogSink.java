@@ -0,0 +1,110 @@
+package com.example.ai.goap_demo.goap.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands log lines to a background thread that writes them to another sink,
+ * so planning and execution threads never block on console I/O.
+ * When the bounded queue is full, lines are dropped and counted instead of blocking.
+ * Closing the sink writes the queued lines and stops the background thread.
+ */
+public class AsyncLogSink implements LogSink, AutoCloseable {
+    private final LogSink target;
+    private final BlockingQueue<String> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+    private final LongAdder dropped = new LongAdder();
+    private final Object flushLock = new Object();
+    private final AtomicLong accepted = new AtomicLong();
+    private long written;
+    
+    public AsyncLogSink(LogSink target, int capacity) {
+        this.target = target;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        
+        this.writer = new Thread(this::drain, "goap-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    @Override
+    public void log(String message) {
+        if (!closed && queue.offer(message)) {
+            accepted.incrementAndGet();
+        } else {
+            dropped.increment();
+        }
+    }
+    
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        while (true) {
+            try {
+                String first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (String message : batch) {
+                    target.log(message);
+                }
+                target.flush();
+                synchronized (flushLock) {
+                    written += batch.size();
+                    flushLock.notifyAll();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+    
+    @Override
+    public void flush() {
+        long target = accepted.get();
+        synchronized (flushLock) {
+            while (written < target) {
+                try {
+                    flushLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Writes the lines logged so far and stops the background thread. Lines logged after
+     * closing are dropped.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flush();
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Get the number of lines dropped because the queue was full or the sink was closed
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.ai.goap_demo.goap.diagnostics;
+
+/**
+ * Writes log lines to System.out on the calling thread.
+ */
+public class ConsoleLogSink implements LogSink {
+    @Override
+    public void log(String message) {
+        System.out.println(message);
+    }
+    
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ai.goap_demo.goap.diagnostics;
+
+/**
+ * Diagnostic output of the planner and the bots, routed to a configurable sink.
+ *
+ * The initial sink is chosen by the system property goap.log:
+ * "console" (default) writes synchronously to System.out, "async" writes to
+ * System.out from a background thread, and "off" discards all output. An async
+ * default sink is closed at shutdown, so queued lines are not lost.
+ */
+public final class DiagnosticLog {
+    private static final int ASYNC_QUEUE_CAPACITY = 8192;
+    
+    private static volatile LogSink sink = createDefaultSink();
+    
+    private DiagnosticLog() {
+    }
+    
+    private static LogSink createDefaultSink() {
+        LogSink defaultSink = createSink(System.getProperty("goap.log", "console"));
+        if (defaultSink instanceof AsyncLogSink) {
+            AsyncLogSink async = (AsyncLogSink) defaultSink;
+            Runtime.getRuntime().addShutdownHook(new Thread(async::close, "goap-log-close"));
+        }
+        return defaultSink;
+    }
+    
+    /**
+     * Creates the sink for a goap.log mode
+     */
+    static LogSink createSink(String mode) {
+        switch (mode) {
+            case "off":
+                return null;
+            case "async":
+                return new AsyncLogSink(new ConsoleLogSink(), ASYNC_QUEUE_CAPACITY);
+            default:
+                return new ConsoleLogSink();
+        }
+    }
+    
+    /**
+     * Replace the sink; null turns logging off
+     */
+    public static void setSink(LogSink newSink) {
+        sink = newSink;
+    }
+    
+    public static LogSink getSink() {
+        return sink;
+    }
+    
+    /**
+     * Check if logging is on, so callers can skip building messages
+     */
+    public static boolean isEnabled() {
+        return sink != null;
+    }
+    
+    public static void log(String message) {
+        LogSink current = sink;
+        if (current != null) {
+            current.log(message);
+        }
+    }
+    
+    /**
+     * Block until everything logged so far has been written
+     */
+    public static void flush() {
+        LogSink current = sink;
+        if (current != null) {
+            current.flush();
+        }
+    }
+}
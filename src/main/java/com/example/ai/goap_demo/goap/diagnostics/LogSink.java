@@ -0,0 +1,17 @@
+package com.example.ai.goap_demo.goap.diagnostics;
+
+/**
+ * Destination for diagnostic log lines.
+ */
+public interface LogSink {
+    /**
+     * Write one log line
+     */
+    void log(String message);
+    
+    /**
+     * Block until every line logged so far has been written
+     */
+    default void flush() {
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ai.goap_demo.goap.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one search for a plan. The event duration is the search time.
+ */
+@Name("com.example.goap.PlanSearch")
+@Label("Plan Search")
+@Category({"GOAP", "Planning"})
+@Description("Search for a sequence of actions that achieves a goal")
+public class PlanSearchEvent extends Event {
+    @Label("Strategy")
+    public String strategy;
+    
+    @Label("Goal")
+    public String goal;
+    
+    @Label("Available Actions")
+    public int availableActions;
+    
+    @Label("Plan Length")
+    @Description("Number of actions in the plan found, or -1 if none was found")
+    public int planLength;
+    
+    @Label("Nodes Expanded")
+    public int nodesExpanded;
+    
+    @Label("Plan Found")
+    public boolean planFound;
+}
@@ -0,0 +1,26 @@
+package com.example.ai.goap_demo.goap.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for replanning during plan execution. The event duration is the replanning time.
+ */
+@Name("com.example.goap.Replan")
+@Label("Replan")
+@Category({"GOAP", "Execution"})
+public class ReplanEvent extends Event {
+    @Label("Reason")
+    public String reason;
+    
+    @Label("Failed Action")
+    public String actionId;
+    
+    @Label("Replan Count")
+    public int replanCount;
+    
+    @Label("New Plan Found")
+    public boolean planFound;
+}
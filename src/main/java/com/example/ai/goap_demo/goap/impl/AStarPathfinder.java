@@ -3,70 +3,116 @@ package com.example.ai.goap_demo.goap.impl;
 import com.example.ai.goap_demo.goap.core.Action;
 import com.example.ai.goap_demo.goap.core.Goal;
 import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
 
 import java.util.*;
 
 /**
  * Implementation of the A* algorithm for finding the optimal sequence of actions.
+ *
+ * With batch evaluation, each expanded state is tested against all actions at once by a
+ * BatchSuccessorEvaluator, and a SimpleHeuristic is computed from the successors' bits.
+ * The search and its plans are the same either way.
  */
-public class AStarPathfinder {
+public class AStarPathfinder implements Pathfinder {
     private final HeuristicFunction heuristicFunction;
+    private final boolean batchEvaluation;
+    
+    // The evaluator of the last search, reused while the goal and action list stay the same
+    private volatile BatchSuccessorEvaluator lastEvaluator;
     
     public AStarPathfinder(HeuristicFunction heuristicFunction) {
+        this(heuristicFunction, false);
+    }
+    
+    /**
+     * Creates a pathfinder that optionally evaluates the successors of a state in one batch
+     */
+    public AStarPathfinder(HeuristicFunction heuristicFunction, boolean batchEvaluation) {
         this.heuristicFunction = heuristicFunction;
+        this.batchEvaluation = batchEvaluation;
+    }
+    
+    private BatchSuccessorEvaluator evaluatorFor(Goal goal, List<Action> availableActions) {
+        BatchSuccessorEvaluator evaluator = lastEvaluator;
+        if (evaluator == null || !evaluator.isFor(goal, availableActions)) {
+            evaluator = BatchSuccessorEvaluator.of(goal, availableActions);
+            lastEvaluator = evaluator;
+        }
+        return evaluator;
     }
     
     /**
      * Finds the optimal path from start state to goal
      */
-    public List<Action> findPath(WorldState startState, Goal goal, List<Action> availableActions) {
+    @Override
+    public SearchResult search(WorldState startState, Goal goal, List<Action> availableActions) {
+        PlanSearchEvent event = new PlanSearchEvent();
+        event.begin();
+        HeuristicFunction heuristic = heuristicFunction.forSearch(goal, availableActions);
+        
         // Open set contains nodes to be evaluated
-        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparing(node -> node.f));
+        PriorityQueue<SearchNode> openSet = new PriorityQueue<>(Comparator.comparing(node -> node.f));
         
         // Closed set contains already evaluated nodes
         Set<String> closedSet = new HashSet<>();
         
         // Map to track nodes by state hash for quick lookup
-        Map<String, Node> openNodesByHash = new HashMap<>();
+        Map<String, SearchNode> openNodesByHash = new HashMap<>();
+        
+        BatchSuccessorEvaluator evaluator = batchEvaluation ? evaluatorFor(goal, availableActions) : null;
+        boolean countGoals = evaluator != null && heuristic.getClass() == SimpleHeuristic.class;
         
         // Start node
-        Node startNode = new Node(startState, null, null, 0, 
-                                 heuristicFunction.calculate(startState, goal, availableActions));
+        BitSet startReached = SearchSupport.reached(heuristic, null, startState, goal, availableActions);
+        float startH = SearchSupport.estimate(heuristic, startState, startReached, goal, availableActions);
+        SearchNode startNode = new SearchNode(startState, null, null, 0, startH, startH, startReached);
+        if (evaluator != null) {
+            startNode.facts = evaluator.encode(startState);
+        }
         openSet.add(startNode);
-        openNodesByHash.put(getStateHash(startState), startNode);
+        openNodesByHash.put(SearchSupport.getStateHash(startState), startNode);
         
         // Add a safety counter to prevent infinite loops
         int iterations = 0;
         final int MAX_ITERATIONS = 10000;
         
-        while (!openSet.isEmpty() && iterations < MAX_ITERATIONS) {
+        while (!openSet.isEmpty() && iterations < MAX_ITERATIONS && !SearchSupport.isCancelled()) {
             iterations++;
             
             // Get node with lowest f value
-            Node current = openSet.poll();
-            String currentStateHash = getStateHash(current.state);
+            SearchNode current = openSet.poll();
+            String currentStateHash = SearchSupport.getStateHash(current.state);
             openNodesByHash.remove(currentStateHash);
             
             // Check if goal is reached
             if (goal.isSatisfied(current.state)) {
-                System.out.println("Goal reached after " + iterations + " iterations");
-                return reconstructPath(current);
+                DiagnosticLog.log("Goal reached after " + iterations + " iterations");
+                return SearchSupport.finish(event, "A*", goal, availableActions,
+                    new SearchResult(SearchSupport.reconstructPath(current), heuristic.isAdmissible(), iterations));
             }
             
             // Add to closed set
             closedSet.add(currentStateHash);
             
             // Explore neighbors (states reachable by applying actions)
-            for (Action action : availableActions) {
-                // Check if action is applicable in current state
-                if (!action.checkPreconditions(current.state)) {
-                    continue;
-                }
-                
+            List<Action> applicable = null;
+            BatchSuccessorEvaluator.Successors successors = null;
+            if (evaluator != null) {
+                successors = evaluator.expand(current.state, current.facts);
+            } else {
+                applicable = SearchSupport.applicableActions(current.state, availableActions);
+            }
+            int successorCount = successors != null ? successors.size() : applicable.size();
+            for (int i = 0; i < successorCount; i++) {
                 // Apply action to get new state
-                WorldState newState = action.applyEffects(current.state);
-                String newStateHash = getStateHash(newState);
+                Action action = successors != null ? successors.action(i) : applicable.get(i);
+                WorldState newState = successors != null ? successors.state(i) : action.applyEffects(current.state);
+                String newStateHash = SearchSupport.getStateHash(newState);
                 
                 // Skip if already evaluated
                 if (closedSet.contains(newStateHash)) {
@@ -75,11 +121,13 @@ public class AStarPathfinder {
                 
                 // Calculate costs
                 float g = current.g + action.getCost();
-                float h = heuristicFunction.calculate(newState, goal, availableActions);
+                BitSet reached = SearchSupport.reached(heuristic, current, newState, goal, availableActions);
+                float h = countGoals ? successors.unsatisfiedGoals(i)
+                    : SearchSupport.estimate(heuristic, newState, reached, goal, availableActions);
                 float f = g + h;
                 
                 // Check if already in open set
-                Node existingNode = openNodesByHash.get(newStateHash);
+                SearchNode existingNode = openNodesByHash.get(newStateHash);
                 
                 if (existingNode != null) {
                     // If we found a better path, update the existing node
@@ -89,12 +137,18 @@ public class AStarPathfinder {
                         existingNode.parent = current;
                         existingNode.action = action;
                         existingNode.g = g;
+                        existingNode.h = h;
                         existingNode.f = f;
+                        existingNode.depth = current.depth + 1;
+                        existingNode.reached = reached;
                         openSet.add(existingNode);
                     }
                 } else {
                     // Create new node and add to open set
-                    Node neighbor = new Node(newState, current, action, g, f);
+                    SearchNode neighbor = new SearchNode(newState, current, action, g, h, f, reached);
+                    if (successors != null) {
+                        neighbor.facts = successors.bits(i);
+                    }
                     openSet.add(neighbor);
                     openNodesByHash.put(newStateHash, neighbor);
                 }
@@ -102,63 +156,10 @@ public class AStarPathfinder {
         }
         
         if (iterations >= MAX_ITERATIONS) {
-            System.out.println("A* search exceeded maximum iterations (" + MAX_ITERATIONS + ")");
+            DiagnosticLog.log("A* search exceeded maximum iterations (" + MAX_ITERATIONS + ")");
+            return SearchSupport.finish(event, "A*", goal, availableActions, SearchResult.limitReached(iterations));
         }
         
-        return null; // No path found
-    }
-    
-    /**
-     * Reconstructs the path from goal node to start node
-     */
-    private List<Action> reconstructPath(Node goalNode) {
-        List<Action> path = new ArrayList<>();
-        Node current = goalNode;
-        
-        while (current.parent != null) {
-            path.add(0, current.action); // Add to front of list
-            current = current.parent;
-        }
-        
-        return path;
-    }
-    
-    /**
-     * Creates a hash representation of a world state
-     */
-    private String getStateHash(WorldState state) {
-        // Create a more reliable hash based on the actual properties
-        Map<String, Object> props = state.getAllProperties();
-        StringBuilder sb = new StringBuilder();
-        
-        // Sort keys for consistent ordering
-        List<String> keys = new ArrayList<>(props.keySet());
-        Collections.sort(keys);
-        
-        for (String key : keys) {
-            Object value = props.get(key);
-            sb.append(key).append("=").append(value).append(";");
-        }
-        
-        return sb.toString();
-    }
-    
-    /**
-     * Node class for A* search
-     */
-    private static class Node {
-        WorldState state;
-        Node parent;
-        Action action;
-        float g; // Cost from start to this node
-        float f; // g + h (estimated total cost)
-        
-        Node(WorldState state, Node parent, Action action, float g, float f) {
-            this.state = state;
-            this.parent = parent;
-            this.action = action;
-            this.g = g;
-            this.f = f;
-        }
+        return SearchSupport.finish(event, "A*", goal, availableActions, SearchResult.notFound(iterations));
     }
 }
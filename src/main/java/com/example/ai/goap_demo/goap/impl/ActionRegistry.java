@@ -0,0 +1,353 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.Planner;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The actions available to planners, published as immutable, versioned snapshots.
+ *
+ * Planners read the current snapshot without locking and plan against it for as long
+ * as they like. Adding, retiring or replacing actions builds a new snapshot, with its
+ * indexes, on the update executor and swaps it in with a compare-and-set; an update
+ * that races with another one is rebuilt on top of it, so no update is lost.
+ *
+ * Snapshots plan over the actions relevant to the goal. Each such list is computed once
+ * per version and goal properties, for the goals planned for before while the version is
+ * built and for new goals when they are first planned for, and is then the same object,
+ * so caches keyed on list identity (such as those of LandmarkHeuristic or
+ * PatternDatabaseHeuristic) hit for every plan against one version, and the pathfinders
+ * in this package use its successor index to find applicable actions.
+ */
+public class ActionRegistry {
+    private final AtomicReference<Snapshot> current;
+    private final Executor updateExecutor;
+    
+    /**
+     * Creates a registry whose updates are built on the calling thread
+     */
+    public ActionRegistry(Collection<? extends Action> actions) {
+        this(actions, Runnable::run);
+    }
+    
+    /**
+     * Creates a registry whose updates are built on the given executor; the first
+     * snapshot is built on the calling thread
+     */
+    public ActionRegistry(Collection<? extends Action> actions, Executor updateExecutor) {
+        // An indexed list, e.g. from a domain snapshot, is immutable and keeps its index
+        List<Action> list = actions instanceof ActionList ? (ActionList) actions : new ArrayList<>(actions);
+        this.current = new AtomicReference<>(new Snapshot(1, list, Set.of()));
+        this.updateExecutor = updateExecutor;
+    }
+    
+    /**
+     * Get the current snapshot
+     */
+    public Snapshot current() {
+        return current.get();
+    }
+    
+    /**
+     * Adds actions, replacing registered actions with the same id
+     */
+    public CompletableFuture<Snapshot> add(Action... actions) {
+        List<Action> added = List.of(actions);
+        return update(existing -> {
+            Set<String> ids = new HashSet<>();
+            for (Action action : added) {
+                ids.add(action.getId());
+            }
+            List<Action> next = new ArrayList<>(existing.size() + added.size());
+            for (Action action : existing) {
+                if (!ids.contains(action.getId())) {
+                    next.add(action);
+                }
+            }
+            next.addAll(added);
+            return next;
+        });
+    }
+    
+    /**
+     * Retires the actions with the given ids; plans that already use them keep working
+     */
+    public CompletableFuture<Snapshot> retire(String... actionIds) {
+        Set<String> ids = Set.of(actionIds);
+        return update(existing -> {
+            List<Action> next = new ArrayList<>(existing.size());
+            for (Action action : existing) {
+                if (!ids.contains(action.getId())) {
+                    next.add(action);
+                }
+            }
+            return next;
+        });
+    }
+    
+    /**
+     * Applies an arbitrary change to the action list. The function may be called more than
+     * once if other updates race with this one, and must not modify its argument.
+     */
+    public CompletableFuture<Snapshot> update(UnaryOperator<List<Action>> change) {
+        return CompletableFuture.supplyAsync(() -> {
+            while (true) {
+                Snapshot base = current.get();
+                Snapshot next = new Snapshot(base.version + 1, new ArrayList<>(change.apply(base.actions)),
+                    base.relevantActions.keySet());
+                if (current.compareAndSet(base, next)) {
+                    DiagnosticLog.log("Action registry version " + next.version + " published ("
+                        + next.actions.size() + " actions)");
+                    return next;
+                }
+            }
+        }, updateExecutor);
+    }
+    
+    /**
+     * An immutable version of the registry with its derived indexes
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final ActionList actions;
+        private final Map<String, Action> byId = new HashMap<>();
+        private final Map<String, List<Action>> achievers = new HashMap<>();
+        // Goal property keys -> relevant actions
+        private final Map<Set<String>, ActionList> relevantActions = new ConcurrentHashMap<>();
+        
+        /**
+         * Builds the indexes, including the relevant actions of the goals planned for before,
+         * so that planning against a new version does not compute them
+         */
+        Snapshot(long version, List<Action> actions, Collection<Set<String>> knownGoals) {
+            this.version = version;
+            this.actions = actions instanceof ActionList ? (ActionList) actions : new ActionList(actions);
+            for (Action action : actions) {
+                byId.put(action.getId(), action);
+                if (action instanceof LiftedAction) {
+                    continue;
+                }
+                for (Effect effect : action.getEffects()) {
+                    achievers.computeIfAbsent(effect.getPropertyKey(), key -> new ArrayList<>()).add(action);
+                }
+            }
+            for (Set<String> goalKeys : knownGoals) {
+                relevantActions.put(goalKeys, relevantTo(goalKeys));
+            }
+        }
+        
+        public long getVersion() {
+            return version;
+        }
+        
+        /**
+         * Get the actions of this version, in registration order
+         */
+        public List<Action> getActions() {
+            return actions;
+        }
+        
+        /**
+         * Get the action with the given id, or null
+         */
+        public Action getAction(String id) {
+            return byId.get(id);
+        }
+        
+        /**
+         * Get the actions that can contribute to a goal: the achievers of its properties, and
+         * recursively the achievers of their preconditions, in registration order. Lifted
+         * actions are always included. Goals on the same properties share one list.
+         */
+        public List<Action> getRelevantActions(Goal goal) {
+            Set<String> goalKeys = new HashSet<>();
+            for (Condition condition : goal.getConditions()) {
+                goalKeys.add(condition.getPropertyKey());
+            }
+            ActionList relevant = relevantActions.get(goalKeys);
+            if (relevant == null) {
+                relevant = relevantActions.computeIfAbsent(Set.copyOf(goalKeys), this::relevantTo);
+            }
+            return relevant;
+        }
+        
+        /**
+         * Get the goal property key sets whose relevant actions have been computed
+         */
+        Set<Set<String>> indexedGoals() {
+            return Collections.unmodifiableSet(relevantActions.keySet());
+        }
+        
+        private ActionList relevantTo(Set<String> goalKeys) {
+            Set<Action> relevant = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<String> keys = new ArrayDeque<>(goalKeys);
+            Set<String> seen = new HashSet<>();
+            while (!keys.isEmpty()) {
+                String propertyKey = keys.poll();
+                if (!seen.add(propertyKey)) {
+                    continue;
+                }
+                for (Action action : achievers.getOrDefault(propertyKey, List.of())) {
+                    if (relevant.add(action)) {
+                        for (Condition precondition : action.getPreconditions()) {
+                            keys.add(precondition.getPropertyKey());
+                        }
+                    }
+                }
+            }
+            
+            List<Action> result = new ArrayList<>();
+            for (Action action : actions) {
+                if (relevant.contains(action) || action instanceof LiftedAction) {
+                    result.add(action);
+                }
+            }
+            return result.size() == actions.size() ? actions : new ActionList(result);
+        }
+        
+        /**
+         * Plans against the actions of this version that are relevant to the goal, recording
+         * the version in the plan
+         */
+        public Plan createPlan(Planner planner, WorldState currentState, Goal goal) {
+            Plan plan = planner.createPlan(currentState, goal, getRelevantActions(goal));
+            if (plan == null) {
+                return null;
+            }
+            return plan.withRegistryVersion(version);
+        }
+        
+        @Override
+        public String toString() {
+            return "ActionRegistry.Snapshot v" + version + " " + byId.keySet();
+        }
+    }
+    
+    /**
+     * An unmodifiable action list with an index from the value of one precondition of each
+     * action to the actions, so that only actions whose indexed precondition holds are checked
+     */
+    static final class ActionList extends AbstractList<Action> implements RandomAccess {
+        private final Action[] actions;
+        // Property key -> expected value -> positions of the actions indexed on it
+        private final Map<String, Map<Object, int[]>> index = new HashMap<>();
+        private final int[] unindexed;
+        
+        ActionList(List<Action> actions) {
+            this.actions = actions.toArray(new Action[0]);
+            
+            Map<String, Map<Object, List<Integer>>> positions = new HashMap<>();
+            List<Integer> others = new ArrayList<>();
+            for (int i = 0; i < this.actions.length; i++) {
+                SimpleCondition trigger = trigger(this.actions[i]);
+                if (trigger == null) {
+                    others.add(i);
+                } else {
+                    positions.computeIfAbsent(trigger.getPropertyKey(), key -> new HashMap<>())
+                        .computeIfAbsent(trigger.getExpectedValue(), value -> new ArrayList<>()).add(i);
+                }
+            }
+            positions.forEach((key, byValue) -> {
+                Map<Object, int[]> indexed = new HashMap<>();
+                byValue.forEach((value, list) -> indexed.put(value, toArray(list)));
+                index.put(key, indexed);
+            });
+            this.unindexed = toArray(others);
+        }
+        
+        /**
+         * Creates a list with an index built before, e.g. read from a domain snapshot
+         */
+        ActionList(Action[] actions, Map<String, Map<Object, int[]>> index, int[] unindexed) {
+            this.actions = actions;
+            this.index.putAll(index);
+            this.unindexed = unindexed;
+        }
+        
+        /**
+         * Get the index: property key, then expected value, then positions of the actions
+         */
+        Map<String, Map<Object, int[]>> index() {
+            return Collections.unmodifiableMap(index);
+        }
+        
+        /**
+         * Get the positions of the actions without an indexed precondition
+         */
+        int[] unindexed() {
+            return unindexed.clone();
+        }
+        
+        private static SimpleCondition trigger(Action action) {
+            if (action instanceof LiftedAction) {
+                return null;
+            }
+            for (Condition condition : action.getPreconditions()) {
+                if (condition.getClass() == SimpleCondition.class) {
+                    return (SimpleCondition) condition;
+                }
+            }
+            return null;
+        }
+        
+        private static int[] toArray(List<Integer> list) {
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            return array;
+        }
+        
+        /**
+         * Get the applicable actions in list order, grounding lifted actions for the state
+         */
+        List<Action> applicableActions(WorldState state) {
+            BitSet candidates = new BitSet(actions.length);
+            for (int position : unindexed) {
+                candidates.set(position);
+            }
+            for (Map.Entry<String, Map<Object, int[]>> entry : index.entrySet()) {
+                int[] matching = entry.getValue().get(state.getProperty(entry.getKey()));
+                if (matching != null) {
+                    for (int position : matching) {
+                        candidates.set(position);
+                    }
+                }
+            }
+            
+            List<Action> applicable = new ArrayList<>(candidates.cardinality());
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                Action action = actions[i];
+                if (action instanceof LiftedAction) {
+                    applicable.addAll(((LiftedAction) action).ground(state));
+                } else if (action.checkPreconditions(state)) {
+                    applicable.add(action);
+                }
+            }
+            return applicable;
+        }
+        
+        @Override
+        public Action get(int index) {
+            return actions[index];
+        }
+        
+        @Override
+        public int size() {
+            return actions.length;
+        }
+    }
+}
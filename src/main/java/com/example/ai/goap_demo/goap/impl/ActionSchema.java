@@ -0,0 +1,407 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base implementation of LiftedAction with typed parameters, lifted preconditions
+ * and lifted effects.
+ *
+ * The objects of a type are listed in the state under {@link #objectsKey(String)}.
+ * Parameters are bound one at a time, and every precondition is checked as soon as
+ * the parameters it refers to are bound, so a failing precondition prunes all
+ * combinations of the remaining parameters. Partial bindings and ground actions are
+ * memoized in a trie, so each is created once and memory grows with the bindings the
+ * searches actually visit rather than with the product of all object counts. Once the
+ * trie holds {@link #setMaxBindings(int) maxBindings} bindings, those of objects no longer
+ * listed in the state being grounded are dropped, and new bindings beyond the limit are
+ * created without being memoized.
+ */
+public abstract class ActionSchema implements LiftedAction {
+    public static final int DEFAULT_MAX_BINDINGS = 100_000;
+    
+    private final String id;
+    private final String name;
+    private final List<Parameter> parameters;
+    private final List<LiftedCondition> preconditions;
+    private final List<LiftedEffect> effects;
+    private final float cost;
+    private final boolean critical;
+    
+    // preconditionsByLevel[i + 1] holds the preconditions whose last parameter is parameter i
+    private final List<List<LiftedCondition>> preconditionsByLevel;
+    private final BindingNode root;
+    private final AtomicInteger groundedCount = new AtomicInteger();
+    private final AtomicInteger bindingCount = new AtomicInteger();
+    private volatile int maxBindings = DEFAULT_MAX_BINDINGS;
+    
+    /**
+     * A typed parameter of an action schema
+     */
+    public static final class Parameter {
+        private final String name;
+        private final String type;
+        
+        public Parameter(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getType() {
+            return type;
+        }
+        
+        @Override
+        public String toString() {
+            return name + ": " + type;
+        }
+    }
+    
+    /**
+     * A bound prefix of the parameters: the preconditions it completes, and its
+     * extensions by one more object, or the ground action once all are bound and applicable
+     */
+    private static final class BindingNode {
+        final Condition[] checks;
+        final Map<String, BindingNode> children;
+        volatile Action action;
+        
+        BindingNode(Condition[] checks, boolean leaf) {
+            this.checks = checks;
+            this.children = leaf ? null : new ConcurrentHashMap<>();
+        }
+    }
+    
+    public ActionSchema(String id, String name, List<Parameter> parameters, List<LiftedCondition> preconditions,
+                        List<LiftedEffect> effects, float cost, boolean critical) {
+        this.id = id;
+        this.name = name;
+        this.parameters = List.copyOf(parameters);
+        this.preconditions = List.copyOf(preconditions);
+        this.effects = List.copyOf(effects);
+        this.cost = cost;
+        this.critical = critical;
+        
+        Map<String, Integer> indexByName = new HashMap<>();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (indexByName.put(parameters.get(i).getName(), i) != null) {
+                throw new IllegalArgumentException("Duplicate parameter " + parameters.get(i).getName() + " in " + id);
+            }
+        }
+        
+        this.preconditionsByLevel = new ArrayList<>();
+        for (int i = 0; i <= parameters.size(); i++) {
+            preconditionsByLevel.add(new ArrayList<>());
+        }
+        for (LiftedCondition condition : preconditions) {
+            preconditionsByLevel.get(lastParameter(condition.getVariables(), indexByName) + 1).add(condition);
+        }
+        for (LiftedEffect effect : effects) {
+            lastParameter(effect.getVariables(), indexByName);
+        }
+        
+        this.root = createNode(-1, new String[parameters.size()]);
+    }
+    
+    private int lastParameter(Set<String> variables, Map<String, Integer> indexByName) {
+        int last = -1;
+        for (String variable : variables) {
+            Integer index = indexByName.get(variable);
+            if (index == null) {
+                throw new IllegalArgumentException("Unknown parameter {" + variable + "} in " + id);
+            }
+            last = Math.max(last, index);
+        }
+        return last;
+    }
+    
+    /**
+     * Get the state property listing the objects of a type
+     */
+    public static String objectsKey(String type) {
+        return "objects." + type;
+    }
+    
+    /**
+     * Adds an object of a type to a state. The list is replaced rather than modified,
+     * so copies of the state are not affected.
+     */
+    public static void addObject(WorldState state, String type, String object) {
+        Object current = state.getProperty(objectsKey(type));
+        List<Object> objects = current instanceof Collection ? new ArrayList<>((Collection<?>) current) : new ArrayList<>();
+        if (!objects.contains(object)) {
+            objects.add(object);
+        }
+        state.setProperty(objectsKey(type), Collections.unmodifiableList(objects));
+    }
+    
+    @Override
+    public List<Action> ground(WorldState state) {
+        List<Action> applicable = new ArrayList<>();
+        if (holds(root.checks, state)) {
+            expand(root, 0, new String[parameters.size()], state, applicable);
+        }
+        return applicable;
+    }
+    
+    private void expand(BindingNode node, int level, String[] objects, WorldState state, List<Action> applicable) {
+        if (level == parameters.size()) {
+            Action action = node.action;
+            applicable.add(action != null ? action : createAction(node, objects));
+            return;
+        }
+        
+        Object declared = state.getProperty(objectsKey(parameters.get(level).getType()));
+        if (!(declared instanceof Collection)) {
+            return;
+        }
+        boolean pruned = false;
+        for (Object object : (Collection<?>) declared) {
+            objects[level] = String.valueOf(object);
+            BindingNode child = node.children.get(objects[level]);
+            if (child == null) {
+                if (!pruned && bindingCount.get() >= maxBindings) {
+                    prune(node, (Collection<?>) declared);
+                    pruned = true;
+                }
+                child = bindingCount.get() < maxBindings ? memoize(node, level, objects) : createNode(level, objects);
+            }
+            if (holds(child.checks, state)) {
+                expand(child, level + 1, objects, state, applicable);
+            }
+        }
+    }
+    
+    private BindingNode memoize(BindingNode node, int level, String[] objects) {
+        return node.children.computeIfAbsent(objects[level], key -> {
+            bindingCount.incrementAndGet();
+            return createNode(level, objects);
+        });
+    }
+    
+    /**
+     * Drops the bindings below a node for objects that are no longer declared
+     */
+    private void prune(BindingNode node, Collection<?> declared) {
+        Set<String> listed = new HashSet<>();
+        for (Object object : declared) {
+            listed.add(String.valueOf(object));
+        }
+        for (Map.Entry<String, BindingNode> entry : node.children.entrySet()) {
+            if (!listed.contains(entry.getKey()) && node.children.remove(entry.getKey(), entry.getValue())) {
+                bindingCount.addAndGet(-size(entry.getValue()));
+            }
+        }
+    }
+    
+    private static int size(BindingNode node) {
+        int size = 1;
+        if (node.children != null) {
+            for (BindingNode child : node.children.values()) {
+                size += size(child);
+            }
+        }
+        return size;
+    }
+    
+    private static boolean holds(Condition[] checks, WorldState state) {
+        for (Condition check : checks) {
+            if (!state.satisfies(check)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Creates the node for objects[0..level] bound to the first parameters
+     */
+    private BindingNode createNode(int level, String[] objects) {
+        Map<String, String> binding = bind(objects, level + 1);
+        
+        List<LiftedCondition> completed = preconditionsByLevel.get(level + 1);
+        Condition[] checks = new Condition[completed.size()];
+        for (int i = 0; i < checks.length; i++) {
+            checks[i] = completed.get(i).ground(binding);
+        }
+        return new BindingNode(checks, level == parameters.size() - 1);
+    }
+    
+    private Map<String, String> bind(String[] objects, int count) {
+        Map<String, String> binding = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            binding.put(parameters.get(i).getName(), objects[i]);
+        }
+        return binding;
+    }
+    
+    /**
+     * Creates the ground action of a complete binding the first time it is applicable
+     */
+    private Action createAction(BindingNode node, String[] objects) {
+        synchronized (node) {
+            if (node.action == null) {
+                node.action = createAction(bind(objects, parameters.size()));
+            }
+            return node.action;
+        }
+    }
+    
+    private Action createAction(Map<String, String> binding) {
+        List<Condition> groundPreconditions = new ArrayList<>();
+        for (LiftedCondition condition : preconditions) {
+            groundPreconditions.add(condition.ground(binding));
+        }
+        List<Effect> groundEffects = new ArrayList<>();
+        for (LiftedEffect effect : effects) {
+            groundEffects.add(effect.ground(binding));
+        }
+        
+        String arguments = String.join(",", binding.values());
+        Map<String, String> frozen = Collections.unmodifiableMap(binding);
+        groundedCount.incrementAndGet();
+        return new BaseAction(id + "(" + arguments + ")", name + " (" + arguments.replace(",", ", ") + ")",
+                              List.copyOf(groundPreconditions), List.copyOf(groundEffects), getCost(frozen), critical) {
+            @Override
+            public ActionResult execute(WorldState state) {
+                return ActionSchema.this.execute(state, frozen);
+            }
+        };
+    }
+    
+    /**
+     * Execute the ground instance of this schema for the given binding of parameter names to objects
+     */
+    protected abstract ActionResult execute(WorldState state, Map<String, String> binding);
+    
+    /**
+     * Get the cost of the ground instance for a binding. Returns the schema cost by default.
+     */
+    protected float getCost(Map<String, String> binding) {
+        return cost;
+    }
+    
+    /**
+     * Get the number of ground actions created so far
+     */
+    public int getGroundedCount() {
+        return groundedCount.get();
+    }
+    
+    /**
+     * Get the number of partial and complete bindings currently memoized
+     */
+    public int getBindingCount() {
+        return bindingCount.get();
+    }
+    
+    public int getMaxBindings() {
+        return maxBindings;
+    }
+    
+    /**
+     * Set the number of bindings memoized before stale ones are dropped and new ones are
+     * no longer kept
+     */
+    public void setMaxBindings(int maxBindings) {
+        if (maxBindings < 0) {
+            throw new IllegalArgumentException("maxBindings must not be negative");
+        }
+        this.maxBindings = maxBindings;
+    }
+    
+    public List<Parameter> getParameters() {
+        return parameters;
+    }
+    
+    public List<LiftedCondition> getLiftedPreconditions() {
+        return preconditions;
+    }
+    
+    public List<LiftedEffect> getLiftedEffects() {
+        return effects;
+    }
+    
+    @Override
+    public String getId() {
+        return id;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Check if any ground instance of this schema is applicable
+     */
+    @Override
+    public boolean checkPreconditions(WorldState state) {
+        return !ground(state).isEmpty();
+    }
+    
+    /**
+     * A schema has no effects of its own; apply one of its ground instances instead
+     */
+    @Override
+    public WorldState applyEffects(WorldState state) {
+        throw new UnsupportedOperationException("Action schema " + id + " must be grounded before it is applied");
+    }
+    
+    @Override
+    public float getCost() {
+        return cost;
+    }
+    
+    /**
+     * A schema cannot be executed; execute one of its ground instances instead
+     */
+    @Override
+    public ActionResult execute(WorldState state) {
+        throw new UnsupportedOperationException("Action schema " + id + " must be grounded before it is executed");
+    }
+    
+    /**
+     * Get the preconditions that hold for every ground instance, i.e. those without parameters
+     */
+    @Override
+    public List<Condition> getPreconditions() {
+        return Arrays.asList(root.checks);
+    }
+    
+    /**
+     * Get the effects that are the same for every ground instance, i.e. those without parameters
+     */
+    @Override
+    public List<Effect> getEffects() {
+        List<Effect> unparameterized = new ArrayList<>();
+        for (LiftedEffect effect : effects) {
+            if (effect.getVariables().isEmpty()) {
+                unparameterized.add(effect.ground(Map.of()));
+            }
+        }
+        return unparameterized;
+    }
+    
+    @Override
+    public boolean isCritical() {
+        return critical;
+    }
+    
+    @Override
+    public String toString() {
+        return name + " [" + id + parameters + "]";
+    }
+}
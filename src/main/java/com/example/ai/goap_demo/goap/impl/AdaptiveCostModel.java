@@ -0,0 +1,204 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Action costs learned from measured execution time, fed back into planning.
+ *
+ * The cost of an action in a context is the tracked latency quantile of its
+ * ExecutionStats estimate for that context, or over all contexts if the context has
+ * too few samples, in cost units, divided by its success rate to account for retries.
+ * Estimates with fewer than minSamples samples or older than maxAgeNanos are not
+ * trusted, and the declared cost is used instead.
+ *
+ * To keep heuristics admissible, learned costs never fall below minCost: heuristics
+ * such as SimpleHeuristic count each missing goal property as one cost unit, which
+ * overestimates when actions cost less than that. Costs are also rounded to 1/8 of a
+ * unit, so measurement noise does not change them on every plan; heuristics whose
+ * tables are keyed on the action costs, such as PatternDatabaseHeuristic, then only
+ * rebuild when a cost has really moved.
+ */
+public class AdaptiveCostModel {
+    private static final float COST_RESOLUTION = 8;
+    private static final double MAX_FAILURE_RATE = 0.9;
+    
+    private final ExecutionStats stats;
+    private final double nanosPerCostUnit;
+    private final long minSamples;
+    private final long maxAgeNanos;
+    private final float minCost;
+    
+    /**
+     * @param stats Measurements to learn from
+     * @param nanosPerCostUnit Wall time that corresponds to one unit of declared cost
+     * @param minSamples Samples an estimate needs before it replaces the declared cost
+     * @param maxAgeNanos Age after which an estimate is stale and the declared cost is used again
+     * @param minCost Lowest learned cost, to keep unit-cost heuristics admissible
+     */
+    public AdaptiveCostModel(ExecutionStats stats, double nanosPerCostUnit, long minSamples, long maxAgeNanos,
+                             float minCost) {
+        this.stats = stats;
+        this.nanosPerCostUnit = nanosPerCostUnit;
+        this.minSamples = minSamples;
+        this.maxAgeNanos = maxAgeNanos;
+        this.minCost = minCost;
+    }
+    
+    public ExecutionStats getStats() {
+        return stats;
+    }
+    
+    /**
+     * Get the cost to plan an action with in a context
+     */
+    public float costOf(Action action, String context) {
+        Action declared = declaredAction(action);
+        ExecutionStats.Estimate estimate = trusted(stats.getEstimate(declared.getId(), context));
+        if (estimate == null) {
+            estimate = trusted(stats.getEstimate(declared.getId(), ExecutionStats.ANY_CONTEXT));
+        }
+        if (estimate == null) {
+            return declared.getCost();
+        }
+        
+        double successRate = 1 - Math.min(MAX_FAILURE_RATE, estimate.getFailureRate());
+        double cost = estimate.getQuantileNanos() / nanosPerCostUnit / successRate;
+        return Math.max(minCost, Math.round(cost * COST_RESOLUTION) / COST_RESOLUTION);
+    }
+    
+    private ExecutionStats.Estimate trusted(ExecutionStats.Estimate estimate) {
+        if (estimate == null || estimate.getSamples() < minSamples
+            || System.nanoTime() - estimate.getLastUpdateNanos() > maxAgeNanos) {
+            return null;
+        }
+        return estimate;
+    }
+    
+    /**
+     * Get the actions with their costs for a context; lifted actions keep their own costs
+     */
+    public List<Action> withCosts(List<Action> actions, String context) {
+        List<Action> costed = new ArrayList<>(actions.size());
+        for (Action action : actions) {
+            if (action instanceof LiftedAction) {
+                costed.add(action);
+                continue;
+            }
+            Action declared = declaredAction(action);
+            float cost = costOf(declared, context);
+            if (cost == action.getCost()) {
+                costed.add(action);
+            } else if (cost == declared.getCost()) {
+                costed.add(declared);
+            } else {
+                costed.add(new CostedAction(declared, cost));
+            }
+        }
+        return costed;
+    }
+    
+    /**
+     * Publishes a new registry version if any cost changed for the context, otherwise
+     * completes with the current snapshot
+     */
+    public CompletableFuture<ActionRegistry.Snapshot> refresh(ActionRegistry registry, String context) {
+        ActionRegistry.Snapshot current = registry.current();
+        if (!changes(current.getActions(), context)) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return registry.update(actions -> withCosts(actions, context));
+    }
+    
+    private boolean changes(List<Action> actions, String context) {
+        for (Action action : actions) {
+            if (!(action instanceof LiftedAction) && costOf(action, context) != action.getCost()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get the action as registered, without a learned cost
+     */
+    public static Action declaredAction(Action action) {
+        return action instanceof CostedAction ? ((CostedAction) action).action : action;
+    }
+    
+    /**
+     * An action planned with a learned cost; everything else is the registered action's
+     */
+    private static final class CostedAction implements Action {
+        private final Action action;
+        private final float cost;
+        
+        CostedAction(Action action, float cost) {
+            this.action = action;
+            this.cost = cost;
+        }
+        
+        @Override
+        public String getId() {
+            return action.getId();
+        }
+        
+        @Override
+        public String getName() {
+            return action.getName();
+        }
+        
+        @Override
+        public boolean checkPreconditions(WorldState state) {
+            return action.checkPreconditions(state);
+        }
+        
+        @Override
+        public WorldState applyEffects(WorldState state) {
+            return action.applyEffects(state);
+        }
+        
+        @Override
+        public float getCost() {
+            return cost;
+        }
+        
+        @Override
+        public ActionResult execute(WorldState state) {
+            return action.execute(state);
+        }
+        
+        @Override
+        public List<Condition> getPreconditions() {
+            return action.getPreconditions();
+        }
+        
+        @Override
+        public List<Effect> getEffects() {
+            return action.getEffects();
+        }
+        
+        @Override
+        public List<Effect> getFailureEffects() {
+            return action.getFailureEffects();
+        }
+        
+        @Override
+        public boolean isCritical() {
+            return action.isCritical();
+        }
+        
+        @Override
+        public String toString() {
+            return action + " (learned cost " + cost + ")";
+        }
+    }
+}
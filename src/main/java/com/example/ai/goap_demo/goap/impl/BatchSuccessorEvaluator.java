@@ -0,0 +1,358 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.*;
+
+/**
+ * Expands a search node against all actions at once, on a bit-packed state.
+ *
+ * Every (key, value) pair that a precondition or goal condition compares against is a
+ * fact with one bit, set when the property has that value. A SimpleCondition requires its
+ * bit and a NotCondition forbids it, so the preconditions of an action become two masks,
+ * stored word by word across all actions. One pass over the masks tests every action
+ * with a few branch-free long operations per 64 facts, and the unsatisfied goal
+ * conditions of a successor are popcounts of the goal masks against its bits.
+ *
+ * A successor's bits are derived from its parent's by clearing the facts of the keys
+ * the action sets and setting the facts of the new values. Actions whose effects are not
+ * all SimpleEffects, or whose class overrides applyEffects, have their successor encoded
+ * from the successor state instead; actions with other conditions, and lifted actions,
+ * are checked one at a time as without batching. Goal conditions that are not facts are
+ * counted one at a time.
+ */
+public final class BatchSuccessorEvaluator {
+    private final Goal goal;
+    private final List<Action> actions;
+    private final Action[] actionArray;
+    private final int words;
+    
+    // Fact encoding: distinct keys, and per key the bit of each value compared against
+    private final Map<String, Map<Object, Integer>> facts = new LinkedHashMap<>();
+    private final String[] keys;
+    private final Map<Object, Integer>[] valueBits;
+    
+    // Preconditions, word-major: mask[word * actions + action]
+    private final long[] required;
+    private final long[] forbidden;
+    // Bits of the actions that the masks cannot decide, checked one at a time
+    private final long[] scalarActions;
+    
+    // Successor derivation, word-major as above, for the derivable actions
+    private final long[] effectClear;
+    private final long[] effectSet;
+    private final boolean[] derivable;
+    
+    private final long[] goalRequired;
+    private final long[] goalForbidden;
+    private final List<Condition> scalarGoalConditions = new ArrayList<>();
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BatchSuccessorEvaluator(Goal goal, List<Action> actions) {
+        this.goal = goal;
+        this.actions = actions;
+        this.actionArray = actions.toArray(new Action[0]);
+        int n = actionArray.length;
+        
+        // Number the facts the conditions compare against, grouped by key
+        int[] factCount = new int[1];
+        for (Action action : actionArray) {
+            if (!(action instanceof LiftedAction)) {
+                for (Condition condition : action.getPreconditions()) {
+                    addFact(facts, factCount, condition);
+                }
+            }
+        }
+        for (Condition condition : goal.getConditions()) {
+            addFact(facts, factCount, condition);
+        }
+        this.keys = facts.keySet().toArray(new String[0]);
+        this.valueBits = facts.values().toArray(new Map[0]);
+        this.words = Math.max(1, (factCount[0] + 63) >>> 6);
+        
+        this.required = new long[words * n];
+        this.forbidden = new long[words * n];
+        this.scalarActions = new long[(n + 63) >>> 6];
+        this.effectClear = new long[words * n];
+        this.effectSet = new long[words * n];
+        this.derivable = new boolean[n];
+        for (int a = 0; a < n; a++) {
+            Action action = actionArray[a];
+            if (action instanceof LiftedAction || !encode(action.getPreconditions(), required, forbidden, a, n)) {
+                scalarActions[a >>> 6] |= 1L << a;
+                continue;
+            }
+            derivable[a] = SearchSupport.appliesDeclaredEffects(action) && encodeEffects(action, a, n);
+        }
+        
+        this.goalRequired = new long[words];
+        this.goalForbidden = new long[words];
+        Set<Integer> goalFacts = new HashSet<>();
+        for (Condition condition : goal.getConditions()) {
+            int bit = bit(condition);
+            // A fact counted twice would be undercounted by the popcount
+            if (bit < 0 || !goalFacts.add(bit)) {
+                scalarGoalConditions.add(condition);
+            } else if (condition.getClass() == SimpleCondition.class) {
+                goalRequired[bit >>> 6] |= 1L << bit;
+            } else {
+                goalForbidden[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+    
+    /**
+     * Creates an evaluator for searching the given goal over the given actions
+     */
+    public static BatchSuccessorEvaluator of(Goal goal, List<Action> actions) {
+        return new BatchSuccessorEvaluator(goal, actions);
+    }
+    
+    /**
+     * Check if this evaluator was made for exactly this goal and action list
+     */
+    boolean isFor(Goal goal, List<Action> actions) {
+        return this.goal == goal && this.actions == actions;
+    }
+    
+    /**
+     * Get the number of facts a state is encoded into
+     */
+    public int getFactCount() {
+        int count = 0;
+        for (Map<Object, Integer> values : valueBits) {
+            count += values.size();
+        }
+        return count;
+    }
+    
+    private static void addFact(Map<String, Map<Object, Integer>> facts, int[] factCount, Condition condition) {
+        Object value;
+        if (condition.getClass() == SimpleCondition.class) {
+            value = ((SimpleCondition) condition).getExpectedValue();
+        } else if (condition.getClass() == NotCondition.class) {
+            value = ((NotCondition) condition).getUnexpectedValue();
+        } else {
+            return;
+        }
+        Map<Object, Integer> values = facts.computeIfAbsent(condition.getPropertyKey(), key -> new HashMap<>());
+        if (!values.containsKey(value)) {
+            values.put(value, factCount[0]++);
+        }
+    }
+    
+    /**
+     * Get the bit of the fact a condition compares against, or -1 if it is not a fact
+     */
+    private int bit(Condition condition) {
+        Object value;
+        if (condition.getClass() == SimpleCondition.class) {
+            value = ((SimpleCondition) condition).getExpectedValue();
+        } else if (condition.getClass() == NotCondition.class) {
+            value = ((NotCondition) condition).getUnexpectedValue();
+        } else {
+            return -1;
+        }
+        Map<Object, Integer> values = facts.get(condition.getPropertyKey());
+        Integer bit = values != null ? values.get(value) : null;
+        return bit != null ? bit : -1;
+    }
+    
+    private boolean encode(List<Condition> conditions, long[] set, long[] clear, int a, int n) {
+        for (Condition condition : conditions) {
+            int bit = bit(condition);
+            if (bit < 0) {
+                return false;
+            }
+            long[] masks = condition.getClass() == SimpleCondition.class ? set : clear;
+            masks[(bit >>> 6) * n + a] |= 1L << bit;
+        }
+        return true;
+    }
+    
+    private boolean encodeEffects(Action action, int a, int n) {
+        for (Effect effect : action.getEffects()) {
+            if (effect.getClass() != SimpleEffect.class) {
+                return false;
+            }
+            Map<Object, Integer> values = facts.get(effect.getPropertyKey());
+            if (values == null) {
+                continue;
+            }
+            for (int bit : values.values()) {
+                effectClear[(bit >>> 6) * n + a] |= 1L << bit;
+                effectSet[(bit >>> 6) * n + a] &= ~(1L << bit);
+            }
+            Integer bit = values.get(((SimpleEffect) effect).getValue());
+            if (bit != null) {
+                effectSet[(bit >>> 6) * n + a] |= 1L << bit;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Encodes a state into its fact bits
+     */
+    public long[] encode(WorldState state) {
+        long[] bits = new long[words];
+        for (int k = 0; k < keys.length; k++) {
+            Integer bit = valueBits[k].get(state.getProperty(keys[k]));
+            if (bit != null) {
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return bits;
+    }
+    
+    /**
+     * Get the actions whose preconditions the masks decide and that hold for the given
+     * bits, as a bit per action position. Actions that are checked one at a time are not set.
+     */
+    public long[] applicable(long[] bits) {
+        int n = actionArray.length;
+        long[] result = new long[scalarActions.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ~scalarActions[i];
+        }
+        if (n % 64 != 0) {
+            result[result.length - 1] &= (1L << n) - 1;
+        }
+        // 64 actions at a time, so that their results stay in one register
+        for (int block = 0; block < result.length; block++) {
+            long ok = result[block];
+            int end = Math.min(n, (block + 1) << 6);
+            for (int w = 0; w < words; w++) {
+                long facts = bits[w];
+                int base = w * n;
+                for (int a = block << 6; a < end; a++) {
+                    long missing = (required[base + a] & ~facts) | (forbidden[base + a] & facts);
+                    // All ones if anything is missing, without a branch
+                    long failed = (missing | -missing) >> 63;
+                    ok &= ~(failed & (1L << a));
+                }
+            }
+            result[block] = ok;
+        }
+        return result;
+    }
+    
+    /**
+     * Counts the goal conditions a state with the given bits does not satisfy, as
+     * SimpleHeuristic does
+     */
+    public int countUnsatisfied(long[] bits, WorldState state) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount((goalRequired[w] & ~bits[w]) | (goalForbidden[w] & bits[w]));
+        }
+        for (Condition condition : scalarGoalConditions) {
+            if (!state.satisfies(condition)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Generates the successors of a state with the given bits, in action list order, with
+     * their bits and unsatisfied goal counts
+     */
+    public Successors expand(WorldState state, long[] bits) {
+        int n = actionArray.length;
+        long[] candidates = applicable(bits);
+        Successors successors = new Successors(Math.min(n, 16));
+        for (int a = 0; a < n; a++) {
+            Action action = actionArray[a];
+            if ((scalarActions[a >>> 6] & (1L << a)) != 0) {
+                if (action instanceof LiftedAction) {
+                    for (Action ground : ((LiftedAction) action).ground(state)) {
+                        WorldState next = ground.applyEffects(state);
+                        successors.add(ground, next, encode(next));
+                    }
+                } else if (action.checkPreconditions(state)) {
+                    WorldState next = action.applyEffects(state);
+                    successors.add(action, next, encode(next));
+                }
+            } else if ((candidates[a >>> 6] & (1L << a)) != 0) {
+                WorldState next = action.applyEffects(state);
+                successors.add(action, next, derivable[a] ? derive(bits, a) : encode(next));
+            }
+        }
+        
+        // Goal counts for the whole batch
+        for (int i = 0; i < successors.size; i++) {
+            successors.unsatisfied[i] = countUnsatisfied(successors.bits[i], successors.states[i]);
+        }
+        return successors;
+    }
+    
+    private long[] derive(long[] bits, int a) {
+        int n = actionArray.length;
+        long[] next = new long[words];
+        for (int w = 0; w < words; w++) {
+            next[w] = (bits[w] & ~effectClear[w * n + a]) | effectSet[w * n + a];
+        }
+        return next;
+    }
+    
+    /**
+     * The successors of one expanded state
+     */
+    public static final class Successors {
+        private Action[] actions;
+        private WorldState[] states;
+        private long[][] bits;
+        private int[] unsatisfied;
+        private int size;
+        
+        Successors(int capacity) {
+            this.actions = new Action[capacity];
+            this.states = new WorldState[capacity];
+            this.bits = new long[capacity][];
+            this.unsatisfied = new int[capacity];
+        }
+        
+        private void add(Action action, WorldState state, long[] stateBits) {
+            if (size == actions.length) {
+                int capacity = Math.max(4, size * 2);
+                actions = Arrays.copyOf(actions, capacity);
+                states = Arrays.copyOf(states, capacity);
+                bits = Arrays.copyOf(bits, capacity);
+                unsatisfied = Arrays.copyOf(unsatisfied, capacity);
+            }
+            actions[size] = action;
+            states[size] = state;
+            bits[size] = stateBits;
+            size++;
+        }
+        
+        public int size() {
+            return size;
+        }
+        
+        public Action action(int i) {
+            return actions[i];
+        }
+        
+        public WorldState state(int i) {
+            return states[i];
+        }
+        
+        public long[] bits(int i) {
+            return bits[i];
+        }
+        
+        /**
+         * Get the number of goal conditions the successor does not satisfy
+         */
+        public int unsatisfiedGoals(int i) {
+            return unsatisfied[i];
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
+
+import java.util.*;
+
+/**
+ * Beam search: breadth-first by depth, keeping only the best beamWidth nodes
+ * (lowest h, then lowest g) of each layer. Only the states that entered a beam
+ * are remembered for duplicate detection, so memory is bounded by beamWidth times
+ * the number of layers. The search is incomplete and the plan is not optimal.
+ */
+public class BeamSearchPathfinder implements Pathfinder {
+    private static final int MAX_DEPTH = 1000;
+    
+    private final HeuristicFunction heuristicFunction;
+    private final int beamWidth;
+    
+    public BeamSearchPathfinder(HeuristicFunction heuristicFunction, int beamWidth) {
+        if (beamWidth < 1) {
+            throw new IllegalArgumentException("Beam width must be at least 1: " + beamWidth);
+        }
+        this.heuristicFunction = heuristicFunction;
+        this.beamWidth = beamWidth;
+    }
+    
+    public int getBeamWidth() {
+        return beamWidth;
+    }
+    
+    @Override
+    public SearchResult search(WorldState startState, Goal goal, List<Action> availableActions) {
+        PlanSearchEvent event = new PlanSearchEvent();
+        event.begin();
+        HeuristicFunction heuristic = heuristicFunction.forSearch(goal, availableActions);
+        
+        Comparator<SearchNode> order =
+            Comparator.<SearchNode>comparingDouble(node -> node.h).thenComparingDouble(node -> node.g);
+        
+        BitSet startReached = SearchSupport.reached(heuristic, null, startState, goal, availableActions);
+        
+        float startH = SearchSupport.estimate(heuristic, startState, startReached, goal, availableActions);
+        List<SearchNode> beam = List.of(new SearchNode(startState, null, null, 0, startH, startH, startReached));
+        Set<String> seen = new HashSet<>();
+        seen.add(SearchSupport.getStateHash(startState));
+        Map<SearchNode, String> hashes = new HashMap<>();
+        
+        int iterations = 0;
+        int depth = 0;
+        // Successors dropped from the beam may lead to the goal, so running out of states then proves nothing
+        boolean pruned = false;
+        for (; depth < MAX_DEPTH && !beam.isEmpty() && !SearchSupport.isCancelled(); depth++) {
+            // Keep the best beamWidth successors in a max-heap on the ordering
+            PriorityQueue<SearchNode> nextLayer = new PriorityQueue<>(beamWidth + 1, order.reversed());
+            Set<String> layerSeen = new HashSet<>();
+            hashes.clear();
+            
+            for (SearchNode node : beam) {
+                iterations++;
+                if (goal.isSatisfied(node.state)) {
+                    return SearchSupport.finish(event, "Beam", goal, availableActions,
+                        new SearchResult(SearchSupport.reconstructPath(node), false, iterations));
+                }
+                
+                for (Action action : SearchSupport.applicableActions(node.state, availableActions)) {
+                    WorldState newState = action.applyEffects(node.state);
+                    String hash = SearchSupport.getStateHash(newState);
+                    if (seen.contains(hash) || !layerSeen.add(hash)) {
+                        continue;
+                    }
+                    
+                    float g = node.g + action.getCost();
+                    BitSet reached = SearchSupport.reached(heuristic, node, newState, goal, availableActions);
+                    float h = SearchSupport.estimate(heuristic, newState, reached, goal, availableActions);
+                    SearchNode child = new SearchNode(newState, node, action, g, h, h, reached);
+                    nextLayer.add(child);
+                    hashes.put(child, hash);
+                    if (nextLayer.size() > beamWidth) {
+                        hashes.remove(nextLayer.poll());
+                        pruned = true;
+                    }
+                }
+            }
+            
+            List<SearchNode> sorted = new ArrayList<>(nextLayer);
+            sorted.sort(order);
+            for (SearchNode node : sorted) {
+                seen.add(hashes.get(node));
+            }
+            beam = sorted;
+        }
+        
+        if (!SearchSupport.isCancelled() && (pruned || depth >= MAX_DEPTH)) {
+            return SearchSupport.finish(event, "Beam", goal, availableActions, SearchResult.limitReached(iterations));
+        }
+        return SearchSupport.finish(event, "Beam", goal, availableActions, SearchResult.notFound(iterations));
+    }
+}
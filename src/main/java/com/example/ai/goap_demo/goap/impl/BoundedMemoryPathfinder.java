@@ -0,0 +1,214 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A* within a memory budget, giving up with a partial plan instead of nothing.
+ *
+ * The memory of the search is estimated from the number of nodes and the size of their
+ * states; expanded nodes are counted as retained, since the frontier keeps them alive as
+ * parents. When the estimate nears the budget, the least promising frontier nodes (highest
+ * f, then highest h) are evicted until it is well below again. Evicted states are not
+ * closed and may be generated again later.
+ *
+ * When the search runs out of iterations, or of memory with nothing left to evict, it
+ * returns the path to the most promising node it generated (lowest h, then lowest g) as
+ * a partial result, so the caller can execute it and plan again from there. Without
+ * evictions the plan is optimal, as with AStarPathfinder.
+ */
+public class BoundedMemoryPathfinder implements Pathfinder {
+    // Rough sizes: a node with its frontier and index entries, a closed fingerprint,
+    // and a state per property
+    private static final long NODE_BYTES = 200;
+    private static final long CLOSED_ENTRY_BYTES = 64;
+    private static final long PROPERTY_BYTES = 80;
+    
+    // Eviction starts above the high-water mark and stops at the low-water mark
+    private static final double HIGH_WATER = 0.9;
+    private static final double LOW_WATER = 0.75;
+    
+    private final HeuristicFunction heuristicFunction;
+    private final long memoryBudgetBytes;
+    private final int maxIterations;
+    
+    private final LongAdder evictedNodes = new LongAdder();
+    private final LongAdder partialResults = new LongAdder();
+    
+    /**
+     * @param heuristicFunction Heuristic, as for AStarPathfinder
+     * @param memoryBudgetBytes Approximate memory for the nodes of one search
+     * @param maxIterations Number of expansions after which the search gives up
+     */
+    public BoundedMemoryPathfinder(HeuristicFunction heuristicFunction, long memoryBudgetBytes, int maxIterations) {
+        if (memoryBudgetBytes <= 0 || maxIterations <= 0) {
+            throw new IllegalArgumentException("Memory budget and iterations must be positive: "
+                + memoryBudgetBytes + ", " + maxIterations);
+        }
+        this.heuristicFunction = heuristicFunction;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.maxIterations = maxIterations;
+    }
+    
+    @Override
+    public SearchResult search(WorldState startState, Goal goal, List<Action> availableActions) {
+        PlanSearchEvent event = new PlanSearchEvent();
+        event.begin();
+        HeuristicFunction heuristic = heuristicFunction.forSearch(goal, availableActions);
+        
+        TreeSet<Node> openSet = new TreeSet<>(Comparator.<Node>comparingDouble(node -> node.f)
+            .thenComparingDouble(node -> node.h).thenComparingLong(node -> node.order));
+        Map<Long, Node> openNodesByFingerprint = new HashMap<>();
+        Set<Long> closedSet = new HashSet<>();
+        
+        BitSet startReached = SearchSupport.reached(heuristic, null, startState, goal, availableActions);
+        float startH = SearchSupport.estimate(heuristic, startState, startReached, goal, availableActions);
+        Node startNode = new Node(startState, StateFingerprint.of(startState), null, null, 0, startH,
+            startReached, 0);
+        openSet.add(startNode);
+        openNodesByFingerprint.put(startNode.fingerprint, startNode);
+        long usedBytes = startNode.bytes;
+        long generated = 1;
+        
+        Node best = startNode;
+        long evicted = 0;
+        boolean outOfMemory = false;
+        int iterations = 0;
+        
+        while (!openSet.isEmpty() && iterations < maxIterations && !SearchSupport.isCancelled()) {
+            iterations++;
+            
+            Node current = openSet.pollFirst();
+            openNodesByFingerprint.remove(current.fingerprint);
+            
+            if (goal.isSatisfied(current.state)) {
+                DiagnosticLog.log("Goal reached after " + iterations + " iterations");
+                evictedNodes.add(evicted);
+                return SearchSupport.finish(event, "Bounded-memory A*", goal, availableActions,
+                    new SearchResult(SearchSupport.reconstructPath(current),
+                        evicted == 0 && heuristic.isAdmissible(), iterations));
+            }
+            
+            closedSet.add(current.fingerprint);
+            usedBytes += CLOSED_ENTRY_BYTES;
+            
+            for (Action action : SearchSupport.applicableActions(current.state, availableActions)) {
+                WorldState newState = action.applyEffects(current.state);
+                long fingerprint = StateFingerprint.of(newState);
+                if (closedSet.contains(fingerprint)) {
+                    continue;
+                }
+                
+                float g = current.g + action.getCost();
+                BitSet reached = SearchSupport.reached(heuristic, current, newState, goal, availableActions);
+                float h = SearchSupport.estimate(heuristic, newState, reached, goal, availableActions);
+                
+                Node existingNode = openNodesByFingerprint.get(fingerprint);
+                Node node;
+                if (existingNode != null) {
+                    if (g >= existingNode.g) {
+                        continue;
+                    }
+                    openSet.remove(existingNode);
+                    existingNode.parent = current;
+                    existingNode.action = action;
+                    existingNode.g = g;
+                    existingNode.h = h;
+                    existingNode.f = g + h;
+                    existingNode.depth = current.depth + 1;
+                    existingNode.reached = reached;
+                    node = existingNode;
+                } else {
+                    node = new Node(newState, fingerprint, current, action, g, h, reached, generated++);
+                    openNodesByFingerprint.put(fingerprint, node);
+                    usedBytes += node.bytes;
+                }
+                openSet.add(node);
+                
+                if (node.h < best.h || (node.h == best.h && node.g < best.g)) {
+                    best = node;
+                }
+            }
+            
+            // Make room by dropping the least promising frontier nodes
+            if (usedBytes > memoryBudgetBytes * HIGH_WATER) {
+                while (usedBytes > memoryBudgetBytes * LOW_WATER && !openSet.isEmpty()) {
+                    Node worst = openSet.pollLast();
+                    openNodesByFingerprint.remove(worst.fingerprint);
+                    usedBytes -= worst.bytes;
+                    evicted++;
+                }
+                if (usedBytes > memoryBudgetBytes) {
+                    outOfMemory = true;
+                    break;
+                }
+            }
+        }
+        evictedNodes.add(evicted);
+        
+        if (SearchSupport.isCancelled()) {
+            return SearchSupport.finish(event, "Bounded-memory A*", goal, availableActions,
+                SearchResult.notFound(iterations));
+        }
+        
+        // Only a search that gave up has something better to offer than nothing
+        boolean exhausted = iterations >= maxIterations || outOfMemory || evicted > 0;
+        if (exhausted && best != startNode) {
+            DiagnosticLog.log("Bounded-memory search gave up after " + iterations + " iterations and " + evicted
+                + " evictions (" + usedBytes + " of " + memoryBudgetBytes + " bytes); returning a partial plan of "
+                + best.depth + " actions");
+            partialResults.increment();
+            return SearchSupport.finish(event, "Bounded-memory A*", goal, availableActions,
+                SearchResult.partial(SearchSupport.reconstructPath(best), iterations));
+        }
+        return SearchSupport.finish(event, "Bounded-memory A*", goal, availableActions,
+            exhausted ? SearchResult.limitReached(iterations) : SearchResult.notFound(iterations));
+    }
+    
+    /**
+     * Get the number of frontier nodes evicted to stay within the budget, over all searches
+     */
+    public long getEvictedCount() {
+        return evictedNodes.sum();
+    }
+    
+    /**
+     * Get the number of searches that returned a partial plan
+     */
+    public long getPartialCount() {
+        return partialResults.sum();
+    }
+    
+    /**
+     * Get the estimated memory of a node holding the given state
+     */
+    static long estimateBytes(WorldState state) {
+        return NODE_BYTES + PROPERTY_BYTES * state.getAllProperties().size();
+    }
+    
+    /**
+     * A search node with what the bounded search needs to order, index and account for it
+     */
+    private static final class Node extends SearchNode {
+        final long fingerprint;
+        final long order;
+        final long bytes;
+        
+        Node(WorldState state, long fingerprint, SearchNode parent, Action action, float g, float h, BitSet reached,
+             long order) {
+            super(state, parent, action, g, h, g + h, reached);
+            this.fingerprint = fingerprint;
+            this.order = order;
+            this.bytes = estimateBytes(state);
+        }
+    }
+}
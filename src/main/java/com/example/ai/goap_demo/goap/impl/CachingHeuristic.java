@@ -0,0 +1,141 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A HeuristicFunction decorator that memoizes the wrapped heuristic by
+ * (state fingerprint, goal fingerprint).
+ *
+ * Each search gets a map of its own from forSearch, dropped with the search. An
+ * optional shared HeuristicCache carries values across searches and planners, so
+ * replans and repeated goals mostly hit the cache. Calls outside a search only use
+ * the shared cache. The wrapped heuristic must depend only on the state, goal and
+ * actions it is given.
+ */
+public class CachingHeuristic implements HeuristicFunction {
+    private final HeuristicFunction delegate;
+    private final HeuristicCache sharedCache;
+    
+    private final LongAdder searchHits = new LongAdder();
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    
+    public CachingHeuristic(HeuristicFunction delegate) {
+        this(delegate, null);
+    }
+    
+    public CachingHeuristic(HeuristicFunction delegate, HeuristicCache sharedCache) {
+        this.delegate = delegate;
+        this.sharedCache = sharedCache;
+    }
+    
+    @Override
+    public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
+        calls.increment();
+        return calculateShared(StateFingerprint.of(currentState), StateFingerprint.of(goal, availableActions),
+            delegate, currentState, goal, availableActions);
+    }
+    
+    @Override
+    public HeuristicFunction forSearch(Goal goal, List<Action> availableActions) {
+        return new SearchCache(goal, availableActions);
+    }
+    
+    @Override
+    public boolean isAdmissible() {
+        return delegate.isAdmissible();
+    }
+    
+    private float calculateShared(long stateFingerprint, long goalFingerprint, HeuristicFunction heuristic,
+                                  WorldState currentState, Goal goal, List<Action> availableActions) {
+        float value = Float.NaN;
+        if (sharedCache != null) {
+            value = sharedCache.get(stateFingerprint, goalFingerprint);
+        }
+        if (!Float.isNaN(value)) {
+            sharedHits.increment();
+        } else {
+            value = heuristic.calculate(currentState, goal, availableActions);
+            if (sharedCache != null) {
+                sharedCache.put(stateFingerprint, goalFingerprint, value);
+            }
+        }
+        return value;
+    }
+    
+    public HeuristicCache getSharedCache() {
+        return sharedCache;
+    }
+    
+    /**
+     * Get the fraction of calls answered without evaluating the wrapped heuristic
+     */
+    public double getHitRate() {
+        long total = calls.sum();
+        if (total == 0) {
+            return 0.0;
+        }
+        return (double) (searchHits.sum() + sharedHits.sum()) / total;
+    }
+    
+    public long getCallCount() {
+        return calls.sum();
+    }
+    
+    public long getSearchHits() {
+        return searchHits.sum();
+    }
+    
+    public long getSharedHits() {
+        return sharedHits.sum();
+    }
+    
+    /**
+     * Values cached for one search
+     */
+    private final class SearchCache implements HeuristicFunction {
+        private final Goal goal;
+        private final List<Action> availableActions;
+        private final long goalFingerprint;
+        private final HeuristicFunction searchDelegate;
+        private final Map<Long, Float> values = new HashMap<>();
+        
+        SearchCache(Goal goal, List<Action> availableActions) {
+            this.goal = goal;
+            this.availableActions = availableActions;
+            this.goalFingerprint = StateFingerprint.of(goal, availableActions);
+            this.searchDelegate = delegate.forSearch(goal, availableActions);
+        }
+        
+        @Override
+        public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
+            if (goal != this.goal || availableActions != this.availableActions) {
+                return CachingHeuristic.this.calculate(currentState, goal, availableActions);
+            }
+            calls.increment();
+            long stateFingerprint = StateFingerprint.of(currentState);
+            Float cached = values.get(stateFingerprint);
+            if (cached != null) {
+                searchHits.increment();
+                return cached;
+            }
+            float value = calculateShared(stateFingerprint, goalFingerprint, searchDelegate, currentState, goal,
+                availableActions);
+            values.put(stateFingerprint, value);
+            return value;
+        }
+        
+        @Override
+        public boolean isAdmissible() {
+            return searchDelegate.isAdmissible();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Plans for likely action failures in the background while a plan executes.
+ *
+ * When execution of a plan starts, the state before every step is predicted by applying
+ * the effects of the steps before it, and the state after a failure of the step by also
+ * applying its declared failure effects. The steps most likely to fail, by their
+ * failure rate observed so far or, for steps that have not run yet, a prior for actions
+ * that declare failure effects, get a fallback plan from that state on the executor,
+ * up to the budget per plan. A step that succeeds cancels its fallback. When a step
+ * fails, its fallback is used if it is valid from the actual state, so the replan only
+ * waits for a search that is already finished or under way.
+ */
+public class ContingencyPlanner {
+    private static final double DECLARED_FAILURE_PRIOR = 0.5;
+    
+    private final ExecutorService executor;
+    private final int budget;
+    private final double minFailureProbability;
+    private final Map<String, Outcomes> outcomes = new ConcurrentHashMap<>();
+    
+    private final LongAdder prepared = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    
+    /**
+     * @param executor Executor for the speculative searches, ideally with spare threads
+     * @param budget Maximum number of fallback plans prepared per executed plan
+     * @param minFailureProbability Steps less likely to fail than this get no fallback
+     */
+    public ContingencyPlanner(ExecutorService executor, int budget, double minFailureProbability) {
+        this.executor = executor;
+        this.budget = budget;
+        this.minFailureProbability = minFailureProbability;
+    }
+    
+    /**
+     * Records whether an execution of an action succeeded
+     */
+    public void recordOutcome(Action action, boolean success) {
+        Outcomes counts = outcomes.computeIfAbsent(action.getId(), id -> new Outcomes());
+        counts.attempts.increment();
+        if (!success) {
+            counts.failures.increment();
+        }
+    }
+    
+    /**
+     * Get the estimated probability that an action fails: its observed failure rate, smoothed
+     * towards a prior that is non-zero only for actions with declared failure effects
+     */
+    public double getFailureProbability(Action action) {
+        double prior = action.getFailureEffects().isEmpty() ? 0 : DECLARED_FAILURE_PRIOR;
+        Outcomes counts = outcomes.get(action.getId());
+        if (counts == null) {
+            return prior;
+        }
+        return (counts.failures.sum() + prior) / (counts.attempts.sum() + 1.0);
+    }
+    
+    /**
+     * Starts planning for the likely failures of a plan about to be executed from the given state
+     *
+     * @param planning Creates a plan from a state, e.g. with the bot's planner and goal
+     */
+    public Contingencies prepare(Plan plan, WorldState state, Goal goal, Function<WorldState, Plan> planning) {
+        List<Action> steps = plan.getActions();
+        List<Candidate> candidates = new ArrayList<>();
+        WorldState predicted = state;
+        for (int step = 0; step < steps.size(); step++) {
+            Action action = steps.get(step);
+            double probability = getFailureProbability(action);
+            if (probability >= minFailureProbability) {
+                WorldState failed = predicted.copy();
+                for (Effect effect : action.getFailureEffects()) {
+                    effect.apply(failed);
+                }
+                candidates.add(new Candidate(step, probability, failed));
+            }
+            predicted = action.applyEffects(predicted);
+        }
+        
+        // Most likely failures first; earlier steps first among equals, since they come sooner
+        candidates.sort(Comparator.comparingDouble((Candidate candidate) -> -candidate.probability)
+            .thenComparingInt(candidate -> candidate.step));
+        Contingencies contingencies = new Contingencies(goal);
+        for (Candidate candidate : candidates.subList(0, Math.min(budget, candidates.size()))) {
+            WorldState failed = candidate.failedState;
+            contingencies.fallbacks.put(candidate.step, executor.submit(() -> planning.apply(failed)));
+            prepared.increment();
+        }
+        return contingencies;
+    }
+    
+    /**
+     * Get the number of fallback plans started
+     */
+    public long getPreparedCount() {
+        return prepared.sum();
+    }
+    
+    /**
+     * Get the number of failures that were answered with a prepared fallback
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    /**
+     * Get the number of failures without a usable prepared fallback
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    /**
+     * Get the number of fallbacks cancelled because their step succeeded
+     */
+    public long getCancelledCount() {
+        return cancelled.sum();
+    }
+    
+    /**
+     * The fallback plans prepared for one execution of a plan
+     */
+    public final class Contingencies {
+        private final Goal goal;
+        private final Map<Integer, Future<Plan>> fallbacks = new ConcurrentHashMap<>();
+        
+        private Contingencies(Goal goal) {
+            this.goal = goal;
+        }
+        
+        /**
+         * Cancels the fallback of a step that succeeded
+         */
+        public void stepSucceeded(int step) {
+            Future<Plan> fallback = fallbacks.remove(step);
+            if (fallback != null && fallback.cancel(true)) {
+                cancelled.increment();
+            }
+        }
+        
+        /**
+         * Get the prepared fallback for a failed step if it is valid from the actual state,
+         * waiting for it if it is still being searched, or null if the caller has to replan
+         */
+        public Plan forFailure(int step, WorldState actualState) {
+            Future<Plan> fallback = fallbacks.remove(step);
+            Plan plan = null;
+            if (fallback != null) {
+                try {
+                    plan = fallback.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (CancellationException | ExecutionException e) {
+                    DiagnosticLog.log("Contingency plan for step " + step + " failed: " + e);
+                }
+            }
+            
+            if (plan != null && new ValidatedPlan(plan, actualState, goal).isValid()) {
+                hits.increment();
+                return plan;
+            }
+            misses.increment();
+            return null;
+        }
+        
+        /**
+         * Cancels every fallback that is still pending
+         */
+        public void cancelAll() {
+            for (Integer step : new ArrayList<>(fallbacks.keySet())) {
+                stepSucceeded(step);
+            }
+        }
+        
+        /**
+         * Get the steps that still have a fallback
+         */
+        public Set<Integer> getPreparedSteps() {
+            return Collections.unmodifiableSet(fallbacks.keySet());
+        }
+    }
+    
+    private static final class Candidate {
+        final int step;
+        final double probability;
+        final WorldState failedState;
+        
+        Candidate(int step, double probability, WorldState failedState) {
+            this.step = step;
+            this.probability = probability;
+            this.failedState = failedState;
+        }
+    }
+    
+    private static final class Outcomes {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+}
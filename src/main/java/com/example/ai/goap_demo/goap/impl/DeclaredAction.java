@@ -0,0 +1,88 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.*;
+
+/**
+ * An action declared in a domain file. Planning uses the declaration, except that an
+ * attached Java-coded action with the same id that overrides applyEffects (e.g. to
+ * copy a value from the state) applies its effects instead of the declared ones.
+ * Execution is delegated to the attached action, and otherwise simply succeeds.
+ */
+public class DeclaredAction extends BaseAction {
+    private final List<Effect> failureEffects;
+    private final Action behaviour;
+    private final boolean behaviourAppliesEffects;
+    
+    public DeclaredAction(DomainDefinition.ActionDefinition definition, Action behaviour) {
+        super(definition.getId(), definition.getName(), definition.getPreconditions(), definition.getEffects(),
+            definition.getCost(), definition.isCritical());
+        if (behaviour != null && !behaviour.getId().equals(definition.getId())) {
+            throw new IllegalArgumentException("Behaviour " + behaviour.getId() + " attached to action "
+                + definition.getId());
+        }
+        this.failureEffects = definition.getFailureEffects();
+        this.behaviour = behaviour;
+        this.behaviourAppliesEffects = behaviour != null && !SearchSupport.appliesDeclaredEffects(behaviour);
+    }
+    
+    /**
+     * Creates the declared actions in order, attaching the behaviours by id. Every behaviour
+     * must belong to a declared action.
+     */
+    static List<Action> attach(List<DomainDefinition.ActionDefinition> definitions,
+                               Collection<? extends Action> behaviours) {
+        Map<String, Action> byId = new HashMap<>();
+        for (Action behaviour : behaviours) {
+            byId.put(behaviour.getId(), behaviour);
+        }
+        List<Action> actions = new ArrayList<>(definitions.size());
+        for (DomainDefinition.ActionDefinition definition : definitions) {
+            actions.add(new DeclaredAction(definition, byId.remove(definition.getId())));
+        }
+        if (!byId.isEmpty()) {
+            throw new IllegalArgumentException("No declared action for behaviours " + byId.keySet());
+        }
+        return actions;
+    }
+    
+    /**
+     * Get the Java-coded action this action executes with, or null
+     */
+    public Action getBehaviour() {
+        return behaviour;
+    }
+    
+    /**
+     * Check if applyEffects applies exactly the declared effects, i.e. no attached action
+     * applies its own
+     */
+    boolean appliesDeclaredEffects() {
+        return !behaviourAppliesEffects;
+    }
+    
+    @Override
+    public WorldState applyEffects(WorldState state) {
+        if (behaviourAppliesEffects) {
+            return behaviour.applyEffects(state);
+        }
+        return super.applyEffects(state);
+    }
+    
+    @Override
+    public List<Effect> getFailureEffects() {
+        return failureEffects;
+    }
+    
+    @Override
+    public ActionResult execute(WorldState state) {
+        if (behaviour != null) {
+            return behaviour.execute(state);
+        }
+        return new DefaultActionResult(true, new HashMap<>());
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.PathDependentHeuristic;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A* whose nodes store the step that produced them instead of their state.
+ *
+ * A node is a parent index, an action and costs in parallel arrays, plus its state
+ * fingerprint in an open-addressing table from fingerprints to nodes; the frontier is a
+ * heap of node indexes. Its state is materialized when the node is expanded by replaying the actions
+ * from the nearest ancestor whose state is at hand: the start state, or one of the
+ * recently generated or materialized states in a small LRU cache. A search expands
+ * children soon after their parents, so most states come from the cache or a short replay.
+ *
+ * Nodes are expanded in f order, as with AStarPathfinder, so the plan is optimal for an
+ * admissible and consistent heuristic. States are told apart by their 64-bit fingerprints.
+ */
+public class DeltaNodePathfinder implements Pathfinder {
+    private static final int NOT_OPEN = -1;
+    private static final int CLOSED = -2;
+    
+    private final HeuristicFunction heuristicFunction;
+    private final int stateCacheSize;
+    private final int maxIterations;
+    
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder materializedStates = new LongAdder();
+    private final LongAdder replayedSteps = new LongAdder();
+    
+    /**
+     * @param heuristicFunction Heuristic, as for AStarPathfinder
+     * @param stateCacheSize Number of recent states kept, besides the start state
+     * @param maxIterations Number of expansions after which the search gives up
+     */
+    public DeltaNodePathfinder(HeuristicFunction heuristicFunction, int stateCacheSize, int maxIterations) {
+        if (stateCacheSize < 0 || maxIterations <= 0) {
+            throw new IllegalArgumentException("State cache size must not be negative and iterations must be "
+                + "positive: " + stateCacheSize + ", " + maxIterations);
+        }
+        this.heuristicFunction = heuristicFunction;
+        this.stateCacheSize = stateCacheSize;
+        this.maxIterations = maxIterations;
+    }
+    
+    @Override
+    public SearchResult search(WorldState startState, Goal goal, List<Action> availableActions) {
+        PlanSearchEvent event = new PlanSearchEvent();
+        event.begin();
+        return SearchSupport.finish(event, "Delta A*", goal, availableActions,
+            new Search(startState, goal, availableActions).run());
+    }
+    
+    /**
+     * Get the number of expanded states found in the cache, over all searches
+     */
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+    
+    /**
+     * Get the number of states rebuilt by replaying actions, over all searches
+     */
+    public long getMaterializedCount() {
+        return materializedStates.sum();
+    }
+    
+    /**
+     * Get the number of actions replayed to rebuild states, over all searches
+     */
+    public long getReplayedStepCount() {
+        return replayedSteps.sum();
+    }
+    
+    /**
+     * The nodes and frontier of one search
+     */
+    private final class Search {
+        final WorldState startState;
+        final Goal goal;
+        final List<Action> availableActions;
+        final HeuristicFunction heuristic;
+        final boolean pathDependent;
+        
+        // Node n is parents[n], actions[n] and so on; the start node is 0. Its fingerprint
+        // is only kept in the table.
+        int size;
+        int[] parents = new int[64];
+        Action[] actions = new Action[64];
+        float[] g = new float[64];
+        float[] h = new float[64];
+        int[] heapPositions = new int[64];
+        BitSet[] reached;
+        
+        // Fingerprint -> node index + 1, with linear probing; 0 is empty
+        long[] tableKeys = new long[128];
+        int[] tableNodes = new int[128];
+        
+        int[] heap = new int[64];
+        int heapSize;
+        
+        final LinkedHashMap<Integer, WorldState> stateCache;
+        
+        Search(WorldState startState, Goal goal, List<Action> availableActions) {
+            this.startState = startState;
+            this.goal = goal;
+            this.availableActions = availableActions;
+            this.heuristic = heuristicFunction.forSearch(goal, availableActions);
+            this.pathDependent = heuristic instanceof PathDependentHeuristic;
+            this.reached = pathDependent ? new BitSet[64] : null;
+            this.stateCache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, WorldState> eldest) {
+                    return size() > stateCacheSize;
+                }
+            };
+        }
+        
+        SearchResult run() {
+            BitSet startReached = SearchSupport.reachedFrom(heuristic, null, startState, goal,
+                availableActions);
+            float startH = SearchSupport.estimate(heuristic, startState, startReached, goal, availableActions);
+            push(addNode(-1, null, StateFingerprint.of(startState), 0, startH, startReached));
+            
+            int iterations = 0;
+            while (heapSize > 0 && iterations < maxIterations && !SearchSupport.isCancelled()) {
+                iterations++;
+                
+                int current = pop();
+                heapPositions[current] = CLOSED;
+                WorldState state = materialize(current);
+                
+                if (goal.isSatisfied(state)) {
+                    DiagnosticLog.log("Goal reached after " + iterations + " iterations with " + size + " nodes");
+                    return new SearchResult(path(current), heuristic.isAdmissible(), iterations);
+                }
+                
+                for (Action action : SearchSupport.applicableActions(state, availableActions)) {
+                    WorldState newState = action.applyEffects(state);
+                    long fingerprint = StateFingerprint.of(newState);
+                    int existing = find(fingerprint);
+                    if (existing >= 0 && heapPositions[existing] == CLOSED) {
+                        continue;
+                    }
+                    
+                    float newG = g[current] + action.getCost();
+                    if (existing >= 0 && newG >= g[existing]) {
+                        continue;
+                    }
+                    BitSet newReached = SearchSupport.reachedFrom(heuristic,
+                        pathDependent ? reached[current] : null, newState, goal, availableActions);
+                    float newH = SearchSupport.estimate(heuristic, newState, newReached, goal,
+                        availableActions);
+                    
+                    if (existing >= 0) {
+                        // A cheaper path to an open state; the state itself is unchanged
+                        parents[existing] = current;
+                        actions[existing] = action;
+                        g[existing] = newG;
+                        h[existing] = newH;
+                        if (pathDependent) {
+                            reached[existing] = newReached;
+                        }
+                        // A path-dependent heuristic may also have raised h
+                        siftUp(heapPositions[existing]);
+                        siftDown(heapPositions[existing]);
+                    } else {
+                        int node = addNode(current, action, fingerprint, newG, newH, newReached);
+                        push(node);
+                        // Children are expanded soon, so their states are worth keeping for a while
+                        stateCache.put(node, newState);
+                    }
+                }
+            }
+            
+            if (iterations >= maxIterations) {
+                DiagnosticLog.log("Delta A* search exceeded maximum iterations (" + maxIterations + ")");
+                return SearchResult.limitReached(iterations);
+            }
+            return SearchResult.notFound(iterations);
+        }
+        
+        /**
+         * Get the state of a node from the cache, or by replaying the actions from the
+         * nearest ancestor with a known state
+         */
+        WorldState materialize(int node) {
+            if (node == 0) {
+                return startState;
+            }
+            WorldState state = stateCache.get(node);
+            if (state != null) {
+                cacheHits.increment();
+                return state;
+            }
+            
+            int[] pending = new int[8];
+            int count = 0;
+            int ancestor = node;
+            while (ancestor != 0 && (state = stateCache.get(ancestor)) == null) {
+                if (count == pending.length) {
+                    pending = Arrays.copyOf(pending, count * 2);
+                }
+                pending[count++] = ancestor;
+                ancestor = parents[ancestor];
+            }
+            if (state == null) {
+                state = startState;
+            }
+            
+            // Effects are applied in place to one copy where the action allows it
+            boolean copied = false;
+            for (int i = count - 1; i >= 0; i--) {
+                Action action = actions[pending[i]];
+                if (SearchSupport.appliesDeclaredEffects(action)) {
+                    if (!copied) {
+                        state = state.copy();
+                        copied = true;
+                    }
+                    for (Effect effect : action.getEffects()) {
+                        effect.apply(state);
+                    }
+                } else {
+                    state = action.applyEffects(state);
+                    copied = true;
+                }
+            }
+            materializedStates.increment();
+            replayedSteps.add(count);
+            stateCache.put(node, state);
+            return state;
+        }
+        
+        List<Action> path(int node) {
+            List<Action> path = new ArrayList<>();
+            for (int n = node; n != 0; n = parents[n]) {
+                path.add(actions[n]);
+            }
+            Collections.reverse(path);
+            return path;
+        }
+        
+        int addNode(int parent, Action action, long fingerprint, float nodeG, float nodeH, BitSet nodeReached) {
+            if (size == parents.length) {
+                int capacity = size * 2;
+                parents = Arrays.copyOf(parents, capacity);
+                actions = Arrays.copyOf(actions, capacity);
+                g = Arrays.copyOf(g, capacity);
+                h = Arrays.copyOf(h, capacity);
+                heapPositions = Arrays.copyOf(heapPositions, capacity);
+                if (pathDependent) {
+                    reached = Arrays.copyOf(reached, capacity);
+                }
+            }
+            int node = size++;
+            parents[node] = parent;
+            actions[node] = action;
+            g[node] = nodeG;
+            h[node] = nodeH;
+            heapPositions[node] = NOT_OPEN;
+            if (pathDependent) {
+                reached[node] = nodeReached;
+            }
+            insert(fingerprint, node);
+            return node;
+        }
+        
+        int find(long fingerprint) {
+            int mask = tableKeys.length - 1;
+            for (int slot = slot(fingerprint, mask); tableNodes[slot] != 0; slot = (slot + 1) & mask) {
+                if (tableKeys[slot] == fingerprint) {
+                    return tableNodes[slot] - 1;
+                }
+            }
+            return -1;
+        }
+        
+        void insert(long fingerprint, int node) {
+            // Keep the table at most half full
+            if (size * 2 > tableKeys.length) {
+                long[] oldKeys = tableKeys;
+                int[] oldNodes = tableNodes;
+                tableKeys = new long[oldKeys.length * 2];
+                tableNodes = new int[oldNodes.length * 2];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldNodes[i] != 0) {
+                        put(oldKeys[i], oldNodes[i]);
+                    }
+                }
+            }
+            put(fingerprint, node + 1);
+        }
+        
+        private void put(long fingerprint, int entry) {
+            int mask = tableKeys.length - 1;
+            int slot = slot(fingerprint, mask);
+            while (tableNodes[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            tableKeys[slot] = fingerprint;
+            tableNodes[slot] = entry;
+        }
+        
+        private int slot(long fingerprint, int mask) {
+            long mixed = fingerprint * 0x9E3779B97F4A7C15L;
+            return (int) (mixed >>> 32) & mask;
+        }
+        
+        /**
+         * Orders the frontier by f, then h, then newest first, which keeps the search near
+         * the states in the cache
+         */
+        private boolean before(int a, int b) {
+            float fa = g[a] + h[a];
+            float fb = g[b] + h[b];
+            if (fa != fb) {
+                return fa < fb;
+            }
+            if (h[a] != h[b]) {
+                return h[a] < h[b];
+            }
+            return a > b;
+        }
+        
+        void push(int node) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            heap[heapSize] = node;
+            heapPositions[node] = heapSize;
+            siftUp(heapSize++);
+        }
+        
+        int pop() {
+            int top = heap[0];
+            int last = heap[--heapSize];
+            if (heapSize > 0) {
+                heap[0] = last;
+                heapPositions[last] = 0;
+                siftDown(0);
+            }
+            heapPositions[top] = NOT_OPEN;
+            return top;
+        }
+        
+        private void siftUp(int position) {
+            int node = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (!before(node, heap[parent])) {
+                    break;
+                }
+                heap[position] = heap[parent];
+                heapPositions[heap[position]] = position;
+                position = parent;
+            }
+            heap[position] = node;
+            heapPositions[node] = position;
+        }
+        
+        private void siftDown(int position) {
+            int node = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!before(heap[child], node)) {
+                    break;
+                }
+                heap[position] = heap[child];
+                heapPositions[heap[position]] = position;
+                position = child;
+            }
+            heap[position] = node;
+            heapPositions[node] = position;
+        }
+    }
+}
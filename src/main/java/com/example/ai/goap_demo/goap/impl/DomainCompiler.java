@@ -0,0 +1,31 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Compiles a domain file into a snapshot ahead of time, for example as a build step, so
+ * that the first start does not pay for it
+ */
+public class DomainCompiler {
+    private static final int DEFAULT_MAX_ABSTRACT_STATES = 1 << 16;
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: DomainCompiler <domain file> <snapshot file> [max abstract states]");
+            System.exit(2);
+        }
+        Path domainFile = Paths.get(args[0]);
+        Path snapshotFile = Paths.get(args[1]);
+        int maxAbstractStates = args.length == 3 ? Integer.parseInt(args[2]) : DEFAULT_MAX_ABSTRACT_STATES;
+        
+        long start = System.nanoTime();
+        DomainDefinition definition = DomainDefinition.parse(domainFile);
+        DomainSnapshot.compile(definition, snapshotFile, maxAbstractStates);
+        System.out.printf("Compiled domain %s (%d actions, %d goals) into %s: %d bytes in %.1f ms%n",
+            definition.getName(), definition.getActions().size(), definition.getGoals().size(), snapshotFile,
+            Files.size(snapshotFile), (System.nanoTime() - start) / 1e6);
+    }
+}
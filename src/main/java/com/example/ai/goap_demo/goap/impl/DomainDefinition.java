@@ -0,0 +1,461 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A planning domain read from a declarative domain file: typed properties, goals, and
+ * actions with their preconditions, effects, failure effects and costs.
+ *
+ * The file is line based; '#' starts a comment. A header line opens a block and the
+ * lines after it belong to that block until the next header:
+ *
+ * <pre>
+ * domain pizza-kitchen
+ * property doughPrepared boolean
+ * property stock number
+ *
+ * goal serve
+ *   requires pizzaServed = true
+ *
+ * action prepare_dough "Prepare Dough" cost 2
+ *   requires ingredientsAvailable = true
+ *   requires doughPreparationFailed != true
+ *   requires stock &gt;= 1
+ *   sets doughPrepared = true
+ *   sets stock -= 1
+ *   on-failure sets doughPreparationFailed = true
+ *
+ * action bake_pizza "Bake Pizza" cost 3 critical
+ * </pre>
+ *
+ * Property types are boolean, integer, number and string; string values are quoted.
+ * Every key must be declared, and values must match its type. The comparisons &gt;= and
+ * &lt;= and the updates += and -= are only allowed on integer and number properties.
+ */
+public class DomainDefinition {
+    private static final long FINGERPRINT_BASIS = 0xcbf29ce484222325L;
+    
+    /**
+     * The value type of a declared property
+     */
+    public enum PropertyType {
+        BOOLEAN, INTEGER, NUMBER, STRING
+    }
+    
+    /**
+     * One declared action
+     */
+    public static final class ActionDefinition {
+        private final String id;
+        private final String name;
+        private final float cost;
+        private final boolean critical;
+        private final List<Condition> preconditions;
+        private final List<Effect> effects;
+        private final List<Effect> failureEffects;
+        
+        public ActionDefinition(String id, String name, float cost, boolean critical, List<Condition> preconditions,
+                                List<Effect> effects, List<Effect> failureEffects) {
+            this.id = id;
+            this.name = name;
+            this.cost = cost;
+            this.critical = critical;
+            this.preconditions = List.copyOf(preconditions);
+            this.effects = List.copyOf(effects);
+            this.failureEffects = List.copyOf(failureEffects);
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public float getCost() {
+            return cost;
+        }
+        
+        public boolean isCritical() {
+            return critical;
+        }
+        
+        public List<Condition> getPreconditions() {
+            return preconditions;
+        }
+        
+        public List<Effect> getEffects() {
+            return effects;
+        }
+        
+        public List<Effect> getFailureEffects() {
+            return failureEffects;
+        }
+    }
+    
+    private final String name;
+    private final long fingerprint;
+    private final Map<String, PropertyType> properties;
+    private final Map<String, Goal> goals;
+    private final List<ActionDefinition> actions;
+    
+    public DomainDefinition(String name, long fingerprint, Map<String, PropertyType> properties,
+                            Map<String, Goal> goals, List<ActionDefinition> actions) {
+        this.name = name;
+        this.fingerprint = fingerprint;
+        this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+        this.goals = Collections.unmodifiableMap(new LinkedHashMap<>(goals));
+        this.actions = List.copyOf(actions);
+    }
+    
+    /**
+     * Reads a domain file
+     */
+    public static DomainDefinition parse(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader, path.toString());
+        }
+    }
+    
+    /**
+     * Reads a domain file; the source name is used in error messages
+     */
+    public static DomainDefinition parse(Reader reader, String source) throws IOException {
+        return new Parser(source).parse(new BufferedReader(reader));
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Get the fingerprint of the source text, which snapshots use to detect that they are stale
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+    
+    public Map<String, PropertyType> getProperties() {
+        return properties;
+    }
+    
+    /**
+     * Get the goals by name, in declaration order
+     */
+    public Map<String, Goal> getGoals() {
+        return goals;
+    }
+    
+    public List<ActionDefinition> getActions() {
+        return actions;
+    }
+    
+    /**
+     * Creates the actions of this domain, in declaration order. Each action executes with the
+     * behaviour of the given action with the same id, if there is one.
+     */
+    public List<Action> createActions(Collection<? extends Action> behaviours) {
+        return DeclaredAction.attach(actions, behaviours);
+    }
+    
+    /**
+     * Get the fingerprint of a domain file's text without parsing it
+     */
+    public static long fingerprint(Path path) throws IOException {
+        long fingerprint = FINGERPRINT_BASIS;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                fingerprint = fingerprintLine(fingerprint, line);
+            }
+        }
+        return fingerprint;
+    }
+    
+    // FNV-1a over the lines, so any edit makes compiled snapshots stale
+    private static long fingerprintLine(long fingerprint, String line) {
+        for (int i = 0; i < line.length(); i++) {
+            fingerprint = (fingerprint ^ line.charAt(i)) * 0x100000001b3L;
+        }
+        return (fingerprint ^ '\n') * 0x100000001b3L;
+    }
+    
+    /**
+     * Creates a goal from its conditions: equalities become desired values
+     */
+    static Goal goal(List<Condition> conditions) {
+        Map<String, Object> desiredState = new LinkedHashMap<>();
+        List<Condition> additionalConditions = new ArrayList<>();
+        for (Condition condition : conditions) {
+            if (condition.getClass() == SimpleCondition.class) {
+                desiredState.put(condition.getPropertyKey(), ((SimpleCondition) condition).getExpectedValue());
+            } else {
+                additionalConditions.add(condition);
+            }
+        }
+        return new SimpleGoal(desiredState, additionalConditions);
+    }
+    
+    /**
+     * Reads the lines of one domain file
+     */
+    private static final class Parser {
+        private final String source;
+        private final Map<String, PropertyType> properties = new LinkedHashMap<>();
+        private final Map<String, Goal> goals = new LinkedHashMap<>();
+        private final List<ActionDefinition> actions = new ArrayList<>();
+        private String name;
+        private int lineNumber;
+        private long fingerprint = FINGERPRINT_BASIS;
+        
+        // The block being read: a goal or an action
+        private String goalName;
+        private String[] actionHeader;
+        private final List<Condition> conditions = new ArrayList<>();
+        private final List<Effect> effects = new ArrayList<>();
+        private final List<Effect> failureEffects = new ArrayList<>();
+        
+        Parser(String source) {
+            this.source = source;
+        }
+        
+        DomainDefinition parse(BufferedReader reader) throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                fingerprint = fingerprintLine(fingerprint, line);
+                
+                List<String> tokens = tokenize(line);
+                if (!tokens.isEmpty()) {
+                    parseLine(tokens);
+                }
+            }
+            closeBlock();
+            if (name == null) {
+                throw error("missing 'domain' line");
+            }
+            return new DomainDefinition(name, fingerprint, properties, goals, actions);
+        }
+        
+        private void parseLine(List<String> tokens) {
+            String keyword = tokens.get(0);
+            switch (keyword) {
+                case "domain":
+                    expect(tokens, 2);
+                    name = tokens.get(1);
+                    break;
+                case "property":
+                    expect(tokens, 3);
+                    closeBlock();
+                    try {
+                        properties.put(tokens.get(1), PropertyType.valueOf(tokens.get(2).toUpperCase(Locale.ROOT)));
+                    } catch (IllegalArgumentException e) {
+                        throw error("unknown property type '" + tokens.get(2) + "'");
+                    }
+                    break;
+                case "goal":
+                    expect(tokens, 2);
+                    closeBlock();
+                    goalName = tokens.get(1);
+                    break;
+                case "action":
+                    closeBlock();
+                    parseActionHeader(tokens);
+                    break;
+                case "requires":
+                    expect(tokens, 4);
+                    if (goalName == null && actionHeader == null) {
+                        throw error("'requires' outside a goal or action");
+                    }
+                    conditions.add(condition(tokens.get(1), tokens.get(2), tokens.get(3)));
+                    break;
+                case "sets":
+                    expect(tokens, 4);
+                    requireAction(keyword);
+                    effects.add(effect(tokens.get(1), tokens.get(2), tokens.get(3)));
+                    break;
+                case "on-failure":
+                    expect(tokens, 5);
+                    requireAction(keyword);
+                    if (!tokens.get(1).equals("sets")) {
+                        throw error("expected 'on-failure sets'");
+                    }
+                    failureEffects.add(effect(tokens.get(2), tokens.get(3), tokens.get(4)));
+                    break;
+                default:
+                    throw error("unknown keyword '" + keyword + "'");
+            }
+        }
+        
+        private void parseActionHeader(List<String> tokens) {
+            // action <id> "<name>" cost <cost> [critical]
+            if (tokens.size() < 5 || tokens.size() > 6 || !tokens.get(3).equals("cost")
+                || (tokens.size() == 6 && !tokens.get(5).equals("critical"))) {
+                throw error("expected: action <id> \"<name>\" cost <cost> [critical]");
+            }
+            unquote(tokens.get(2));
+            try {
+                Float.parseFloat(tokens.get(4));
+            } catch (NumberFormatException e) {
+                throw error("invalid cost '" + tokens.get(4) + "'");
+            }
+            actionHeader = tokens.toArray(new String[0]);
+        }
+        
+        private void closeBlock() {
+            if (goalName != null) {
+                if (goals.put(goalName, goal(conditions)) != null) {
+                    throw error("duplicate goal '" + goalName + "'");
+                }
+            } else if (actionHeader != null) {
+                String id = actionHeader[1];
+                for (ActionDefinition action : actions) {
+                    if (action.getId().equals(id)) {
+                        throw error("duplicate action '" + id + "'");
+                    }
+                }
+                actions.add(new ActionDefinition(id, unquote(actionHeader[2]), Float.parseFloat(actionHeader[4]),
+                    actionHeader.length == 6, conditions, effects, failureEffects));
+            }
+            goalName = null;
+            actionHeader = null;
+            conditions.clear();
+            effects.clear();
+            failureEffects.clear();
+        }
+        
+        private Condition condition(String key, String operator, String text) {
+            PropertyType type = typeOf(key);
+            switch (operator) {
+                case "=":
+                    return new SimpleCondition(key, value(type, text));
+                case "!=":
+                    return new NotCondition(key, value(type, text));
+                case ">=":
+                    return NumericCondition.atLeast(key, number(type, key, text));
+                case "<=":
+                    return NumericCondition.atMost(key, number(type, key, text));
+                default:
+                    throw error("unknown comparison '" + operator + "'");
+            }
+        }
+        
+        private Effect effect(String key, String operator, String text) {
+            PropertyType type = typeOf(key);
+            switch (operator) {
+                case "=":
+                    return new SimpleEffect(key, value(type, text));
+                case "+=":
+                    return NumericEffect.increase(key, number(type, key, text));
+                case "-=":
+                    return NumericEffect.decrease(key, number(type, key, text));
+                default:
+                    throw error("unknown update '" + operator + "'");
+            }
+        }
+        
+        private PropertyType typeOf(String key) {
+            PropertyType type = properties.get(key);
+            if (type == null) {
+                throw error("undeclared property '" + key + "'");
+            }
+            return type;
+        }
+        
+        private Object value(PropertyType type, String text) {
+            try {
+                switch (type) {
+                    case BOOLEAN:
+                        if (!text.equals("true") && !text.equals("false")) {
+                            throw error("expected true or false, not '" + text + "'");
+                        }
+                        return Boolean.parseBoolean(text);
+                    case INTEGER:
+                        return Integer.parseInt(text);
+                    case NUMBER:
+                        return Double.parseDouble(text);
+                    default:
+                        return unquote(text);
+                }
+            } catch (NumberFormatException e) {
+                throw error("expected a " + type.name().toLowerCase(Locale.ROOT) + ", not '" + text + "'");
+            }
+        }
+        
+        private double number(PropertyType type, String key, String text) {
+            if (type != PropertyType.INTEGER && type != PropertyType.NUMBER) {
+                throw error("property '" + key + "' is not numeric");
+            }
+            return ((Number) value(type, text)).doubleValue();
+        }
+        
+        private String unquote(String text) {
+            if (text.length() < 2 || text.charAt(0) != '"' || text.charAt(text.length() - 1) != '"') {
+                throw error("expected a quoted string, not " + text);
+            }
+            return text.substring(1, text.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+        }
+        
+        private void requireAction(String keyword) {
+            if (actionHeader == null) {
+                throw error("'" + keyword + "' outside an action");
+            }
+        }
+        
+        private void expect(List<String> tokens, int count) {
+            if (tokens.size() != count) {
+                throw error("expected " + count + " words in '" + String.join(" ", tokens) + "'");
+            }
+        }
+        
+        /**
+         * Splits a line on whitespace, keeping quoted strings (with their quotes) together
+         */
+        private List<String> tokenize(String line) {
+            List<String> tokens = new ArrayList<>();
+            int i = 0;
+            while (i < line.length()) {
+                char c = line.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '#') {
+                    break;
+                } else if (c == '"') {
+                    int end = i + 1;
+                    while (end < line.length() && line.charAt(end) != '"') {
+                        end += line.charAt(end) == '\\' ? 2 : 1;
+                    }
+                    if (end >= line.length()) {
+                        throw error("unterminated string");
+                    }
+                    tokens.add(line.substring(i, end + 1));
+                    i = end + 1;
+                } else {
+                    int end = i;
+                    while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+                        end++;
+                    }
+                    tokens.add(line.substring(i, end));
+                    i = end;
+                }
+            }
+            return tokens;
+        }
+        
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(source + ":" + lineNumber + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A domain compiled ahead of time into a binary file that is memory-mapped at startup.
+ *
+ * The snapshot holds everything derived from a DomainDefinition: the interned property
+ * keys and values that the conditions and effects refer to by index, the successor index
+ * of the action list, and pattern database tables for every goal. Loading reads the small
+ * schema and index and leaves the tables in the mapped file, so nothing is parsed or
+ * rebuilt. Each snapshot records the fingerprint of the domain file it was compiled from;
+ * {@link #open} recompiles it when the file has changed.
+ */
+public class DomainSnapshot {
+    private static final int MAGIC = 0x47444F4D; // "GDOM"
+    private static final int VERSION = 1;
+    
+    private static final byte SIMPLE = 1;
+    private static final byte NOT = 2;
+    private static final byte NUMERIC = 3;
+    private static final byte SET = 1;
+    private static final byte ADD = 2;
+    
+    private final DomainDefinition definition;
+    private final Map<String, Map<Object, int[]>> successorIndex;
+    private final int[] unindexed;
+    private final List<PatternDatabase> patternDatabases;
+    
+    private DomainSnapshot(DomainDefinition definition, Map<String, Map<Object, int[]>> successorIndex,
+                           int[] unindexed, List<PatternDatabase> patternDatabases) {
+        this.definition = definition;
+        this.successorIndex = successorIndex;
+        this.unindexed = unindexed;
+        this.patternDatabases = patternDatabases;
+    }
+    
+    /**
+     * Maps the snapshot of a domain file, compiling it first if it is missing or was
+     * compiled from a different version of the file
+     */
+    public static DomainSnapshot open(Path domainFile, Path snapshotFile, int maxAbstractStates) throws IOException {
+        if (Files.exists(snapshotFile)) {
+            DomainSnapshot snapshot = load(snapshotFile);
+            if (snapshot.definition.getFingerprint() == DomainDefinition.fingerprint(domainFile)) {
+                return snapshot;
+            }
+            DiagnosticLog.log("Domain snapshot " + snapshotFile + " is stale, recompiling");
+        }
+        compile(DomainDefinition.parse(domainFile), snapshotFile, maxAbstractStates);
+        return load(snapshotFile);
+    }
+    
+    /**
+     * Compiles a domain into a snapshot file, replacing it atomically. Goals get pattern
+     * databases of at most maxAbstractStates abstract states per pattern.
+     */
+    public static void compile(DomainDefinition definition, Path snapshotFile, int maxAbstractStates)
+        throws IOException {
+        List<Action> actions = definition.createActions(List.of());
+        ActionRegistry.ActionList list = new ActionRegistry.ActionList(actions);
+        Interner interner = new Interner();
+        
+        // Everything refers to keys and values by index, so the tables come first
+        for (DomainDefinition.ActionDefinition action : definition.getActions()) {
+            interner.addConditions(action.getPreconditions());
+            interner.addEffects(action.getEffects());
+            interner.addEffects(action.getFailureEffects());
+        }
+        for (Goal goal : definition.getGoals().values()) {
+            interner.addConditions(goal.getConditions());
+        }
+        definition.getProperties().keySet().forEach(interner::key);
+        list.index().forEach((key, byValue) -> {
+            interner.key(key);
+            byValue.keySet().forEach(interner::value);
+        });
+        
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(definition.getFingerprint());
+            PatternDatabase.writeString(out, definition.getName());
+            
+            out.writeInt(interner.keys.size());
+            for (String key : interner.keys.keySet()) {
+                PatternDatabase.writeString(out, key);
+            }
+            out.writeInt(interner.values.size());
+            for (Object value : interner.values.keySet()) {
+                PatternDatabase.writeValue(out, value);
+            }
+            
+            out.writeInt(definition.getProperties().size());
+            for (Map.Entry<String, DomainDefinition.PropertyType> property : definition.getProperties().entrySet()) {
+                out.writeInt(interner.key(property.getKey()));
+                out.writeByte(property.getValue().ordinal());
+            }
+            
+            out.writeInt(definition.getGoals().size());
+            for (Map.Entry<String, Goal> goal : definition.getGoals().entrySet()) {
+                PatternDatabase.writeString(out, goal.getKey());
+                writeConditions(out, interner, goal.getValue().getConditions());
+            }
+            
+            out.writeInt(definition.getActions().size());
+            for (DomainDefinition.ActionDefinition action : definition.getActions()) {
+                PatternDatabase.writeString(out, action.getId());
+                PatternDatabase.writeString(out, action.getName());
+                out.writeFloat(action.getCost());
+                out.writeBoolean(action.isCritical());
+                writeConditions(out, interner, action.getPreconditions());
+                writeEffects(out, interner, action.getEffects());
+                writeEffects(out, interner, action.getFailureEffects());
+            }
+            
+            out.writeInt(list.index().size());
+            for (Map.Entry<String, Map<Object, int[]>> entry : list.index().entrySet()) {
+                out.writeInt(interner.key(entry.getKey()));
+                out.writeInt(entry.getValue().size());
+                for (Map.Entry<Object, int[]> byValue : entry.getValue().entrySet()) {
+                    out.writeInt(interner.value(byValue.getKey()));
+                    ShardProtocol.writePath(out, byValue.getValue());
+                }
+            }
+            ShardProtocol.writePath(out, list.unindexed());
+            
+            List<PatternDatabase> databases = new ArrayList<>();
+            for (Map.Entry<String, Goal> goal : definition.getGoals().entrySet()) {
+                try {
+                    databases.add(PatternDatabase.build(goal.getValue(), list, maxAbstractStates));
+                } catch (IllegalArgumentException e) {
+                    DiagnosticLog.log("No pattern database for goal " + goal.getKey() + ": " + e.getMessage());
+                }
+            }
+            out.writeInt(databases.size());
+            for (PatternDatabase database : databases) {
+                database.write(out);
+            }
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Memory-maps a snapshot written by {@link #compile}
+     */
+    public static DomainSnapshot load(Path snapshotFile) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a domain snapshot of version " + VERSION + ": " + snapshotFile);
+        }
+        long fingerprint = buffer.getLong();
+        String name = PatternDatabase.readString(buffer);
+        
+        // Interned once here, so equal keys are the same string everywhere
+        String[] keys = new String[buffer.getInt()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = PatternDatabase.readString(buffer).intern();
+        }
+        Object[] values = new Object[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = PatternDatabase.readValue(buffer);
+        }
+        
+        Map<String, DomainDefinition.PropertyType> properties = new LinkedHashMap<>();
+        DomainDefinition.PropertyType[] types = DomainDefinition.PropertyType.values();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            properties.put(keys[buffer.getInt()], types[buffer.get()]);
+        }
+        
+        Map<String, Goal> goals = new LinkedHashMap<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            String goalName = PatternDatabase.readString(buffer);
+            goals.put(goalName, DomainDefinition.goal(readConditions(buffer, keys, values)));
+        }
+        
+        List<DomainDefinition.ActionDefinition> actions = new ArrayList<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            String id = PatternDatabase.readString(buffer);
+            String actionName = PatternDatabase.readString(buffer);
+            float cost = buffer.getFloat();
+            boolean critical = buffer.get() != 0;
+            List<Condition> preconditions = readConditions(buffer, keys, values);
+            List<Effect> effects = readEffects(buffer, keys, values);
+            List<Effect> failureEffects = readEffects(buffer, keys, values);
+            actions.add(new DomainDefinition.ActionDefinition(id, actionName, cost, critical, preconditions, effects,
+                failureEffects));
+        }
+        
+        Map<String, Map<Object, int[]>> successorIndex = new HashMap<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            Map<Object, int[]> byValue = new HashMap<>();
+            successorIndex.put(keys[buffer.getInt()], byValue);
+            for (int valueCount = buffer.getInt(); valueCount > 0; valueCount--) {
+                Object value = values[buffer.getInt()];
+                byValue.put(value, readInts(buffer));
+            }
+        }
+        int[] unindexed = readInts(buffer);
+        
+        List<PatternDatabase> databases = new ArrayList<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            databases.add(PatternDatabase.read(buffer, snapshotFile.toString()));
+        }
+        
+        DomainDefinition definition = new DomainDefinition(name, fingerprint, properties, goals, actions);
+        return new DomainSnapshot(definition, successorIndex, unindexed, databases);
+    }
+    
+    /**
+     * Get the domain as it was compiled
+     */
+    public DomainDefinition getDefinition() {
+        return definition;
+    }
+    
+    /**
+     * Get a declared goal, or null
+     */
+    public Goal getGoal(String name) {
+        return definition.getGoals().get(name);
+    }
+    
+    /**
+     * Creates the actions of the domain with the compiled successor index, attaching the
+     * behaviours of the given Java-coded actions by id
+     */
+    public List<Action> createActions(Collection<? extends Action> behaviours) {
+        List<Action> actions = definition.createActions(behaviours);
+        return new ActionRegistry.ActionList(actions.toArray(new Action[0]), successorIndex, unindexed);
+    }
+    
+    /**
+     * Creates a heuristic that reads the compiled tables of the goals and uses the fallback
+     * for other goals, or when the action costs differ from the compiled ones
+     */
+    public HeuristicFunction createHeuristic(HeuristicFunction fallback) {
+        return new PatternDatabaseHeuristic(patternDatabases, fallback);
+    }
+    
+    /**
+     * Get the compiled pattern databases, one per goal that has them
+     */
+    public List<PatternDatabase> getPatternDatabases() {
+        return Collections.unmodifiableList(patternDatabases);
+    }
+    
+    private static void writeConditions(DataOutputStream out, Interner interner, List<Condition> conditions)
+        throws IOException {
+        out.writeInt(conditions.size());
+        for (Condition condition : conditions) {
+            if (condition.getClass() == SimpleCondition.class) {
+                out.writeByte(SIMPLE);
+                out.writeInt(interner.key(condition.getPropertyKey()));
+                out.writeInt(interner.value(((SimpleCondition) condition).getExpectedValue()));
+            } else if (condition instanceof NotCondition) {
+                out.writeByte(NOT);
+                out.writeInt(interner.key(condition.getPropertyKey()));
+                out.writeInt(interner.value(((NotCondition) condition).getUnexpectedValue()));
+            } else if (condition instanceof NumericCondition) {
+                out.writeByte(NUMERIC);
+                out.writeInt(interner.key(condition.getPropertyKey()));
+                out.writeDouble(((NumericCondition) condition).getMin());
+                out.writeDouble(((NumericCondition) condition).getMax());
+            } else {
+                throw new IllegalArgumentException("Cannot compile condition " + condition);
+            }
+        }
+    }
+    
+    private static List<Condition> readConditions(ByteBuffer buffer, String[] keys, Object[] values)
+        throws IOException {
+        List<Condition> conditions = new ArrayList<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            byte kind = buffer.get();
+            String key = keys[buffer.getInt()];
+            switch (kind) {
+                case SIMPLE:
+                    conditions.add(new SimpleCondition(key, values[buffer.getInt()]));
+                    break;
+                case NOT:
+                    conditions.add(new NotCondition(key, values[buffer.getInt()]));
+                    break;
+                case NUMERIC:
+                    conditions.add(new NumericCondition(key, buffer.getDouble(), buffer.getDouble()));
+                    break;
+                default:
+                    throw new IOException("Unknown condition kind in domain snapshot: " + kind);
+            }
+        }
+        return conditions;
+    }
+    
+    private static void writeEffects(DataOutputStream out, Interner interner, List<Effect> effects)
+        throws IOException {
+        out.writeInt(effects.size());
+        for (Effect effect : effects) {
+            if (effect instanceof SimpleEffect) {
+                out.writeByte(SET);
+                out.writeInt(interner.key(effect.getPropertyKey()));
+                out.writeInt(interner.value(((SimpleEffect) effect).getValue()));
+            } else if (effect instanceof NumericEffect) {
+                out.writeByte(ADD);
+                out.writeInt(interner.key(effect.getPropertyKey()));
+                out.writeDouble(((NumericEffect) effect).getDelta());
+            } else {
+                throw new IllegalArgumentException("Cannot compile effect " + effect);
+            }
+        }
+    }
+    
+    private static List<Effect> readEffects(ByteBuffer buffer, String[] keys, Object[] values) throws IOException {
+        List<Effect> effects = new ArrayList<>();
+        for (int count = buffer.getInt(); count > 0; count--) {
+            byte kind = buffer.get();
+            String key = keys[buffer.getInt()];
+            switch (kind) {
+                case SET:
+                    effects.add(new SimpleEffect(key, values[buffer.getInt()]));
+                    break;
+                case ADD:
+                    effects.add(new NumericEffect(key, buffer.getDouble()));
+                    break;
+                default:
+                    throw new IOException("Unknown effect kind in domain snapshot: " + kind);
+            }
+        }
+        return effects;
+    }
+    
+    private static int[] readInts(ByteBuffer buffer) {
+        int[] ints = new int[buffer.getInt()];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = buffer.getInt();
+        }
+        return ints;
+    }
+    
+    /**
+     * Numbers the keys and values of a domain in order of first use
+     */
+    private static final class Interner {
+        final Map<String, Integer> keys = new LinkedHashMap<>();
+        final Map<Object, Integer> values = new LinkedHashMap<>();
+        
+        int key(String key) {
+            return keys.computeIfAbsent(key, k -> keys.size());
+        }
+        
+        int value(Object value) {
+            if (!PatternDatabase.isSupported(value)) {
+                throw new IllegalArgumentException("Cannot compile value " + value);
+            }
+            return values.computeIfAbsent(value, v -> values.size());
+        }
+        
+        void addConditions(List<Condition> conditions) {
+            for (Condition condition : conditions) {
+                key(condition.getPropertyKey());
+                if (condition.getClass() == SimpleCondition.class) {
+                    value(((SimpleCondition) condition).getExpectedValue());
+                } else if (condition instanceof NotCondition) {
+                    value(((NotCondition) condition).getUnexpectedValue());
+                }
+            }
+        }
+        
+        void addEffects(List<Effect> effects) {
+            for (Effect effect : effects) {
+                key(effect.getPropertyKey());
+                if (effect instanceof SimpleEffect) {
+                    value(((SimpleEffect) effect).getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
+
+import java.util.*;
+
+/**
+ * Enforced hill-climbing: from the current state, breadth-first search for any state
+ * with a strictly lower heuristic value, commit to the path reaching it, and repeat.
+ * Only one improvement search is in memory at a time. If an improvement search hits
+ * a dead end, the search falls back to greedy best-first from the start state.
+ */
+public class EnforcedHillClimbingPathfinder implements Pathfinder {
+    private static final int MAX_ITERATIONS = 10000;
+    
+    private final HeuristicFunction heuristicFunction;
+    
+    public EnforcedHillClimbingPathfinder(HeuristicFunction heuristicFunction) {
+        this.heuristicFunction = heuristicFunction;
+    }
+    
+    @Override
+    public SearchResult search(WorldState startState, Goal goal, List<Action> availableActions) {
+        PlanSearchEvent event = new PlanSearchEvent();
+        event.begin();
+        HeuristicFunction heuristic = heuristicFunction.forSearch(goal, availableActions);
+        
+        BitSet startReached = SearchSupport.reached(heuristic, null, startState, goal, availableActions);
+        
+        float startH = SearchSupport.estimate(heuristic, startState, startReached, goal, availableActions);
+        SearchNode current = new SearchNode(startState, null, null, 0, startH, startH, startReached);
+        int iterations = 0;
+        
+        while (!goal.isSatisfied(current.state)) {
+            // Breadth-first search for a strictly better state
+            Deque<SearchNode> queue = new ArrayDeque<>();
+            Set<String> seen = new HashSet<>();
+            queue.add(current);
+            seen.add(SearchSupport.getStateHash(current.state));
+            
+            SearchNode better = null;
+            while (!queue.isEmpty() && better == null && iterations < MAX_ITERATIONS
+                && !SearchSupport.isCancelled()) {
+                iterations++;
+                SearchNode node = queue.poll();
+                
+                for (Action action : SearchSupport.applicableActions(node.state, availableActions)) {
+                    WorldState newState = action.applyEffects(node.state);
+                    if (!seen.add(SearchSupport.getStateHash(newState))) {
+                        continue;
+                    }
+                    
+                    float g = node.g + action.getCost();
+                    BitSet reached = SearchSupport.reached(heuristic, node, newState, goal, availableActions);
+                    float h = SearchSupport.estimate(heuristic, newState, reached, goal, availableActions);
+                    SearchNode child = new SearchNode(newState, node, action, g, h, h, reached);
+                    if (h < current.h || goal.isSatisfied(newState)) {
+                        better = child;
+                        break;
+                    }
+                    queue.add(child);
+                }
+            }
+            
+            if (better == null) {
+                // Dead end or out of budget: fall back to a complete search
+                SearchResult fallback = new GreedyBestFirstPathfinder(heuristicFunction)
+                    .search(startState, goal, availableActions);
+                SearchResult result = fallback.isFound()
+                    ? new SearchResult(fallback.getActions(), false, iterations + fallback.getNodesExpanded())
+                    : fallback.isLimitReached() ? SearchResult.limitReached(iterations + fallback.getNodesExpanded())
+                    : SearchResult.notFound(iterations + fallback.getNodesExpanded());
+                return SearchSupport.finish(event, "EnforcedHillClimbing", goal, availableActions, result);
+            }
+            current = better;
+        }
+        
+        return SearchSupport.finish(event, "EnforcedHillClimbing", goal, availableActions,
+            new SearchResult(SearchSupport.reconstructPath(current), false, iterations));
+    }
+}
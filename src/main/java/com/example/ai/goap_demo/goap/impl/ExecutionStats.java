@@ -0,0 +1,150 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Measured wall time and outcome of action executions, per action and execution context.
+ *
+ * Every action keeps an estimate per context (e.g. the pizza type) and one over all
+ * contexts. Each estimate holds exponentially weighted moving averages of the latency
+ * and the failure rate, and a recency-weighted estimate of a latency quantile that moves
+ * a small step towards every new sample. All of them are updated with compare-and-set,
+ * so recording never blocks the bots.
+ */
+public class ExecutionStats {
+    /** Context of the estimates over all contexts */
+    public static final String ANY_CONTEXT = "*";
+    
+    private final double alpha;
+    private final double quantile;
+    private final Map<String, Map<String, Estimate>> estimates = new ConcurrentHashMap<>();
+    
+    /**
+     * Uses a smoothing factor of 0.2 and tracks the 90th percentile
+     */
+    public ExecutionStats() {
+        this(0.2, 0.9);
+    }
+    
+    /**
+     * @param alpha Weight of a new sample in the moving averages, between 0 and 1
+     * @param quantile Latency quantile to track, between 0 and 1
+     */
+    public ExecutionStats(double alpha, double quantile) {
+        if (alpha <= 0 || alpha > 1 || quantile <= 0 || quantile >= 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1] and quantile in (0, 1)");
+        }
+        this.alpha = alpha;
+        this.quantile = quantile;
+    }
+    
+    /**
+     * Records one execution of an action
+     */
+    public void record(String actionId, String context, long nanos, boolean success) {
+        Map<String, Estimate> byContext = estimates.computeIfAbsent(actionId, id -> new ConcurrentHashMap<>());
+        byContext.computeIfAbsent(ANY_CONTEXT, c -> new Estimate()).record(nanos, success);
+        if (context != null && !context.equals(ANY_CONTEXT)) {
+            byContext.computeIfAbsent(context, c -> new Estimate()).record(nanos, success);
+        }
+    }
+    
+    /**
+     * Get the estimate for an action in a context, or null if it never ran there
+     */
+    public Estimate getEstimate(String actionId, String context) {
+        Map<String, Estimate> byContext = estimates.get(actionId);
+        return byContext == null ? null : byContext.get(context);
+    }
+    
+    /**
+     * Get the quantile tracked by the estimates
+     */
+    public double getQuantile() {
+        return quantile;
+    }
+    
+    /**
+     * Moving estimates of one action in one context
+     */
+    public final class Estimate {
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final AtomicLong meanNanos = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private final AtomicLong quantileNanos = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private final AtomicLong failureRate = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private volatile long lastUpdateNanos;
+        
+        void record(long nanos, boolean success) {
+            double value = Math.max(0, nanos);
+            samples.increment();
+            if (!success) {
+                failures.increment();
+            }
+            update(meanNanos, value, previous -> previous + alpha * (value - previous));
+            // Step a fraction of the current estimate up with weight q or down with weight 1 - q,
+            // so that in equilibrium a fraction q of the samples lies below the estimate
+            update(quantileNanos, value, previous -> {
+                double step = alpha * Math.max(previous, 1.0);
+                double next = value > previous
+                    ? previous + step * quantile
+                    : previous - step * (1 - quantile);
+                return value > previous ? Math.min(next, value) : Math.max(next, value);
+            });
+            double failed = success ? 0 : 1;
+            update(failureRate, failed, previous -> previous + alpha * (failed - previous));
+            lastUpdateNanos = System.nanoTime();
+        }
+        
+        private void update(AtomicLong bits, double first, DoubleUnaryOperator next) {
+            while (true) {
+                long current = bits.get();
+                double previous = Double.longBitsToDouble(current);
+                double updated = Double.isNaN(previous) ? first : next.applyAsDouble(previous);
+                if (bits.compareAndSet(current, Double.doubleToRawLongBits(updated))) {
+                    return;
+                }
+            }
+        }
+        
+        public long getSamples() {
+            return samples.sum();
+        }
+        
+        public long getFailures() {
+            return failures.sum();
+        }
+        
+        /**
+         * Get the moving average of the wall time in nanoseconds
+         */
+        public double getMeanNanos() {
+            return Double.longBitsToDouble(meanNanos.get());
+        }
+        
+        /**
+         * Get the recency-weighted estimate of the tracked latency quantile in nanoseconds
+         */
+        public double getQuantileNanos() {
+            return Double.longBitsToDouble(quantileNanos.get());
+        }
+        
+        /**
+         * Get the moving average of the failure rate
+         */
+        public double getFailureRate() {
+            return Double.longBitsToDouble(failureRate.get());
+        }
+        
+        /**
+         * Get the System.nanoTime of the last sample
+         */
+        public long getLastUpdateNanos() {
+            return lastUpdateNanos;
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A* with delayed duplicate detection for state spaces that do not fit in memory.
+ *
+ * Only a bounded working set of open nodes and closed fingerprints is kept in memory.
+ * When the open list outgrows it, its worst half is written to a run file sorted by
+ * state fingerprint; spilled nodes keep their path instead of their state, and the
+ * state is rebuilt by replaying the path when the node is expanded. Closed fingerprints
+ * are spilled the same way. Whenever the best node on disk is better than the best in
+ * memory, all runs are merged: duplicates keep the cheapest path, nodes whose state is
+ * closed are dropped, and the best nodes are loaded back.
+ *
+ * Nodes are expanded in f order, so with an admissible and consistent heuristic the plan
+ * is optimal, as with AStarPathfinder. A closed state that is only known on disk may be
+ * expanded again before the next merge; that costs time but not correctness.
+ */
+public class ExternalMemoryPathfinder implements Pathfinder {
+    private static final long CLOSED_ENTRY_BYTES = 64;
+    
+    private final HeuristicFunction heuristicFunction;
+    private final Path scratchDirectory;
+    private final long memoryBudgetBytes;
+    private final long maxExpansions;
+    
+    private final LongAdder spilledNodes = new LongAdder();
+    private final LongAdder merges = new LongAdder();
+    
+    /**
+     * @param heuristicFunction Heuristic, evaluated on the state alone
+     * @param scratchDirectory Directory for the run files; each search uses its own subdirectory
+     * @param memoryBudgetBytes Approximate memory for open nodes and closed fingerprints
+     * @param maxExpansions Number of expansions after which the search gives up
+     */
+    public ExternalMemoryPathfinder(HeuristicFunction heuristicFunction, Path scratchDirectory,
+                                    long memoryBudgetBytes, long maxExpansions) {
+        if (maxExpansions <= 0) {
+            throw new IllegalArgumentException("maxExpansions must be positive: " + maxExpansions);
+        }
+        this.heuristicFunction = heuristicFunction;
+        this.scratchDirectory = scratchDirectory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.maxExpansions = maxExpansions;
+    }
+    
+    @Override
+    public SearchResult search(WorldState startState, Goal goal, List<Action> availableActions) {
+        PlanSearchEvent event = new PlanSearchEvent();
+        event.begin();
+        
+        Search search = null;
+        try {
+            Files.createDirectories(scratchDirectory);
+            search = new Search(startState, goal, availableActions,
+                Files.createTempDirectory(scratchDirectory, "search"));
+            return SearchSupport.finish(event, "External", goal, availableActions, search.run());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (search != null) {
+                search.deleteFiles();
+            }
+        }
+    }
+    
+    /**
+     * Get the number of nodes written to run files by all searches
+     */
+    public long getSpilledNodeCount() {
+        return spilledNodes.sum();
+    }
+    
+    /**
+     * Get the number of external merges done by all searches
+     */
+    public long getMergeCount() {
+        return merges.sum();
+    }
+    
+    /**
+     * An open node; the state is null for nodes loaded back from disk until they are expanded
+     */
+    private static final class Node {
+        final long fingerprint;
+        WorldState state;
+        float g;
+        float h;
+        int[] path;
+        
+        Node(long fingerprint, WorldState state, float g, float h, int[] path) {
+            this.fingerprint = fingerprint;
+            this.state = state;
+            this.g = g;
+            this.h = h;
+            this.path = path;
+        }
+        
+        float f() {
+            return g + h;
+        }
+    }
+    
+    /**
+     * The state of one search
+     */
+    private final class Search {
+        final WorldState startState;
+        final Goal goal;
+        final List<Action> availableActions;
+        final HeuristicFunction heuristic;
+        final Path directory;
+        final int openCapacity;
+        final int closedCapacity;
+        
+        // Actions are stored on disk by their index here; ground instances of lifted actions are added as found
+        final List<Action> actionTable = new ArrayList<>();
+        final Map<Action, Integer> actionIndex = new IdentityHashMap<>();
+        
+        final PriorityQueue<Node> open = new PriorityQueue<>(
+            Comparator.comparingDouble(Node::f).thenComparingDouble(node -> node.h));
+        final Map<Long, Node> openByFingerprint = new HashMap<>();
+        final Set<Long> closed = new HashSet<>();
+        
+        final List<Path> openRuns = new ArrayList<>();
+        final List<Path> closedRuns = new ArrayList<>();
+        float diskMinF = Float.POSITIVE_INFINITY;
+        int runCounter;
+        
+        Search(WorldState startState, Goal goal, List<Action> availableActions, Path directory) {
+            this.startState = startState;
+            this.goal = goal;
+            this.availableActions = availableActions;
+            this.heuristic = heuristicFunction.forSearch(goal, availableActions);
+            this.directory = directory;
+            
+            // A rough per-node estimate: a hash map entry per property plus the node itself
+            long nodeBytes = 200 + 80L * startState.getAllProperties().size();
+            this.openCapacity = (int) Math.max(16, Math.min(Integer.MAX_VALUE, memoryBudgetBytes / 2 / nodeBytes));
+            this.closedCapacity = (int) Math.max(16, Math.min(Integer.MAX_VALUE,
+                memoryBudgetBytes / 4 / CLOSED_ENTRY_BYTES));
+        }
+        
+        SearchResult run() throws IOException {
+            float startH = heuristic.calculate(startState, goal, availableActions);
+            add(new Node(StateFingerprint.of(startState), startState, 0, startH, new int[0]));
+            
+            long expansions = 0;
+            while (expansions < maxExpansions && !SearchSupport.isCancelled()) {
+                if (!openRuns.isEmpty() && (open.isEmpty() || open.peek().f() > diskMinF)) {
+                    merge();
+                }
+                if (open.isEmpty()) {
+                    break;
+                }
+                
+                Node node = open.poll();
+                openByFingerprint.remove(node.fingerprint);
+                if (closed.contains(node.fingerprint)) {
+                    continue;
+                }
+                expansions++;
+                
+                WorldState state = node.state != null ? node.state : replay(node.path);
+                if (goal.isSatisfied(state)) {
+                    DiagnosticLog.log("External search reached the goal after " + expansions + " expansions, "
+                        + runCounter + " runs written");
+                    List<Action> plan = new ArrayList<>();
+                    for (int index : node.path) {
+                        plan.add(actionTable.get(index));
+                    }
+                    return new SearchResult(plan, heuristic.isAdmissible(), nodeCount(expansions));
+                }
+                close(node.fingerprint);
+                
+                for (Action action : SearchSupport.applicableActions(state, availableActions)) {
+                    WorldState newState = action.applyEffects(state);
+                    long fingerprint = StateFingerprint.of(newState);
+                    if (closed.contains(fingerprint)) {
+                        continue;
+                    }
+                    
+                    float g = node.g + action.getCost();
+                    Node existing = openByFingerprint.get(fingerprint);
+                    if (existing != null && g >= existing.g) {
+                        continue;
+                    }
+                    int[] path = Arrays.copyOf(node.path, node.path.length + 1);
+                    path[node.path.length] = indexOf(action);
+                    
+                    if (existing != null) {
+                        open.remove(existing);
+                        existing.state = newState;
+                        existing.g = g;
+                        existing.path = path;
+                        open.add(existing);
+                    } else {
+                        add(new Node(fingerprint, newState, g,
+                            heuristic.calculate(newState, goal, availableActions), path));
+                    }
+                }
+                
+                if (open.size() > openCapacity) {
+                    spillOpen();
+                }
+            }
+            
+            if (expansions >= maxExpansions) {
+                DiagnosticLog.log("External search exceeded maximum expansions (" + maxExpansions + ")");
+                return SearchResult.limitReached(nodeCount(expansions));
+            }
+            return SearchResult.notFound(nodeCount(expansions));
+        }
+        
+        private int nodeCount(long expansions) {
+            return (int) Math.min(Integer.MAX_VALUE, expansions);
+        }
+        
+        private void add(Node node) {
+            open.add(node);
+            openByFingerprint.put(node.fingerprint, node);
+        }
+        
+        private int indexOf(Action action) {
+            return actionIndex.computeIfAbsent(action, a -> {
+                actionTable.add(a);
+                return actionTable.size() - 1;
+            });
+        }
+        
+        private WorldState replay(int[] path) {
+            WorldState state = startState;
+            for (int index : path) {
+                state = actionTable.get(index).applyEffects(state);
+            }
+            return state;
+        }
+        
+        private void close(long fingerprint) throws IOException {
+            closed.add(fingerprint);
+            if (closed.size() > closedCapacity) {
+                long[] sorted = new long[closed.size()];
+                int i = 0;
+                for (long value : closed) {
+                    sorted[i++] = value;
+                }
+                Arrays.sort(sorted);
+                
+                Path run = nextRun("closed");
+                try (SpillFile.Writer writer = new SpillFile.Writer(run)) {
+                    for (long value : sorted) {
+                        writer.write(value);
+                    }
+                }
+                closedRuns.add(run);
+                closed.clear();
+            }
+        }
+        
+        /**
+         * Writes the worse half of the in-memory open list to a run sorted by fingerprint
+         */
+        private void spillOpen() throws IOException {
+            List<Node> nodes = new ArrayList<>(open);
+            nodes.sort(open.comparator());
+            List<Node> spilled = new ArrayList<>(nodes.subList(nodes.size() / 2, nodes.size()));
+            
+            open.clear();
+            openByFingerprint.clear();
+            for (Node node : nodes.subList(0, nodes.size() / 2)) {
+                add(node);
+            }
+            writeOpenRun(spilled);
+        }
+        
+        private void writeOpenRun(List<Node> nodes) throws IOException {
+            nodes.sort(Comparator.comparingLong(node -> node.fingerprint));
+            Path run = nextRun("open");
+            try (SpillFile.Writer writer = new SpillFile.Writer(run)) {
+                for (Node node : nodes) {
+                    writer.write(new SpillFile.NodeRecord(node.fingerprint, node.g, node.h, node.path));
+                    diskMinF = Math.min(diskMinF, node.f());
+                }
+            }
+            openRuns.add(run);
+            spilledNodes.add(nodes.size());
+        }
+        
+        /**
+         * Merges the open runs and the in-memory open list into one duplicate-free run, drops
+         * closed states, and loads the best nodes back into memory
+         */
+        private void merge() throws IOException {
+            merges.increment();
+            writeOpenRun(new ArrayList<>(open));
+            open.clear();
+            openByFingerprint.clear();
+            mergeClosedRuns();
+            
+            // Pass 1: merge and filter into one run, collecting the best f values
+            Path merged = nextRun("open");
+            PriorityQueue<Float> bestF = new PriorityQueue<>(Comparator.reverseOrder());
+            int keep = Math.max(1, openCapacity / 2);
+            try (SpillFile.Writer writer = new SpillFile.Writer(merged);
+                 ClosedCursor closedCursor = new ClosedCursor(closedRuns.isEmpty() ? null : closedRuns.get(0))) {
+                mergeOpenRuns(record -> {
+                    if (closed.contains(record.fingerprint) || closedCursor.contains(record.fingerprint)) {
+                        return;
+                    }
+                    writer.write(record);
+                    bestF.add(record.f());
+                    if (bestF.size() > keep) {
+                        bestF.poll();
+                    }
+                });
+            }
+            for (Path run : openRuns) {
+                Files.deleteIfExists(run);
+            }
+            openRuns.clear();
+            
+            // Pass 2: the best nodes go to memory, the rest to the new run
+            float threshold = bestF.isEmpty() ? Float.NEGATIVE_INFINITY : bestF.peek();
+            int atThreshold = 0;
+            for (float f : bestF) {
+                if (f == threshold) {
+                    atThreshold++;
+                }
+            }
+            diskMinF = Float.POSITIVE_INFINITY;
+            Path rest = nextRun("open");
+            long restCount;
+            try (SpillFile.Reader reader = new SpillFile.Reader(merged);
+                 SpillFile.Writer writer = new SpillFile.Writer(rest)) {
+                SpillFile.NodeRecord record;
+                while ((record = reader.readNode()) != null) {
+                    float f = record.f();
+                    if (f < threshold || (f == threshold && atThreshold-- > 0)) {
+                        add(new Node(record.fingerprint, null, record.g, record.h, record.path));
+                    } else {
+                        writer.write(record);
+                        diskMinF = Math.min(diskMinF, f);
+                    }
+                }
+                restCount = writer.getRecordCount();
+            }
+            Files.delete(merged);
+            if (restCount > 0) {
+                openRuns.add(rest);
+            } else {
+                Files.delete(rest);
+            }
+        }
+        
+        /**
+         * K-way merge of the open runs by fingerprint, passing the cheapest record of every state
+         */
+        private void mergeOpenRuns(RecordConsumer consumer) throws IOException {
+            List<SpillFile.Reader> readers = new ArrayList<>();
+            PriorityQueue<Object[]> heads = new PriorityQueue<>(
+                Comparator.comparingLong(head -> ((SpillFile.NodeRecord) head[0]).fingerprint));
+            try {
+                for (Path run : openRuns) {
+                    SpillFile.Reader reader = new SpillFile.Reader(run);
+                    readers.add(reader);
+                    SpillFile.NodeRecord record = reader.readNode();
+                    if (record != null) {
+                        heads.add(new Object[] { record, reader });
+                    }
+                }
+                
+                SpillFile.NodeRecord pending = null;
+                while (!heads.isEmpty()) {
+                    Object[] head = heads.poll();
+                    SpillFile.NodeRecord record = (SpillFile.NodeRecord) head[0];
+                    SpillFile.NodeRecord next = ((SpillFile.Reader) head[1]).readNode();
+                    if (next != null) {
+                        heads.add(new Object[] { next, head[1] });
+                    }
+                    
+                    if (pending != null && pending.fingerprint == record.fingerprint) {
+                        if (record.g < pending.g) {
+                            pending = record;
+                        }
+                    } else {
+                        if (pending != null) {
+                            consumer.accept(pending);
+                        }
+                        pending = record;
+                    }
+                }
+                if (pending != null) {
+                    consumer.accept(pending);
+                }
+            } finally {
+                for (SpillFile.Reader reader : readers) {
+                    reader.close();
+                }
+            }
+        }
+        
+        /**
+         * Merges all closed runs into one sorted run
+         */
+        private void mergeClosedRuns() throws IOException {
+            if (closedRuns.size() <= 1) {
+                return;
+            }
+            Path merged = nextRun("closed");
+            List<SpillFile.Reader> readers = new ArrayList<>();
+            try (SpillFile.Writer writer = new SpillFile.Writer(merged)) {
+                PriorityQueue<long[]> heads = new PriorityQueue<>(Comparator.comparingLong(head -> head[0]));
+                for (int i = 0; i < closedRuns.size(); i++) {
+                    SpillFile.Reader reader = new SpillFile.Reader(closedRuns.get(i));
+                    readers.add(reader);
+                    if (reader.hasMore()) {
+                        heads.add(new long[] { reader.readFingerprint(), i });
+                    }
+                }
+                long last = 0;
+                boolean first = true;
+                while (!heads.isEmpty()) {
+                    long[] head = heads.poll();
+                    if (first || head[0] != last) {
+                        writer.write(head[0]);
+                        last = head[0];
+                        first = false;
+                    }
+                    SpillFile.Reader reader = readers.get((int) head[1]);
+                    if (reader.hasMore()) {
+                        heads.add(new long[] { reader.readFingerprint(), head[1] });
+                    }
+                }
+            } finally {
+                for (SpillFile.Reader reader : readers) {
+                    reader.close();
+                }
+            }
+            for (Path run : closedRuns) {
+                Files.delete(run);
+            }
+            closedRuns.clear();
+            closedRuns.add(merged);
+        }
+        
+        private Path nextRun(String kind) {
+            return directory.resolve(kind + "-" + (runCounter++) + ".run");
+        }
+        
+        void deleteFiles() {
+            try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                DiagnosticLog.log("Could not delete search scratch files in " + directory + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private interface RecordConsumer {
+        void accept(SpillFile.NodeRecord record) throws IOException;
+    }
+    
+    /**
+     * Walks a sorted closed run alongside ascending fingerprints
+     */
+    private static final class ClosedCursor implements AutoCloseable {
+        private final SpillFile.Reader reader;
+        private long current = Long.MIN_VALUE;
+        private boolean exhausted;
+        
+        ClosedCursor(Path run) throws IOException {
+            this.reader = run != null ? new SpillFile.Reader(run) : null;
+            this.exhausted = run == null;
+        }
+        
+        /**
+         * Whether the run contains the fingerprint; calls must use ascending fingerprints
+         */
+        boolean contains(long fingerprint) throws IOException {
+            while (!exhausted && current < fingerprint) {
+                if (reader.hasMore()) {
+                    current = reader.readFingerprint();
+                } else {
+                    exhausted = true;
+                }
+            }
+            return !exhausted && current == fingerprint;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+}
@@ -2,34 +2,76 @@ package com.example.ai.goap_demo.goap.impl;
 
 import com.example.ai.goap_demo.goap.core.Action;
 import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
 import com.example.ai.goap_demo.goap.core.Plan;
 import com.example.ai.goap_demo.goap.core.Planner;
+import com.example.ai.goap_demo.goap.core.SearchResult;
 import com.example.ai.goap_demo.goap.core.WorldState;
 
+import java.nio.file.Path;
 import java.util.List;
 
 /**
- * Implementation of the GOAP planner using A* pathfinding.
+ * Implementation of the GOAP planner using A* pathfinding by default.
+ * Other search strategies can be configured or chosen per call.
  */
 public class GOAPPlanner implements Planner {
-    private final AStarPathfinder pathfinder;
+    private final Pathfinder pathfinder;
+    private final Pathfinder externalPathfinder;
     
-    public GOAPPlanner(AStarPathfinder pathfinder) {
+    public GOAPPlanner(Pathfinder pathfinder) {
         this.pathfinder = pathfinder;
+        this.externalPathfinder = null;
+    }
+    
+    /**
+     * Falls back to an ExternalMemoryPathfinder, spilling to the scratch directory within
+     * the memory budget and giving up after maxExpansions, when the configured search
+     * stops at its node limit. Goals that the search shows to be unreachable do not fall back.
+     */
+    public GOAPPlanner(Pathfinder pathfinder, HeuristicFunction heuristic, Path scratchDirectory,
+                       long memoryBudgetBytes, long maxExpansions) {
+        this.pathfinder = pathfinder;
+        this.externalPathfinder = new ExternalMemoryPathfinder(heuristic, scratchDirectory, memoryBudgetBytes,
+            maxExpansions);
     }
     
     @Override
     public Plan createPlan(WorldState currentState, Goal goal, List<Action> availableActions) {
+        return createPlan(currentState, goal, availableActions, pathfinder);
+    }
+    
+    /**
+     * Creates a plan using the given search strategy instead of the configured one,
+     * e.g. a GreedyBestFirstPathfinder or BeamSearchPathfinder when latency matters more
+     * than optimality. If the search gives up with a partial result, the plan is marked
+     * partial.
+     */
+    public Plan createPlan(WorldState currentState, Goal goal, List<Action> availableActions,
+                           Pathfinder strategy) {
         // Check if the goal is already satisfied
         if (goal.isSatisfied(currentState)) {
-            return new Plan(List.of());
+            return new Plan(List.of(), true);
         }
         
-        // Use A* to find the optimal path from current state to goal
-        List<Action> actionSequence = pathfinder.findPath(currentState, goal, availableActions);
+        // Search for a path from current state to goal
+        SearchResult result = strategy.search(currentState, goal, availableActions);
+        if (result.isLimitReached() && externalPathfinder != null) {
+            SearchResult external = externalPathfinder.search(currentState, goal, availableActions);
+            // Keep a partial plan of the first search unless the fallback does better
+            if (external.isFound() || !result.isPartial()) {
+                result = external;
+            }
+        }
+        
+        if (result.isFound()) {
+            return new Plan(result.getActions(), result.isOptimal());
+        }
         
-        if (actionSequence != null) {
-            return new Plan(actionSequence);
+        // A search that gave up may still know how to get closer to the goal
+        if (result.isPartial()) {
+            return new Plan(result.getPartialActions(), false, -1, true);
         }
         
         return null; // No valid plan found
@@ -62,4 +104,13 @@ public class GOAPPlanner implements Planner {
         // Check if goal is satisfied in the final state
         return goal.isSatisfied(simulatedState);
     }
+    
+    /**
+     * Validates a plan and keeps its per-step checkpoints, so that callers which
+     * re-check the plan after every world update can use {@link ValidatedPlan#revalidate}
+     * instead of re-simulating the whole plan.
+     */
+    public ValidatedPlan validatePlan(Plan plan, WorldState state, Goal goal) {
+        return new ValidatedPlan(plan, state, goal);
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
+
+import java.util.*;
+
+/**
+ * Greedy best-first search: always expands the node with the lowest heuristic value,
+ * ignoring the cost so far. Usually much faster than A*, but the plan is not optimal.
+ */
+public class GreedyBestFirstPathfinder implements Pathfinder {
+    private static final int MAX_ITERATIONS = 10000;
+    
+    private final HeuristicFunction heuristicFunction;
+    
+    public GreedyBestFirstPathfinder(HeuristicFunction heuristicFunction) {
+        this.heuristicFunction = heuristicFunction;
+    }
+    
+    @Override
+    public SearchResult search(WorldState startState, Goal goal, List<Action> availableActions) {
+        PlanSearchEvent event = new PlanSearchEvent();
+        event.begin();
+        HeuristicFunction heuristic = heuristicFunction.forSearch(goal, availableActions);
+        
+        // Order by h, breaking ties by the cheaper path
+        PriorityQueue<SearchNode> openSet = new PriorityQueue<>(
+            Comparator.<SearchNode>comparingDouble(node -> node.h).thenComparingDouble(node -> node.g));
+        
+        // States are never reopened, so one set covers both open and closed nodes
+        Set<String> seen = new HashSet<>();
+        
+        BitSet startReached = SearchSupport.reached(heuristic, null, startState, goal, availableActions);
+        
+        float startH = SearchSupport.estimate(heuristic, startState, startReached, goal, availableActions);
+        openSet.add(new SearchNode(startState, null, null, 0, startH, startH, startReached));
+        seen.add(SearchSupport.getStateHash(startState));
+        
+        int iterations = 0;
+        while (!openSet.isEmpty() && iterations < MAX_ITERATIONS && !SearchSupport.isCancelled()) {
+            iterations++;
+            SearchNode current = openSet.poll();
+            
+            if (goal.isSatisfied(current.state)) {
+                return SearchSupport.finish(event, "GreedyBestFirst", goal, availableActions,
+                    new SearchResult(SearchSupport.reconstructPath(current), false, iterations));
+            }
+            
+            for (Action action : SearchSupport.applicableActions(current.state, availableActions)) {
+                WorldState newState = action.applyEffects(current.state);
+                if (!seen.add(SearchSupport.getStateHash(newState))) {
+                    continue;
+                }
+                
+                float g = current.g + action.getCost();
+                BitSet reached = SearchSupport.reached(heuristic, current, newState, goal, availableActions);
+                float h = SearchSupport.estimate(heuristic, newState, reached, goal, availableActions);
+                openSet.add(new SearchNode(newState, current, action, g, h, h, reached));
+            }
+        }
+        
+        return SearchSupport.finish(event, "GreedyBestFirst", goal, availableActions,
+            iterations >= MAX_ITERATIONS ? SearchResult.limitReached(iterations) : SearchResult.notFound(iterations));
+    }
+}
@@ -3,34 +3,103 @@ package com.example.ai.goap_demo.goap.impl;
 import com.example.ai.goap_demo.goap.core.Condition;
 import com.example.ai.goap_demo.goap.core.WorldState;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Implementation of WorldState using a HashMap to store properties.
+ * Numeric properties are kept in primitive slots next to the map.
  */
 public class HashMapWorldState implements WorldState {
     private final Map<String, Object> properties;
     
+    // Numeric slots, scanned linearly since a state only has a handful of counters
+    private String[] numericKeys;
+    private double[] numericValues;
+    private int numericCount;
+    
     public HashMapWorldState() {
         this.properties = new HashMap<>();
+        this.numericKeys = new String[0];
+        this.numericValues = new double[0];
     }
     
     public HashMapWorldState(Map<String, Object> properties) {
         this.properties = new HashMap<>(properties);
+        this.numericKeys = new String[0];
+        this.numericValues = new double[0];
+    }
+    
+    private HashMapWorldState(HashMapWorldState other) {
+        this.properties = new HashMap<>(other.properties);
+        this.numericKeys = Arrays.copyOf(other.numericKeys, other.numericCount);
+        this.numericValues = Arrays.copyOf(other.numericValues, other.numericCount);
+        this.numericCount = other.numericCount;
     }
     
     @Override
     public Object getProperty(String key) {
+        int slot = numericSlot(key);
+        if (slot >= 0) {
+            return numericValues[slot];
+        }
         return properties.get(key);
     }
     
     @Override
     public void setProperty(String key, Object value) {
+        removeNumericSlot(key);
         properties.put(key, value);
     }
     
+    @Override
+    public double getNumber(String key) {
+        int slot = numericSlot(key);
+        if (slot >= 0) {
+            return numericValues[slot];
+        }
+        Object value = properties.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+    
+    @Override
+    public void setNumber(String key, double value) {
+        int slot = numericSlot(key);
+        if (slot < 0) {
+            properties.remove(key);
+            if (numericCount == numericKeys.length) {
+                int capacity = Math.max(4, numericCount * 2);
+                numericKeys = Arrays.copyOf(numericKeys, capacity);
+                numericValues = Arrays.copyOf(numericValues, capacity);
+            }
+            slot = numericCount++;
+            numericKeys[slot] = key;
+        }
+        numericValues[slot] = value;
+    }
+    
+    private int numericSlot(String key) {
+        for (int i = 0; i < numericCount; i++) {
+            if (numericKeys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private void removeNumericSlot(String key) {
+        int slot = numericSlot(key);
+        if (slot < 0) {
+            return;
+        }
+        numericCount--;
+        numericKeys[slot] = numericKeys[numericCount];
+        numericValues[slot] = numericValues[numericCount];
+        numericKeys[numericCount] = null;
+    }
+    
     @Override
     public boolean satisfies(Condition condition) {
         return condition.isSatisfied(this);
@@ -38,16 +107,25 @@ public class HashMapWorldState implements WorldState {
     
     @Override
     public WorldState copy() {
-        return new HashMapWorldState(new HashMap<>(properties));
+        return new HashMapWorldState(this);
     }
     
     @Override
     public Map<String, Object> getAllProperties() {
-        return Collections.unmodifiableMap(properties);
+        if (numericCount == 0) {
+            return Collections.unmodifiableMap(properties);
+        }
+        
+        // Numeric slots are boxed only when the full view is requested
+        Map<String, Object> all = new HashMap<>(properties);
+        for (int i = 0; i < numericCount; i++) {
+            all.put(numericKeys[i], numericValues[i]);
+        }
+        return Collections.unmodifiableMap(all);
     }
     
     @Override
     public String toString() {
-        return properties.toString();
+        return getAllProperties().toString();
     }
 }
@@ -0,0 +1,80 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size heuristic cache that can be shared by concurrent planners.
+ * Entries live in a direct-mapped table: a new entry simply replaces whatever
+ * occupied its slot, so memory is bounded and no locks are needed.
+ */
+public class HeuristicCache {
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    /**
+     * @param capacity Maximum number of entries, rounded up to a power of two
+     */
+    public HeuristicCache(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+    
+    /**
+     * Get the cached value, or NaN if it is not cached
+     */
+    public float get(long stateFingerprint, long goalFingerprint) {
+        Entry entry = table.get(index(stateFingerprint, goalFingerprint));
+        if (entry != null && entry.stateFingerprint == stateFingerprint && entry.goalFingerprint == goalFingerprint) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        return Float.NaN;
+    }
+    
+    public void put(long stateFingerprint, long goalFingerprint, float value) {
+        table.set(index(stateFingerprint, goalFingerprint), new Entry(stateFingerprint, goalFingerprint, value));
+    }
+    
+    private int index(long stateFingerprint, long goalFingerprint) {
+        return (int) StateFingerprint.mix(stateFingerprint ^ goalFingerprint) & mask;
+    }
+    
+    public int getCapacity() {
+        return mask + 1;
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+    
+    private static final class Entry {
+        final long stateFingerprint;
+        final long goalFingerprint;
+        final float value;
+        
+        Entry(long stateFingerprint, long goalFingerprint, float value) {
+            this.stateFingerprint = stateFingerprint;
+            this.goalFingerprint = goalFingerprint;
+            this.value = value;
+        }
+    }
+}
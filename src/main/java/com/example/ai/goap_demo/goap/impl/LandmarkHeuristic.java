@@ -0,0 +1,287 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
+import com.example.ai.goap_demo.goap.core.PathDependentHeuristic;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Landmark-counting heuristic (LM-count). A landmark is a fact that every plan
+ * must make true at some point. The estimate is the number of landmarks not yet
+ * reached on the path to a state, plus reached goal landmarks that no longer hold.
+ *
+ * Landmarks are extracted once per goal and action set by backchaining from the
+ * goal facts: the preconditions shared by every achiever of a landmark are
+ * landmarks too. Only equality facts (SimpleCondition, SimpleEffect) are
+ * considered, and lifted actions stop the backchaining at the goal facts since
+ * their parameterized effects are not visible here.
+ */
+public class LandmarkHeuristic implements PathDependentHeuristic {
+    private final Map<Long, LandmarkGraph> graphs = new ConcurrentHashMap<>();
+    
+    @Override
+    public BitSet progress(BitSet parentProgress, WorldState state, Goal goal, List<Action> availableActions) {
+        return progress(graphFor(goal, availableActions), parentProgress, state);
+    }
+    
+    @Override
+    public float calculate(WorldState currentState, BitSet progress, Goal goal, List<Action> availableActions) {
+        return estimate(graphFor(goal, availableActions), currentState, progress);
+    }
+    
+    /**
+     * Estimates from the state alone, as if it were the start of the search
+     */
+    @Override
+    public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
+        LandmarkGraph graph = graphFor(goal, availableActions);
+        return estimate(graph, currentState, progress(graph, null, currentState));
+    }
+    
+    /**
+     * Looks the landmarks up once for the search, rather than on every call
+     */
+    @Override
+    public HeuristicFunction forSearch(Goal goal, List<Action> availableActions) {
+        return new SearchLandmarks(goal, availableActions, graphFor(goal, availableActions));
+    }
+    
+    /**
+     * Get the landmarks of a goal and action set, goal facts first
+     */
+    public List<Condition> getLandmarks(Goal goal, List<Action> availableActions) {
+        return Collections.unmodifiableList(Arrays.asList(graphFor(goal, availableActions).facts));
+    }
+    
+    private LandmarkGraph graphFor(Goal goal, List<Action> availableActions) {
+        return graphs.computeIfAbsent(StateFingerprint.of(goal, availableActions),
+            key -> new LandmarkGraph(goal, availableActions));
+    }
+    
+    private static BitSet progress(LandmarkGraph graph, BitSet parentProgress, WorldState state) {
+        BitSet reached;
+        if (parentProgress == null) {
+            reached = graph.acceptedAtStart(state);
+        } else {
+            reached = (BitSet) parentProgress.clone();
+        }
+        for (int i = 0; i < graph.size(); i++) {
+            if (!reached.get(i) && graph.holds(i, state)) {
+                reached.set(i);
+            }
+        }
+        return reached;
+    }
+    
+    private static float estimate(LandmarkGraph graph, WorldState currentState, BitSet progress) {
+        int estimate = graph.size() - progress.cardinality();
+        
+        // Goal landmarks that were reached but undone have to be reached again
+        for (int i = progress.nextSetBit(0); i >= 0; i = progress.nextSetBit(i + 1)) {
+            if (graph.isGoal(i) && !graph.holds(i, currentState)) {
+                estimate++;
+            }
+        }
+        
+        // Goal conditions that are not facts, such as numeric ranges, count as one step each
+        for (Condition condition : graph.otherGoalConditions) {
+            if (!currentState.satisfies(condition)) {
+                estimate++;
+            }
+        }
+        return estimate;
+    }
+    
+    /**
+     * The landmark graph of one search
+     */
+    private final class SearchLandmarks implements PathDependentHeuristic {
+        private final Goal goal;
+        private final List<Action> availableActions;
+        private final LandmarkGraph graph;
+        
+        SearchLandmarks(Goal goal, List<Action> availableActions, LandmarkGraph graph) {
+            this.goal = goal;
+            this.availableActions = availableActions;
+            this.graph = graph;
+        }
+        
+        private boolean isFor(Goal goal, List<Action> availableActions) {
+            return goal == this.goal && availableActions == this.availableActions;
+        }
+        
+        @Override
+        public BitSet progress(BitSet parentProgress, WorldState state, Goal goal, List<Action> availableActions) {
+            return isFor(goal, availableActions) ? LandmarkHeuristic.progress(graph, parentProgress, state)
+                : LandmarkHeuristic.this.progress(parentProgress, state, goal, availableActions);
+        }
+        
+        @Override
+        public float calculate(WorldState currentState, BitSet progress, Goal goal, List<Action> availableActions) {
+            return isFor(goal, availableActions) ? estimate(graph, currentState, progress)
+                : LandmarkHeuristic.this.calculate(currentState, progress, goal, availableActions);
+        }
+        
+        @Override
+        public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
+            return isFor(goal, availableActions)
+                ? estimate(graph, currentState, LandmarkHeuristic.progress(graph, null, currentState))
+                : LandmarkHeuristic.this.calculate(currentState, goal, availableActions);
+        }
+    }
+    
+    /**
+     * The landmarks of a goal and action set, with the landmarks each one was derived from
+     */
+    private static final class LandmarkGraph {
+        final SimpleCondition[] facts;
+        final int[][] derivedFrom;
+        final int goalCount;
+        final List<Condition> otherGoalConditions;
+        
+        LandmarkGraph(Goal goal, List<Action> availableActions) {
+            List<SimpleCondition> landmarks = new ArrayList<>();
+            Map<List<Object>, Integer> indexByFact = new HashMap<>();
+            List<Set<Integer>> parents = new ArrayList<>();
+            List<Condition> others = new ArrayList<>();
+            
+            for (Condition condition : goal.getConditions()) {
+                if (condition instanceof SimpleCondition) {
+                    add((SimpleCondition) condition, -1, landmarks, indexByFact, parents);
+                } else {
+                    others.add(condition);
+                }
+            }
+            this.goalCount = landmarks.size();
+            this.otherGoalConditions = others;
+            
+            boolean lifted = false;
+            for (Action action : availableActions) {
+                lifted |= action instanceof LiftedAction;
+            }
+            
+            // Breadth-first backchaining; new landmarks are appended while iterating
+            for (int i = 0; !lifted && i < landmarks.size(); i++) {
+                SimpleCondition landmark = landmarks.get(i);
+                Map<List<Object>, SimpleCondition> shared = null;
+                
+                for (Action action : availableActions) {
+                    if (!achieves(action, landmark)) {
+                        continue;
+                    }
+                    Map<List<Object>, SimpleCondition> preconditions = new LinkedHashMap<>();
+                    for (Condition condition : action.getPreconditions()) {
+                        if (condition instanceof SimpleCondition) {
+                            preconditions.put(factKey((SimpleCondition) condition), (SimpleCondition) condition);
+                        }
+                    }
+                    if (shared == null) {
+                        shared = preconditions;
+                    } else {
+                        shared.keySet().retainAll(preconditions.keySet());
+                    }
+                    if (shared.isEmpty()) {
+                        break;
+                    }
+                }
+                
+                if (shared != null) {
+                    for (SimpleCondition fact : shared.values()) {
+                        add(fact, i, landmarks, indexByFact, parents);
+                    }
+                }
+            }
+            
+            this.facts = landmarks.toArray(new SimpleCondition[0]);
+            this.derivedFrom = new int[facts.length][];
+            for (int i = 0; i < facts.length; i++) {
+                derivedFrom[i] = parents.get(i).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        
+        private static void add(SimpleCondition fact, int parent, List<SimpleCondition> landmarks,
+                                Map<List<Object>, Integer> indexByFact, List<Set<Integer>> parents) {
+            Integer index = indexByFact.get(factKey(fact));
+            if (index == null) {
+                index = landmarks.size();
+                indexByFact.put(factKey(fact), index);
+                landmarks.add(fact);
+                parents.add(new TreeSet<>());
+            }
+            if (parent >= 0 && parent != index) {
+                parents.get(index).add(parent);
+            }
+        }
+        
+        private static List<Object> factKey(SimpleCondition condition) {
+            return Arrays.asList(condition.getPropertyKey(), condition.getExpectedValue());
+        }
+        
+        /**
+         * Whether the action may make the fact true; effects other than SimpleEffect on the key count as well
+         */
+        private static boolean achieves(Action action, SimpleCondition fact) {
+            for (Effect effect : action.getEffects()) {
+                if (!effect.getPropertyKey().equals(fact.getPropertyKey())) {
+                    continue;
+                }
+                if (!(effect instanceof SimpleEffect)
+                    || Objects.equals(((SimpleEffect) effect).getValue(), fact.getExpectedValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        int size() {
+            return facts.length;
+        }
+        
+        boolean isGoal(int landmark) {
+            return landmark < goalCount;
+        }
+        
+        boolean holds(int landmark, WorldState state) {
+            return state.satisfies(facts[landmark]);
+        }
+        
+        /**
+         * Landmarks that need not be reached from the given start: those that hold, and
+         * those only derived from landmarks that need not be reached
+         */
+        BitSet acceptedAtStart(WorldState state) {
+            BitSet accepted = new BitSet(facts.length);
+            for (int i = 0; i < facts.length; i++) {
+                if (holds(i, state)) {
+                    accepted.set(i);
+                }
+            }
+            
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int i = 0; i < facts.length; i++) {
+                    if (accepted.get(i) || derivedFrom[i].length == 0) {
+                        continue;
+                    }
+                    boolean allAccepted = true;
+                    for (int parent : derivedFrom[i]) {
+                        allAccepted &= accepted.get(parent);
+                    }
+                    if (allAccepted) {
+                        accepted.set(i);
+                        changed = true;
+                    }
+                }
+            }
+            return accepted;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Condition;
+
+import java.util.*;
+
+/**
+ * A precondition of an action schema. The property key may contain {name}
+ * placeholders for parameters, and the expected value may be a single placeholder
+ * such as "{oven}", which stands for the name of the bound object.
+ */
+public class LiftedCondition {
+    private final Placeholders key;
+    private final Object value;
+    private final String valueVariable;
+    private final boolean negated;
+    
+    public LiftedCondition(String keyPattern, Object expectedValue) {
+        this(keyPattern, expectedValue, false);
+    }
+    
+    /**
+     * @param keyPattern Property key, e.g. "ovenFree.{oven}"
+     * @param value Expected value, or the value that must not be present when negated
+     * @param negated Whether the ground condition is a NotCondition instead of a SimpleCondition
+     */
+    public LiftedCondition(String keyPattern, Object value, boolean negated) {
+        this.key = new Placeholders(keyPattern);
+        this.value = value;
+        this.valueVariable = Placeholders.variableOf(value);
+        this.negated = negated;
+    }
+    
+    /**
+     * Get the parameter names this condition refers to
+     */
+    public Set<String> getVariables() {
+        Set<String> variables = new LinkedHashSet<>(key.getVariables());
+        if (valueVariable != null) {
+            variables.add(valueVariable);
+        }
+        return variables;
+    }
+    
+    /**
+     * Creates the ground condition for a binding of all parameters this condition refers to
+     */
+    public Condition ground(Map<String, String> binding) {
+        String groundKey = key.substitute(binding);
+        Object groundValue = valueVariable != null ? binding.get(valueVariable) : value;
+        return negated ? new NotCondition(groundKey, groundValue) : new SimpleCondition(groundKey, groundValue);
+    }
+    
+    @Override
+    public String toString() {
+        return key + (negated ? " != " : " = ") + value;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Effect;
+
+import java.util.*;
+
+/**
+ * An effect of an action schema that sets a property. The property key may contain
+ * {name} placeholders for parameters, and the value may be a single placeholder.
+ */
+public class LiftedEffect {
+    private final Placeholders key;
+    private final Object value;
+    private final String valueVariable;
+    
+    public LiftedEffect(String keyPattern, Object value) {
+        this.key = new Placeholders(keyPattern);
+        this.value = value;
+        this.valueVariable = Placeholders.variableOf(value);
+    }
+    
+    /**
+     * Get the parameter names this effect refers to
+     */
+    public Set<String> getVariables() {
+        Set<String> variables = new LinkedHashSet<>(key.getVariables());
+        if (valueVariable != null) {
+            variables.add(valueVariable);
+        }
+        return variables;
+    }
+    
+    /**
+     * Creates the ground effect for a binding of all parameters this effect refers to
+     */
+    public Effect ground(Map<String, String> binding) {
+        return new SimpleEffect(key.substitute(binding), valueVariable != null ? binding.get(valueVariable) : value);
+    }
+    
+    @Override
+    public String toString() {
+        return key + " := " + value;
+    }
+}
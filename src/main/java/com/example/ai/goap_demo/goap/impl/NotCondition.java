@@ -20,6 +20,10 @@ public class NotCondition implements Condition {
         return propertyKey;
     }
     
+    public Object getUnexpectedValue() {
+        return unexpectedValue;
+    }
+    
     @Override
     public boolean isSatisfied(WorldState state) {
         Object actualValue = state.getProperty(propertyKey);
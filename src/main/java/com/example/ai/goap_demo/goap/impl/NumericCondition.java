@@ -0,0 +1,77 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+/**
+ * A condition that is satisfied when a numeric property lies within a closed range.
+ * Missing properties are treated as 0.
+ */
+public class NumericCondition implements Condition {
+    private final String propertyKey;
+    private final double min;
+    private final double max;
+    
+    public NumericCondition(String propertyKey, double min, double max) {
+        this.propertyKey = propertyKey;
+        this.min = min;
+        this.max = max;
+    }
+    
+    /**
+     * Creates a condition satisfied when the property is >= the given value
+     */
+    public static NumericCondition atLeast(String propertyKey, double value) {
+        return new NumericCondition(propertyKey, value, Double.POSITIVE_INFINITY);
+    }
+    
+    /**
+     * Creates a condition satisfied when the property is <= the given value
+     */
+    public static NumericCondition atMost(String propertyKey, double value) {
+        return new NumericCondition(propertyKey, Double.NEGATIVE_INFINITY, value);
+    }
+    
+    @Override
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+    
+    @Override
+    public boolean isSatisfied(WorldState state) {
+        double value = state.getNumber(propertyKey);
+        return value >= min && value <= max;
+    }
+    
+    public double getMin() {
+        return min;
+    }
+    
+    public double getMax() {
+        return max;
+    }
+    
+    /**
+     * Get how far the given value is from the range (0 if it is inside)
+     */
+    public double distance(double value) {
+        if (value < min) {
+            return min - value;
+        }
+        if (value > max) {
+            return value - max;
+        }
+        return 0.0;
+    }
+    
+    @Override
+    public String toString() {
+        if (max == Double.POSITIVE_INFINITY) {
+            return propertyKey + " >= " + min;
+        }
+        if (min == Double.NEGATIVE_INFINITY) {
+            return propertyKey + " <= " + max;
+        }
+        return min + " <= " + propertyKey + " <= " + max;
+    }
+}
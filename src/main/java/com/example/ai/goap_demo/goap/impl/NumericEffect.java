@@ -0,0 +1,44 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+/**
+ * An effect that increases or decreases a numeric property by a fixed amount.
+ */
+public class NumericEffect implements Effect {
+    private final String propertyKey;
+    private final double delta;
+    
+    public NumericEffect(String propertyKey, double delta) {
+        this.propertyKey = propertyKey;
+        this.delta = delta;
+    }
+    
+    public static NumericEffect increase(String propertyKey, double amount) {
+        return new NumericEffect(propertyKey, amount);
+    }
+    
+    public static NumericEffect decrease(String propertyKey, double amount) {
+        return new NumericEffect(propertyKey, -amount);
+    }
+    
+    @Override
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+    
+    public double getDelta() {
+        return delta;
+    }
+    
+    @Override
+    public void apply(WorldState state) {
+        state.setNumber(propertyKey, state.getNumber(propertyKey) + delta);
+    }
+    
+    @Override
+    public String toString() {
+        return propertyKey + (delta >= 0 ? " += " + delta : " -= " + (-delta));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.List;
+
+/**
+ * A resource-aware heuristic based on interval relaxation.
+ * Unsatisfied non-numeric conditions count as one step, as in SimpleHeuristic.
+ * For an unsatisfied NumericCondition, every action is assumed to be applicable
+ * and its numeric effects only widen the reachable interval of the property,
+ * so the estimate is the number of applications of the best contributing action
+ * needed to reach the range, times the cheapest contributing cost.
+ */
+public class NumericHeuristic implements HeuristicFunction {
+    @Override
+    public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
+        float estimate = 0;
+        
+        for (Condition condition : goal.getConditions()) {
+            if (currentState.satisfies(condition)) {
+                continue;
+            }
+            
+            if (condition instanceof NumericCondition) {
+                estimate += estimateNumeric((NumericCondition) condition, currentState, availableActions);
+            } else {
+                estimate += 1;
+            }
+        }
+        
+        return estimate;
+    }
+    
+    private float estimateNumeric(NumericCondition condition, WorldState state, List<Action> availableActions) {
+        double value = state.getNumber(condition.getPropertyKey());
+        double deficit = condition.distance(value);
+        boolean increase = value < condition.getMin();
+        
+        double bestStep = 0;
+        float cheapestCost = Float.MAX_VALUE;
+        
+        for (Action action : availableActions) {
+            for (Effect effect : action.getEffects()) {
+                if (!(effect instanceof NumericEffect) || !effect.getPropertyKey().equals(condition.getPropertyKey())) {
+                    continue;
+                }
+                
+                double delta = ((NumericEffect) effect).getDelta();
+                double step = increase ? delta : -delta;
+                if (step > 0) {
+                    bestStep = Math.max(bestStep, step);
+                    cheapestCost = Math.min(cheapestCost, action.getCost());
+                }
+            }
+        }
+        
+        // No action moves the property towards the range: treat the condition as a single step
+        // so the search can still reach it through non-numeric effects
+        if (bestStep == 0) {
+            return 1;
+        }
+        
+        return (float) Math.ceil(deficit / bestStep) * cheapestCost;
+    }
+}
@@ -0,0 +1,722 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Pattern databases for one goal and action set. Each pattern is a set of property
+ * keys; its table holds the exact cost to the goal from every abstract state, i.e.
+ * every combination of values of those keys, in the problem projected onto the pattern.
+ *
+ * Patterns are chosen so that no action sets properties in two patterns, which makes
+ * the sum of their values an admissible estimate. A group of keys that some action
+ * always sets together but that is too large for one table is split, and the values
+ * of its parts are combined by max instead.
+ *
+ * Every key has a value domain made of the values mentioned by the goal and the
+ * actions, null, and one slot for any other value. Only SimpleCondition, NotCondition
+ * and SimpleEffect are projected; other conditions are dropped, which only makes the
+ * estimate smaller, and keys set by other effects are left out of all patterns.
+ *
+ * Tables can be written to a file and memory-mapped back, so lookups read the mapped
+ * file directly and nothing is rebuilt at startup.
+ */
+public class PatternDatabase {
+    private static final int MAGIC = 0x47504442; // "GPDB"
+    private static final int VERSION = 1;
+    
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    
+    private final long fingerprint;
+    private final List<Pattern> patterns;
+    
+    private PatternDatabase(long fingerprint, List<Pattern> patterns) {
+        this.fingerprint = fingerprint;
+        this.patterns = patterns;
+    }
+    
+    /**
+     * One projected table
+     */
+    private static final class Pattern {
+        final String[] keys;
+        final Object[][] values;
+        final Map<Object, Integer>[] valueIndex;
+        final int[] strides;
+        final int size;
+        final int group;
+        final FloatBuffer table;
+        
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Pattern(String[] keys, Object[][] values, int group, FloatBuffer table) {
+            this.keys = keys;
+            this.values = values;
+            this.group = group;
+            this.valueIndex = new Map[keys.length];
+            this.strides = new int[keys.length];
+            
+            int stride = 1;
+            for (int k = keys.length - 1; k >= 0; k--) {
+                valueIndex[k] = new HashMap<>();
+                for (int v = 0; v < values[k].length; v++) {
+                    valueIndex[k].put(values[k][v], v);
+                }
+                strides[k] = stride;
+                stride *= radix(k);
+            }
+            this.size = stride;
+            this.table = table;
+        }
+        
+        /**
+         * Values of key k are indexed 0..n-1, and n stands for any value not in the domain
+         */
+        int radix(int k) {
+            return values[k].length + 1;
+        }
+        
+        int indexOf(WorldState state) {
+            int index = 0;
+            for (int k = 0; k < keys.length; k++) {
+                Integer v = valueIndex[k].get(state.getProperty(keys[k]));
+                index += (v != null ? v : values[k].length) * strides[k];
+            }
+            return index;
+        }
+        
+        int digit(int index, int k) {
+            return index / strides[k] % radix(k);
+        }
+        
+        float lookup(WorldState state) {
+            return table.get(indexOf(state));
+        }
+    }
+    
+    /**
+     * Builds pattern databases with patterns chosen from the action set, each with at most
+     * maxAbstractStates abstract states
+     */
+    public static PatternDatabase build(Goal goal, List<Action> availableActions, int maxAbstractStates) {
+        Domain domain = new Domain(goal, availableActions);
+        List<List<String>> groups = selectPatterns(domain, goal, availableActions, maxAbstractStates);
+        
+        List<Pattern> patterns = new ArrayList<>();
+        for (int group = 0; group < groups.size(); group++) {
+            for (List<String> part : split(domain, groups.get(group), maxAbstractStates)) {
+                patterns.add(compute(domain, part, group, goal, availableActions));
+            }
+        }
+        return new PatternDatabase(StateFingerprint.of(goal, availableActions), patterns);
+    }
+    
+    /**
+     * Builds pattern databases for the given patterns. Patterns must not share keys that
+     * actions set; the values are summed.
+     */
+    public static PatternDatabase build(Goal goal, List<Action> availableActions, List<List<String>> patternKeys) {
+        Domain domain = new Domain(goal, availableActions);
+        List<Pattern> patterns = new ArrayList<>();
+        for (int group = 0; group < patternKeys.size(); group++) {
+            for (String key : patternKeys.get(group)) {
+                if (!domain.values.containsKey(key)) {
+                    throw new IllegalArgumentException("Key cannot be used in a pattern: " + key);
+                }
+            }
+            patterns.add(compute(domain, patternKeys.get(group), group, goal, availableActions));
+        }
+        return new PatternDatabase(StateFingerprint.of(goal, availableActions), patterns);
+    }
+    
+    /**
+     * Get the estimated cost from a state to the goal: the sum over pattern groups of the
+     * largest value within the group. Infinite if some pattern cannot reach the goal.
+     */
+    public float getValue(WorldState state) {
+        float total = 0;
+        int group = -1;
+        float groupMax = 0;
+        for (Pattern pattern : patterns) {
+            if (pattern.group != group) {
+                total += groupMax;
+                group = pattern.group;
+                groupMax = 0;
+            }
+            groupMax = Math.max(groupMax, pattern.lookup(state));
+        }
+        return total + groupMax;
+    }
+    
+    /**
+     * Get the fingerprint of the goal and action set the tables were built for
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+    
+    /**
+     * Get the keys of every pattern
+     */
+    public List<List<String>> getPatterns() {
+        List<List<String>> keys = new ArrayList<>();
+        for (Pattern pattern : patterns) {
+            keys.add(List.of(pattern.keys));
+        }
+        return keys;
+    }
+    
+    /**
+     * Get the total number of table entries
+     */
+    public long getAbstractStateCount() {
+        long count = 0;
+        for (Pattern pattern : patterns) {
+            count += pattern.size;
+        }
+        return count;
+    }
+    
+    /**
+     * Writes the tables to a file, replacing it atomically
+     */
+    public void write(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            write(out);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Writes the tables to a stream, aligning them to the stream's start, so that they can
+     * be embedded in other mapped files such as domain snapshots
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(fingerprint);
+        out.writeInt(patterns.size());
+        for (Pattern pattern : patterns) {
+            out.writeInt(pattern.group);
+            out.writeInt(pattern.keys.length);
+            for (int k = 0; k < pattern.keys.length; k++) {
+                writeString(out, pattern.keys[k]);
+                out.writeInt(pattern.values[k].length);
+                for (Object value : pattern.values[k]) {
+                    writeValue(out, value);
+                }
+            }
+            out.writeInt(pattern.size);
+            
+            // Align the table so that the mapped floats can be read in place
+            while (out.size() % Float.BYTES != 0) {
+                out.writeByte(0);
+            }
+            for (int i = 0; i < pattern.size; i++) {
+                out.writeFloat(pattern.table.get(i));
+            }
+        }
+    }
+    
+    /**
+     * Memory-maps tables written by {@link #write}. Only the key metadata is read;
+     * the tables stay in the mapped file.
+     */
+    public static PatternDatabase load(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return read(buffer, path.toString());
+    }
+    
+    /**
+     * Memory-maps tables written by {@link #write}, checking that they were built for the
+     * goal and action set with the given fingerprint
+     *
+     * @throws IOException if the file cannot be read or holds tables for something else
+     */
+    public static PatternDatabase load(Path path, long expectedFingerprint) throws IOException {
+        PatternDatabase database = load(path);
+        if (database.fingerprint != expectedFingerprint) {
+            throw new IOException("Pattern database " + path + " has fingerprint "
+                + Long.toHexString(database.fingerprint) + ", expected " + Long.toHexString(expectedFingerprint));
+        }
+        return database;
+    }
+    
+    /**
+     * Reads tables written by {@link #write(DataOutputStream)} from the buffer's position,
+     * leaving the tables in the buffer and the position after them
+     */
+    static PatternDatabase read(ByteBuffer buffer, String source) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a pattern database: " + source);
+        }
+        long fingerprint = buffer.getLong();
+        int count = buffer.getInt();
+        
+        List<Pattern> patterns = new ArrayList<>(count);
+        for (int p = 0; p < count; p++) {
+            int group = buffer.getInt();
+            String[] keys = new String[buffer.getInt()];
+            Object[][] values = new Object[keys.length][];
+            for (int k = 0; k < keys.length; k++) {
+                keys[k] = readString(buffer);
+                values[k] = new Object[buffer.getInt()];
+                for (int v = 0; v < values[k].length; v++) {
+                    values[k][v] = readValue(buffer);
+                }
+            }
+            int size = buffer.getInt();
+            buffer.position((buffer.position() + Float.BYTES - 1) / Float.BYTES * Float.BYTES);
+            
+            ByteBuffer slice = buffer.slice();
+            slice.limit(size * Float.BYTES);
+            buffer.position(buffer.position() + size * Float.BYTES);
+            
+            Pattern pattern = new Pattern(keys, values, group, slice.asFloatBuffer());
+            if (pattern.size != size) {
+                throw new IOException("Corrupt pattern database: " + source);
+            }
+            patterns.add(pattern);
+        }
+        return new PatternDatabase(fingerprint, patterns);
+    }
+    
+    /**
+     * Value domains of the keys that can be projected
+     */
+    private static final class Domain {
+        final Map<String, Set<Object>> values = new LinkedHashMap<>();
+        
+        Domain(Goal goal, List<Action> availableActions) {
+            Set<String> excluded = new HashSet<>();
+            for (Action action : availableActions) {
+                if (action instanceof LiftedAction) {
+                    throw new IllegalArgumentException("Pattern databases need ground actions: " + action.getId());
+                }
+                for (Condition condition : action.getPreconditions()) {
+                    addCondition(condition, excluded);
+                }
+                for (Effect effect : action.getEffects()) {
+                    if (effect instanceof SimpleEffect) {
+                        add(effect.getPropertyKey(), ((SimpleEffect) effect).getValue(), excluded);
+                    } else {
+                        excluded.add(effect.getPropertyKey());
+                    }
+                }
+            }
+            for (Condition condition : goal.getConditions()) {
+                addCondition(condition, excluded);
+            }
+            values.keySet().removeAll(excluded);
+        }
+        
+        private void addCondition(Condition condition, Set<String> excluded) {
+            if (condition instanceof SimpleCondition) {
+                add(condition.getPropertyKey(), ((SimpleCondition) condition).getExpectedValue(), excluded);
+            } else if (condition instanceof NotCondition) {
+                add(condition.getPropertyKey(), ((NotCondition) condition).getUnexpectedValue(), excluded);
+            }
+        }
+        
+        private void add(String key, Object value, Set<String> excluded) {
+            if (!isSupported(value)) {
+                excluded.add(key);
+                return;
+            }
+            // null is always in the domain, so that absent properties are told apart from other values
+            values.computeIfAbsent(key, k -> new LinkedHashSet<>(Collections.singleton(null))).add(value);
+        }
+        
+        long size(Collection<String> keys) {
+            long size = 1;
+            for (String key : keys) {
+                size *= values.get(key).size() + 1;
+            }
+            return size;
+        }
+    }
+    
+    /**
+     * Chooses the pattern groups: keys set together by some action are merged into one
+     * group, groups that do not lead to the goal are dropped, and then groups are merged
+     * with the groups their actions depend on, and unset keys the actions read are added,
+     * while the tables stay within maxAbstractStates
+     */
+    private static List<List<String>> selectPatterns(Domain domain, Goal goal, List<Action> availableActions,
+                                                     int maxAbstractStates) {
+        // Union keys set by the same action
+        Map<String, String> parent = new HashMap<>();
+        for (Action action : availableActions) {
+            String first = null;
+            for (Effect effect : action.getEffects()) {
+                String key = effect.getPropertyKey();
+                if (!domain.values.containsKey(key)) {
+                    continue;
+                }
+                parent.putIfAbsent(key, key);
+                if (first == null) {
+                    first = key;
+                } else {
+                    parent.put(find(parent, key), find(parent, first));
+                }
+            }
+        }
+        Map<String, Set<String>> groups = new LinkedHashMap<>();
+        for (String key : parent.keySet()) {
+            groups.computeIfAbsent(find(parent, key), k -> new TreeSet<>()).add(key);
+        }
+        
+        // Keys read by the actions that set each group
+        Map<String, Set<String>> reads = new HashMap<>();
+        for (Action action : availableActions) {
+            String root = null;
+            for (Effect effect : action.getEffects()) {
+                if (parent.containsKey(effect.getPropertyKey())) {
+                    root = find(parent, effect.getPropertyKey());
+                }
+            }
+            if (root == null) {
+                continue;
+            }
+            for (Condition condition : action.getPreconditions()) {
+                if (domain.values.containsKey(condition.getPropertyKey())) {
+                    reads.computeIfAbsent(root, k -> new TreeSet<>()).add(condition.getPropertyKey());
+                }
+            }
+        }
+        
+        // Keep the groups the goal depends on, goal groups first
+        List<String> relevant = new ArrayList<>();
+        Deque<String> pending = new ArrayDeque<>();
+        for (Condition condition : goal.getConditions()) {
+            if (parent.containsKey(condition.getPropertyKey())) {
+                pending.add(find(parent, condition.getPropertyKey()));
+            }
+        }
+        while (!pending.isEmpty()) {
+            String root = pending.poll();
+            if (relevant.contains(root)) {
+                continue;
+            }
+            relevant.add(root);
+            for (String key : reads.getOrDefault(root, Set.of())) {
+                if (parent.containsKey(key)) {
+                    pending.add(find(parent, key));
+                }
+            }
+        }
+        
+        List<Set<String>> selected = new ArrayList<>();
+        for (String root : relevant) {
+            selected.add(new TreeSet<>(groups.get(root)));
+        }
+        
+        // Merge a group with a group it reads from while the table stays small enough
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < selected.size() && !merged; i++) {
+                Set<String> readKeys = readsOf(selected.get(i), parent, reads);
+                for (int j = 0; j < selected.size() && !merged; j++) {
+                    if (i == j || Collections.disjoint(readKeys, selected.get(j))) {
+                        continue;
+                    }
+                    Set<String> union = new TreeSet<>(selected.get(i));
+                    union.addAll(selected.get(j));
+                    if (domain.size(union) <= maxAbstractStates) {
+                        selected.get(Math.min(i, j)).addAll(union);
+                        selected.remove(Math.max(i, j));
+                        merged = true;
+                    }
+                }
+            }
+        }
+        
+        // Keys no action sets never change, so any pattern may include them
+        List<List<String>> patterns = new ArrayList<>();
+        for (Set<String> group : selected) {
+            for (String key : readsOf(group, parent, reads)) {
+                if (!parent.containsKey(key) && domain.size(group) * (domain.values.get(key).size() + 1)
+                    <= maxAbstractStates) {
+                    group.add(key);
+                }
+            }
+            patterns.add(new ArrayList<>(group));
+        }
+        return patterns;
+    }
+    
+    private static Set<String> readsOf(Set<String> group, Map<String, String> parent, Map<String, Set<String>> reads) {
+        Set<String> keys = new TreeSet<>();
+        for (String key : group) {
+            if (parent.containsKey(key) && find(parent, key).equals(key)) {
+                keys.addAll(reads.getOrDefault(key, Set.of()));
+            }
+        }
+        return keys;
+    }
+    
+    private static String find(Map<String, String> parent, String key) {
+        String root = key;
+        while (!parent.get(root).equals(root)) {
+            root = parent.get(root);
+        }
+        parent.put(key, root);
+        return root;
+    }
+    
+    /**
+     * Splits a group that is too large into parts of at most maxAbstractStates
+     */
+    private static List<List<String>> split(Domain domain, List<String> group, int maxAbstractStates) {
+        List<List<String>> parts = new ArrayList<>();
+        List<String> part = new ArrayList<>();
+        for (String key : group) {
+            part.add(key);
+            if (part.size() > 1 && domain.size(part) > maxAbstractStates) {
+                part.remove(part.size() - 1);
+                parts.add(part);
+                part = new ArrayList<>(List.of(key));
+            }
+        }
+        parts.add(part);
+        return parts;
+    }
+    
+    /**
+     * Computes the exact goal distance of every abstract state by a backward
+     * uniform-cost search (Dijkstra) from the abstract goal states
+     */
+    private static Pattern compute(Domain domain, List<String> keys, int group, Goal goal,
+                                   List<Action> availableActions) {
+        String[] keyArray = keys.toArray(new String[0]);
+        Object[][] values = new Object[keyArray.length][];
+        for (int k = 0; k < keyArray.length; k++) {
+            values[k] = domain.values.get(keyArray[k]).toArray();
+        }
+        if (domain.size(keys) > Integer.MAX_VALUE / Float.BYTES) {
+            throw new IllegalArgumentException("Pattern too large: " + keys);
+        }
+        Pattern pattern = new Pattern(keyArray, values, group, FloatBuffer.allocate((int) domain.size(keys)));
+        Map<String, Integer> position = new HashMap<>();
+        for (int k = 0; k < keyArray.length; k++) {
+            position.put(keyArray[k], k);
+        }
+        
+        // Project the actions: per key, the allowed value digits before and the digit set after
+        List<boolean[][]> requires = new ArrayList<>();
+        List<int[]> sets = new ArrayList<>();
+        List<Float> costs = new ArrayList<>();
+        for (Action action : availableActions) {
+            int[] set = new int[keyArray.length];
+            Arrays.fill(set, -1);
+            boolean changes = false;
+            for (Effect effect : action.getEffects()) {
+                Integer k = position.get(effect.getPropertyKey());
+                if (k != null) {
+                    set[k] = pattern.valueIndex[k].get(((SimpleEffect) effect).getValue());
+                    changes = true;
+                }
+            }
+            if (changes) {
+                requires.add(allowedDigits(pattern, position, action.getPreconditions()));
+                sets.add(set);
+                costs.add(action.getCost());
+            }
+        }
+        boolean[][] goalDigits = allowedDigits(pattern, position, goal.getConditions());
+        
+        // Reverse edges in compressed form: predecessors of state t are pred[start[t]..start[t+1])
+        int size = pattern.size;
+        int[] start = new int[size + 1];
+        int[] predecessors = null;
+        float[] edgeCosts = null;
+        for (int pass = 0; pass < 2; pass++) {
+            int[] fill = pass == 0 ? null : Arrays.copyOf(start, size);
+            for (int s = 0; s < size; s++) {
+                for (int a = 0; a < sets.size(); a++) {
+                    if (!matches(pattern, s, requires.get(a))) {
+                        continue;
+                    }
+                    int t = successor(pattern, s, sets.get(a));
+                    if (t == s) {
+                        continue;
+                    }
+                    if (pass == 0) {
+                        start[t + 1]++;
+                    } else {
+                        predecessors[fill[t]] = s;
+                        edgeCosts[fill[t]++] = costs.get(a);
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int t = 0; t < size; t++) {
+                    start[t + 1] += start[t];
+                }
+                predecessors = new int[start[size]];
+                edgeCosts = new float[start[size]];
+            }
+        }
+        
+        float[] distance = new float[size];
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        // Entries are (distance bits << 32 | state); the bits of non-negative floats sort like the floats
+        PriorityQueue<Long> queue = new PriorityQueue<>();
+        for (int s = 0; s < size; s++) {
+            if (matches(pattern, s, goalDigits)) {
+                distance[s] = 0;
+                queue.add((long) s);
+            }
+        }
+        while (!queue.isEmpty()) {
+            long entry = queue.poll();
+            int t = (int) entry;
+            if (Float.intBitsToFloat((int) (entry >>> 32)) > distance[t]) {
+                continue;
+            }
+            for (int e = start[t]; e < start[t + 1]; e++) {
+                int s = predecessors[e];
+                float d = distance[t] + edgeCosts[e];
+                if (d < distance[s]) {
+                    distance[s] = d;
+                    queue.add((long) Float.floatToIntBits(d) << 32 | s);
+                }
+            }
+        }
+        
+        pattern.table.put(distance).flip();
+        return pattern;
+    }
+    
+    /**
+     * Get, per pattern key, which value digits the conditions allow, or null where any value is allowed
+     */
+    private static boolean[][] allowedDigits(Pattern pattern, Map<String, Integer> position,
+                                             List<Condition> conditions) {
+        boolean[][] allowed = new boolean[pattern.keys.length][];
+        for (Condition condition : conditions) {
+            Integer k = position.get(condition.getPropertyKey());
+            if (k == null || !(condition instanceof SimpleCondition || condition instanceof NotCondition)) {
+                continue;
+            }
+            boolean negated = condition instanceof NotCondition;
+            Object value = negated ? ((NotCondition) condition).getUnexpectedValue()
+                : ((SimpleCondition) condition).getExpectedValue();
+            int digit = pattern.valueIndex[k].get(value);
+            
+            if (allowed[k] == null) {
+                allowed[k] = new boolean[pattern.radix(k)];
+                Arrays.fill(allowed[k], true);
+            }
+            for (int d = 0; d < allowed[k].length; d++) {
+                allowed[k][d] &= (d == digit) != negated;
+            }
+        }
+        return allowed;
+    }
+    
+    private static boolean matches(Pattern pattern, int state, boolean[][] allowed) {
+        for (int k = 0; k < allowed.length; k++) {
+            if (allowed[k] != null && !allowed[k][pattern.digit(state, k)]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int successor(Pattern pattern, int state, int[] set) {
+        int next = state;
+        for (int k = 0; k < set.length; k++) {
+            if (set[k] >= 0) {
+                next += (set[k] - pattern.digit(state, k)) * pattern.strides[k];
+            }
+        }
+        return next;
+    }
+    
+    static boolean isSupported(Object value) {
+        return value == null || value instanceof Boolean || value instanceof Integer
+            || value instanceof Long || value instanceof Double || value instanceof String;
+    }
+    
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        }
+    }
+    
+    static Object readValue(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        switch (type) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case INTEGER:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case STRING:
+                return readString(buffer);
+            default:
+                throw new IOException("Unknown pattern database value type: " + type);
+        }
+    }
+}
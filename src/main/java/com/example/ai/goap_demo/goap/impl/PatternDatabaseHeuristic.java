@@ -0,0 +1,154 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A HeuristicFunction backed by pattern databases, one per goal and action set.
+ *
+ * With a directory, the tables for a goal are memory-mapped from
+ * &lt;fingerprint&gt;.pdb if the file exists and holds tables with that fingerprint,
+ * and otherwise built, written there and mapped, so they are computed once and
+ * shared by later runs. Goals and action sets without tables, such as those with
+ * lifted actions, use the fallback.
+ */
+public class PatternDatabaseHeuristic implements HeuristicFunction {
+    private final Path directory;
+    private final int maxAbstractStates;
+    private final HeuristicFunction fallback;
+    private final Map<Long, Optional<PatternDatabase>> databases = new ConcurrentHashMap<>();
+    
+    /**
+     * Uses the given tables for their goal and the fallback for any other goal
+     */
+    public PatternDatabaseHeuristic(PatternDatabase database, HeuristicFunction fallback) {
+        this(List.of(database), fallback);
+    }
+    
+    /**
+     * Uses each of the given tables for its goal and the fallback for any other goal
+     */
+    public PatternDatabaseHeuristic(Collection<PatternDatabase> databases, HeuristicFunction fallback) {
+        this.directory = null;
+        this.maxAbstractStates = 0;
+        this.fallback = fallback;
+        for (PatternDatabase database : databases) {
+            this.databases.put(database.getFingerprint(), Optional.of(database));
+        }
+    }
+    
+    /**
+     * Builds or maps tables for every new goal, keeping them in the given directory
+     */
+    public PatternDatabaseHeuristic(Path directory, int maxAbstractStates, HeuristicFunction fallback) {
+        this.directory = directory;
+        this.maxAbstractStates = maxAbstractStates;
+        this.fallback = fallback;
+    }
+    
+    @Override
+    public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
+        PatternDatabase database = databaseFor(goal, availableActions);
+        if (database == null) {
+            return fallback.calculate(currentState, goal, availableActions);
+        }
+        return database.getValue(currentState);
+    }
+    
+    /**
+     * Looks the tables up once for the search, rather than on every call
+     */
+    @Override
+    public HeuristicFunction forSearch(Goal goal, List<Action> availableActions) {
+        PatternDatabase database = databaseFor(goal, availableActions);
+        if (database == null) {
+            return fallback.forSearch(goal, availableActions);
+        }
+        return new SearchTables(goal, availableActions, database);
+    }
+    
+    /**
+     * The tables never overestimate, so this is admissible when the fallback is
+     */
+    @Override
+    public boolean isAdmissible() {
+        return fallback.isAdmissible();
+    }
+    
+    /**
+     * Get the tables used for a goal and action set, or null if the fallback is used
+     */
+    public PatternDatabase databaseFor(Goal goal, List<Action> availableActions) {
+        long fingerprint = StateFingerprint.of(goal, availableActions);
+        Optional<PatternDatabase> database = databases.get(fingerprint);
+        if (database == null && directory != null) {
+            database = databases.computeIfAbsent(fingerprint, key -> open(key, goal, availableActions));
+        }
+        return database != null ? database.orElse(null) : null;
+    }
+    
+    private Optional<PatternDatabase> open(long fingerprint, Goal goal, List<Action> availableActions) {
+        Path path = directory.resolve(Long.toHexString(fingerprint) + ".pdb");
+        try {
+            if (Files.exists(path)) {
+                try {
+                    return Optional.of(PatternDatabase.load(path, fingerprint));
+                } catch (IOException e) {
+                    DiagnosticLog.log("Rebuilding pattern database: " + e.getMessage());
+                }
+            }
+            PatternDatabase database = PatternDatabase.build(goal, availableActions, maxAbstractStates);
+            Files.createDirectories(directory);
+            database.write(path);
+            DiagnosticLog.log("Pattern database written to " + path + " (" + database.getAbstractStateCount()
+                + " entries)");
+            return Optional.of(PatternDatabase.load(path, fingerprint));
+        } catch (IllegalArgumentException e) {
+            DiagnosticLog.log("No pattern database for " + goal + ": " + e.getMessage());
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * The tables of one search
+     */
+    private final class SearchTables implements HeuristicFunction {
+        private final Goal goal;
+        private final List<Action> availableActions;
+        private final PatternDatabase database;
+        
+        SearchTables(Goal goal, List<Action> availableActions, PatternDatabase database) {
+            this.goal = goal;
+            this.availableActions = availableActions;
+            this.database = database;
+        }
+        
+        @Override
+        public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
+            if (goal != this.goal || availableActions != this.availableActions) {
+                return PatternDatabaseHeuristic.this.calculate(currentState, goal, availableActions);
+            }
+            return database.getValue(currentState);
+        }
+        
+        @Override
+        public boolean isAdmissible() {
+            return true;
+        }
+    }
+}
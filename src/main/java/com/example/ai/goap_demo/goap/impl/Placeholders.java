@@ -0,0 +1,78 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import java.util.*;
+
+/**
+ * Text with {name} placeholders for the parameters of an action schema,
+ * parsed once so that grounding only concatenates the parts.
+ */
+final class Placeholders {
+    private final String text;
+    
+    // Literal text and parameter names alternate, starting with a literal
+    private final String[] literals;
+    private final String[] variables;
+    
+    Placeholders(String text) {
+        this.text = text;
+        List<String> literalParts = new ArrayList<>();
+        List<String> variableParts = new ArrayList<>();
+        
+        int start = 0;
+        int open = text.indexOf('{');
+        while (open >= 0) {
+            int close = text.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in: " + text);
+            }
+            literalParts.add(text.substring(start, open));
+            variableParts.add(text.substring(open + 1, close));
+            start = close + 1;
+            open = text.indexOf('{', start);
+        }
+        literalParts.add(text.substring(start));
+        
+        this.literals = literalParts.toArray(new String[0]);
+        this.variables = variableParts.toArray(new String[0]);
+    }
+    
+    /**
+     * Get the parameter names used in the text
+     */
+    List<String> getVariables() {
+        return Arrays.asList(variables);
+    }
+    
+    /**
+     * Replaces every placeholder with the object bound to its parameter
+     */
+    String substitute(Map<String, String> binding) {
+        if (variables.length == 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < variables.length; i++) {
+            sb.append(literals[i]).append(binding.get(variables[i]));
+        }
+        return sb.append(literals[variables.length]).toString();
+    }
+    
+    /**
+     * Get the parameter a value refers to if it is a single placeholder such as "{oven}", or null
+     */
+    static String variableOf(Object value) {
+        if (!(value instanceof String)) {
+            return null;
+        }
+        String text = (String) value;
+        if (text.length() > 2 && text.charAt(0) == '{' && text.indexOf('}') == text.length() - 1) {
+            return text.substring(1, text.length() - 1);
+        }
+        return null;
+    }
+    
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.Planner;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A planner that races several pathfinders (each with its own heuristic) on a shared executor.
+ *
+ * In first-valid mode the first plan that passes isPlanValid is returned; otherwise
+ * the cheapest valid plan found before the deadline is returned, or earlier if a
+ * member reports an optimal plan. The remaining searches are cancelled by interrupting
+ * them, which every pathfinder in this package checks between expansions.
+ *
+ * Each member records how often it supplied the returned plan. Every reorderInterval
+ * plans the members are reordered by win rate, and members that never won after
+ * dropAfterAttempts attempts are disabled (at least one member always stays enabled).
+ */
+public class PortfolioPlanner implements Planner {
+    private final ExecutorService executor;
+    private final long deadlineMillis;
+    private final boolean firstValid;
+    private final int reorderInterval;
+    private final long dropAfterAttempts;
+    
+    // Copy-on-write list of enabled members, best first
+    private volatile List<Member> members;
+    private final List<Member> allMembers;
+    private final AtomicLong plansCreated = new AtomicLong();
+    
+    public PortfolioPlanner(Map<String, Pathfinder> pathfinders, ExecutorService executor, long deadlineMillis,
+                            boolean firstValid) {
+        this(pathfinders, executor, deadlineMillis, firstValid, 100, Long.MAX_VALUE);
+    }
+    
+    /**
+     * @param pathfinders Members of the portfolio by name, in their initial order
+     * @param executor Executor shared by all searches
+     * @param deadlineMillis Time after which the best plan found so far is returned
+     * @param firstValid Return the first valid plan instead of the cheapest one found
+     * @param reorderInterval Number of plans between reorderings of the members
+     * @param dropAfterAttempts Attempts after which a member that never won is disabled
+     */
+    public PortfolioPlanner(Map<String, Pathfinder> pathfinders, ExecutorService executor, long deadlineMillis,
+                            boolean firstValid, int reorderInterval, long dropAfterAttempts) {
+        if (pathfinders.isEmpty()) {
+            throw new IllegalArgumentException("A portfolio needs at least one pathfinder");
+        }
+        this.executor = executor;
+        this.deadlineMillis = deadlineMillis;
+        this.firstValid = firstValid;
+        this.reorderInterval = reorderInterval;
+        this.dropAfterAttempts = dropAfterAttempts;
+        
+        List<Member> list = new ArrayList<>();
+        for (Map.Entry<String, Pathfinder> entry : pathfinders.entrySet()) {
+            list.add(new Member(entry.getKey(), entry.getValue()));
+        }
+        this.allMembers = Collections.unmodifiableList(list);
+        this.members = allMembers;
+    }
+    
+    @Override
+    public Plan createPlan(WorldState currentState, Goal goal, List<Action> availableActions) {
+        if (goal.isSatisfied(currentState)) {
+            return new Plan(List.of(), true);
+        }
+        
+        List<Member> racing = members;
+        CompletionService<Finished> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Finished>> futures = new ArrayList<>(racing.size());
+        
+        for (Member member : racing) {
+            // Each search gets its own copy, since states are mutable
+            WorldState startState = currentState.copy();
+            member.attempts.incrementAndGet();
+            futures.add(completion.submit(() -> {
+                long start = System.nanoTime();
+                SearchResult result = member.pathfinder.search(startState, goal, availableActions);
+                return new Finished(member, result, System.nanoTime() - start);
+            }));
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        Finished best = null;
+        float bestCost = Float.MAX_VALUE;
+        
+        try {
+            for (int received = 0; received < futures.size(); received++) {
+                long remaining = deadline - System.nanoTime();
+                Future<Finished> future = completion.poll(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    break; // Deadline reached
+                }
+                
+                Finished finished;
+                try {
+                    finished = future.get();
+                } catch (ExecutionException | CancellationException e) {
+                    continue;
+                }
+                
+                finished.member.completed.incrementAndGet();
+                finished.member.totalNanos.addAndGet(finished.nanos);
+                if (!finished.result.isFound()) {
+                    continue;
+                }
+                
+                Plan candidate = new Plan(finished.result.getActions(), finished.result.isOptimal());
+                if (!isPlanValid(candidate, currentState, goal)) {
+                    continue;
+                }
+                
+                float cost = cost(finished.result.getActions());
+                if (cost < bestCost) {
+                    best = finished;
+                    bestCost = cost;
+                }
+                if (firstValid || finished.result.isOptimal()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Cooperative cancellation of the searches still running
+            for (Future<Finished> future : futures) {
+                future.cancel(true);
+            }
+        }
+        
+        if (best != null) {
+            best.member.wins.incrementAndGet();
+        }
+        if (plansCreated.incrementAndGet() % reorderInterval == 0) {
+            adapt();
+        }
+        
+        if (best == null) {
+            return null;
+        }
+        return new Plan(best.result.getActions(), best.result.isOptimal());
+    }
+    
+    @Override
+    public boolean isPlanValid(Plan plan, WorldState state, Goal goal) {
+        if (plan == null) {
+            return false;
+        }
+        return new ValidatedPlan(plan, state, goal).isValid();
+    }
+    
+    /**
+     * Reorders the members by win rate and disables members that never won
+     */
+    private synchronized void adapt() {
+        List<Member> enabled = new ArrayList<>();
+        for (Member member : allMembers) {
+            if (member.wins.get() > 0 || member.attempts.get() < dropAfterAttempts) {
+                enabled.add(member);
+            }
+        }
+        if (enabled.isEmpty()) {
+            enabled.add(allMembers.get(0));
+        }
+        enabled.sort(Comparator.comparingDouble(Member::getWinRate).reversed());
+        members = Collections.unmodifiableList(enabled);
+    }
+    
+    private static float cost(List<Action> actions) {
+        float cost = 0;
+        for (Action action : actions) {
+            cost += action.getCost();
+        }
+        return cost;
+    }
+    
+    /**
+     * Get the members that currently take part in planning, best first
+     */
+    public List<Member> getMembers() {
+        return members;
+    }
+    
+    /**
+     * Get all members, including disabled ones
+     */
+    public List<Member> getAllMembers() {
+        return allMembers;
+    }
+    
+    /**
+     * A pathfinder taking part in the portfolio, with its statistics
+     */
+    public static final class Member {
+        private final String name;
+        private final Pathfinder pathfinder;
+        private final AtomicLong attempts = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong wins = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        
+        Member(String name, Pathfinder pathfinder) {
+            this.name = name;
+            this.pathfinder = pathfinder;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Get the number of races the member took part in
+         */
+        public long getAttempts() {
+            return attempts.get();
+        }
+        
+        /**
+         * Get the number of searches that finished before the planner stopped waiting
+         */
+        public long getCompleted() {
+            return completed.get();
+        }
+        
+        public long getWins() {
+            return wins.get();
+        }
+        
+        public double getWinRate() {
+            long a = attempts.get();
+            return a == 0 ? 0.0 : (double) wins.get() / a;
+        }
+        
+        public double getAverageMillis() {
+            long c = completed.get();
+            return c == 0 ? 0.0 : totalNanos.get() / 1e6 / c;
+        }
+        
+        @Override
+        public String toString() {
+            return name + " [wins=" + wins + ", attempts=" + attempts + "]";
+        }
+    }
+    
+    private static final class Finished {
+        final Member member;
+        final SearchResult result;
+        final long nanos;
+        
+        Finished(Member member, SearchResult result, long nanos) {
+            this.member = member;
+            this.result = result;
+            this.nanos = nanos;
+        }
+    }
+}
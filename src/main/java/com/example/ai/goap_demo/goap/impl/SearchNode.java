@@ -0,0 +1,36 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.BitSet;
+
+/**
+ * Node of a forward state-space search.
+ */
+class SearchNode {
+    WorldState state;
+    SearchNode parent;
+    Action action;
+    float g; // Cost from start to this node
+    float h; // Estimated cost from this node to the goal
+    float f; // Value the frontier is ordered by
+    int depth;
+    BitSet reached; // Landmarks reached on the path to this node, if the heuristic tracks them
+    long[] facts; // Bit-packed state, if the search evaluates successors in batches
+    
+    SearchNode(WorldState state, SearchNode parent, Action action, float g, float h, float f) {
+        this(state, parent, action, g, h, f, null);
+    }
+    
+    SearchNode(WorldState state, SearchNode parent, Action action, float g, float h, float f, BitSet reached) {
+        this.state = state;
+        this.parent = parent;
+        this.action = action;
+        this.g = g;
+        this.h = h;
+        this.f = f;
+        this.depth = parent != null ? parent.depth + 1 : 0;
+        this.reached = reached;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
+import com.example.ai.goap_demo.goap.core.PathDependentHeuristic;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
+
+import java.util.*;
+
+/**
+ * Helpers shared by the pathfinder implementations.
+ */
+final class SearchSupport {
+    // Whether applyEffects of an action class applies exactly its getEffects
+    private static final ClassValue<Boolean> APPLIES_DECLARED_EFFECTS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("applyEffects", WorldState.class).getDeclaringClass() == BaseAction.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+    
+    private SearchSupport() {
+    }
+    
+    /**
+     * Creates a hash representation of a world state
+     */
+    static String getStateHash(WorldState state) {
+        // Create a more reliable hash based on the actual properties
+        Map<String, Object> props = state.getAllProperties();
+        StringBuilder sb = new StringBuilder();
+        
+        // Sort keys for consistent ordering
+        List<String> keys = new ArrayList<>(props.keySet());
+        Collections.sort(keys);
+        
+        for (String key : keys) {
+            Object value = props.get(key);
+            sb.append(key).append("=").append(value).append(";");
+        }
+        
+        return sb.toString();
+    }
+    
+    /**
+     * Get the actions applicable in a state. Lifted actions contribute their ground
+     * instances for the objects of the state, which they create on first use.
+     */
+    static List<Action> applicableActions(WorldState state, List<Action> availableActions) {
+        if (availableActions instanceof ActionRegistry.ActionList) {
+            return ((ActionRegistry.ActionList) availableActions).applicableActions(state);
+        }
+        List<Action> applicable = new ArrayList<>(availableActions.size());
+        for (Action action : availableActions) {
+            if (action instanceof LiftedAction) {
+                applicable.addAll(((LiftedAction) action).ground(state));
+            } else if (action.checkPreconditions(state)) {
+                applicable.add(action);
+            }
+        }
+        return applicable;
+    }
+    
+    /**
+     * Get the progress a path-dependent heuristic tracks for a new node, or null for other heuristics
+     */
+    static BitSet reached(HeuristicFunction heuristic, SearchNode parent, WorldState state, Goal goal,
+                          List<Action> availableActions) {
+        if (!(heuristic instanceof PathDependentHeuristic)) {
+            return null;
+        }
+        return reachedFrom(heuristic, parent != null ? parent.reached : null, state, goal, availableActions);
+    }
+    
+    /**
+     * Get the progress a path-dependent heuristic tracks for a new node from its parent's
+     * progress, or null for other heuristics
+     */
+    static BitSet reachedFrom(HeuristicFunction heuristic, BitSet parentReached, WorldState state, Goal goal,
+                              List<Action> availableActions) {
+        if (!(heuristic instanceof PathDependentHeuristic)) {
+            return null;
+        }
+        return ((PathDependentHeuristic) heuristic).progress(parentReached, state, goal, availableActions);
+    }
+    
+    /**
+     * Check if an action's applyEffects applies exactly its getEffects, so that a search
+     * may apply the effects itself
+     */
+    static boolean appliesDeclaredEffects(Action action) {
+        // A learned cost does not change the effects
+        action = AdaptiveCostModel.declaredAction(action);
+        if (action.getClass() == DeclaredAction.class) {
+            return ((DeclaredAction) action).appliesDeclaredEffects();
+        }
+        return APPLIES_DECLARED_EFFECTS.get(action.getClass());
+    }
+    
+    /**
+     * Evaluates the heuristic for a new node, passing the node's progress to path-dependent heuristics
+     */
+    static float estimate(HeuristicFunction heuristic, WorldState state, BitSet reached, Goal goal,
+                          List<Action> availableActions) {
+        if (reached != null) {
+            return ((PathDependentHeuristic) heuristic).calculate(state, reached, goal, availableActions);
+        }
+        return heuristic.calculate(state, goal, availableActions);
+    }
+    
+    /**
+     * Whether the search running on this thread has been cancelled, e.g. by a portfolio
+     * that already has its plan. The interrupt flag is left set for the caller.
+     */
+    static boolean isCancelled() {
+        return Thread.currentThread().isInterrupted();
+    }
+    
+    /**
+     * Reconstructs the path from goal node to start node
+     */
+    static List<Action> reconstructPath(SearchNode goalNode) {
+        List<Action> path = new ArrayList<>();
+        SearchNode current = goalNode;
+        
+        while (current.parent != null) {
+            path.add(current.action);
+            current = current.parent;
+        }
+        
+        Collections.reverse(path);
+        return path;
+    }
+    
+    /**
+     * Records a finished search in a JFR event if one is being recorded, and returns its result
+     */
+    static SearchResult finish(PlanSearchEvent event, String strategy, Goal goal, List<Action> availableActions,
+                               SearchResult result) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = strategy;
+            event.goal = String.valueOf(goal);
+            event.availableActions = availableActions.size();
+            event.planLength = result.isFound() ? result.getActions().size() : -1;
+            event.nodesExpanded = result.getNodesExpanded();
+            event.planFound = result.isFound();
+            event.commit();
+        }
+        return result;
+    }
+}
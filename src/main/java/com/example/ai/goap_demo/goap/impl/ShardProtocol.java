@@ -0,0 +1,202 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The binary protocol between a ShardedPlanner and its ShardWorker processes.
+ *
+ * Every connection starts with a byte saying whether it is the coordinator's control
+ * connection or a worker's peer connection. Control messages are a tag followed by
+ * their fields; peer messages are batches of successor records. States are written as
+ * property lists whose keys go through a per-connection dictionary, so each key is
+ * sent once per connection and as a short index afterwards.
+ */
+final class ShardProtocol {
+    static final String PORT_PREFIX = "SHARD-PORT ";
+    
+    static final byte CONTROL = 1;
+    static final byte PEER = 2;
+    
+    // Control messages to workers
+    static final byte INIT = 1;
+    static final byte PROBLEM = 2;
+    static final byte ROUND = 3;
+    static final byte SHUTDOWN = 4;
+    
+    // Replies to the coordinator
+    static final byte READY = 1;
+    static final byte REPORT = 2;
+    static final byte ERROR = 3;
+    
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    
+    private ShardProtocol() {
+    }
+    
+    /**
+     * A generated state on its way to the shard that owns it
+     */
+    static final class Successor {
+        final WorldState state;
+        final float g;
+        final int[] path;
+        
+        Successor(WorldState state, float g, int[] path) {
+            this.state = state;
+            this.g = g;
+            this.path = path;
+        }
+    }
+    
+    /**
+     * A round's outcome on one worker
+     */
+    static final class Report {
+        long sent;
+        long received;
+        float minOpenF;
+        int expanded;
+        float goalCost;
+        int[] goalPath;
+        
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(REPORT);
+            out.writeLong(sent);
+            out.writeLong(received);
+            out.writeFloat(minOpenF);
+            out.writeInt(expanded);
+            out.writeFloat(goalCost);
+            writePath(out, goalPath != null ? goalPath : new int[0]);
+        }
+        
+        static Report read(DataInputStream in) throws IOException {
+            Report report = new Report();
+            report.sent = in.readLong();
+            report.received = in.readLong();
+            report.minOpenF = in.readFloat();
+            report.expanded = in.readInt();
+            report.goalCost = in.readFloat();
+            report.goalPath = readPath(in);
+            return report;
+        }
+    }
+    
+    /**
+     * Writes states, remembering which keys the other side has already seen
+     */
+    static final class StateWriter {
+        private final Map<String, Integer> keys = new HashMap<>();
+        
+        void write(DataOutputStream out, Map<String, Object> properties) throws IOException {
+            out.writeInt(properties.size());
+            for (Map.Entry<String, Object> entry : properties.entrySet()) {
+                Integer index = keys.get(entry.getKey());
+                if (index != null) {
+                    out.writeInt(index);
+                } else {
+                    out.writeInt(-1);
+                    out.writeUTF(entry.getKey());
+                    keys.put(entry.getKey(), keys.size());
+                }
+                writeValue(out, entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Reads states written by a StateWriter on the same connection
+     */
+    static final class StateReader {
+        private final List<String> keys = new ArrayList<>();
+        
+        WorldState read(DataInputStream in) throws IOException {
+            WorldState state = new HashMapWorldState();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                int index = in.readInt();
+                String key;
+                if (index < 0) {
+                    key = in.readUTF();
+                    keys.add(key);
+                } else {
+                    key = keys.get(index);
+                }
+                state.setProperty(key, readValue(in));
+            }
+            return state;
+        }
+    }
+    
+    static void writePath(DataOutputStream out, int[] path) throws IOException {
+        out.writeInt(path.length);
+        for (int action : path) {
+            out.writeInt(action);
+        }
+    }
+    
+    static int[] readPath(DataInputStream in) throws IOException {
+        int[] path = new int[in.readInt()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = in.readInt();
+        }
+        return path;
+    }
+    
+    static boolean isSupported(Object value) {
+        return value == null || value instanceof Boolean || value instanceof Integer
+            || value instanceof Long || value instanceof Double || value instanceof String;
+    }
+    
+    static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else {
+            throw new IOException("Cannot send a " + value.getClass().getName() + " to a shard");
+        }
+    }
+    
+    static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return in.readBoolean();
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case STRING:
+                return in.readUTF();
+            default:
+                throw new IOException("Unknown shard value type: " + type);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * One process of a ShardedPlanner, owning the states whose fingerprint falls into its partition.
+ *
+ * The worker listens on a loopback port, which it prints to standard output, and is
+ * driven round by round by the coordinator over the control connection. In a round it
+ * takes in the successors its peers sent, expands its best open nodes, keeps the
+ * successors it owns and sends the others to their owners in batches.
+ *
+ * Usage: ShardWorker &lt;action catalog class&gt; &lt;heuristic class&gt;, both with public
+ * no-argument constructors; the catalog is a Supplier of every action a problem may use.
+ */
+public class ShardWorker {
+    private static final int BATCH_SIZE = 256;
+    
+    private final Map<String, Action> catalog = new HashMap<>();
+    private final HeuristicFunction heuristic;
+    private final ServerSocket serverSocket;
+    
+    private int shard;
+    private int shardCount;
+    private DataOutputStream[] peers;
+    private ShardProtocol.StateWriter[] peerWriters;
+    
+    // Successor batches filled by the peer reader threads
+    private final ConcurrentLinkedQueue<Batch> inbox = new ConcurrentLinkedQueue<>();
+    private int problemId = -1;
+    
+    // The current problem
+    private WorldState startState;
+    private Goal goal;
+    private HeuristicFunction searchHeuristic;
+    private List<Action> actions;
+    private Map<Action, Integer> actionIndex;
+    private PriorityQueue<Node> open;
+    private Map<Long, Float> bestG;
+    private List<List<ShardProtocol.Successor>> outgoing;
+    private long sent;
+    private long received;
+    private float goalCost;
+    private int[] goalPath;
+    
+    ShardWorker(Supplier<List<Action>> catalog, HeuristicFunction heuristic) throws IOException {
+        for (Action action : catalog.get()) {
+            this.catalog.put(action.getId(), action);
+        }
+        this.heuristic = heuristic;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+    
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: ShardWorker <action catalog class> <heuristic class>");
+            System.exit(2);
+        }
+        Supplier<List<Action>> catalog = (Supplier<List<Action>>) newInstance(args[0]);
+        HeuristicFunction heuristic = (HeuristicFunction) newInstance(args[1]);
+        
+        ShardWorker worker = new ShardWorker(catalog, heuristic);
+        System.out.println(ShardProtocol.PORT_PREFIX + worker.serverSocket.getLocalPort());
+        System.out.flush();
+        worker.run();
+        System.exit(0);
+    }
+    
+    static Object newInstance(String className) throws ReflectiveOperationException {
+        java.lang.reflect.Constructor<?> constructor = Class.forName(className).getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor.newInstance();
+    }
+    
+    /**
+     * Accepts connections until the coordinator's control connection closes
+     */
+    void run() throws IOException {
+        Socket control = null;
+        while (control == null) {
+            Socket socket = serverSocket.accept();
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (in.readByte() == ShardProtocol.CONTROL) {
+                control = socket;
+                Thread acceptor = new Thread(this::acceptPeers, "shard-accept");
+                acceptor.setDaemon(true);
+                acceptor.start();
+                serve(in, new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())));
+            } else {
+                startPeerReader(in);
+            }
+        }
+    }
+    
+    private void acceptPeers() {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                if (in.readByte() == ShardProtocol.PEER) {
+                    startPeerReader(in);
+                } else {
+                    socket.close();
+                }
+            }
+        } catch (IOException e) {
+            // The server socket closed with the control connection
+        }
+    }
+    
+    private void startPeerReader(DataInputStream in) {
+        Thread reader = new Thread(() -> {
+            ShardProtocol.StateReader states = new ShardProtocol.StateReader();
+            try {
+                while (true) {
+                    int batchProblem = in.readInt();
+                    int count = in.readInt();
+                    List<ShardProtocol.Successor> batch = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        float g = in.readFloat();
+                        int[] path = ShardProtocol.readPath(in);
+                        batch.add(new ShardProtocol.Successor(states.read(in), g, path));
+                    }
+                    inbox.add(new Batch(batchProblem, batch));
+                }
+            } catch (IOException e) {
+                // The peer has gone away
+            }
+        }, "shard-peer");
+        reader.setDaemon(true);
+        reader.start();
+    }
+    
+    private void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        ShardProtocol.StateReader states = new ShardProtocol.StateReader();
+        try {
+            while (true) {
+                byte tag = in.readByte();
+                switch (tag) {
+                    case ShardProtocol.INIT:
+                        init(in, out);
+                        break;
+                    case ShardProtocol.PROBLEM:
+                        problem(in, out, states);
+                        break;
+                    case ShardProtocol.ROUND:
+                        round(in.readFloat(), in.readInt()).write(out);
+                        out.flush();
+                        break;
+                    case ShardProtocol.SHUTDOWN:
+                        return;
+                    default:
+                        throw new IOException("Unknown control message: " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            // The coordinator has gone away
+        } finally {
+            serverSocket.close();
+        }
+    }
+    
+    private void init(DataInputStream in, DataOutputStream out) throws IOException {
+        shard = in.readInt();
+        shardCount = in.readInt();
+        peers = new DataOutputStream[shardCount];
+        peerWriters = new ShardProtocol.StateWriter[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            int port = in.readInt();
+            if (i == shard) {
+                continue;
+            }
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            peers[i] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            peers[i].writeByte(ShardProtocol.PEER);
+            peers[i].flush();
+            peerWriters[i] = new ShardProtocol.StateWriter();
+        }
+        out.writeByte(ShardProtocol.READY);
+        out.flush();
+    }
+    
+    private void problem(DataInputStream in, DataOutputStream out, ShardProtocol.StateReader states)
+            throws IOException {
+        int id = in.readInt();
+        WorldState start = states.read(in);
+        Map<String, Object> desiredState = new HashMap<>();
+        int goalSize = in.readInt();
+        for (int i = 0; i < goalSize; i++) {
+            String key = in.readUTF();
+            desiredState.put(key, ShardProtocol.readValue(in));
+        }
+        int actionCount = in.readInt();
+        List<Action> problemActions = new ArrayList<>(actionCount);
+        String rejected = null;
+        for (int i = 0; i < actionCount; i++) {
+            String actionId = in.readUTF();
+            long fingerprint = in.readLong();
+            Action action = catalog.get(actionId);
+            if (action == null) {
+                rejected = "Action " + actionId + " is not in the catalog of shard " + shard;
+            } else if (StateFingerprint.of(action) != fingerprint) {
+                rejected = "Action " + actionId + " differs from the catalog action of shard " + shard;
+            }
+            problemActions.add(action);
+        }
+        if (rejected != null) {
+            out.writeByte(ShardProtocol.ERROR);
+            out.writeUTF(rejected);
+            out.flush();
+            return;
+        }
+        
+        problemId = id;
+        startState = start;
+        goal = new SimpleGoal(desiredState);
+        actions = problemActions;
+        searchHeuristic = heuristic.forSearch(goal, actions);
+        actionIndex = new IdentityHashMap<>();
+        for (int i = 0; i < actions.size(); i++) {
+            actionIndex.put(actions.get(i), i);
+        }
+        open = new PriorityQueue<>(Comparator.comparingDouble(Node::f).thenComparingDouble(node -> node.h));
+        bestG = new HashMap<>();
+        outgoing = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            outgoing.add(new ArrayList<>());
+        }
+        sent = 0;
+        received = 0;
+        goalCost = Float.POSITIVE_INFINITY;
+        goalPath = null;
+        
+        if (ownerOf(StateFingerprint.of(startState)) == shard) {
+            offer(new ShardProtocol.Successor(startState, 0, new int[0]));
+        }
+        out.writeByte(ShardProtocol.READY);
+        out.flush();
+    }
+    
+    /**
+     * Takes in the received successors and expands up to budget nodes cheaper than the incumbent
+     */
+    private ShardProtocol.Report round(float incumbent, int budget) throws IOException {
+        // Batches left over from an abandoned problem are dropped
+        Batch batch;
+        while ((batch = inbox.poll()) != null) {
+            if (batch.problemId == problemId) {
+                received += batch.successors.size();
+                for (ShardProtocol.Successor successor : batch.successors) {
+                    offer(successor);
+                }
+            }
+        }
+        
+        int expanded = 0;
+        while (expanded < budget) {
+            Node node = peekOpen();
+            if (node == null || node.f() >= Math.min(incumbent, goalCost)) {
+                break;
+            }
+            open.poll();
+            
+            if (goal.isSatisfied(node.state)) {
+                goalCost = node.g;
+                goalPath = node.path;
+                continue;
+            }
+            expanded++;
+            
+            for (Action action : actions) {
+                if (!action.checkPreconditions(node.state)) {
+                    continue;
+                }
+                WorldState newState = action.applyEffects(node.state);
+                int[] path = Arrays.copyOf(node.path, node.path.length + 1);
+                path[node.path.length] = actionIndex.get(action);
+                ShardProtocol.Successor successor = new ShardProtocol.Successor(newState,
+                    node.g + action.getCost(), path);
+                
+                int owner = ownerOf(StateFingerprint.of(newState));
+                if (owner == shard) {
+                    offer(successor);
+                } else {
+                    outgoing.get(owner).add(successor);
+                    if (outgoing.get(owner).size() >= BATCH_SIZE) {
+                        send(owner);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < shardCount; i++) {
+            if (!outgoing.get(i).isEmpty()) {
+                send(i);
+            }
+            if (peers[i] != null) {
+                peers[i].flush();
+            }
+        }
+        
+        Node best = peekOpen();
+        ShardProtocol.Report report = new ShardProtocol.Report();
+        report.sent = sent;
+        report.received = received;
+        report.minOpenF = best != null ? best.f() : Float.POSITIVE_INFINITY;
+        report.expanded = expanded;
+        report.goalCost = goalCost;
+        report.goalPath = goalPath;
+        return report;
+    }
+    
+    private void offer(ShardProtocol.Successor successor) {
+        long fingerprint = StateFingerprint.of(successor.state);
+        Float known = bestG.get(fingerprint);
+        if (known != null && known <= successor.g) {
+            return;
+        }
+        bestG.put(fingerprint, successor.g);
+        float h = searchHeuristic.calculate(successor.state, goal, actions);
+        if (h != Float.POSITIVE_INFINITY) {
+            open.add(new Node(fingerprint, successor.state, successor.g, h, successor.path));
+        }
+    }
+    
+    /**
+     * Get the best open node, dropping entries superseded by a cheaper path
+     */
+    private Node peekOpen() {
+        while (!open.isEmpty() && open.peek().g > bestG.get(open.peek().fingerprint)) {
+            open.poll();
+        }
+        return open.peek();
+    }
+    
+    private void send(int owner) throws IOException {
+        List<ShardProtocol.Successor> batch = outgoing.get(owner);
+        DataOutputStream out = peers[owner];
+        out.writeInt(problemId);
+        out.writeInt(batch.size());
+        for (ShardProtocol.Successor successor : batch) {
+            out.writeFloat(successor.g);
+            ShardProtocol.writePath(out, successor.path);
+            peerWriters[owner].write(out, successor.state.getAllProperties());
+        }
+        sent += batch.size();
+        batch.clear();
+    }
+    
+    private int ownerOf(long fingerprint) {
+        return Math.floorMod(fingerprint, shardCount);
+    }
+    
+    private static final class Batch {
+        final int problemId;
+        final List<ShardProtocol.Successor> successors;
+        
+        Batch(int problemId, List<ShardProtocol.Successor> successors) {
+            this.problemId = problemId;
+            this.successors = successors;
+        }
+    }
+    
+    private static final class Node {
+        final long fingerprint;
+        final WorldState state;
+        final float g;
+        final float h;
+        final int[] path;
+        
+        Node(long fingerprint, WorldState state, float g, float h, int[] path) {
+            this.fingerprint = fingerprint;
+            this.state = state;
+            this.g = g;
+            this.h = h;
+            this.path = path;
+        }
+        
+        float f() {
+            return g + h;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.Planner;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.diagnostics.PlanSearchEvent;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A planner that spreads one A* search over several ShardWorker processes on this machine.
+ *
+ * Each worker owns the states whose fingerprint falls into its hash partition, keeps
+ * their open and closed entries, and sends the successors it generates for other
+ * partitions straight to their owners in batches over loopback sockets. The coordinator
+ * drives the search in rounds: every worker expands a bounded number of its best nodes
+ * below the incumbent plan cost and reports back. The search ends when the counts of
+ * sent and received successors agree, so nothing is in flight, and no worker has an
+ * open node cheaper than the incumbent; with an admissible heuristic the incumbent is
+ * then optimal.
+ *
+ * The workers are started by the constructor with the given action catalog and heuristic
+ * classes, which need public no-argument constructors, and are stopped by close(). A
+ * problem may use any actions of the catalog, matched by id; a worker rejects a problem
+ * whose action differs from its catalog action in cost, preconditions or effects, as it
+ * would otherwise search a different problem. States and goal values must
+ * be null, Boolean, Integer, Long, Double or String, goals must be expressible as desired
+ * values, and lifted actions are not supported.
+ */
+public class ShardedPlanner implements Planner, AutoCloseable {
+    private static final int ROUND_EXPANSIONS = 512;
+    
+    private final List<Process> processes = new ArrayList<>();
+    private final List<DataInputStream> inputs = new ArrayList<>();
+    private final List<DataOutputStream> outputs = new ArrayList<>();
+    private final List<ShardProtocol.StateWriter> stateWriters = new ArrayList<>();
+    private final long maxExpansions;
+    // A local instance of the workers' heuristic, asked whether their plans are optimal
+    private final HeuristicFunction heuristic;
+    
+    private int problemId;
+    private int lastRounds;
+    private long lastExpansions;
+    
+    /**
+     * @param workers Number of worker processes
+     * @param actionCatalog Supplier of every action a problem may use, instantiated in each worker
+     * @param heuristic Heuristic, instantiated in each worker
+     * @param maxExpansions Total expansions after which a search gives up
+     */
+    public ShardedPlanner(int workers, Class<? extends Supplier<List<Action>>> actionCatalog,
+                          Class<? extends HeuristicFunction> heuristic, long maxExpansions) throws IOException {
+        if (workers < 1) {
+            throw new IllegalArgumentException("A sharded planner needs at least one worker");
+        }
+        this.maxExpansions = maxExpansions;
+        try {
+            this.heuristic = (HeuristicFunction) ShardWorker.newInstance(heuristic.getName());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot instantiate heuristic " + heuristic.getName(), e);
+        }
+        try {
+            int[] ports = new int[workers];
+            for (int i = 0; i < workers; i++) {
+                ports[i] = start(actionCatalog, heuristic);
+            }
+            for (int port : ports) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.writeByte(ShardProtocol.CONTROL);
+                outputs.add(out);
+                inputs.add(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+                stateWriters.add(new ShardProtocol.StateWriter());
+            }
+            for (int i = 0; i < workers; i++) {
+                DataOutputStream out = outputs.get(i);
+                out.writeByte(ShardProtocol.INIT);
+                out.writeInt(i);
+                out.writeInt(workers);
+                for (int port : ports) {
+                    out.writeInt(port);
+                }
+                out.flush();
+            }
+            expectReady();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Starts a worker process and waits for the port it listens on
+     */
+    private int start(Class<?> actionCatalog, Class<?> heuristic) throws IOException {
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), "-cp", classPath(actionCatalog, heuristic),
+            "-Dgoap.log=off", ShardWorker.class.getName(), actionCatalog.getName(), heuristic.getName())
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        processes.add(process);
+        
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(ShardProtocol.PORT_PREFIX)) {
+                int port = Integer.parseInt(line.substring(ShardProtocol.PORT_PREFIX.length()).trim());
+                // Keep reading so that a chatty worker never blocks on a full pipe
+                Thread drain = new Thread(() -> {
+                    try {
+                        while (reader.readLine() != null) {
+                            // Discarded
+                        }
+                    } catch (IOException e) {
+                        // The worker has exited
+                    }
+                }, "shard-output");
+                drain.setDaemon(true);
+                drain.start();
+                return port;
+            }
+        }
+        throw new IOException("Shard worker exited before listening: exit code " + waitFor(process));
+    }
+    
+    /**
+     * The class path of this JVM plus the locations of the worker's classes, which differ
+     * when they were loaded by another class loader, e.g. under exec:java
+     */
+    private static String classPath(Class<?>... classes) {
+        Set<String> entries = new LinkedHashSet<>();
+        List<Class<?>> types = new ArrayList<>(Arrays.asList(classes));
+        types.add(0, ShardWorker.class);
+        for (Class<?> type : types) {
+            try {
+                entries.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+            } catch (NullPointerException | java.net.URISyntaxException e) {
+                // Not loaded from a file; the JVM class path has to cover it
+            }
+        }
+        entries.addAll(Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+        return String.join(File.pathSeparator, entries);
+    }
+    
+    private static int waitFor(Process process) {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+    
+    @Override
+    public synchronized Plan createPlan(WorldState currentState, Goal goal, List<Action> availableActions) {
+        if (goal.isSatisfied(currentState)) {
+            return new Plan(List.of(), true);
+        }
+        checkSupported(currentState, goal, availableActions);
+        
+        PlanSearchEvent event = new PlanSearchEvent();
+        event.begin();
+        try {
+            SearchResult result = search(currentState, goal, availableActions);
+            SearchSupport.finish(event, "Sharded", goal, availableActions, result);
+            return result.isFound() ? new Plan(result.getActions(), result.isOptimal()) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private SearchResult search(WorldState currentState, Goal goal, List<Action> availableActions)
+            throws IOException {
+        problemId++;
+        for (int i = 0; i < outputs.size(); i++) {
+            DataOutputStream out = outputs.get(i);
+            out.writeByte(ShardProtocol.PROBLEM);
+            out.writeInt(problemId);
+            stateWriters.get(i).write(out, currentState.getAllProperties());
+            out.writeInt(goal.getRequiredProperties().size());
+            for (String key : goal.getRequiredProperties()) {
+                out.writeUTF(key);
+                ShardProtocol.writeValue(out, goal.getDesiredValue(key));
+            }
+            out.writeInt(availableActions.size());
+            for (Action action : availableActions) {
+                out.writeUTF(action.getId());
+                out.writeLong(StateFingerprint.of(action));
+            }
+            out.flush();
+        }
+        expectReady();
+        
+        float incumbent = Float.POSITIVE_INFINITY;
+        int[] incumbentPath = null;
+        lastRounds = 0;
+        lastExpansions = 0;
+        while (lastExpansions < maxExpansions) {
+            for (DataOutputStream out : outputs) {
+                out.writeByte(ShardProtocol.ROUND);
+                out.writeFloat(incumbent);
+                out.writeInt(ROUND_EXPANSIONS);
+                out.flush();
+            }
+            
+            long sent = 0;
+            long received = 0;
+            float minOpenF = Float.POSITIVE_INFINITY;
+            for (DataInputStream in : inputs) {
+                byte tag = in.readByte();
+                if (tag != ShardProtocol.REPORT) {
+                    throw new IOException("Unexpected reply from shard worker: " + tag);
+                }
+                ShardProtocol.Report report = ShardProtocol.Report.read(in);
+                sent += report.sent;
+                received += report.received;
+                minOpenF = Math.min(minOpenF, report.minOpenF);
+                lastExpansions += report.expanded;
+                if (report.goalCost < incumbent) {
+                    incumbent = report.goalCost;
+                    incumbentPath = report.goalPath;
+                }
+            }
+            lastRounds++;
+            
+            if (sent == received && minOpenF >= incumbent) {
+                if (incumbentPath == null) {
+                    return SearchResult.notFound((int) Math.min(Integer.MAX_VALUE, lastExpansions));
+                }
+                List<Action> plan = new ArrayList<>(incumbentPath.length);
+                for (int index : incumbentPath) {
+                    plan.add(availableActions.get(index));
+                }
+                DiagnosticLog.log("Sharded search finished after " + lastRounds + " rounds on "
+                    + outputs.size() + " workers");
+                return new SearchResult(plan, heuristic.forSearch(goal, availableActions).isAdmissible(),
+                    (int) Math.min(Integer.MAX_VALUE, lastExpansions));
+            }
+        }
+        
+        DiagnosticLog.log("Sharded search exceeded maximum expansions (" + maxExpansions + ")");
+        return SearchResult.limitReached((int) Math.min(Integer.MAX_VALUE, lastExpansions));
+    }
+    
+    private static void checkSupported(WorldState state, Goal goal, List<Action> availableActions) {
+        for (Action action : availableActions) {
+            if (action instanceof LiftedAction) {
+                throw new IllegalArgumentException("Sharded search needs ground actions: " + action.getId());
+            }
+        }
+        if (goal.getConditions().size() != goal.getRequiredProperties().size()) {
+            throw new IllegalArgumentException("Sharded search needs a goal made of desired values: " + goal);
+        }
+        List<Object> values = new ArrayList<>(state.getAllProperties().values());
+        for (String key : goal.getRequiredProperties()) {
+            values.add(goal.getDesiredValue(key));
+        }
+        for (Object value : values) {
+            if (!ShardProtocol.isSupported(value)) {
+                throw new IllegalArgumentException("Cannot send a " + value.getClass().getName() + " to a shard");
+            }
+        }
+    }
+    
+    /**
+     * Reads every worker's reply, so that the connections stay in step even if one refused
+     */
+    private void expectReady() throws IOException {
+        String error = null;
+        for (DataInputStream in : inputs) {
+            byte tag = in.readByte();
+            if (tag == ShardProtocol.ERROR) {
+                error = in.readUTF();
+            } else if (tag != ShardProtocol.READY) {
+                throw new IOException("Unexpected reply from shard worker: " + tag);
+            }
+        }
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+    
+    @Override
+    public boolean isPlanValid(Plan plan, WorldState state, Goal goal) {
+        if (plan == null) {
+            return false;
+        }
+        return new ValidatedPlan(plan, state, goal).isValid();
+    }
+    
+    /**
+     * Get the number of rounds of the last search
+     */
+    public int getLastRoundCount() {
+        return lastRounds;
+    }
+    
+    /**
+     * Get the number of nodes the workers expanded in the last search
+     */
+    public long getLastExpansionCount() {
+        return lastExpansions;
+    }
+    
+    /**
+     * Get the number of worker processes
+     */
+    public int getWorkerCount() {
+        return processes.size();
+    }
+    
+    /**
+     * Stops the workers
+     */
+    @Override
+    public synchronized void close() {
+        for (DataOutputStream out : outputs) {
+            try {
+                out.writeByte(ShardProtocol.SHUTDOWN);
+                out.close();
+            } catch (IOException e) {
+                // The worker has already gone
+            }
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, java.util.concurrent.TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
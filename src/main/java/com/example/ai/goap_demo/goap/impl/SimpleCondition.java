@@ -20,6 +20,10 @@ public class SimpleCondition implements Condition {
         return propertyKey;
     }
     
+    public Object getExpectedValue() {
+        return expectedValue;
+    }
+    
     @Override
     public boolean isSatisfied(WorldState state) {
         Object actualValue = state.getProperty(propertyKey);
@@ -20,6 +20,10 @@ public class SimpleEffect implements Effect {
         return propertyKey;
     }
     
+    public Object getValue() {
+        return value;
+    }
+    
     @Override
     public void apply(WorldState state) {
         state.setProperty(propertyKey, value);
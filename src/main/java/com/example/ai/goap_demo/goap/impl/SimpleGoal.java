@@ -18,7 +18,16 @@ public class SimpleGoal implements Goal {
         this.desiredState = new HashMap<>(desiredState);
         this.conditions = desiredState.entrySet().stream()
             .map(entry -> new SimpleCondition(entry.getKey(), entry.getValue()))
-            .collect(Collectors.toList());
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+    
+    /**
+     * Creates a goal that also requires additional conditions, such as numeric ranges,
+     * which cannot be expressed as a desired value
+     */
+    public SimpleGoal(Map<String, Object> desiredState, List<Condition> additionalConditions) {
+        this(desiredState);
+        this.conditions.addAll(additionalConditions);
     }
     
     @Override
@@ -2,16 +2,33 @@ package com.example.ai.goap_demo.goap.impl;
 
 import com.example.ai.goap_demo.goap.core.Action;
 import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
 import com.example.ai.goap_demo.goap.core.Goal;
 import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.LiftedAction;
 import com.example.ai.goap_demo.goap.core.WorldState;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A simple heuristic function that counts the number of unsatisfied conditions.
  */
 public class SimpleHeuristic implements HeuristicFunction {
+    private static final SimpleHeuristic ADMISSIBLE = new SimpleHeuristic(true);
+    private static final SimpleHeuristic INADMISSIBLE = new SimpleHeuristic(false);
+    
+    private final boolean admissible;
+    
+    public SimpleHeuristic() {
+        this(false);
+    }
+    
+    private SimpleHeuristic(boolean admissible) {
+        this.admissible = admissible;
+    }
+    
     @Override
     public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
         int unsatisfiedConditions = 0;
@@ -24,4 +41,45 @@ public class SimpleHeuristic implements HeuristicFunction {
         
         return unsatisfiedConditions;
     }
+    
+    /**
+     * The count is admissible when every unsatisfied condition needs an action of its own
+     * costing at least 1: the goal conditions are on distinct properties, and every action
+     * costs at least 1 and sets at most one of them through its declared effects.
+     */
+    @Override
+    public HeuristicFunction forSearch(Goal goal, List<Action> availableActions) {
+        return isAdmissibleFor(goal, availableActions) ? ADMISSIBLE : INADMISSIBLE;
+    }
+    
+    @Override
+    public boolean isAdmissible() {
+        return admissible;
+    }
+    
+    private static boolean isAdmissibleFor(Goal goal, List<Action> availableActions) {
+        Set<String> goalKeys = new HashSet<>();
+        for (Condition condition : goal.getConditions()) {
+            if (!goalKeys.add(condition.getPropertyKey())) {
+                return false;
+            }
+        }
+        for (Action action : availableActions) {
+            if (action instanceof LiftedAction || !SearchSupport.appliesDeclaredEffects(action)
+                || action.getCost() < 1) {
+                return false;
+            }
+            String goalKey = null;
+            for (Effect effect : action.getEffects()) {
+                String key = effect.getPropertyKey();
+                if (goalKeys.contains(key)) {
+                    if (goalKey != null && !goalKey.equals(key)) {
+                        return false;
+                    }
+                    goalKey = key;
+                }
+            }
+        }
+        return true;
+    }
 }
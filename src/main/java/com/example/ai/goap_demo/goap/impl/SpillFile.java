@@ -0,0 +1,153 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential, buffered NIO access to the run files of an external-memory search.
+ *
+ * Node record layout: [long fingerprint][float g][float h][int length][int action]*length.
+ * Closed runs hold plain long fingerprints. Both are written in ascending
+ * fingerprint order so that runs can be merged without loading them.
+ */
+final class SpillFile {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int HEADER_SIZE = 8 + 4 + 4 + 4;
+    
+    private SpillFile() {
+    }
+    
+    /**
+     * A node as stored in a run: enough to rebuild the state by replaying the path from the start
+     */
+    static final class NodeRecord {
+        final long fingerprint;
+        final float g;
+        final float h;
+        final int[] path;
+        
+        NodeRecord(long fingerprint, float g, float h, int[] path) {
+            this.fingerprint = fingerprint;
+            this.g = g;
+            this.h = h;
+            this.path = path;
+        }
+        
+        float f() {
+            return g + h;
+        }
+    }
+    
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long records;
+        
+        Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+        
+        void write(NodeRecord record) throws IOException {
+            int size = HEADER_SIZE + 4 * record.path.length;
+            if (size > BUFFER_SIZE) {
+                throw new IOException("Path too long to spill: " + record.path.length + " actions");
+            }
+            ensure(size);
+            buffer.putLong(record.fingerprint).putFloat(record.g).putFloat(record.h).putInt(record.path.length);
+            for (int action : record.path) {
+                buffer.putInt(action);
+            }
+            records++;
+        }
+        
+        void write(long fingerprint) throws IOException {
+            ensure(8);
+            buffer.putLong(fingerprint);
+            records++;
+        }
+        
+        long getRecordCount() {
+            return records;
+        }
+        
+        private void ensure(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                flush();
+            }
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+    
+    static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private boolean eof;
+        
+        Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            buffer.flip();
+        }
+        
+        /**
+         * Get the next node record, or null at the end of the run
+         */
+        NodeRecord readNode() throws IOException {
+            if (!fill(HEADER_SIZE)) {
+                return null;
+            }
+            long fingerprint = buffer.getLong();
+            float g = buffer.getFloat();
+            float h = buffer.getFloat();
+            int[] path = new int[buffer.getInt()];
+            if (!fill(4 * path.length)) {
+                throw new IOException("Truncated spill record");
+            }
+            for (int i = 0; i < path.length; i++) {
+                path[i] = buffer.getInt();
+            }
+            return new NodeRecord(fingerprint, g, h, path);
+        }
+        
+        /**
+         * Get the next fingerprint of a closed run, or Long.MAX_VALUE at the end of the run
+         */
+        long readFingerprint() throws IOException {
+            return fill(8) ? buffer.getLong() : Long.MAX_VALUE;
+        }
+        
+        boolean hasMore() throws IOException {
+            return fill(1);
+        }
+        
+        private boolean fill(int size) throws IOException {
+            while (buffer.remaining() < size && !eof) {
+                buffer.compact();
+                eof = channel.read(buffer) < 0;
+                buffer.flip();
+            }
+            return buffer.remaining() >= size;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
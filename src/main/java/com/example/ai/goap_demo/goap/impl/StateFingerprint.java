@@ -0,0 +1,202 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 64-bit fingerprints of states, goals and action sets, used as cache keys and by the
+ * searches that tell states apart without keeping them.
+ *
+ * A state fingerprint is an order-independent sum of mixed per-property hashes. Each
+ * is a 64-bit hash of the key's characters and of the value's content, tagged with the
+ * value's type, so that values that are not equal, such as Boolean.TRUE and 1231, hash
+ * differently. Two different states then collide with a probability of about 2^-64.
+ * Values other than strings, numbers, booleans, characters, enums and collections of
+ * them are hashed through their hashCode and collide as often as that does.
+ *
+ * The fingerprint of a goal and action set covers the goal conditions and each action's
+ * id, cost, preconditions and effects, so tables derived from them, such as pattern
+ * databases, are not reused for actions that were changed under the same id.
+ */
+public final class StateFingerprint {
+    private static final long NULL_HASH = 0x6A09E667F3BCC908L;
+    private static final long TRUE_HASH = 0xBB67AE8584CAA73BL;
+    private static final long FALSE_HASH = 0x3C6EF372FE94F82BL;
+    
+    // Tags separating the types of numbers and other values
+    private static final long INTEGER_TAG = 0xA54FF53A5F1D36F1L;
+    private static final long LONG_TAG = 0x510E527FADE682D1L;
+    private static final long SHORT_TAG = 0x9B05688C2B3E6C1FL;
+    private static final long BYTE_TAG = 0x1F83D9ABFB41BD6BL;
+    private static final long DOUBLE_TAG = 0x5BE0CD19137E2179L;
+    private static final long FLOAT_TAG = 0xCBBB9D5DC1059ED8L;
+    private static final long CHARACTER_TAG = 0x629A292A367CD507L;
+    private static final long LIST_TAG = 0x9159015A3070DD17L;
+    private static final long SET_TAG = 0x152FECD8F70E5939L;
+    private static final long MAP_TAG = 0x67332667FFC00B31L;
+    private static final long EFFECTS_TAG = 0x8EB44A8768581511L;
+    
+    private StateFingerprint() {
+    }
+    
+    /**
+     * Fingerprint of all properties of a state
+     */
+    public static long of(WorldState state) {
+        long fingerprint = 0;
+        for (Map.Entry<String, Object> entry : state.getAllProperties().entrySet()) {
+            fingerprint += entry(entry.getKey(), entry.getValue());
+        }
+        return fingerprint;
+    }
+    
+    /**
+     * Fingerprint of one property, summed over properties to form a state fingerprint
+     */
+    public static long entry(String key, Object value) {
+        return mix(hash(key) * 0x9E3779B97F4A7C15L + valueHash(value));
+    }
+    
+    /**
+     * Fingerprint of a goal together with the actions available for reaching it
+     */
+    public static long of(Goal goal, List<Action> availableActions) {
+        long fingerprint = 0;
+        for (Condition condition : goal.getConditions()) {
+            fingerprint += partHash(condition);
+        }
+        
+        // The sum does not depend on the order of the actions
+        long actions = 0;
+        for (Action action : availableActions) {
+            actions += mix(of(action));
+        }
+        return mix(fingerprint) ^ actions;
+    }
+    
+    /**
+     * Fingerprint of an action's id, cost, preconditions and effects
+     */
+    public static long of(Action action) {
+        long hash = mix(hash(action.getId()) * 31 + Float.floatToIntBits(action.getCost()));
+        for (Condition condition : action.getPreconditions()) {
+            hash = mix(hash * 31 + partHash(condition));
+        }
+        // Effects apply in order, so their order is part of the action
+        hash = mix(hash + EFFECTS_TAG);
+        for (Effect effect : action.getEffects()) {
+            hash = mix(hash * 31 + partHash(effect));
+        }
+        if (action instanceof ActionSchema) {
+            ActionSchema schema = (ActionSchema) action;
+            hash = mix(hash * 31 + hash(schema.getParameters().toString()));
+            hash = mix(hash * 31 + hash(schema.getLiftedPreconditions().toString()));
+            hash = mix(hash * 31 + hash(schema.getLiftedEffects().toString()));
+        }
+        return hash;
+    }
+    
+    /**
+     * Hash of a condition or effect, with typed values where they are known
+     */
+    private static long partHash(Object part) {
+        long content;
+        if (part instanceof SimpleCondition) {
+            content = entry(((SimpleCondition) part).getPropertyKey(), ((SimpleCondition) part).getExpectedValue());
+        } else if (part instanceof NotCondition) {
+            content = entry(((NotCondition) part).getPropertyKey(), ((NotCondition) part).getUnexpectedValue());
+        } else if (part instanceof SimpleEffect) {
+            content = entry(((SimpleEffect) part).getPropertyKey(), ((SimpleEffect) part).getValue());
+        } else {
+            // Numeric conditions and effects print their bounds and deltas exactly
+            content = hash(part.toString());
+        }
+        return mix(hash(part.getClass().getName()) * 31 + content);
+    }
+    
+    /**
+     * 64-bit hash of the characters of a string
+     */
+    public static long hash(CharSequence text) {
+        // FNV-1a over the characters, finished by the mixer
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash + text.length());
+    }
+    
+    private static long valueHash(Object value) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+        if (value instanceof String) {
+            return hash((String) value);
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? TRUE_HASH : FALSE_HASH;
+        }
+        if (value instanceof Integer) {
+            return mix((Integer) value + INTEGER_TAG);
+        }
+        if (value instanceof Long) {
+            return mix((Long) value + LONG_TAG);
+        }
+        if (value instanceof Double) {
+            return mix(Double.doubleToLongBits((Double) value) + DOUBLE_TAG);
+        }
+        if (value instanceof Float) {
+            return mix(Float.floatToIntBits((Float) value) + FLOAT_TAG);
+        }
+        if (value instanceof Short) {
+            return mix((Short) value + SHORT_TAG);
+        }
+        if (value instanceof Byte) {
+            return mix((Byte) value + BYTE_TAG);
+        }
+        if (value instanceof Character) {
+            return mix((Character) value + CHARACTER_TAG);
+        }
+        if (value instanceof Enum) {
+            return mix(hash(((Enum<?>) value).getDeclaringClass().getName()) * 31 + hash(((Enum<?>) value).name()));
+        }
+        if (value instanceof List) {
+            long hash = LIST_TAG;
+            for (Object element : (List<?>) value) {
+                hash = mix(hash * 31 + valueHash(element));
+            }
+            return hash;
+        }
+        if (value instanceof Set) {
+            long hash = SET_TAG;
+            for (Object element : (Set<?>) value) {
+                hash += mix(valueHash(element));
+            }
+            return mix(hash);
+        }
+        if (value instanceof Map) {
+            long hash = MAP_TAG;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                hash += mix(valueHash(entry.getKey()) * 31 + valueHash(entry.getValue()));
+            }
+            return mix(hash);
+        }
+        return mix(hash(value.getClass().getName()) * 31 + value.hashCode());
+    }
+    
+    /**
+     * Finalizer of the SplitMix64 generator, spreading every input bit over the output
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
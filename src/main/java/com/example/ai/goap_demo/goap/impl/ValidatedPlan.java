@@ -0,0 +1,209 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.*;
+
+/**
+ * A plan that has been simulated against a state, keeping the intermediate
+ * state before every step so that later world updates only re-simulate the
+ * part of the plan that can observe them.
+ *
+ * Dependencies are taken from the declared preconditions and goal conditions,
+ * so actions that read properties outside of getPreconditions() are not tracked.
+ */
+public class ValidatedPlan {
+    private final Plan plan;
+    private final Goal goal;
+    private final List<Action> actions;
+    
+    // checkpoints[i] is the state before step i, checkpoints[n] is the final state
+    private final WorldState[] checkpoints;
+    
+    // Property key -> first step whose preconditions or read-modify-write effects read the key
+    // before any step writes it (actions.size() stands for the goal check)
+    private final Map<String, Integer> firstReader = new HashMap<>();
+    
+    // Property key -> first step that writes the key
+    private final Map<String, Integer> firstWriter = new HashMap<>();
+    
+    // Number of steps whose checkpoints are known to be consistent
+    private int simulatedSteps;
+    private boolean valid;
+    
+    public ValidatedPlan(Plan plan, WorldState state, Goal goal) {
+        this.plan = plan;
+        this.goal = goal;
+        this.actions = plan.getActions();
+        this.checkpoints = new WorldState[actions.size() + 1];
+        this.checkpoints[0] = state.copy();
+        indexDependencies();
+        simulateFrom(0);
+    }
+    
+    /**
+     * Records which step first reads and first writes each property
+     */
+    private void indexDependencies() {
+        for (int i = 0; i < actions.size(); i++) {
+            Action action = actions.get(i);
+            for (Condition condition : action.getPreconditions()) {
+                String key = condition.getPropertyKey();
+                if (!firstWriter.containsKey(key)) {
+                    firstReader.putIfAbsent(key, i);
+                }
+            }
+            for (Effect effect : action.getEffects()) {
+                String key = effect.getPropertyKey();
+                // Effects other than plain assignments, such as increments, also read the key
+                if (!(effect instanceof SimpleEffect) && !firstWriter.containsKey(key)) {
+                    firstReader.putIfAbsent(key, i);
+                }
+                firstWriter.putIfAbsent(key, i);
+            }
+        }
+        
+        for (Condition condition : goal.getConditions()) {
+            String key = condition.getPropertyKey();
+            if (!firstWriter.containsKey(key)) {
+                firstReader.putIfAbsent(key, actions.size());
+            }
+        }
+    }
+    
+    /**
+     * Re-simulates the plan from the given step, reusing the checkpoint before it
+     */
+    private void simulateFrom(int step) {
+        WorldState simulatedState = checkpoints[step];
+        
+        for (int i = step; i < actions.size(); i++) {
+            Action action = actions.get(i);
+            
+            // Check if action's preconditions are met
+            if (!action.checkPreconditions(simulatedState)) {
+                simulatedSteps = i;
+                valid = false;
+                return;
+            }
+            
+            // Apply action's effects (applyEffects returns a fresh copy)
+            simulatedState = action.applyEffects(simulatedState);
+            checkpoints[i + 1] = simulatedState;
+        }
+        
+        simulatedSteps = actions.size();
+        valid = goal.isSatisfied(simulatedState);
+    }
+    
+    /**
+     * Updates the plan after the given properties changed in the world state.
+     * Only the suffix starting at the first step that reads a changed property
+     * is re-simulated.
+     *
+     * @param state The updated world state
+     * @param changedKeys The properties that changed since the last validation
+     * @return true if the plan is still valid
+     */
+    public boolean revalidate(WorldState state, Collection<String> changedKeys) {
+        int restartStep = Integer.MAX_VALUE;
+        
+        for (String key : changedKeys) {
+            Object value = state.getProperty(key);
+            
+            // Patch the checkpoints that still carry the initial value of the property
+            int writer = firstWriter.getOrDefault(key, actions.size());
+            int patchUntil = Math.min(writer, simulatedSteps);
+            for (int i = 0; i <= patchUntil; i++) {
+                if (checkpoints[i] != null) {
+                    checkpoints[i].setProperty(key, value);
+                }
+            }
+            
+            Integer reader = firstReader.get(key);
+            if (reader != null) {
+                restartStep = Math.min(restartStep, reader);
+            }
+        }
+        
+        // A plan that stopped early must be resumed where it stopped
+        if (!valid) {
+            restartStep = Math.min(restartStep, simulatedSteps);
+        }
+        
+        if (restartStep != Integer.MAX_VALUE) {
+            if (restartStep >= actions.size()) {
+                valid = simulatedSteps == actions.size() && goal.isSatisfied(checkpoints[actions.size()]);
+            } else {
+                simulateFrom(restartStep);
+            }
+        }
+        
+        return valid;
+    }
+    
+    /**
+     * Updates the plan against a new world state, diffing it with the state the
+     * plan was last validated against to find the changed properties.
+     *
+     * @param state The updated world state
+     * @return true if the plan is still valid
+     */
+    public boolean revalidate(WorldState state) {
+        Map<String, Object> previous = checkpoints[0].getAllProperties();
+        Map<String, Object> current = state.getAllProperties();
+        
+        Set<String> changedKeys = new HashSet<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        
+        return revalidate(state, changedKeys);
+    }
+    
+    public boolean isValid() {
+        return valid;
+    }
+    
+    public Plan getPlan() {
+        return plan;
+    }
+    
+    /**
+     * Get a copy of the simulated state before the given step (step == plan size gives the
+     * final state), or null if simulation stopped before reaching it
+     */
+    public WorldState getStateBefore(int step) {
+        WorldState checkpoint = checkpoint(step);
+        return checkpoint != null ? checkpoint.copy() : null;
+    }
+    
+    /**
+     * Get the checkpoint itself, which later revalidations patch or replace
+     */
+    WorldState checkpoint(int step) {
+        if (step > simulatedSteps) {
+            return null;
+        }
+        return checkpoints[step];
+    }
+    
+    /**
+     * Get the first step that reads the given property, or -1 if no step depends on it
+     */
+    public int getFirstReader(String key) {
+        return firstReader.getOrDefault(key, -1);
+    }
+}
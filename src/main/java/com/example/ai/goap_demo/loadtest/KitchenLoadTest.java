@@ -0,0 +1,155 @@
+package com.example.ai.goap_demo.loadtest;
+
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.AdaptiveCostModel;
+import com.example.ai.goap_demo.goap.impl.ExecutionStats;
+import com.example.ai.goap_demo.pizzabot.KitchenSimulation;
+import com.example.ai.goap_demo.pizzabot.PizzaBot;
+import com.example.ai.goap_demo.pizzabot.actions.CheckIngredientsAction;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Drives simulated orders through PizzaBot planning and execution at a fixed arrival rate.
+ *
+ * Arrivals are open-loop: orders arrive on a Poisson schedule whether or not the
+ * bots keep up, and end-to-end latency is measured from each order's scheduled
+ * arrival, so queueing delay under overload is not hidden (no coordinated omission).
+ *
+ * Run with: mvn compile exec:java -Dexec.mainClass=com.example.ai.goap_demo.loadtest.KitchenLoadTest
+ *           -Dexec.args="--orders=2000 --rate=200 --workers=16 --report=target/loadtest.json"
+ */
+public class KitchenLoadTest {
+    
+    public static void main(String[] args) throws InterruptedException, IOException {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        DiagnosticLog.setSink(null);
+        
+        LoadTestReport report = run(config);
+        System.out.println(report);
+        
+        String json = report.toJson();
+        if (config.getReportPath() != null) {
+            Path path = Path.of(config.getReportPath());
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+            System.out.println("Report written to " + path);
+        } else {
+            System.out.print(json);
+        }
+    }
+    
+    /**
+     * Runs a load test and waits for every order to complete
+     */
+    public static LoadTestReport run(LoadTestConfig config) throws InterruptedException {
+        LoadTestReport report = new LoadTestReport(config);
+        
+        // Stock enough for every order, so failures come from the injected faults only
+        IngredientInventory inventory = new IngredientInventory();
+        Set<String> ingredients = new TreeSet<>();
+        for (String type : config.getPizzaMix().keySet()) {
+            ingredients.addAll(CheckIngredientsAction.getRequiredIngredients(type));
+        }
+        for (String ingredient : ingredients) {
+            inventory.restock(ingredient, config.getOrders());
+        }
+        
+        List<String> types = new ArrayList<>(config.getPizzaMix().keySet());
+        double[] cumulative = new double[types.size()];
+        double total = 0;
+        for (int i = 0; i < types.size(); i++) {
+            total += config.getPizzaMix().get(types.get(i));
+            cumulative[i] = total;
+        }
+        
+        KitchenSimulation.setTimeScale(config.getTimeScale());
+        config.getFailureRates().forEach(KitchenSimulation::setFailureRate);
+        
+        // One cost unit is one simulated second; estimates need 20 samples and expire after a minute
+        AdaptiveCostModel costModel = config.isAdaptiveCosts()
+            ? new AdaptiveCostModel(new ExecutionStats(), Math.max(1e6, config.getTimeScale() * 1e9), 20,
+                60_000_000_000L, 1.0f)
+            : null;
+        
+        ExecutorService bots = Executors.newFixedThreadPool(config.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "goap-loadtest-bot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CountDownLatch done = new CountDownLatch(config.getOrders());
+        Random random = new Random(config.getSeed());
+        
+        try {
+            long start = System.nanoTime();
+            long arrival = start;
+            for (int i = 0; i < config.getOrders(); i++) {
+                arrival += (long) (-Math.log(1 - random.nextDouble()) / config.getOrdersPerSecond() * 1e9);
+                long wait = arrival - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+                
+                double pick = random.nextDouble() * total;
+                int t = 0;
+                while (t < types.size() - 1 && pick >= cumulative[t]) {
+                    t++;
+                }
+                String type = types.get(t);
+                long scheduledArrival = arrival;
+                bots.execute(() -> {
+                    try {
+                        runOrder(report, inventory, costModel, type, scheduledArrival);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            
+            done.await();
+            report.setDurationNanos(System.nanoTime() - start);
+        } finally {
+            bots.shutdownNow();
+            KitchenSimulation.reset();
+        }
+        return report;
+    }
+    
+    private static void runOrder(LoadTestReport report, IngredientInventory inventory, AdaptiveCostModel costModel,
+                                 String type, long arrival) {
+        boolean served = false;
+        try {
+            PizzaBot bot = new PizzaBot(inventory, null, null, null, costModel);
+            bot.setRequestedPizzaType(type);
+            
+            Plan plan = bot.createPlan();
+            report.getPlanLatency().record(bot.getPlanNanos());
+            if (plan != null) {
+                long start = System.nanoTime();
+                served = bot.executePlan();
+                report.getExecutionLatency().record(System.nanoTime() - start);
+            }
+            
+            for (long replan : bot.getReplanNanos()) {
+                report.getReplanLatency().record(replan);
+            }
+            if (!bot.getReplanNanos().isEmpty()) {
+                report.recordReplanned();
+            }
+        } finally {
+            report.recordServed(served);
+            report.getEndToEndLatency().record(System.nanoTime() - arrival);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.ai.goap_demo.loadtest;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent log-linear histogram of nanosecond latencies, in the style of HdrHistogram.
+ *
+ * Values below 128 are counted exactly; above that, every power of two is split
+ * into 64 linear buckets, so a recorded value is off by less than 1.6% at any
+ * magnitude. The whole long range fits in a fixed array of counters, so recording
+ * never allocates and never needs a configured maximum.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Records one value; negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+    
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+    
+    /**
+     * Get the highest value that falls into the given bucket
+     */
+    static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+    
+    public long getCount() {
+        return count.get();
+    }
+    
+    public long getMin() {
+        return count.get() == 0 ? 0 : min.get();
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) sum.get() / n;
+    }
+    
+    /**
+     * Get the value at the given percentile (0 to 100), to within the bucket precision
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+    
+    /**
+     * Adds all values recorded in another histogram to this one
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        if (other.count.get() > 0) {
+            min.accumulateAndGet(other.min.get(), Math::min);
+            max.accumulateAndGet(other.max.get(), Math::max);
+        }
+    }
+    
+    /**
+     * Summary in milliseconds as a JSON object
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT,
+            "{\"count\": %d, \"min\": %.3f, \"mean\": %.3f, \"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, "
+                + "\"p999\": %.3f, \"max\": %.3f}",
+            getCount(), getMin() / 1e6, getMean() / 1e6, getValueAtPercentile(50) / 1e6,
+            getValueAtPercentile(90) / 1e6, getValueAtPercentile(99) / 1e6, getValueAtPercentile(99.9) / 1e6,
+            getMax() / 1e6);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "count=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+            getCount(), getMean() / 1e6, getValueAtPercentile(50) / 1e6, getValueAtPercentile(90) / 1e6,
+            getValueAtPercentile(99) / 1e6, getValueAtPercentile(99.9) / 1e6, getMax() / 1e6);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.ai.goap_demo.loadtest;
+
+import com.example.ai.goap_demo.pizzabot.actions.CheckIngredientsAction;
+
+import java.util.*;
+
+/**
+ * Settings of a kitchen load test.
+ */
+public class LoadTestConfig {
+    private final int orders;
+    private final double ordersPerSecond;
+    private final int workers;
+    private final Map<String, Double> pizzaMix;
+    private final Map<String, Double> failureRates;
+    private final double timeScale;
+    private final long seed;
+    private final String reportPath;
+    private final boolean adaptiveCosts;
+    
+    /**
+     * @param orders Number of orders to run
+     * @param ordersPerSecond Poisson arrival rate
+     * @param workers Number of bots working concurrently
+     * @param pizzaMix Relative weight of every pizza type
+     * @param failureRates Injected failure probability by action id
+     * @param timeScale Scale of the simulated action durations
+     * @param seed Random seed for arrivals and the pizza mix
+     * @param reportPath File to write the JSON report to, or null
+     */
+    public LoadTestConfig(int orders, double ordersPerSecond, int workers, Map<String, Double> pizzaMix,
+                          Map<String, Double> failureRates, double timeScale, long seed, String reportPath) {
+        this(orders, ordersPerSecond, workers, pizzaMix, failureRates, timeScale, seed, reportPath, false);
+    }
+    
+    /**
+     * @param adaptiveCosts Let the bots plan with action costs learned from measured execution times
+     */
+    public LoadTestConfig(int orders, double ordersPerSecond, int workers, Map<String, Double> pizzaMix,
+                          Map<String, Double> failureRates, double timeScale, long seed, String reportPath,
+                          boolean adaptiveCosts) {
+        this.orders = orders;
+        this.ordersPerSecond = ordersPerSecond;
+        this.workers = workers;
+        this.pizzaMix = Collections.unmodifiableMap(new TreeMap<>(pizzaMix));
+        this.failureRates = Collections.unmodifiableMap(new TreeMap<>(failureRates));
+        this.timeScale = timeScale;
+        this.seed = seed;
+        this.reportPath = reportPath;
+        this.adaptiveCosts = adaptiveCosts;
+        
+        for (String type : pizzaMix.keySet()) {
+            if (!CheckIngredientsAction.getPizzaTypes().contains(type)) {
+                throw new IllegalArgumentException("Unknown pizza type: " + type);
+            }
+        }
+    }
+    
+    /**
+     * Parses options of the form --name=value. Supported: orders, rate, workers,
+     * mix (Type:weight,...), fail (actionId:rate,...), time-scale, seed, report, adaptive-costs.
+     * The mix defaults to an even mix of all pizza types the kitchen knows.
+     */
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        
+        Map<String, Double> mix = new HashMap<>();
+        if (options.containsKey("mix")) {
+            mix.putAll(parseWeights(options.get("mix")));
+        } else {
+            for (String type : CheckIngredientsAction.getPizzaTypes()) {
+                mix.put(type, 1.0);
+            }
+        }
+        Map<String, Double> failures = options.containsKey("fail")
+            ? parseWeights(options.get("fail"))
+            : Map.of("prepare_dough", 0.05);
+        
+        return new LoadTestConfig(
+            Integer.parseInt(options.getOrDefault("orders", "2000")),
+            Double.parseDouble(options.getOrDefault("rate", "200")),
+            Integer.parseInt(options.getOrDefault("workers", "16")),
+            mix,
+            failures,
+            Double.parseDouble(options.getOrDefault("time-scale", "0.01")),
+            Long.parseLong(options.getOrDefault("seed", "42")),
+            options.get("report"),
+            Boolean.parseBoolean(options.getOrDefault("adaptive-costs", "false")));
+    }
+    
+    private static Map<String, Double> parseWeights(String value) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String part : value.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int colon = part.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Expected name:number but got: " + part);
+            }
+            weights.put(part.substring(0, colon).trim(), Double.parseDouble(part.substring(colon + 1)));
+        }
+        return weights;
+    }
+    
+    public int getOrders() {
+        return orders;
+    }
+    
+    public double getOrdersPerSecond() {
+        return ordersPerSecond;
+    }
+    
+    public int getWorkers() {
+        return workers;
+    }
+    
+    public Map<String, Double> getPizzaMix() {
+        return pizzaMix;
+    }
+    
+    public Map<String, Double> getFailureRates() {
+        return failureRates;
+    }
+    
+    public double getTimeScale() {
+        return timeScale;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public String getReportPath() {
+        return reportPath;
+    }
+    
+    public boolean isAdaptiveCosts() {
+        return adaptiveCosts;
+    }
+}
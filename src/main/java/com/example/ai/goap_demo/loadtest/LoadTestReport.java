@@ -0,0 +1,133 @@
+package com.example.ai.goap_demo.loadtest;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of a load test: outcome counts and latency histograms, printable as text or JSON.
+ */
+public class LoadTestReport {
+    private final LoadTestConfig config;
+    private final LatencyHistogram plan = new LatencyHistogram();
+    private final LatencyHistogram replan = new LatencyHistogram();
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LatencyHistogram endToEnd = new LatencyHistogram();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder ordersWithReplan = new LongAdder();
+    private long durationNanos;
+    
+    LoadTestReport(LoadTestConfig config) {
+        this.config = config;
+    }
+    
+    void recordServed(boolean success) {
+        if (success) {
+            served.increment();
+        } else {
+            failed.increment();
+        }
+    }
+    
+    void recordReplanned() {
+        ordersWithReplan.increment();
+    }
+    
+    void setDurationNanos(long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+    
+    /**
+     * Get the time to create the first plan of every order
+     */
+    public LatencyHistogram getPlanLatency() {
+        return plan;
+    }
+    
+    /**
+     * Get the time of every replan
+     */
+    public LatencyHistogram getReplanLatency() {
+        return replan;
+    }
+    
+    /**
+     * Get the time to execute every order's plan, replans included
+     */
+    public LatencyHistogram getExecutionLatency() {
+        return execution;
+    }
+    
+    /**
+     * Get the time from every order's scheduled arrival until it was served or failed
+     */
+    public LatencyHistogram getEndToEndLatency() {
+        return endToEnd;
+    }
+    
+    public long getServedCount() {
+        return served.sum();
+    }
+    
+    public long getFailedCount() {
+        return failed.sum();
+    }
+    
+    public long getReplannedOrderCount() {
+        return ordersWithReplan.sum();
+    }
+    
+    public double getDurationSeconds() {
+        return durationNanos / 1e9;
+    }
+    
+    /**
+     * Get the completed orders (served or failed) per second over the whole run
+     */
+    public double getThroughput() {
+        return durationNanos == 0 ? 0.0 : (served.sum() + failed.sum()) / getDurationSeconds();
+    }
+    
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"config\": {");
+        sb.append(String.format(Locale.ROOT, "\"orders\": %d, \"ordersPerSecond\": %.3f, \"workers\": %d, "
+                + "\"timeScale\": %.4f, \"seed\": %d, \"adaptiveCosts\": %b, ", config.getOrders(),
+            config.getOrdersPerSecond(), config.getWorkers(), config.getTimeScale(), config.getSeed(),
+            config.isAdaptiveCosts()));
+        sb.append("\"pizzaMix\": ").append(toJson(config.getPizzaMix())).append(", ");
+        sb.append("\"failureRates\": ").append(toJson(config.getFailureRates())).append("},\n");
+        sb.append(String.format(Locale.ROOT, "  \"served\": %d,\n  \"failed\": %d,\n  \"replannedOrders\": %d,\n"
+                + "  \"durationSeconds\": %.3f,\n  \"throughputPerSecond\": %.3f,\n", getServedCount(),
+            getFailedCount(), getReplannedOrderCount(), getDurationSeconds(), getThroughput()));
+        sb.append("  \"latencyMillis\": {\n");
+        sb.append("    \"plan\": ").append(plan.toJson()).append(",\n");
+        sb.append("    \"replan\": ").append(replan.toJson()).append(",\n");
+        sb.append("    \"execution\": ").append(execution.toJson()).append(",\n");
+        sb.append("    \"endToEnd\": ").append(endToEnd.toJson()).append("\n");
+        sb.append("  }\n}\n");
+        return sb.toString();
+    }
+    
+    private static String toJson(Map<String, Double> values) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append('"').append(entry.getKey().replace("\"", "\\\"")).append("\": ")
+                .append(String.format(Locale.ROOT, "%.4f", entry.getValue()));
+        }
+        return sb.append('}').toString();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "served=%d failed=%d replanned=%d in %.1fs (%.1f orders/s)%n"
+                + "  plan:       %s%n  replan:     %s%n  execution:  %s%n  end-to-end: %s",
+            getServedCount(), getFailedCount(), getReplannedOrderCount(), getDurationSeconds(), getThroughput(),
+            plan, replan, execution, endToEnd);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ai.goap_demo.pizzabot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulation settings shared by all PizzaBot actions: a time scale for the simulated
+ * action durations and injected failure rates per action id. The defaults (scale 1,
+ * no injected failures) leave the actions behaving as in the demo.
+ */
+public final class KitchenSimulation {
+    private static volatile double timeScale = 1.0;
+    private static final Map<String, Double> FAILURE_RATES = new ConcurrentHashMap<>();
+    
+    private KitchenSimulation() {
+    }
+    
+    /**
+     * Scale all simulated durations, e.g. 0.01 to run a one-second bake in 10 ms
+     */
+    public static void setTimeScale(double scale) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("Time scale must not be negative");
+        }
+        timeScale = scale;
+    }
+    
+    public static double getTimeScale() {
+        return timeScale;
+    }
+    
+    /**
+     * Make the given action fail with the given probability; 0 removes the injection
+     */
+    public static void setFailureRate(String actionId, double rate) {
+        if (rate <= 0) {
+            FAILURE_RATES.remove(actionId);
+        } else {
+            FAILURE_RATES.put(actionId, Math.min(1.0, rate));
+        }
+    }
+    
+    /**
+     * Remove all injected failures and restore the normal time scale
+     */
+    public static void reset() {
+        timeScale = 1.0;
+        FAILURE_RATES.clear();
+    }
+    
+    /**
+     * Decide whether this execution of the action should fail
+     */
+    public static boolean shouldFail(String actionId) {
+        Double rate = FAILURE_RATES.get(actionId);
+        return rate != null && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+    
+    /**
+     * Sleep for the scaled duration of a simulated step
+     */
+    public static void sleep(long millis) throws InterruptedException {
+        long nanos = (long) (millis * 1_000_000L * timeScale);
+        if (nanos > 0) {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        }
+    }
+}
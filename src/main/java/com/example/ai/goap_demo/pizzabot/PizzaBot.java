@@ -3,71 +3,222 @@ package com.example.ai.goap_demo.pizzabot;
 import com.example.ai.goap_demo.goap.core.Action;
 import com.example.ai.goap_demo.goap.core.ActionResult;
 import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
 import com.example.ai.goap_demo.goap.core.Plan;
 import com.example.ai.goap_demo.goap.core.Planner;
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.ActionExecutionEvent;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.diagnostics.ReplanEvent;
 import com.example.ai.goap_demo.goap.impl.AStarPathfinder;
+import com.example.ai.goap_demo.goap.impl.ActionRegistry;
+import com.example.ai.goap_demo.goap.impl.AdaptiveCostModel;
+import com.example.ai.goap_demo.goap.impl.CachingHeuristic;
+import com.example.ai.goap_demo.goap.impl.ContingencyPlanner;
+import com.example.ai.goap_demo.goap.impl.DomainSnapshot;
+import com.example.ai.goap_demo.goap.impl.ExecutionStats;
 import com.example.ai.goap_demo.goap.impl.GOAPPlanner;
 import com.example.ai.goap_demo.goap.impl.HashMapWorldState;
+import com.example.ai.goap_demo.goap.impl.HeuristicCache;
 import com.example.ai.goap_demo.goap.impl.SimpleGoal;
 import com.example.ai.goap_demo.goap.impl.SimpleHeuristic;
 import com.example.ai.goap_demo.pizzabot.actions.*;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import com.example.ai.goap_demo.pizzabot.inventory.Reservation;
+import com.example.ai.goap_demo.pizzabot.journal.WorldStateJournal;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * PizzaBot that uses GOAP to plan and execute pizza preparation.
  */
 public class PizzaBot {
+    // Heuristic values shared by all bots, since they plan the same goal over the same states
+    private static final HeuristicCache HEURISTIC_CACHE = new HeuristicCache(1 << 16);
+    
+    // The goal a domain file declares for serving a pizza
+    private static final String SERVE_PIZZA_GOAL = "serve_pizza";
+    
     private WorldState worldState; // Removed final to allow reassignment
-    private final List<Action> availableActions;
+    private final ActionRegistry actionRegistry;
     private final Planner planner;
+    private final Goal goal;
     private Plan currentPlan;
     
+    // Optional fallback plans for likely failures, prepared while the plan executes
+    private final ContingencyPlanner contingencyPlanner;
+    
+    // Optional costs learned from measured execution times, which this bot also records
+    private final AdaptiveCostModel costModel;
+    
+    // Optional persistence of the world state, keyed by order id
+    private final WorldStateJournal journal;
+    private final String orderId;
+    private final Map<String, Object> journaledProperties = new HashMap<>();
+    
+    // Time spent in the first createPlan call and in every replan, for load testing
+    private long planNanos = -1;
+    private final List<Long> replanNanos = new ArrayList<>();
+    
     public PizzaBot() {
+        this(IngredientInventory.getDefault());
+    }
+    
+    public PizzaBot(IngredientInventory inventory) {
+        this(inventory, null, null);
+    }
+    
+    /**
+     * Creates a bot whose world state changes are recorded in the given journal.
+     * If the journal recovered an in-flight order with this id, the bot resumes from its state.
+     */
+    public PizzaBot(IngredientInventory inventory, WorldStateJournal journal, String orderId) {
+        this(inventory, journal, orderId, null);
+    }
+    
+    /**
+     * Creates a bot that also prepares fallback plans for likely failures while it executes,
+     * so that a failure with a prepared fallback needs no search
+     */
+    public PizzaBot(IngredientInventory inventory, WorldStateJournal journal, String orderId,
+                    ContingencyPlanner contingencyPlanner) {
+        this(inventory, journal, orderId, contingencyPlanner, null);
+    }
+    
+    /**
+     * Creates a bot that plans with costs learned from the execution times recorded in
+     * the cost model's stats, and records its own executions there, per pizza type
+     */
+    public PizzaBot(IngredientInventory inventory, WorldStateJournal journal, String orderId,
+                    ContingencyPlanner contingencyPlanner, AdaptiveCostModel costModel) {
+        this(inventory, journal, orderId, contingencyPlanner, costModel, null);
+    }
+    
+    /**
+     * Creates a bot whose actions and goal come from a compiled domain. The Java-coded
+     * actions execute the declared actions with the same id, and the domain's compiled
+     * pattern databases serve as the heuristic.
+     */
+    public PizzaBot(IngredientInventory inventory, DomainSnapshot domain) {
+        this(inventory, null, null, null, null, domain);
+    }
+    
+    private PizzaBot(IngredientInventory inventory, WorldStateJournal journal, String orderId,
+                     ContingencyPlanner contingencyPlanner, AdaptiveCostModel costModel, DomainSnapshot domain) {
+        if (journal != null && orderId == null) {
+            throw new IllegalArgumentException("A bot with a journal needs an order id");
+        }
+        this.journal = journal;
+        this.orderId = orderId;
+        this.contingencyPlanner = contingencyPlanner;
+        this.costModel = costModel;
+        
         // Initialize world state
         this.worldState = new HashMapWorldState();
         
         // Initialize available actions
-        this.availableActions = new ArrayList<>();
+        List<Action> availableActions = new ArrayList<>();
         availableActions.add(new TakeOrderAction());
-        availableActions.add(new CheckIngredientsAction());
+        availableActions.add(new CheckIngredientsAction(inventory));
         availableActions.add(new PrepareDoughAction());
         availableActions.add(new UsePremadeDoughAction()); // Add alternative dough action
         availableActions.add(new AddToppingsAction());
         availableActions.add(new BakePizzaAction());
         availableActions.add(new ServePizzaAction());
+        HeuristicFunction heuristic = new CachingHeuristic(new SimpleHeuristic(), HEURISTIC_CACHE);
+        if (domain != null) {
+            this.actionRegistry = new ActionRegistry(domain.createActions(availableActions));
+            heuristic = domain.createHeuristic(heuristic);
+        } else {
+            this.actionRegistry = new ActionRegistry(availableActions);
+        }
         
         // Initialize planner
-        AStarPathfinder pathfinder = new AStarPathfinder(new SimpleHeuristic());
+        AStarPathfinder pathfinder = new AStarPathfinder(heuristic);
         this.planner = new GOAPPlanner(pathfinder);
         
+        // The goal: serve a pizza
+        if (domain != null && domain.getGoal(SERVE_PIZZA_GOAL) != null) {
+            this.goal = domain.getGoal(SERVE_PIZZA_GOAL);
+        } else {
+            Map<String, Object> goalState = new HashMap<>();
+            goalState.put("pizzaServed", true);
+            this.goal = new SimpleGoal(goalState);
+        }
+        
         // Set initial world state
         worldState.setProperty("customerPresent", true);
+        
+        if (journal != null) {
+            Map<String, Object> recovered = journal.getRecoveredState(orderId);
+            if (recovered != null) {
+                recovered.forEach(worldState::setProperty);
+                journaledProperties.putAll(recovered);
+            }
+            journalChanges();
+        }
+        refreshCosts();
+    }
+    
+    /**
+     * Publishes the learned costs for the current context, so that plans pick them up
+     * from the registry without waiting for them
+     */
+    private void refreshCosts() {
+        if (costModel == null) {
+            return;
+        }
+        costModel.refresh(actionRegistry, executionContext()).exceptionally(e -> {
+            DiagnosticLog.log("Failed to refresh action costs: " + e);
+            return null;
+        });
+    }
+    
+    /**
+     * Records the properties that changed since the last call in the journal
+     */
+    private void journalChanges() {
+        if (journal == null) {
+            return;
+        }
+        
+        Map<String, Object> properties = worldState.getAllProperties();
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            Object previous = journaledProperties.get(entry.getKey());
+            if (!Objects.equals(previous, entry.getValue()) || !journaledProperties.containsKey(entry.getKey())) {
+                if (journal.recordSet(orderId, entry.getKey(), entry.getValue()) >= 0) {
+                    journaledProperties.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
     }
     
     /**
      * Creates a plan to achieve the goal of serving a pizza
      */
     public Plan createPlan() {
-        // Define the goal: serve a pizza
-        Map<String, Object> goalState = new HashMap<>();
-        goalState.put("pizzaServed", true);
-        Goal goal = new SimpleGoal(goalState);
-        
-        // Create a plan
-        Plan plan = planner.createPlan(worldState, goal, availableActions);
-        
+        long start = System.nanoTime();
+        Plan plan = actionRegistry.current().createPlan(planner, worldState, goal);
+        if (planNanos < 0) {
+            planNanos = System.nanoTime() - start;
+        }
+        return usePlan(plan);
+    }
+    
+    private Plan usePlan(Plan plan) {
         if (plan != null) {
-            System.out.println("Plan created successfully:");
-            System.out.println(plan);
+            DiagnosticLog.log("Plan created successfully:");
+            if (DiagnosticLog.isEnabled()) {
+                DiagnosticLog.log(plan.toString());
+            }
             currentPlan = plan;
             return plan;
         } else {
-            System.out.println("Failed to create a plan!");
+            DiagnosticLog.log("Failed to create a plan!");
             return null;
         }
     }
@@ -76,7 +227,24 @@ public class PizzaBot {
      * Executes the current plan
      */
     public boolean executePlan() {
-        return executePlan(0);
+        boolean success = executePlan(0);
+        
+        // Consume the reserved ingredients, or give them back if the order could not be completed
+        Object reservation = worldState.getProperty(CheckIngredientsAction.RESERVATION_PROPERTY);
+        if (reservation instanceof Reservation) {
+            if (success) {
+                ((Reservation) reservation).commit();
+            } else {
+                ((Reservation) reservation).release();
+            }
+        }
+        
+        // A served order no longer needs to be recovered
+        if (success && journal != null) {
+            journal.recordComplete(orderId);
+        }
+        
+        return success;
     }
     
     /**
@@ -90,76 +258,180 @@ public class PizzaBot {
         final int MAX_REPLANS = 3;
         
         if (replanCount >= MAX_REPLANS) {
-            System.out.println("Maximum number of replans reached (" + MAX_REPLANS + ")");
+            DiagnosticLog.log("Maximum number of replans reached (" + MAX_REPLANS + ")");
             return false;
         }
         
         if (currentPlan == null || currentPlan.isEmpty()) {
-            System.out.println("No plan to execute!");
+            DiagnosticLog.log("No plan to execute!");
             return false;
         }
         
-        System.out.println("Executing plan... (replan count: " + replanCount + ")");
+        DiagnosticLog.log("Executing plan... (replan count: " + replanCount + ")");
+        
+        ContingencyPlanner.Contingencies contingencies = null;
+        if (contingencyPlanner != null) {
+            ActionRegistry.Snapshot snapshot = actionRegistry.current();
+            contingencies = contingencyPlanner.prepare(currentPlan, worldState, goal,
+                state -> snapshot.createPlan(planner, state, goal));
+        }
         
-        for (Action action : currentPlan.getActions()) {
-            System.out.println("\n--- Executing: " + action.getName() + " ---");
+        List<Action> steps = currentPlan.getActions();
+        for (int step = 0; step < steps.size(); step++) {
+            Action action = steps.get(step);
+            DiagnosticLog.log("\n--- Executing: " + action.getName() + " ---");
             
             // Check if action's preconditions are still met
             if (!action.checkPreconditions(worldState)) {
-                System.out.println("Preconditions not met for action: " + action.getName());
-                System.out.println("Replanning...");
-                
-                System.out.println("\n=== REPLANNING PROCESS STARTED ===");
-                System.out.println("Current world state: " + worldState);
-                System.out.println("Reason for replanning: Preconditions not met for action: " + action.getName());
-                
-                // Try to create a new plan
-                Plan newPlan = createPlan();
-                if (newPlan == null) {
-                    System.out.println("Failed to replan!");
-                    return false;
+                DiagnosticLog.log("Preconditions not met for action: " + action.getName());
+                if (contingencies != null) {
+                    contingencies.cancelAll();
                 }
-                
-                System.out.println("=== REPLANNING PROCESS COMPLETED ===");
-                System.out.println("New plan created successfully. Continuing execution...\n");
-                
-                // Restart execution with the new plan, incrementing the replan counter
-                return executePlan(replanCount + 1);
+                return replan("Preconditions not met for action: " + action.getName(), action, replanCount, null);
             }
             
             // Execute the action
+            ActionExecutionEvent event = new ActionExecutionEvent();
+            event.begin();
+            long executionStart = System.nanoTime();
             ActionResult result = action.execute(worldState);
+            long executionNanos = System.nanoTime() - executionStart;
+            event.end();
+            if (costModel != null) {
+                costModel.getStats().record(action.getId(), executionContext(), executionNanos, result.isSuccess());
+                refreshCosts();
+            }
+            if (event.shouldCommit()) {
+                event.actionId = action.getId();
+                event.critical = action.isCritical();
+                event.success = result.isSuccess();
+                event.commit();
+            }
+            journalChanges();
+            if (contingencyPlanner != null) {
+                contingencyPlanner.recordOutcome(action, result.isSuccess());
+            }
             
             if (!result.isSuccess()) {
-                System.out.println("Action failed: " + result.getErrorMessage());
-                System.out.println("Replanning...");
-                
-                System.out.println("\n=== REPLANNING PROCESS STARTED ===");
-                System.out.println("Current world state: " + worldState);
-                System.out.println("Reason for replanning: Action failed: " + result.getErrorMessage());
-                
-                // Try to create a new plan
-                Plan newPlan = createPlan();
-                if (newPlan == null) {
-                    System.out.println("Failed to replan!");
-                    return false;
+                DiagnosticLog.log("Action failed: " + result.getErrorMessage());
+                Plan fallback = null;
+                if (contingencies != null) {
+                    fallback = contingencies.forFailure(step, worldState);
+                    contingencies.cancelAll();
                 }
-                
-                System.out.println("=== REPLANNING PROCESS COMPLETED ===");
-                System.out.println("New plan created successfully. Continuing execution...\n");
-                
-                // Restart execution with the new plan, incrementing the replan counter
-                return executePlan(replanCount + 1);
+                return replan("Action failed: " + result.getErrorMessage(), action, replanCount, fallback);
+            }
+            if (contingencies != null) {
+                contingencies.stepSucceeded(step);
             }
             
             // Apply the action's effects to the world state
             worldState = action.applyEffects(worldState);
+            journalChanges();
         }
         
-        System.out.println("\nPlan executed successfully!");
+        // A partial plan only got us closer; plan the rest from here
+        if (currentPlan.isPartial() && !goal.isSatisfied(worldState)) {
+            DiagnosticLog.log("\nPartial plan executed, planning the rest");
+            return replan("Partial plan executed", steps.get(steps.size() - 1), replanCount, null);
+        }
+        
+        DiagnosticLog.log("\nPlan executed successfully!");
         return true;
     }
     
+    /**
+     * Creates a new plan from the current world state and continues execution with it
+     * 
+     * @param reason Why the current plan cannot continue
+     * @param action The action that could not be executed
+     * @param replanCount The number of times replanning has occurred
+     * @param fallback A prepared plan for this failure, or null to search for a new plan
+     * @return true if the new plan was executed successfully, false otherwise
+     */
+    private boolean replan(String reason, Action action, int replanCount, Plan fallback) {
+        ReplanEvent event = new ReplanEvent();
+        event.begin();
+        
+        DiagnosticLog.log("Replanning...");
+        
+        DiagnosticLog.log("\n=== REPLANNING PROCESS STARTED ===");
+        if (DiagnosticLog.isEnabled()) {
+            DiagnosticLog.log("Current world state: " + worldState);
+        }
+        DiagnosticLog.log("Reason for replanning: " + reason);
+        
+        // Try to create a new plan
+        long start = System.nanoTime();
+        Plan newPlan;
+        if (fallback != null) {
+            DiagnosticLog.log("Using the contingency plan prepared for this failure");
+            newPlan = usePlan(fallback);
+        } else {
+            newPlan = createPlan();
+        }
+        replanNanos.add(System.nanoTime() - start);
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.actionId = action.getId();
+            event.replanCount = replanCount + 1;
+            event.planFound = newPlan != null;
+            event.commit();
+        }
+        
+        if (newPlan == null) {
+            DiagnosticLog.log("Failed to replan!");
+            return false;
+        }
+        
+        DiagnosticLog.log("=== REPLANNING PROCESS COMPLETED ===");
+        DiagnosticLog.log("New plan created successfully. Continuing execution...\n");
+        
+        // Restart execution with the new plan, incrementing the replan counter
+        return executePlan(replanCount + 1);
+    }
+    
+    /**
+     * The context execution times are recorded and costs learned for: the requested pizza type
+     */
+    private String executionContext() {
+        Object pizzaType = worldState.getProperty(TakeOrderAction.REQUESTED_PIZZA_TYPE_PROPERTY);
+        return pizzaType != null ? pizzaType.toString() : ExecutionStats.ANY_CONTEXT;
+    }
+    
+    /**
+     * Sets the pizza the customer will ask for when the order is taken
+     */
+    public void setRequestedPizzaType(String pizzaType) {
+        worldState.setProperty(TakeOrderAction.REQUESTED_PIZZA_TYPE_PROPERTY, pizzaType);
+        journalChanges();
+        refreshCosts();
+    }
+    
+    /**
+     * Gets the time the first plan took to create, or -1 if no plan was created yet
+     */
+    public long getPlanNanos() {
+        return planNanos;
+    }
+    
+    /**
+     * Gets the time every replan took, in order
+     */
+    public List<Long> getReplanNanos() {
+        return replanNanos;
+    }
+    
+    /**
+     * Gets the registry of the actions this bot plans with; actions can be added and
+     * retired at any time and are picked up by the next plan or replan
+     */
+    public ActionRegistry getActionRegistry() {
+        return actionRegistry;
+    }
+    
     /**
      * Gets the current world state
      */
@@ -4,6 +4,7 @@ import com.example.ai.goap_demo.goap.core.ActionResult;
 import com.example.ai.goap_demo.goap.core.Condition;
 import com.example.ai.goap_demo.goap.core.Effect;
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.goap.impl.BaseAction;
 import com.example.ai.goap_demo.goap.impl.DefaultActionResult;
 
@@ -24,9 +25,14 @@ public abstract class PizzaBotAction extends BaseAction {
     @Override
     public ActionResult execute(WorldState state) {
         // Print the action being executed
-        System.out.println("Executing action: " + getName());
+        DiagnosticLog.log("Executing action: " + getName());
         
-        // Perform the action
+        // Perform the action, unless the simulation injects a failure
+        if (KitchenSimulation.shouldFail(getId())) {
+            DiagnosticLog.log("Injected failure: " + getName());
+            onInjectedFailure(state);
+            return new DefaultActionResult(false, "Injected failure: " + getName());
+        }
         boolean success = performAction(state);
         
         if (success) {
@@ -45,4 +51,16 @@ public abstract class PizzaBotAction extends BaseAction {
      * @return true if the action was successful, false otherwise
      */
     protected abstract boolean performAction(WorldState state);
+    
+    /**
+     * Called when the simulation makes this action fail, so subclasses can record
+     * the same state as a real failure. Applies the declared failure effects by default.
+     * 
+     * @param state The current world state
+     */
+    protected void onInjectedFailure(WorldState state) {
+        for (Effect effect : getFailureEffects()) {
+            effect.apply(state);
+        }
+    }
 }
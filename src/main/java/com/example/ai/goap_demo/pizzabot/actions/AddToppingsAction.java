@@ -1,6 +1,7 @@
 package com.example.ai.goap_demo.pizzabot.actions;
 
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.goap.impl.SimpleCondition;
 import com.example.ai.goap_demo.goap.impl.SimpleEffect;
 import com.example.ai.goap_demo.pizzabot.PizzaBotAction;
@@ -39,21 +40,21 @@ public class AddToppingsAction extends PizzaBotAction {
     protected boolean performAction(WorldState state) {
         String pizzaType = (String) state.getProperty("pizzaType");
         
-        System.out.println("PizzaBot: Adding toppings for " + pizzaType + " pizza...");
+        DiagnosticLog.log("PizzaBot: Adding toppings for " + pizzaType + " pizza...");
         
         List<String> toppings = PIZZA_TOPPINGS.get(pizzaType);
         if (toppings == null) {
-            System.out.println("PizzaBot: Error - Unknown pizza type: " + pizzaType);
+            DiagnosticLog.log("PizzaBot: Error - Unknown pizza type: " + pizzaType);
             return false;
         }
         
-        System.out.println("PizzaBot: 1. Spreading tomato sauce...");
+        DiagnosticLog.log("PizzaBot: 1. Spreading tomato sauce...");
         
         for (int i = 1; i < toppings.size(); i++) {
-            System.out.println("PizzaBot: " + (i + 1) + ". Adding " + toppings.get(i) + "...");
+            DiagnosticLog.log("PizzaBot: " + (i + 1) + ". Adding " + toppings.get(i) + "...");
         }
         
-        System.out.println("PizzaBot: Toppings added successfully!");
+        DiagnosticLog.log("PizzaBot: Toppings added successfully!");
         
         return true;
     }
@@ -1,8 +1,10 @@
 package com.example.ai.goap_demo.pizzabot.actions;
 
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.goap.impl.SimpleCondition;
 import com.example.ai.goap_demo.goap.impl.SimpleEffect;
+import com.example.ai.goap_demo.pizzabot.KitchenSimulation;
 import com.example.ai.goap_demo.pizzabot.PizzaBotAction;
 
 import java.util.List;
@@ -35,31 +37,38 @@ public class BakePizzaAction extends PizzaBotAction {
         );
     }
     
+    /**
+     * Get the baking time in minutes for a pizza type, or null if the type is unknown
+     */
+    public static Integer getBakingTime(String pizzaType) {
+        return BAKING_TIMES.get(pizzaType);
+    }
+    
     @Override
     protected boolean performAction(WorldState state) {
         String pizzaType = (String) state.getProperty("pizzaType");
         
         Integer bakingTime = BAKING_TIMES.get(pizzaType);
         if (bakingTime == null) {
-            System.out.println("PizzaBot: Error - Unknown pizza type: " + pizzaType);
+            DiagnosticLog.log("PizzaBot: Error - Unknown pizza type: " + pizzaType);
             return false;
         }
         
-        System.out.println("PizzaBot: Preheating oven to 475°F (245°C)...");
-        System.out.println("PizzaBot: Placing " + pizzaType + " pizza in the oven...");
-        System.out.println("PizzaBot: Baking for " + bakingTime + " minutes...");
+        DiagnosticLog.log("PizzaBot: Preheating oven to 475°F (245°C)...");
+        DiagnosticLog.log("PizzaBot: Placing " + pizzaType + " pizza in the oven...");
+        DiagnosticLog.log("PizzaBot: Baking for " + bakingTime + " minutes...");
         
         // Simulate baking time (just for demonstration)
         try {
-            System.out.println("PizzaBot: Baking in progress...");
-            Thread.sleep(1000); // Sleep for 1 second to simulate baking
+            DiagnosticLog.log("PizzaBot: Baking in progress...");
+            KitchenSimulation.sleep(1000); // Sleep for 1 second to simulate baking
         } catch (InterruptedException e) {
-            System.out.println("PizzaBot: Baking interrupted!");
+            DiagnosticLog.log("PizzaBot: Baking interrupted!");
             return false;
         }
         
-        System.out.println("PizzaBot: Pizza is done baking!");
-        System.out.println("PizzaBot: Removing pizza from oven...");
+        DiagnosticLog.log("PizzaBot: Pizza is done baking!");
+        DiagnosticLog.log("PizzaBot: Removing pizza from oven...");
         
         return true;
     }
@@ -1,12 +1,17 @@
 package com.example.ai.goap_demo.pizzabot.actions;
 
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.goap.impl.SimpleCondition;
 import com.example.ai.goap_demo.goap.impl.SimpleEffect;
 import com.example.ai.goap_demo.pizzabot.PizzaBotAction;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import com.example.ai.goap_demo.pizzabot.inventory.Reservation;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Action for checking if all required ingredients are available.
@@ -20,19 +25,20 @@ public class CheckIngredientsAction extends PizzaBotAction {
         "Vegetarian", List.of("dough", "tomato sauce", "mozzarella", "bell peppers", "mushrooms", "onions")
     );
     
-    // Map of available ingredients (simulated inventory)
-    private static final Map<String, Boolean> AVAILABLE_INGREDIENTS = Map.of(
-        "dough", true,
-        "tomato sauce", true,
-        "mozzarella", true,
-        "basil", true,
-        "pepperoni", true,
-        "bell peppers", true,
-        "mushrooms", true,
-        "onions", true
-    );
+    // World state property holding the ingredients reserved for the current order
+    public static final String RESERVATION_PROPERTY = "ingredientReservation";
+    
+    // World state property with the number of pizzas made together (1 when absent)
+    public static final String BATCH_SIZE_PROPERTY = "batchSize";
+    
+    // Inventory shared with other bots
+    private final IngredientInventory inventory;
     
     public CheckIngredientsAction() {
+        this(IngredientInventory.getDefault());
+    }
+    
+    public CheckIngredientsAction(IngredientInventory inventory) {
         super(
             "check_ingredients",
             "Check Ingredients",
@@ -46,6 +52,21 @@ public class CheckIngredientsAction extends PizzaBotAction {
             1.0f,
             false
         );
+        this.inventory = inventory;
+    }
+    
+    /**
+     * Get the pizza types the kitchen can make
+     */
+    public static Set<String> getPizzaTypes() {
+        return PIZZA_INGREDIENTS.keySet();
+    }
+    
+    /**
+     * Get the ingredients one pizza of the given type needs, or null if the type is unknown
+     */
+    public static List<String> getRequiredIngredients(String pizzaType) {
+        return PIZZA_INGREDIENTS.get(pizzaType);
     }
     
     @Override
@@ -53,34 +74,50 @@ public class CheckIngredientsAction extends PizzaBotAction {
         String pizzaType = (String) state.getProperty("pizzaType");
         
         if (pizzaType == null) {
-            System.out.println("PizzaBot: Error - Pizza type not specified.");
+            DiagnosticLog.log("PizzaBot: Error - Pizza type not specified.");
             return false;
         }
         
         List<String> requiredIngredients = PIZZA_INGREDIENTS.get(pizzaType);
         
         if (requiredIngredients == null) {
-            System.out.println("PizzaBot: Error - Unknown pizza type: " + pizzaType);
+            DiagnosticLog.log("PizzaBot: Error - Unknown pizza type: " + pizzaType);
             return false;
         }
         
-        System.out.println("PizzaBot: Checking ingredients for " + pizzaType + " pizza...");
+        DiagnosticLog.log("PizzaBot: Checking ingredients for " + pizzaType + " pizza...");
+        
+        // Give back anything held by an earlier check of this order
+        Object previous = state.getProperty(RESERVATION_PROPERTY);
+        if (previous instanceof Reservation) {
+            ((Reservation) previous).release();
+        }
         
-        // Check if all required ingredients are available
-        boolean allIngredientsAvailable = true;
-        for (String ingredient : requiredIngredients) {
-            Boolean available = AVAILABLE_INGREDIENTS.get(ingredient);
-            if (available == null || !available) {
-                System.out.println("PizzaBot: Missing ingredient: " + ingredient);
-                allIngredientsAvailable = false;
+        // Reserve all required ingredients at once so concurrent bots cannot take the same stock
+        long batchSize = Math.max(1, (long) state.getNumber(BATCH_SIZE_PROPERTY));
+        Reservation reservation;
+        if (batchSize == 1) {
+            reservation = inventory.reserve(requiredIngredients);
+        } else {
+            Map<String, Long> quantities = new HashMap<>();
+            for (String ingredient : requiredIngredients) {
+                quantities.put(ingredient, batchSize);
             }
+            reservation = inventory.reserve(quantities);
         }
         
-        if (allIngredientsAvailable) {
-            System.out.println("PizzaBot: All ingredients are available!");
+        if (reservation != null) {
+            DiagnosticLog.log("PizzaBot: All ingredients are available!");
+            state.setProperty(RESERVATION_PROPERTY, reservation);
             state.setProperty("ingredientsAvailable", true);
         } else {
-            System.out.println("PizzaBot: Some ingredients are missing. Cannot make the pizza.");
+            for (String ingredient : requiredIngredients) {
+                if (inventory.getAvailable(ingredient) < batchSize) {
+                    DiagnosticLog.log("PizzaBot: Missing ingredient: " + ingredient);
+                }
+            }
+            DiagnosticLog.log("PizzaBot: Some ingredients are missing. Cannot make the pizza.");
+            state.setProperty(RESERVATION_PROPERTY, null);
             state.setProperty("ingredientsAvailable", false);
         }
         
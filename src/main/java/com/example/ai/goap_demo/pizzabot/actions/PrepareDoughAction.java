@@ -1,12 +1,15 @@
 package com.example.ai.goap_demo.pizzabot.actions;
 
+import com.example.ai.goap_demo.goap.core.Effect;
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.goap.impl.NotCondition;
 import com.example.ai.goap_demo.goap.impl.SimpleCondition;
 import com.example.ai.goap_demo.goap.impl.SimpleEffect;
 import com.example.ai.goap_demo.pizzabot.PizzaBotAction;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Action for preparing the pizza dough.
@@ -32,30 +35,35 @@ public class PrepareDoughAction extends PizzaBotAction {
     }
     
     // Add a counter to simulate occasional failures
-    private static int executionCount = 0;
+    private static final AtomicInteger executionCount = new AtomicInteger();
     
     @Override
     protected boolean performAction(WorldState state) {
         String pizzaType = (String) state.getProperty("pizzaType");
         
-        System.out.println("PizzaBot: Preparing dough for " + pizzaType + " pizza...");
-        System.out.println("PizzaBot: 1. Mixing flour, water, yeast, and salt...");
-        System.out.println("PizzaBot: 2. Kneading the dough...");
+        DiagnosticLog.log("PizzaBot: Preparing dough for " + pizzaType + " pizza...");
+        DiagnosticLog.log("PizzaBot: 1. Mixing flour, water, yeast, and salt...");
+        DiagnosticLog.log("PizzaBot: 2. Kneading the dough...");
         
         // Simulate a failure on the first execution to trigger replanning
-        executionCount++;
-        if (executionCount == 1) {
-            System.out.println("PizzaBot: Oh no! The dough is too sticky. Need to find an alternative.");
+        if (executionCount.incrementAndGet() == 1) {
+            DiagnosticLog.log("PizzaBot: Oh no! The dough is too sticky. Need to find an alternative.");
             // Set a flag in the world state to indicate that dough preparation failed
             // This will allow the planner to consider alternative actions
             state.setProperty("doughPreparationFailed", true);
             return false;
         }
         
-        System.out.println("PizzaBot: 3. Letting the dough rise...");
-        System.out.println("PizzaBot: 4. Rolling out the dough into a circle...");
-        System.out.println("PizzaBot: Dough preparation complete!");
+        DiagnosticLog.log("PizzaBot: 3. Letting the dough rise...");
+        DiagnosticLog.log("PizzaBot: 4. Rolling out the dough into a circle...");
+        DiagnosticLog.log("PizzaBot: Dough preparation complete!");
         
         return true;
     }
+    
+    @Override
+    public List<Effect> getFailureEffects() {
+        // A sticky dough, so the planner switches to premade dough
+        return List.of(new SimpleEffect("doughPreparationFailed", true));
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.ai.goap_demo.pizzabot.actions;
 
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.goap.impl.SimpleCondition;
 import com.example.ai.goap_demo.goap.impl.SimpleEffect;
 import com.example.ai.goap_demo.pizzabot.PizzaBotAction;
@@ -31,9 +32,9 @@ public class ServePizzaAction extends PizzaBotAction {
     protected boolean performAction(WorldState state) {
         String pizzaType = (String) state.getProperty("pizzaType");
         
-        System.out.println("PizzaBot: Slicing the " + pizzaType + " pizza...");
-        System.out.println("PizzaBot: Placing pizza on a serving tray...");
-        System.out.println("PizzaBot: Here's your " + pizzaType + " pizza! Enjoy your meal!");
+        DiagnosticLog.log("PizzaBot: Slicing the " + pizzaType + " pizza...");
+        DiagnosticLog.log("PizzaBot: Placing pizza on a serving tray...");
+        DiagnosticLog.log("PizzaBot: Here's your " + pizzaType + " pizza! Enjoy your meal!");
         
         return true;
     }
@@ -3,6 +3,7 @@ package com.example.ai.goap_demo.pizzabot.actions;
 import com.example.ai.goap_demo.goap.core.Condition;
 import com.example.ai.goap_demo.goap.core.Effect;
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.goap.impl.SimpleCondition;
 import com.example.ai.goap_demo.goap.impl.SimpleEffect;
 import com.example.ai.goap_demo.pizzabot.PizzaBotAction;
@@ -15,6 +16,9 @@ import java.util.Scanner;
  */
 public class TakeOrderAction extends PizzaBotAction {
     
+    // World state property with the pizza the customer asks for (Margherita when absent)
+    public static final String REQUESTED_PIZZA_TYPE_PROPERTY = "requestedPizzaType";
+    
     public TakeOrderAction() {
         super(
             "take_order",
@@ -33,15 +37,15 @@ public class TakeOrderAction extends PizzaBotAction {
     
     @Override
     protected boolean performAction(WorldState state) {
-        System.out.println("PizzaBot: Hello! Welcome to PizzaBot. What kind of pizza would you like?");
-        System.out.println("Available options: Margherita, Pepperoni, Vegetarian");
+        DiagnosticLog.log("PizzaBot: Hello! Welcome to PizzaBot. What kind of pizza would you like?");
+        DiagnosticLog.log("Available options: Margherita, Pepperoni, Vegetarian");
         
         // For demo purposes, automatically select a pizza type instead of waiting for input
         // This avoids issues when running as a JAR and prevents potential input blocking
-        String pizzaType = "Margherita";
+        String pizzaType = getRequestedPizzaType(state);
         
-        System.out.println("Customer: I'd like a " + pizzaType + " pizza, please.");
-        System.out.println("PizzaBot: Great! I'll prepare a " + pizzaType + " pizza for you.");
+        DiagnosticLog.log("Customer: I'd like a " + pizzaType + " pizza, please.");
+        DiagnosticLog.log("PizzaBot: Great! I'll prepare a " + pizzaType + " pizza for you.");
         
         return true;
     }
@@ -50,6 +54,12 @@ public class TakeOrderAction extends PizzaBotAction {
     public WorldState applyEffects(WorldState state) {
         // Override the default applyEffects to ensure our pizzaType is set correctly
         WorldState newState = super.applyEffects(state);
+        newState.setProperty("pizzaType", getRequestedPizzaType(state));
         return newState;
     }
+    
+    private static String getRequestedPizzaType(WorldState state) {
+        Object requested = state.getProperty(REQUESTED_PIZZA_TYPE_PROPERTY);
+        return requested instanceof String ? (String) requested : "Margherita";
+    }
 }
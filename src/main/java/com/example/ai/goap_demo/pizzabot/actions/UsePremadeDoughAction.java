@@ -1,6 +1,7 @@
 package com.example.ai.goap_demo.pizzabot.actions;
 
 import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
 import com.example.ai.goap_demo.goap.impl.SimpleCondition;
 import com.example.ai.goap_demo.goap.impl.SimpleEffect;
 import com.example.ai.goap_demo.pizzabot.PizzaBotAction;
@@ -35,11 +36,11 @@ public class UsePremadeDoughAction extends PizzaBotAction {
     protected boolean performAction(WorldState state) {
         String pizzaType = (String) state.getProperty("pizzaType");
         
-        System.out.println("PizzaBot: Fresh dough preparation failed. Using premade dough for " + pizzaType + " pizza...");
-        System.out.println("PizzaBot: 1. Retrieving premade dough from refrigerator...");
-        System.out.println("PizzaBot: 2. Letting the dough come to room temperature...");
-        System.out.println("PizzaBot: 3. Rolling out the premade dough into a circle...");
-        System.out.println("PizzaBot: Premade dough ready for toppings!");
+        DiagnosticLog.log("PizzaBot: Fresh dough preparation failed. Using premade dough for " + pizzaType + " pizza...");
+        DiagnosticLog.log("PizzaBot: 1. Retrieving premade dough from refrigerator...");
+        DiagnosticLog.log("PizzaBot: 2. Letting the dough come to room temperature...");
+        DiagnosticLog.log("PizzaBot: 3. Rolling out the premade dough into a circle...");
+        DiagnosticLog.log("PizzaBot: Premade dough ready for toppings!");
         
         return true;
     }
@@ -0,0 +1,83 @@
+package com.example.ai.goap_demo.pizzabot.batching;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.*;
+
+/**
+ * A plan for a batch of orders: the steps shared by the whole batch, planned once,
+ * and the steps every order still performs on its own (taking and serving it).
+ */
+public class BatchPlan {
+    private final OrderBatch batch;
+    private final Plan sharedPlan;
+    private final Action takeOrder;
+    private final Action serve;
+    private final int nodesExpanded;
+    
+    // Per-order world states, filled in by execution
+    private final Map<String, WorldState> orderStates = new LinkedHashMap<>();
+    
+    BatchPlan(OrderBatch batch, Plan sharedPlan, Action takeOrder, Action serve, int nodesExpanded) {
+        this.batch = batch;
+        this.sharedPlan = sharedPlan;
+        this.takeOrder = takeOrder;
+        this.serve = serve;
+        this.nodesExpanded = nodesExpanded;
+    }
+    
+    public OrderBatch getBatch() {
+        return batch;
+    }
+    
+    /**
+     * Get the steps performed once for the whole batch (checking ingredients, dough, toppings, baking)
+     */
+    public Plan getSharedPlan() {
+        return sharedPlan;
+    }
+    
+    /**
+     * Get the full sequence of steps for one order: its own steps around the shared ones
+     */
+    public List<Action> getOrderActions() {
+        List<Action> actions = new ArrayList<>(sharedPlan.getActions().size() + 2);
+        actions.add(takeOrder);
+        actions.addAll(sharedPlan.getActions());
+        actions.add(serve);
+        return actions;
+    }
+    
+    Action getTakeOrder() {
+        return takeOrder;
+    }
+    
+    Action getServe() {
+        return serve;
+    }
+    
+    /**
+     * Get the number of nodes the planner expanded for the whole batch
+     */
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    }
+    
+    /**
+     * Get the world state of an order after execution, or null if it was not executed
+     */
+    public WorldState getOrderState(String orderId) {
+        return orderStates.get(orderId);
+    }
+    
+    void putOrderState(String orderId, WorldState state) {
+        orderStates.put(orderId, state);
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchPlan{" + batch + ", shared=" + sharedPlan.getActions().size() + " steps}";
+    }
+}
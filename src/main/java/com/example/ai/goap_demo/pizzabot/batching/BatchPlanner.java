@@ -0,0 +1,166 @@
+package com.example.ai.goap_demo.pizzabot.batching;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.HashMapWorldState;
+import com.example.ai.goap_demo.goap.impl.SimpleGoal;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import com.example.ai.goap_demo.pizzabot.inventory.Reservation;
+
+import java.util.*;
+
+/**
+ * Plans and executes batches of same-type orders.
+ *
+ * The steps that can be shared (one ingredient check for the whole batch, dough,
+ * toppings and one bake) are planned once from a combined state in which all
+ * orders are taken; the check reserves batchSize portions of every ingredient.
+ * Taking and serving stay per order, and the shared results are fanned out to
+ * every order's world state before it is served.
+ */
+public class BatchPlanner {
+    private static final int MAX_REPLANS = 3;
+    
+    private final Pathfinder pathfinder;
+    private final Action takeOrder = new TakeOrderAction();
+    private final Action serve = new ServePizzaAction();
+    private final List<Action> sharedActions = new ArrayList<>();
+    
+    public BatchPlanner(Pathfinder pathfinder, IngredientInventory inventory) {
+        this.pathfinder = pathfinder;
+        sharedActions.add(new CheckIngredientsAction(inventory));
+        sharedActions.add(new PrepareDoughAction());
+        sharedActions.add(new UsePremadeDoughAction());
+        sharedActions.add(new AddToppingsAction());
+        sharedActions.add(new BakePizzaAction());
+    }
+    
+    /**
+     * Plans the shared steps of a batch
+     *
+     * @return The batch plan, or null if no plan bakes the batch
+     */
+    public BatchPlan plan(OrderBatch batch) {
+        WorldState batchState = createBatchState(batch);
+        SearchResult result = pathfinder.search(batchState, bakedGoal(), sharedActions);
+        if (!result.isFound()) {
+            DiagnosticLog.log("Failed to plan " + batch);
+            return null;
+        }
+        Plan shared = new Plan(result.getActions(), result.isOptimal());
+        return new BatchPlan(batch, shared, takeOrder, serve, result.getNodesExpanded());
+    }
+    
+    /**
+     * Executes a batch plan: takes every order, runs the shared steps once
+     * (replanning them if a step fails) and serves every order
+     *
+     * @return true if all orders in the batch were served
+     */
+    public boolean execute(BatchPlan batchPlan) {
+        OrderBatch batch = batchPlan.getBatch();
+        
+        for (PizzaOrder order : batch.getOrders()) {
+            WorldState state = new HashMapWorldState();
+            state.setProperty("customerPresent", true);
+            if (!run(batchPlan.getTakeOrder(), state, batchPlan, order)) {
+                return false;
+            }
+        }
+        
+        WorldState batchState = createBatchState(batch);
+        boolean baked = executeShared(batchPlan.getSharedPlan(), batchState, 0);
+        
+        // Consume the ingredients of the whole batch, or give them back
+        Object reservation = batchState.getProperty(CheckIngredientsAction.RESERVATION_PROPERTY);
+        if (reservation instanceof Reservation) {
+            if (baked) {
+                ((Reservation) reservation).commit();
+            } else {
+                ((Reservation) reservation).release();
+            }
+        }
+        if (!baked) {
+            return false;
+        }
+        
+        // Fan the shared results out to every order and serve it
+        Map<String, Object> shared = new HashMap<>(batchState.getAllProperties());
+        shared.remove(CheckIngredientsAction.RESERVATION_PROPERTY);
+        shared.remove(CheckIngredientsAction.BATCH_SIZE_PROPERTY);
+        boolean served = true;
+        for (PizzaOrder order : batch.getOrders()) {
+            WorldState state = batchPlan.getOrderState(order.getOrderId());
+            shared.forEach(state::setProperty);
+            served &= run(batchPlan.getServe(), state, batchPlan, order);
+        }
+        return served;
+    }
+    
+    private boolean run(Action action, WorldState state, BatchPlan batchPlan, PizzaOrder order) {
+        if (!action.checkPreconditions(state)) {
+            return false;
+        }
+        ActionResult result = action.execute(state);
+        if (!result.isSuccess()) {
+            DiagnosticLog.log("Action failed for " + order + ": " + result.getErrorMessage());
+            return false;
+        }
+        WorldState newState = action.applyEffects(state);
+        // The order's own type, not the demo default set by taking the order
+        newState.setProperty("pizzaType", order.getPizzaType());
+        batchPlan.putOrderState(order.getOrderId(), newState);
+        return true;
+    }
+    
+    private boolean executeShared(Plan plan, WorldState batchState, int replanCount) {
+        for (Action action : plan.getActions()) {
+            if (!action.checkPreconditions(batchState)) {
+                return replanShared(batchState, replanCount);
+            }
+            ActionResult result = action.execute(batchState);
+            if (!result.isSuccess()) {
+                DiagnosticLog.log("Batch action failed: " + result.getErrorMessage());
+                return replanShared(batchState, replanCount);
+            }
+            WorldState newState = action.applyEffects(batchState);
+            // Effects are applied to a copy; carry them back into the batch state
+            newState.getAllProperties().forEach(batchState::setProperty);
+        }
+        return true;
+    }
+    
+    private boolean replanShared(WorldState batchState, int replanCount) {
+        if (replanCount + 1 >= MAX_REPLANS) {
+            DiagnosticLog.log("Maximum number of batch replans reached (" + MAX_REPLANS + ")");
+            return false;
+        }
+        SearchResult result = pathfinder.search(batchState.copy(), bakedGoal(), sharedActions);
+        if (!result.isFound()) {
+            return false;
+        }
+        return executeShared(new Plan(result.getActions(), result.isOptimal()), batchState, replanCount + 1);
+    }
+    
+    private static WorldState createBatchState(OrderBatch batch) {
+        WorldState state = new HashMapWorldState();
+        state.setProperty("customerPresent", true);
+        state.setProperty("orderTaken", true);
+        state.setProperty("pizzaType", batch.getPizzaType());
+        state.setNumber(CheckIngredientsAction.BATCH_SIZE_PROPERTY, batch.size());
+        return state;
+    }
+    
+    private static Goal bakedGoal() {
+        Map<String, Object> goalState = new HashMap<>();
+        goalState.put("pizzaBaked", true);
+        return new SimpleGoal(goalState);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ai.goap_demo.pizzabot.batching;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Orders of the same pizza type that are prepared together.
+ */
+public class OrderBatch {
+    private final String pizzaType;
+    private final List<PizzaOrder> orders;
+    
+    public OrderBatch(String pizzaType, List<PizzaOrder> orders) {
+        this.pizzaType = pizzaType;
+        this.orders = Collections.unmodifiableList(orders);
+    }
+    
+    public String getPizzaType() {
+        return pizzaType;
+    }
+    
+    public List<PizzaOrder> getOrders() {
+        return orders;
+    }
+    
+    public int size() {
+        return orders.size();
+    }
+    
+    @Override
+    public String toString() {
+        return "OrderBatch{" + pizzaType + " x" + orders.size() + "}";
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ai.goap_demo.pizzabot.batching;
+
+import java.util.*;
+
+/**
+ * Groups incoming orders of the same pizza type into batches.
+ *
+ * A batch is closed when it reaches maxBatchSize orders or when its first order
+ * has waited windowMillis. Times are passed in by the caller, so the batcher can
+ * be driven by a real clock or by a simulation. Not thread-safe.
+ */
+public class OrderBatcher {
+    private final long windowMillis;
+    private final int maxBatchSize;
+    
+    // Open batches by pizza type, in the order they were opened
+    private final Map<String, List<PizzaOrder>> open = new LinkedHashMap<>();
+    
+    /**
+     * @param windowMillis How long the first order of a batch may wait for others (0 disables batching)
+     * @param maxBatchSize Maximum number of orders in a batch, e.g. the pizzas that fit in the oven
+     */
+    public OrderBatcher(long windowMillis, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+    
+    /**
+     * Adds an order and returns the batches that are ready at its arrival time
+     */
+    public List<OrderBatch> offer(PizzaOrder order) {
+        List<OrderBatch> ready = poll(order.getArrivalMillis());
+        
+        List<PizzaOrder> batch = open.computeIfAbsent(order.getPizzaType(), type -> new ArrayList<>());
+        batch.add(order);
+        if (batch.size() >= maxBatchSize || windowMillis <= 0) {
+            open.remove(order.getPizzaType());
+            ready.add(new OrderBatch(order.getPizzaType(), batch));
+        }
+        return ready;
+    }
+    
+    /**
+     * Closes and returns the batches whose window has expired at the given time
+     */
+    public List<OrderBatch> poll(long nowMillis) {
+        List<OrderBatch> ready = new ArrayList<>();
+        Iterator<Map.Entry<String, List<PizzaOrder>>> it = open.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, List<PizzaOrder>> entry = it.next();
+            if (nowMillis - entry.getValue().get(0).getArrivalMillis() >= windowMillis) {
+                ready.add(new OrderBatch(entry.getKey(), entry.getValue()));
+                it.remove();
+            }
+        }
+        return ready;
+    }
+    
+    /**
+     * Closes and returns all open batches
+     */
+    public List<OrderBatch> drain() {
+        List<OrderBatch> ready = new ArrayList<>();
+        for (Map.Entry<String, List<PizzaOrder>> entry : open.entrySet()) {
+            ready.add(new OrderBatch(entry.getKey(), entry.getValue()));
+        }
+        open.clear();
+        return ready;
+    }
+    
+    /**
+     * Get the time at which the oldest open batch expires, or Long.MAX_VALUE if none is open
+     */
+    public long getNextDeadline() {
+        long deadline = Long.MAX_VALUE;
+        for (List<PizzaOrder> batch : open.values()) {
+            deadline = Math.min(deadline, batch.get(0).getArrivalMillis() + windowMillis);
+        }
+        return deadline;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ai.goap_demo.pizzabot.batching;
+
+/**
+ * A customer order for one pizza.
+ */
+public class PizzaOrder {
+    private final String orderId;
+    private final String pizzaType;
+    private final long arrivalMillis;
+    
+    public PizzaOrder(String orderId, String pizzaType, long arrivalMillis) {
+        this.orderId = orderId;
+        this.pizzaType = pizzaType;
+        this.arrivalMillis = arrivalMillis;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public String getPizzaType() {
+        return pizzaType;
+    }
+    
+    public long getArrivalMillis() {
+        return arrivalMillis;
+    }
+    
+    @Override
+    public String toString() {
+        return orderId + " (" + pizzaType + ")";
+    }
+}
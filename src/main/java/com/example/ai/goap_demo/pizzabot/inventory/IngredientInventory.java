@@ -0,0 +1,175 @@
+package com.example.ai.goap_demo.pizzabot.inventory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free ingredient inventory shared by concurrently running bots.
+ * Each ingredient is a striped CAS counter. A multi-ingredient reservation takes
+ * the ingredients in a fixed (sorted) order and rolls back the ones already taken
+ * if any is short, so a reservation is all-or-nothing without a global lock.
+ */
+public class IngredientInventory {
+    private static final IngredientInventory DEFAULT = createDefault();
+    
+    private final Map<String, StripedStock> stock = new ConcurrentHashMap<>();
+    private final int stripes;
+    
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder failedReservations = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder releases = new LongAdder();
+    
+    public IngredientInventory() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    public IngredientInventory(int concurrencyLevel) {
+        // Round the stripe count up to a power of two
+        int n = 1;
+        while (n < concurrencyLevel) {
+            n <<= 1;
+        }
+        this.stripes = n;
+    }
+    
+    /**
+     * Get the inventory shared by bots that are not given one explicitly. It holds the
+     * pizza ingredients without limit, so such bots never run short; give bots an
+     * inventory of their own to model limited stock.
+     */
+    public static IngredientInventory getDefault() {
+        return DEFAULT;
+    }
+    
+    private static IngredientInventory createDefault() {
+        IngredientInventory inventory = new IngredientInventory();
+        for (String ingredient : List.of("dough", "tomato sauce", "mozzarella", "basil",
+                                         "pepperoni", "bell peppers", "mushrooms", "onions")) {
+            inventory.setUnlimited(ingredient);
+        }
+        return inventory;
+    }
+    
+    /**
+     * Makes an ingredient never run out. Reservations of it always succeed, restocking it
+     * has no effect, and its available stock is reported as Long.MAX_VALUE.
+     */
+    public void setUnlimited(String ingredient) {
+        stock.computeIfAbsent(ingredient, key -> new StripedStock(stripes)).setUnlimited();
+    }
+    
+    /**
+     * Adds stock for an ingredient
+     */
+    public void restock(String ingredient, long quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Restock quantity must not be negative: " + quantity);
+        }
+        stock.computeIfAbsent(ingredient, key -> new StripedStock(stripes)).add(quantity);
+    }
+    
+    /**
+     * Get the current stock of an ingredient
+     */
+    public long getAvailable(String ingredient) {
+        StripedStock counter = stock.get(ingredient);
+        return counter != null ? counter.available() : 0;
+    }
+    
+    /**
+     * Reserves one unit of each listed ingredient (an ingredient listed twice is reserved twice)
+     *
+     * @return the reservation, or null if any ingredient is short
+     */
+    public Reservation reserve(Collection<String> ingredients) {
+        String[] names = ingredients.toArray(new String[0]);
+        Arrays.sort(names);
+        
+        // Collapse duplicates into quantities
+        int distinct = 0;
+        long[] quantities = new long[names.length];
+        for (int i = 0; i < names.length; i++) {
+            if (distinct > 0 && names[distinct - 1].equals(names[i])) {
+                quantities[distinct - 1]++;
+            } else {
+                names[distinct] = names[i];
+                quantities[distinct++] = 1;
+            }
+        }
+        
+        return reserve(Arrays.copyOf(names, distinct), Arrays.copyOf(quantities, distinct));
+    }
+    
+    /**
+     * Reserves the given quantity of each ingredient, all or nothing
+     *
+     * @return the reservation, or null if any ingredient is short
+     */
+    public Reservation reserve(Map<String, Long> quantities) {
+        TreeMap<String, Long> ordered = new TreeMap<>(quantities);
+        String[] names = new String[ordered.size()];
+        long[] amounts = new long[ordered.size()];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : ordered.entrySet()) {
+            names[i] = entry.getKey();
+            amounts[i++] = entry.getValue();
+        }
+        return reserve(names, amounts);
+    }
+    
+    private Reservation reserve(String[] sortedNames, long[] quantities) {
+        // Take ingredients in a fixed order so that competing reservations fail fast
+        // on the same ingredient instead of each holding part of the other's stock
+        StripedStock[] counters = new StripedStock[sortedNames.length];
+        
+        for (int i = 0; i < sortedNames.length; i++) {
+            StripedStock counter = stock.get(sortedNames[i]);
+            if (counter == null || !counter.take(quantities[i])) {
+                for (int j = 0; j < i; j++) {
+                    counters[j].give(quantities[j]);
+                }
+                failedReservations.increment();
+                return null;
+            }
+            counters[i] = counter;
+        }
+        
+        reservations.increment();
+        return new Reservation(this, sortedNames, counters, quantities);
+    }
+    
+    void onCommit() {
+        commits.increment();
+    }
+    
+    void onRelease() {
+        releases.increment();
+    }
+    
+    public long getReservationCount() {
+        return reservations.sum();
+    }
+    
+    public long getFailedReservationCount() {
+        return failedReservations.sum();
+    }
+    
+    public long getCommitCount() {
+        return commits.sum();
+    }
+    
+    public long getReleaseCount() {
+        return releases.sum();
+    }
+    
+    @Override
+    public String toString() {
+        Map<String, Long> levels = new TreeMap<>();
+        for (String ingredient : stock.keySet()) {
+            levels.put(ingredient, getAvailable(ingredient));
+        }
+        return "Inventory: " + levels;
+    }
+}
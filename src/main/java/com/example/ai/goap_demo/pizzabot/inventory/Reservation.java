@@ -0,0 +1,76 @@
+package com.example.ai.goap_demo.pizzabot.inventory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingredients held for one order. A reservation ends exactly once: either it is
+ * committed when the pizza is made, or released back to the inventory.
+ */
+public class Reservation {
+    private static final int PENDING = 0;
+    private static final int COMMITTED = 1;
+    private static final int RELEASED = 2;
+    
+    private final IngredientInventory inventory;
+    private final String[] ingredients;
+    private final StripedStock[] counters;
+    private final long[] quantities;
+    private final AtomicInteger status = new AtomicInteger(PENDING);
+    
+    Reservation(IngredientInventory inventory, String[] ingredients, StripedStock[] counters, long[] quantities) {
+        this.inventory = inventory;
+        this.ingredients = ingredients;
+        this.counters = counters;
+        this.quantities = quantities;
+    }
+    
+    /**
+     * Consumes the reserved ingredients
+     *
+     * @return false if the reservation had already ended
+     */
+    public boolean commit() {
+        if (!status.compareAndSet(PENDING, COMMITTED)) {
+            return false;
+        }
+        inventory.onCommit();
+        return true;
+    }
+    
+    /**
+     * Returns the reserved ingredients to the inventory
+     *
+     * @return false if the reservation had already ended
+     */
+    public boolean release() {
+        if (!status.compareAndSet(PENDING, RELEASED)) {
+            return false;
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i].give(quantities[i]);
+        }
+        inventory.onRelease();
+        return true;
+    }
+    
+    public boolean isPending() {
+        return status.get() == PENDING;
+    }
+    
+    public Map<String, Long> getQuantities() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < ingredients.length; i++) {
+            result.put(ingredients[i], quantities[i]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+    
+    @Override
+    public String toString() {
+        // Kept stable so it can be part of a world state hash
+        return "Reservation" + getQuantities();
+    }
+}
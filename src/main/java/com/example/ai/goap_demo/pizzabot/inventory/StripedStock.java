@@ -0,0 +1,136 @@
+package com.example.ai.goap_demo.pizzabot.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock counter for a single ingredient, split across padded stripes so that
+ * concurrent bots reserving the same ingredient mostly CAS on different cache lines.
+ */
+class StripedStock {
+    // One long per 64-byte cache line
+    private static final int PADDING = 8;
+    // Passes over the stripes before a take reports a shortage
+    private static final int MAX_PASSES = 4;
+    
+    private final AtomicLongArray cells;
+    private final int stripes;
+    private volatile boolean unlimited;
+    
+    StripedStock(int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+    }
+    
+    /**
+     * Adds stock, spread evenly across the stripes
+     */
+    void add(long quantity) {
+        if (unlimited) {
+            return;
+        }
+        long share = quantity / stripes;
+        long remainder = quantity % stripes;
+        for (int i = 0; i < stripes; i++) {
+            long amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                cells.getAndAdd(i * PADDING, amount);
+            }
+        }
+    }
+    
+    /**
+     * Takes the given quantity, starting at the calling thread's home stripe and
+     * moving on to the others. Either the whole quantity is taken or nothing is.
+     * Stock that is briefly missing because a competing take is about to give it back
+     * is waited for by passing over the stripes again, a bounded number of times.
+     *
+     * @return true if the quantity was taken
+     */
+    boolean take(long quantity) {
+        if (unlimited) {
+            return true;
+        }
+        int home = homeStripe();
+        long remaining = quantity;
+        long[] taken = null;
+        
+        for (int pass = 0; pass < MAX_PASSES && remaining > 0; pass++) {
+            if (pass > 0) {
+                Thread.onSpinWait();
+            }
+            for (int n = 0; n < stripes && remaining > 0; n++) {
+                int stripe = (home + n) & (stripes - 1);
+                int index = stripe * PADDING;
+                while (true) {
+                    long available = cells.get(index);
+                    if (available <= 0) {
+                        break;
+                    }
+                    long amount = Math.min(available, remaining);
+                    if (cells.compareAndSet(index, available, available - amount)) {
+                        if (amount < quantity) {
+                            if (taken == null) {
+                                taken = new long[stripes];
+                            }
+                            taken[stripe] += amount;
+                        }
+                        remaining -= amount;
+                        break;
+                    }
+                }
+            }
+        }
+        
+        if (remaining == 0) {
+            return true;
+        }
+        
+        // Not enough stock: give back what was taken from each stripe
+        if (taken != null) {
+            for (int i = 0; i < stripes; i++) {
+                if (taken[i] > 0) {
+                    cells.getAndAdd(i * PADDING, taken[i]);
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns previously taken stock to the calling thread's home stripe
+     */
+    void give(long quantity) {
+        if (unlimited) {
+            return;
+        }
+        cells.getAndAdd(homeStripe() * PADDING, quantity);
+    }
+    
+    /**
+     * Get the total stock across all stripes (a moment-in-time estimate under contention)
+     */
+    long available() {
+        if (unlimited) {
+            return Long.MAX_VALUE;
+        }
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+    
+    /**
+     * Makes the stock never run out; takes always succeed and stock is no longer counted
+     */
+    void setUnlimited() {
+        unlimited = true;
+    }
+    
+    private int homeStripe() {
+        // Spread threads over the stripes by a mixed thread id
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (stripes - 1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.ai.goap_demo.pizzabot.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of journal strings and property values.
+ * Only immutable scalar values are journaled; other objects (such as ingredient
+ * reservations) are runtime-only and are not restored when the order is resumed.
+ */
+final class JournalCodec {
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    
+    private JournalCodec() {
+    }
+    
+    static boolean isSupported(Object value) {
+        return value == null || value instanceof Boolean || value instanceof Integer
+            || value instanceof Long || value instanceof Double || value instanceof String;
+    }
+    
+    static int stringSize(String value) {
+        return 2 + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+    
+    static int valueSize(Object value) {
+        if (value == null) {
+            return 1;
+        }
+        if (value instanceof Boolean) {
+            return 2;
+        }
+        if (value instanceof Integer) {
+            return 5;
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return 9;
+        }
+        return 1 + stringSize((String) value);
+    }
+    
+    static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for the journal: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+    
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    static void writeValue(ByteBuffer buffer, Object value) {
+        if (value == null) {
+            buffer.put(NULL);
+        } else if (value instanceof Boolean) {
+            buffer.put(BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof Integer) {
+            buffer.put(INTEGER).putInt((Integer) value);
+        } else if (value instanceof Long) {
+            buffer.put(LONG).putLong((Long) value);
+        } else if (value instanceof Double) {
+            buffer.put(DOUBLE).putDouble((Double) value);
+        } else if (value instanceof String) {
+            buffer.put(STRING);
+            writeString(buffer, (String) value);
+        } else {
+            throw new IllegalArgumentException("Unsupported journal value: " + value.getClass().getName());
+        }
+    }
+    
+    static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case INTEGER:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case STRING:
+                return readString(buffer);
+            default:
+                throw new IllegalStateException("Unknown journal value type: " + type);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.ai.goap_demo.pizzabot.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size, memory-mapped journal file.
+ *
+ * Record layout: [int length][int crc32][long seq][byte op][orderId][key][value].
+ * The length is written last, so a record torn by a crash reads as length 0,
+ * which also marks the end of the written part of the (zero-filled) segment.
+ */
+class JournalSegment {
+    static final int HEADER_SIZE = 8;
+    
+    private final Path path;
+    private final long firstSeq;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    
+    JournalSegment(Path path, long firstSeq, int size) throws IOException {
+        this.path = path;
+        this.firstSeq = firstSeq;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    
+    Path getPath() {
+        return path;
+    }
+    
+    long getFirstSeq() {
+        return firstSeq;
+    }
+    
+    boolean hasRoom(int payloadSize) {
+        // Keep room for the zero length that terminates the segment
+        return buffer.remaining() >= HEADER_SIZE + payloadSize + 4;
+    }
+    
+    /**
+     * Appends one record; the caller must hold the journal lock and have checked hasRoom
+     */
+    void append(long seq, byte op, String orderId, String key, Object value, int payloadSize) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.putLong(seq).put(op);
+        JournalCodec.writeString(buffer, orderId);
+        if (key != null) {
+            JournalCodec.writeString(buffer, key);
+            JournalCodec.writeValue(buffer, value);
+        }
+        
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + payloadSize);
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, payloadSize);
+    }
+    
+    void force() {
+        buffer.force();
+    }
+    
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+    
+    /**
+     * Reads the records of a segment file in order, stopping at the first empty or torn record
+     */
+    static void replay(Path path, JournalReplayer replayer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    return;
+                }
+                
+                ByteBuffer payload = buffer.duplicate();
+                payload.limit(start + HEADER_SIZE + length);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return;
+                }
+                
+                long seq = buffer.getLong();
+                byte op = buffer.get();
+                String orderId = JournalCodec.readString(buffer);
+                String key = null;
+                Object value = null;
+                if (op == WorldStateJournal.OP_SET) {
+                    key = JournalCodec.readString(buffer);
+                    value = JournalCodec.readValue(buffer);
+                }
+                replayer.apply(seq, op, orderId, key, value);
+                buffer.position(start + HEADER_SIZE + length);
+            }
+        }
+    }
+    
+    interface JournalReplayer {
+        void apply(long seq, byte op, String orderId, String key, Object value);
+    }
+}
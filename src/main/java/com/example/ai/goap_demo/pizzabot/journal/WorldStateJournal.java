@@ -0,0 +1,412 @@
+package com.example.ai.goap_demo.pizzabot.journal;
+
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the world state changes made while bots execute their plans.
+ *
+ * Changes are appended to memory-mapped segment files, which rotate when full.
+ * A background thread forces pending appends to disk in groups (group commit) and
+ * periodically writes a compact snapshot of every in-flight order, after which the
+ * segments it covers are deleted. On open, the state of each in-flight order is
+ * rebuilt from the latest snapshot plus the journal tail.
+ */
+public class WorldStateJournal implements Closeable {
+    static final byte OP_SET = 1;
+    static final byte OP_COMPLETE = 2;
+    
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x50425753; // "PBWS"
+    private static final int SNAPSHOT_VERSION = 1;
+    
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+    public static final long DEFAULT_SNAPSHOT_EVERY = 1_000_000;
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMillis;
+    private final long snapshotEvery;
+    
+    // State of every in-flight order, kept up to date on append and used for snapshots
+    private final Map<String, Map<String, Object>> liveStates = new HashMap<>();
+    private final Map<String, Map<String, Object>> recoveredStates;
+    
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private JournalSegment current;
+    private long nextSeq;
+    private long durableSeq;
+    private long recordsSinceSnapshot;
+    private boolean snapshotRequested;
+    private boolean closed;
+    
+    private final Thread flusher;
+    private final Object snapshotLock = new Object();
+    
+    private WorldStateJournal(Path directory, int segmentSize, long flushIntervalMillis, long snapshotEvery)
+            throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.snapshotEvery = snapshotEvery;
+        
+        Files.createDirectories(directory);
+        long snapshotSeq = recover();
+        this.recoveredStates = deepCopy(liveStates);
+        this.durableSeq = nextSeq - 1;
+        this.recordsSinceSnapshot = nextSeq - 1 - snapshotSeq;
+        
+        // Never append to a segment written before the restart: its tail may be torn
+        this.current = newSegment(nextSeq);
+        
+        this.flusher = new Thread(this::runFlusher, "world-state-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+    
+    /**
+     * Opens the journal in the given directory with default settings, recovering any existing state
+     */
+    public static WorldStateJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_SNAPSHOT_EVERY);
+    }
+    
+    /**
+     * Opens the journal in the given directory, recovering any existing state
+     *
+     * @param segmentSize Size in bytes of each memory-mapped segment
+     * @param flushIntervalMillis Maximum time appends wait before being forced to disk together
+     * @param snapshotEvery Number of appended records after which a snapshot is written
+     */
+    public static WorldStateJournal open(Path directory, int segmentSize, long flushIntervalMillis,
+                                         long snapshotEvery) throws IOException {
+        return new WorldStateJournal(directory, segmentSize, flushIntervalMillis, snapshotEvery);
+    }
+    
+    /**
+     * Get the state an in-flight order had when the journal was opened, or null if there was none
+     */
+    public Map<String, Object> getRecoveredState(String orderId) {
+        Map<String, Object> state = recoveredStates.get(orderId);
+        return state != null ? Collections.unmodifiableMap(state) : null;
+    }
+    
+    /**
+     * Get the ids of the orders that were in flight when the journal was opened
+     */
+    public Set<String> getRecoveredOrderIds() {
+        return Collections.unmodifiableSet(recoveredStates.keySet());
+    }
+    
+    /**
+     * Records a property change of an order. Values that cannot be journaled are ignored.
+     *
+     * @return the sequence number of the record, or -1 if nothing was recorded
+     */
+    public long recordSet(String orderId, String key, Object value) {
+        if (!JournalCodec.isSupported(value)) {
+            return -1;
+        }
+        int payloadSize = 9 + JournalCodec.stringSize(orderId) + JournalCodec.stringSize(key)
+            + JournalCodec.valueSize(value);
+        return append(OP_SET, orderId, key, value, payloadSize);
+    }
+    
+    /**
+     * Records that an order has finished, so it is no longer recovered
+     */
+    public long recordComplete(String orderId) {
+        int payloadSize = 9 + JournalCodec.stringSize(orderId);
+        return append(OP_COMPLETE, orderId, null, null, payloadSize);
+    }
+    
+    private synchronized long append(byte op, String orderId, String key, Object value, int payloadSize) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (JournalSegment.HEADER_SIZE + payloadSize + 4 > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payloadSize + " bytes exceeds the segment size");
+        }
+        
+        if (!current.hasRoom(payloadSize)) {
+            rotate();
+        }
+        
+        long seq = nextSeq++;
+        current.append(seq, op, orderId, key, value, payloadSize);
+        apply(liveStates, op, orderId, key, value);
+        
+        if (++recordsSinceSnapshot >= snapshotEvery && !snapshotRequested) {
+            snapshotRequested = true;
+            notifyAll();
+        }
+        return seq;
+    }
+    
+    private void rotate() {
+        // The full segment is forced here; later forces only touch the new one
+        current.force();
+        try {
+            current = newSegment(nextSeq);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate journal segment", e);
+        }
+    }
+    
+    private JournalSegment newSegment(long firstSeq) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        JournalSegment segment = new JournalSegment(path, firstSeq, segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+    
+    /**
+     * Blocks until every record appended so far has been forced to disk
+     */
+    public synchronized void sync() throws InterruptedException {
+        long target = nextSeq - 1;
+        while (durableSeq < target && !closed) {
+            notifyAll();
+            wait();
+        }
+    }
+    
+    /**
+     * Writes a snapshot of all in-flight orders now and drops the segments it covers
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long seq;
+            Map<String, Map<String, Object>> states;
+            synchronized (this) {
+                seq = nextSeq - 1;
+                states = deepCopy(liveStates);
+                recordsSinceSnapshot = 0;
+                snapshotRequested = false;
+            }
+            
+            writeSnapshot(seq, states);
+            deleteCoveredFiles(seq);
+        }
+    }
+    
+    private void runFlusher() {
+        while (true) {
+            JournalSegment segment;
+            long target;
+            boolean takeSnapshot;
+            synchronized (this) {
+                try {
+                    if (!closed && durableSeq >= nextSeq - 1 && !snapshotRequested) {
+                        wait(flushIntervalMillis);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+                segment = current;
+                target = nextSeq - 1;
+                takeSnapshot = snapshotRequested;
+            }
+            
+            // One force covers every record appended since the last one
+            if (target > durableSeq) {
+                segment.force();
+                synchronized (this) {
+                    durableSeq = Math.max(durableSeq, target);
+                    notifyAll();
+                }
+            }
+            
+            if (takeSnapshot) {
+                try {
+                    snapshot();
+                } catch (IOException e) {
+                    DiagnosticLog.log("World state snapshot failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private void writeSnapshot(long seq, Map<String, Map<String, Object>> states) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, seq, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(seq);
+            out.writeInt(states.size());
+            
+            ByteBuffer buffer = ByteBuffer.allocate(0xFFFF * 2 + 16);
+            for (Map.Entry<String, Map<String, Object>> order : states.entrySet()) {
+                buffer.clear();
+                JournalCodec.writeString(buffer, order.getKey());
+                buffer.putInt(order.getValue().size());
+                out.write(buffer.array(), 0, buffer.position());
+                for (Map.Entry<String, Object> property : order.getValue().entrySet()) {
+                    buffer.clear();
+                    JournalCodec.writeString(buffer, property.getKey());
+                    JournalCodec.writeValue(buffer, property.getValue());
+                    out.write(buffer.array(), 0, buffer.position());
+                }
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    private static Map<String, Map<String, Object>> readSnapshot(Path path) throws IOException {
+        Map<String, Map<String, Object>> states = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        
+        if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Not a world state snapshot: " + path);
+        }
+        buffer.getLong();
+        int orders = buffer.getInt();
+        
+        for (int i = 0; i < orders; i++) {
+            String orderId = JournalCodec.readString(buffer);
+            int properties = buffer.getInt();
+            Map<String, Object> state = new HashMap<>(properties * 2);
+            for (int p = 0; p < properties; p++) {
+                state.put(JournalCodec.readString(buffer), JournalCodec.readValue(buffer));
+            }
+            states.put(orderId, state);
+        }
+        return states;
+    }
+    
+    /**
+     * Loads the latest snapshot and replays the newer journal records into liveStates
+     *
+     * @return the sequence number covered by the snapshot
+     */
+    private long recover() throws IOException {
+        long snapshotSeq = 0;
+        Path latestSnapshot = null;
+        for (Path snapshot : listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            long seq = parseSeq(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            if (latestSnapshot == null || seq > snapshotSeq) {
+                latestSnapshot = snapshot;
+                snapshotSeq = seq;
+            }
+        }
+        if (latestSnapshot != null) {
+            liveStates.putAll(readSnapshot(latestSnapshot));
+        }
+        
+        final long covered = snapshotSeq;
+        long[] lastSeq = { snapshotSeq };
+        for (Path segment : listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            JournalSegment.replay(segment, (seq, op, orderId, key, value) -> {
+                if (seq > covered) {
+                    apply(liveStates, op, orderId, key, value);
+                }
+                lastSeq[0] = Math.max(lastSeq[0], seq);
+            });
+        }
+        
+        nextSeq = lastSeq[0] + 1;
+        return snapshotSeq;
+    }
+    
+    private void deleteCoveredFiles(long snapshotSeq) throws IOException {
+        List<JournalSegment> obsolete = new ArrayList<>();
+        synchronized (this) {
+            // A segment is covered when the segment after it starts at or before snapshotSeq + 1
+            while (segments.size() > 1 && segments.get(1).getFirstSeq() <= snapshotSeq + 1) {
+                obsolete.add(segments.remove(0));
+            }
+        }
+        for (JournalSegment segment : obsolete) {
+            segment.close();
+            Files.deleteIfExists(segment.getPath());
+        }
+        
+        // Segments left over from before the restart are not tracked in the segments list
+        for (Path path : listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            long firstSeq = parseSeq(path, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if (firstSeq < segments.get(0).getFirstSeq()) {
+                Files.deleteIfExists(path);
+            }
+        }
+        for (Path path : listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (parseSeq(path, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < snapshotSeq) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    private List<Path> listFiles(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(prefix) && name.endsWith(suffix);
+                })
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+    
+    private static long parseSeq(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+    
+    private static void apply(Map<String, Map<String, Object>> states, byte op, String orderId,
+                              String key, Object value) {
+        if (op == OP_COMPLETE) {
+            states.remove(orderId);
+        } else {
+            states.computeIfAbsent(orderId, id -> new HashMap<>()).put(key, value);
+        }
+    }
+    
+    private static Map<String, Map<String, Object>> deepCopy(Map<String, Map<String, Object>> states) {
+        Map<String, Map<String, Object>> copy = new HashMap<>(states.size() * 2);
+        for (Map.Entry<String, Map<String, Object>> entry : states.entrySet()) {
+            copy.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return copy;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            for (JournalSegment segment : segments) {
+                segment.close();
+            }
+            durableSeq = nextSeq - 1;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.ai.goap_demo.pizzabot.pipeline;
+
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.pizzabot.PizzaBot;
+import com.example.ai.goap_demo.pizzabot.batching.PizzaOrder;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * Streams orders through intake, planning, execution and completion.
+ *
+ * Every stage has a bounded buffer and its own workers, and demand flows from
+ * the completion sink back to the source, so a slow stage holds back the
+ * stages in front of it rather than letting work pile up in memory.
+ */
+public class OrderPipeline {
+    private final PipelineStage<PizzaOrder, OrderTicket> intake;
+    private final PipelineStage<OrderTicket, OrderTicket> planning;
+    private final PipelineStage<OrderTicket, OrderTicket> execution;
+    private final OrderSink completion;
+    
+    /**
+     * @param inventory Inventory shared by all bots
+     * @param queueCapacity Buffer size of every stage
+     * @param planners Number of planning workers
+     * @param executors Number of execution workers
+     */
+    public OrderPipeline(IngredientInventory inventory, int queueCapacity, int planners, int executors) {
+        this.intake = new PipelineStage<>("intake", 1, queueCapacity, order -> {
+            PizzaBot bot = new PizzaBot(inventory);
+            bot.setRequestedPizzaType(order.getPizzaType());
+            return new OrderTicket(order, bot);
+        });
+        
+        this.planning = new PipelineStage<>("planning", planners, queueCapacity, ticket -> {
+            Plan plan = ticket.getBot().createPlan();
+            ticket.setPlan(plan);
+            if (plan == null) {
+                ticket.setFailure("No plan");
+            }
+            return ticket;
+        });
+        
+        this.execution = new PipelineStage<>("execution", executors, queueCapacity, ticket -> {
+            if (ticket.getPlan() != null) {
+                ticket.setServed(ticket.getBot().executePlan());
+                if (!ticket.isServed()) {
+                    ticket.setFailure("Execution failed");
+                }
+            }
+            return ticket;
+        });
+        
+        this.completion = new OrderSink(queueCapacity);
+        
+        intake.subscribe(planning);
+        planning.subscribe(execution);
+        execution.subscribe(completion);
+    }
+    
+    /**
+     * Connects the pipeline to an order source, e.g. a SyntheticOrderGenerator
+     */
+    public void start(Flow.Publisher<PizzaOrder> source) {
+        source.subscribe(intake);
+    }
+    
+    public OrderSink getCompletion() {
+        return completion;
+    }
+    
+    /**
+     * Get the stages in pipeline order, for reporting queue depth and latency
+     */
+    public List<PipelineStage<?, ?>> getStages() {
+        return List.of(intake, planning, execution);
+    }
+    
+    /**
+     * Stops all stage workers
+     */
+    public void close() {
+        intake.close();
+        planning.close();
+        execution.close();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.ai.goap_demo.pizzabot.pipeline;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The completion stage: counts served and failed orders and their end-to-end latency.
+ * Demand is requested in small batches, so the sink is never flooded either.
+ */
+public class OrderSink implements Flow.Subscriber<OrderTicket> {
+    private final int batch;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private Flow.Subscription subscription;
+    private int received;
+    
+    private final LongAdder served = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile Throwable error;
+    
+    /**
+     * @param batch Number of tickets requested at a time
+     */
+    public OrderSink(int batch) {
+        this.batch = batch;
+    }
+    
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(batch);
+    }
+    
+    @Override
+    public void onNext(OrderTicket ticket) {
+        long latency = System.nanoTime() - ticket.getIntakeNanos();
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        if (ticket.isServed()) {
+            served.increment();
+        } else {
+            failed.increment();
+        }
+        
+        if (++received == batch) {
+            received = 0;
+            subscription.request(batch);
+        }
+    }
+    
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done.countDown();
+    }
+    
+    @Override
+    public void onComplete() {
+        done.countDown();
+    }
+    
+    /**
+     * Waits until the pipeline has completed
+     *
+     * @return true if it completed within the timeout
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+    
+    public long getServedCount() {
+        return served.sum();
+    }
+    
+    public long getFailedCount() {
+        return failed.sum();
+    }
+    
+    /**
+     * Get the average time from intake to completion
+     */
+    public double getAverageLatencyMillis() {
+        long count = served.sum() + failed.sum();
+        return count == 0 ? 0.0 : latencyNanos.sum() / 1e6 / count;
+    }
+    
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1e6;
+    }
+    
+    /**
+     * Get the error that terminated the pipeline, or null
+     */
+    public Throwable getError() {
+        return error;
+    }
+}
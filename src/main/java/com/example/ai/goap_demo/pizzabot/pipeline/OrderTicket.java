@@ -0,0 +1,65 @@
+package com.example.ai.goap_demo.pizzabot.pipeline;
+
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.pizzabot.PizzaBot;
+import com.example.ai.goap_demo.pizzabot.batching.PizzaOrder;
+
+/**
+ * An order travelling through the pipeline, with the bot serving it and its progress.
+ */
+public class OrderTicket {
+    private final PizzaOrder order;
+    private final PizzaBot bot;
+    private final long intakeNanos;
+    private Plan plan;
+    private boolean served;
+    private String failure;
+    
+    OrderTicket(PizzaOrder order, PizzaBot bot) {
+        this.order = order;
+        this.bot = bot;
+        this.intakeNanos = System.nanoTime();
+    }
+    
+    public PizzaOrder getOrder() {
+        return order;
+    }
+    
+    public PizzaBot getBot() {
+        return bot;
+    }
+    
+    /**
+     * Get the System.nanoTime() at which the order entered the pipeline
+     */
+    public long getIntakeNanos() {
+        return intakeNanos;
+    }
+    
+    public Plan getPlan() {
+        return plan;
+    }
+    
+    void setPlan(Plan plan) {
+        this.plan = plan;
+    }
+    
+    public boolean isServed() {
+        return served;
+    }
+    
+    void setServed(boolean served) {
+        this.served = served;
+    }
+    
+    /**
+     * Get the reason the order failed, or null if it did not fail
+     */
+    public String getFailure() {
+        return failure;
+    }
+    
+    void setFailure(String failure) {
+        this.failure = failure;
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.ai.goap_demo.pizzabot.pipeline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A pipeline stage that applies a function to every item on a fixed number of worker threads.
+ *
+ * The stage requests at most capacity items from upstream and asks for one more only
+ * after a worker has taken an item out of its buffer, so the buffer can never grow
+ * past capacity. Results are emitted only while the downstream subscriber has
+ * outstanding demand; otherwise the workers wait, stop taking items and upstream
+ * requests stop too. Overload therefore propagates back to the source instead of
+ * growing queues or threads.
+ *
+ * Items for which the function returns null or throws are dropped and counted.
+ * Only one downstream subscriber is supported.
+ */
+public class PipelineStage<I, O> implements Flow.Processor<I, O> {
+    private final String name;
+    private final Function<I, O> work;
+    private final int capacity;
+    private final BlockingQueue<I> queue;
+    private final Thread[] workers;
+    
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super O> downstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile boolean cancelled;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    
+    // Items received but not yet emitted or dropped
+    private final AtomicLong inFlight = new AtomicLong();
+    
+    // Upstream requests not yet passed on; whoever raises it from zero passes them on
+    private final AtomicLong pendingRequests = new AtomicLong();
+    
+    // Outstanding downstream demand, guarded by demandLock
+    private final Object demandLock = new Object();
+    private long demand;
+    
+    // Flow requires onNext calls to one subscriber to be serialized
+    private final Object emitLock = new Object();
+    
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder workNanos = new LongAdder();
+    private final LongAdder backpressureNanos = new LongAdder();
+    private final AtomicLong maxWorkNanos = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    
+    /**
+     * @param name Stage name, used for thread names and reporting
+     * @param workerCount Number of worker threads
+     * @param capacity Maximum number of items buffered in front of the workers
+     * @param work The function applied to every item
+     */
+    public PipelineStage(String name, int workerCount, int capacity, Function<I, O> work) {
+        if (workerCount < 1 || capacity < 1) {
+            throw new IllegalArgumentException("workerCount and capacity must be at least 1");
+        }
+        this.name = name;
+        this.work = work;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::runWorker, "goap-pipeline-" + name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+    
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        requestUpstream(capacity);
+    }
+    
+    @Override
+    public void onNext(I item) {
+        inFlight.incrementAndGet();
+        if (!queue.offer(item)) {
+            // Upstream sent more than it was asked for
+            inFlight.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+    
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = throwable;
+        upstreamDone = true;
+    }
+    
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super O> subscriber) {
+        if (downstream != null) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+                
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Stage " + name + " already has a subscriber"));
+            return;
+        }
+        downstream = subscriber;
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                    return;
+                }
+                synchronized (demandLock) {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    demandLock.notifyAll();
+                }
+            }
+            
+            @Override
+            public void cancel() {
+                cancelled = true;
+                Flow.Subscription current = upstream;
+                if (current != null) {
+                    current.cancel();
+                }
+                synchronized (demandLock) {
+                    demandLock.notifyAll();
+                }
+            }
+        });
+    }
+    
+    private void runWorker() {
+        try {
+            while (!cancelled && !completed.get()) {
+                I item = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    if (upstreamDone && inFlight.get() == 0) {
+                        complete();
+                    }
+                    continue;
+                }
+                
+                // A slot is free again
+                requestUpstream(1);
+                
+                O result = null;
+                long start = System.nanoTime();
+                try {
+                    result = work.apply(item);
+                } catch (RuntimeException e) {
+                    // Counted as dropped below
+                }
+                long elapsed = System.nanoTime() - start;
+                workNanos.add(elapsed);
+                maxWorkNanos.accumulateAndGet(elapsed, Math::max);
+                
+                if (result == null) {
+                    dropped.increment();
+                } else if (awaitDemand()) {
+                    synchronized (emitLock) {
+                        downstream.onNext(result);
+                    }
+                    processed.increment();
+                }
+                inFlight.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            // Stage closed
+        }
+    }
+    
+    /**
+     * Asks upstream for more items. Flow forbids concurrent calls to request, so only the
+     * thread that finds no requests pending calls it, passing on any that other workers
+     * add meanwhile.
+     */
+    private void requestUpstream(long n) {
+        if (pendingRequests.getAndAdd(n) != 0) {
+            return;
+        }
+        long missed = n;
+        do {
+            Flow.Subscription current = upstream;
+            if (current != null && !upstreamDone && !cancelled) {
+                current.request(missed);
+            }
+            missed = pendingRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+    
+    /**
+     * Waits until downstream can take one more item and claims it
+     *
+     * @return false if the stage was cancelled while waiting
+     */
+    private boolean awaitDemand() throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            synchronized (demandLock) {
+                while (demand == 0 && !cancelled) {
+                    demandLock.wait();
+                }
+                if (cancelled) {
+                    return false;
+                }
+                demand--;
+                return true;
+            }
+        } finally {
+            backpressureNanos.add(System.nanoTime() - start);
+        }
+    }
+    
+    private void complete() {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        Flow.Subscriber<? super O> current = downstream;
+        if (current == null) {
+            return;
+        }
+        synchronized (emitLock) {
+            if (upstreamError != null) {
+                current.onError(upstreamError);
+            } else {
+                current.onComplete();
+            }
+        }
+    }
+    
+    /**
+     * Stops the workers without completing downstream
+     */
+    public void close() {
+        cancelled = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getWorkerCount() {
+        return workers.length;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Get the number of items waiting for a worker
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * Get the highest queue depth observed
+     */
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+    
+    /**
+     * Get the number of items received and not yet emitted or dropped
+     */
+    public long getInFlight() {
+        return inFlight.get();
+    }
+    
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    /**
+     * Get the average time the function took per item
+     */
+    public double getAverageLatencyMillis() {
+        long count = processed.sum() + dropped.sum();
+        return count == 0 ? 0.0 : workNanos.sum() / 1e6 / count;
+    }
+    
+    public double getMaxLatencyMillis() {
+        return maxWorkNanos.get() / 1e6;
+    }
+    
+    /**
+     * Get the total time workers waited for downstream demand
+     */
+    public double getBackpressureMillis() {
+        return backpressureNanos.sum() / 1e6;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s[workers=%d, queue=%d/%d, maxQueue=%d, processed=%d, dropped=%d, "
+                + "avg=%.2fms, max=%.2fms, backpressure=%.0fms]", name, workers.length, getQueueDepth(), capacity,
+            getMaxQueueDepth(), getProcessedCount(), getDroppedCount(), getAverageLatencyMillis(),
+            getMaxLatencyMillis(), getBackpressureMillis());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ai.goap_demo.pizzabot.pipeline;
+
+import com.example.ai.goap_demo.pizzabot.batching.PizzaOrder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes a fixed number of orders at a target rate, for load testing the pipeline.
+ *
+ * Orders are only sent against demand. When the pipeline cannot keep up the
+ * generator waits, and the time it spent waiting shows how far the offered load
+ * exceeds what the pipeline sustains.
+ */
+public class SyntheticOrderGenerator implements Flow.Publisher<PizzaOrder> {
+    private final double ordersPerSecond;
+    private final int orderCount;
+    private final List<String> pizzaTypes;
+    private final long seed;
+    
+    private final LongAdder published = new LongAdder();
+    private final LongAdder backpressureNanos = new LongAdder();
+    
+    /**
+     * @param ordersPerSecond Target arrival rate (Poisson arrivals), or 0 to publish as fast as demand allows
+     * @param orderCount Number of orders to publish before completing
+     * @param pizzaTypes Pizza types, chosen uniformly
+     * @param seed Random seed, so runs are repeatable
+     */
+    public SyntheticOrderGenerator(double ordersPerSecond, int orderCount, List<String> pizzaTypes, long seed) {
+        this.ordersPerSecond = ordersPerSecond;
+        this.orderCount = orderCount;
+        this.pizzaTypes = List.copyOf(pizzaTypes);
+        this.seed = seed;
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super PizzaOrder> subscriber) {
+        Emitter emitter = new Emitter(subscriber);
+        subscriber.onSubscribe(emitter);
+        Thread thread = new Thread(emitter, "goap-order-generator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public long getPublishedCount() {
+        return published.sum();
+    }
+    
+    /**
+     * Get the time the generator waited for demand, i.e. how long it was held back
+     */
+    public double getBackpressureMillis() {
+        return backpressureNanos.sum() / 1e6;
+    }
+    
+    private final class Emitter implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super PizzaOrder> subscriber;
+        private long demand;
+        private boolean cancelled;
+        
+        Emitter(Flow.Subscriber<? super PizzaOrder> subscriber) {
+            this.subscriber = subscriber;
+        }
+        
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                return;
+            }
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            notifyAll();
+        }
+        
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+        
+        @Override
+        public void run() {
+            Random random = new Random(seed);
+            long next = System.nanoTime();
+            try {
+                for (int i = 0; i < orderCount; i++) {
+                    if (ordersPerSecond > 0) {
+                        next += (long) (-Math.log(1 - random.nextDouble()) / ordersPerSecond * 1e9);
+                        long sleep = next - System.nanoTime();
+                        if (sleep > 0) {
+                            Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+                        }
+                    }
+                    if (!awaitDemand()) {
+                        return;
+                    }
+                    String type = pizzaTypes.get(random.nextInt(pizzaTypes.size()));
+                    subscriber.onNext(new PizzaOrder("order-" + i, type, System.currentTimeMillis()));
+                    published.increment();
+                }
+                subscriber.onComplete();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        private synchronized boolean awaitDemand() throws InterruptedException {
+            long start = System.nanoTime();
+            while (demand == 0 && !cancelled) {
+                wait();
+            }
+            backpressureNanos.add(System.nanoTime() - start);
+            if (cancelled) {
+                return false;
+            }
+            demand--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ai.goap_demo.pizzabot.scheduling;
+
+import com.example.ai.goap_demo.goap.core.Plan;
+
+/**
+ * An order to be scheduled in the kitchen, with the plan that fulfils it.
+ */
+public class KitchenOrder {
+    private final String orderId;
+    private final String pizzaType;
+    private final Plan plan;
+    private final long releaseMinute;
+    
+    /**
+     * @param orderId Identifier of the order
+     * @param pizzaType The pizza type, used for type-dependent durations such as baking
+     * @param plan The plan created for the order
+     * @param releaseMinute The minute at which the order arrives
+     */
+    public KitchenOrder(String orderId, String pizzaType, Plan plan, long releaseMinute) {
+        this.orderId = orderId;
+        this.pizzaType = pizzaType;
+        this.plan = plan;
+        this.releaseMinute = releaseMinute;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public String getPizzaType() {
+        return pizzaType;
+    }
+    
+    public Plan getPlan() {
+        return plan;
+    }
+    
+    public long getReleaseMinute() {
+        return releaseMinute;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.ai.goap_demo.pizzabot.scheduling;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.pizzabot.actions.BakePizzaAction;
+
+import java.util.*;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Interleaves the plans of many orders over shared kitchen resources (ovens, prep stations).
+ *
+ * Each resource has a capacity; a step that uses a resource occupies one of its
+ * units for its whole duration. Steps of one order run in plan order. The scheduler
+ * uses non-delay list scheduling: at every decision point it starts, among the steps
+ * that can start earliest, the one ranked first by the policy.
+ *
+ * Steps are never preempted, so critical actions such as baking always run
+ * uninterrupted on a single unit. When steps tie on start time, critical steps
+ * are dispatched first because they sit on the bottleneck resource.
+ */
+public class KitchenScheduler {
+    public static final String OVEN = "oven";
+    public static final String PREP_STATION = "prep";
+    public static final String COUNTER = "counter";
+    
+    /**
+     * How the next step is chosen among the steps that can start
+     */
+    public enum Policy {
+        /** Orders run one after another, as when every bot assumes it owns the kitchen */
+        SERIAL_FIFO,
+        /** Steps are interleaved, earlier arrivals first */
+        ARRIVAL_ORDER,
+        /** Steps are interleaved, orders with the most remaining work first */
+        LONGEST_REMAINING
+    }
+    
+    private final Map<String, Integer> capacities;
+    private final Map<String, String> resourceByActionId;
+    private final ToIntBiFunction<KitchenOrder, Action> durations;
+    
+    /**
+     * @param capacities Number of units of each shared resource
+     * @param resourceByActionId The resource each action id occupies; actions not listed need none
+     * @param durations Duration in minutes of an action for an order
+     */
+    public KitchenScheduler(Map<String, Integer> capacities, Map<String, String> resourceByActionId,
+                            ToIntBiFunction<KitchenOrder, Action> durations) {
+        this.capacities = new HashMap<>(capacities);
+        this.resourceByActionId = new HashMap<>(resourceByActionId);
+        this.durations = durations;
+        
+        for (String resource : this.resourceByActionId.values()) {
+            if (this.capacities.getOrDefault(resource, 0) <= 0) {
+                throw new IllegalArgumentException("No capacity for resource: " + resource);
+            }
+        }
+    }
+    
+    /**
+     * Creates a scheduler for the pizza kitchen, with one counter and the given
+     * number of ovens and prep stations. Baking takes the type's baking time.
+     */
+    public static KitchenScheduler forPizzaKitchen(int ovens, int prepStations) {
+        Map<String, Integer> capacities = new HashMap<>();
+        capacities.put(OVEN, ovens);
+        capacities.put(PREP_STATION, prepStations);
+        capacities.put(COUNTER, 1);
+        
+        Map<String, String> resources = new HashMap<>();
+        resources.put("take_order", COUNTER);
+        resources.put("prepare_dough", PREP_STATION);
+        resources.put("use_premade_dough", PREP_STATION);
+        resources.put("add_toppings", PREP_STATION);
+        resources.put("bake_pizza", OVEN);
+        resources.put("serve_pizza", COUNTER);
+        
+        Map<String, Integer> minutes = new HashMap<>();
+        minutes.put("take_order", 1);
+        minutes.put("check_ingredients", 1);
+        minutes.put("prepare_dough", 3);
+        minutes.put("use_premade_dough", 1);
+        minutes.put("add_toppings", 2);
+        minutes.put("serve_pizza", 1);
+        
+        return new KitchenScheduler(capacities, resources, (order, action) -> {
+            if (action instanceof BakePizzaAction) {
+                Integer bakingTime = BakePizzaAction.getBakingTime(order.getPizzaType());
+                return bakingTime != null ? bakingTime : 10;
+            }
+            return minutes.getOrDefault(action.getId(), 1);
+        });
+    }
+    
+    /**
+     * Schedules the plans of all orders
+     *
+     * @param orders The orders, each with its plan
+     * @param policy How to choose between steps that can start at the same time
+     * @return The schedule
+     */
+    public Schedule schedule(List<KitchenOrder> orders, Policy policy) {
+        // Orders are considered in arrival order; the sort is stable for equal releases
+        List<KitchenOrder> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparingLong(KitchenOrder::getReleaseMinute));
+        
+        int n = sorted.size();
+        List<List<Action>> plans = new ArrayList<>(n);
+        int[] nextStep = new int[n];
+        long[] readyAt = new long[n];
+        long[] remainingWork = new long[n];
+        int[][] stepDurations = new int[n][];
+        
+        long firstRelease = n == 0 ? 0 : sorted.get(0).getReleaseMinute();
+        int remainingSteps = 0;
+        for (int i = 0; i < n; i++) {
+            KitchenOrder order = sorted.get(i);
+            List<Action> actions = order.getPlan().getActions();
+            plans.add(actions);
+            readyAt[i] = order.getReleaseMinute();
+            stepDurations[i] = new int[actions.size()];
+            for (int s = 0; s < actions.size(); s++) {
+                stepDurations[i][s] = durations.applyAsInt(order, actions.get(s));
+                remainingWork[i] += stepDurations[i][s];
+            }
+            remainingSteps += actions.size();
+        }
+        
+        Map<String, long[]> freeAt = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : capacities.entrySet()) {
+            freeAt.put(entry.getKey(), new long[entry.getValue()]);
+        }
+        
+        List<ScheduledStep> steps = new ArrayList<>(remainingSteps);
+        Map<String, Long> completion = new LinkedHashMap<>();
+        // With serial FIFO only the oldest unfinished order may run
+        int serialOrder = 0;
+        
+        while (remainingSteps > 0) {
+            int chosen = -1;
+            long chosenStart = Long.MAX_VALUE;
+            
+            int from = policy == Policy.SERIAL_FIFO ? serialOrder : 0;
+            int to = policy == Policy.SERIAL_FIFO ? serialOrder + 1 : n;
+            for (int i = from; i < to; i++) {
+                if (nextStep[i] >= plans.get(i).size()) {
+                    continue;
+                }
+                long start = earliestStart(freeAt, plans.get(i).get(nextStep[i]), readyAt[i]);
+                if (start < chosenStart || (start == chosenStart && ranksBefore(policy, plans, nextStep,
+                        remainingWork, i, chosen))) {
+                    chosen = i;
+                    chosenStart = start;
+                }
+            }
+            
+            Action action = plans.get(chosen).get(nextStep[chosen]);
+            int duration = stepDurations[chosen][nextStep[chosen]];
+            String resource = resourceByActionId.get(action.getId());
+            int slot = -1;
+            if (resource != null) {
+                long[] units = freeAt.get(resource);
+                slot = earliestUnit(units);
+                units[slot] = chosenStart + duration;
+            }
+            
+            KitchenOrder order = sorted.get(chosen);
+            steps.add(new ScheduledStep(order, action, resource, slot, chosenStart, chosenStart + duration));
+            readyAt[chosen] = chosenStart + duration;
+            remainingWork[chosen] -= duration;
+            nextStep[chosen]++;
+            remainingSteps--;
+            
+            if (nextStep[chosen] == plans.get(chosen).size()) {
+                completion.put(order.getOrderId(), readyAt[chosen]);
+                if (policy == Policy.SERIAL_FIFO) {
+                    serialOrder++;
+                    if (serialOrder < n) {
+                        readyAt[serialOrder] = Math.max(readyAt[serialOrder], readyAt[chosen]);
+                    }
+                }
+            }
+        }
+        
+        // Orders with empty plans are complete on arrival
+        for (int i = 0; i < n; i++) {
+            completion.putIfAbsent(sorted.get(i).getOrderId(), sorted.get(i).getReleaseMinute());
+        }
+        
+        return new Schedule(steps, completion, firstRelease);
+    }
+    
+    private long earliestStart(Map<String, long[]> freeAt, Action action, long readyAt) {
+        String resource = resourceByActionId.get(action.getId());
+        if (resource == null) {
+            return readyAt;
+        }
+        long[] units = freeAt.get(resource);
+        return Math.max(readyAt, units[earliestUnit(units)]);
+    }
+    
+    private static int earliestUnit(long[] units) {
+        int best = 0;
+        for (int u = 1; u < units.length; u++) {
+            if (units[u] < units[best]) {
+                best = u;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Whether the next step of order i should be dispatched before that of order j
+     * when both can start at the same time
+     */
+    private static boolean ranksBefore(Policy policy, List<List<Action>> plans, int[] nextStep,
+                                       long[] remainingWork, int i, int j) {
+        if (j < 0) {
+            return true;
+        }
+        boolean criticalI = plans.get(i).get(nextStep[i]).isCritical();
+        boolean criticalJ = plans.get(j).get(nextStep[j]).isCritical();
+        if (criticalI != criticalJ) {
+            return criticalI;
+        }
+        if (policy == Policy.LONGEST_REMAINING && remainingWork[i] != remainingWork[j]) {
+            return remainingWork[i] > remainingWork[j];
+        }
+        // Earlier arrivals first
+        return i < j;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ai.goap_demo.pizzabot.scheduling;
+
+import java.util.*;
+
+/**
+ * The result of scheduling a set of orders: every plan step with its start and end time.
+ */
+public class Schedule {
+    private final List<ScheduledStep> steps;
+    private final Map<String, Long> completionMinutes;
+    private final long firstRelease;
+    private final long makespan;
+    
+    Schedule(List<ScheduledStep> steps, Map<String, Long> completionMinutes, long firstRelease) {
+        List<ScheduledStep> sorted = new ArrayList<>(steps);
+        sorted.sort(Comparator.comparingLong(ScheduledStep::getStartMinute));
+        this.steps = Collections.unmodifiableList(sorted);
+        this.completionMinutes = Collections.unmodifiableMap(completionMinutes);
+        this.firstRelease = firstRelease;
+        
+        long last = firstRelease;
+        for (long completion : completionMinutes.values()) {
+            last = Math.max(last, completion);
+        }
+        this.makespan = last - firstRelease;
+    }
+    
+    /**
+     * Get all steps, ordered by start time
+     */
+    public List<ScheduledStep> getSteps() {
+        return steps;
+    }
+    
+    /**
+     * Get the minute at which the last step of the given order ends
+     */
+    public Long getCompletionMinute(String orderId) {
+        return completionMinutes.get(orderId);
+    }
+    
+    /**
+     * Get the time in minutes from the first arrival until the last order is complete
+     */
+    public long getMakespan() {
+        return makespan;
+    }
+    
+    public int getOrderCount() {
+        return completionMinutes.size();
+    }
+    
+    /**
+     * Get the number of orders completed per hour over the makespan
+     */
+    public double getOrdersPerHour() {
+        return makespan == 0 ? 0.0 : completionMinutes.size() * 60.0 / makespan;
+    }
+    
+    /**
+     * Get the average time in minutes from arrival to completion
+     */
+    public double getAverageFlowMinutes() {
+        if (completionMinutes.isEmpty()) {
+            return 0.0;
+        }
+        Map<String, Long> releases = new HashMap<>();
+        for (ScheduledStep step : steps) {
+            releases.putIfAbsent(step.getOrder().getOrderId(), step.getOrder().getReleaseMinute());
+        }
+        double total = 0;
+        for (Map.Entry<String, Long> entry : completionMinutes.entrySet()) {
+            total += entry.getValue() - releases.getOrDefault(entry.getKey(), firstRelease);
+        }
+        return total / completionMinutes.size();
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Schedule: ").append(completionMinutes.size()).append(" orders, makespan ")
+            .append(makespan).append(" min\n");
+        for (ScheduledStep step : steps) {
+            sb.append("  ").append(step).append("\n");
+        }
+        return sb.toString();
+    }
+}
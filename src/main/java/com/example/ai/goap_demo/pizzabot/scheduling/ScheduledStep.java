@@ -0,0 +1,60 @@
+package com.example.ai.goap_demo.pizzabot.scheduling;
+
+import com.example.ai.goap_demo.goap.core.Action;
+
+/**
+ * One plan step placed on a resource slot at a fixed time.
+ */
+public class ScheduledStep {
+    private final KitchenOrder order;
+    private final Action action;
+    private final String resource;
+    private final int slot;
+    private final long startMinute;
+    private final long endMinute;
+    
+    ScheduledStep(KitchenOrder order, Action action, String resource, int slot, long startMinute, long endMinute) {
+        this.order = order;
+        this.action = action;
+        this.resource = resource;
+        this.slot = slot;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+    }
+    
+    public KitchenOrder getOrder() {
+        return order;
+    }
+    
+    public Action getAction() {
+        return action;
+    }
+    
+    /**
+     * Get the resource the step occupies, or null if it needs no shared resource
+     */
+    public String getResource() {
+        return resource;
+    }
+    
+    /**
+     * Get the index of the resource unit (e.g. which oven) the step occupies
+     */
+    public int getSlot() {
+        return slot;
+    }
+    
+    public long getStartMinute() {
+        return startMinute;
+    }
+    
+    public long getEndMinute() {
+        return endMinute;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%5d-%-5d %-12s %-20s %s", startMinute, endMinute, order.getOrderId(),
+            action.getName(), resource == null ? "" : resource + "#" + slot);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.*;
+
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares end-to-end order latency when planning with the declared action costs and
+ * with costs learned from measured execution time, on a kitchen with two ovens whose
+ * declared costs are wrong for some pizza types: the cheaper oven is much slower for
+ * Calzones in practice. Execution sleeps for the real latency of each step.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.AdaptiveCostBenchmark
+ */
+public class AdaptiveCostBenchmark {
+    private static final String[] PIZZA_TYPES = { "Margherita", "Calzone", "Pepperoni" };
+    private static final long MILLIS = 1_000_000L;
+    private static final int ORDERS = 300;
+    
+    public static void main(String[] args) {
+        DiagnosticLog.setSink(null);
+        System.out.println(ORDERS + " orders, one cost unit = 1 ms");
+        System.out.println("costs       mean ms  Calzone ms  others ms  registry versions");
+        run("declared", null);
+        run("adaptive", new AdaptiveCostModel(new ExecutionStats(), MILLIS, 5, 60_000 * MILLIS, 1));
+    }
+    
+    private static void run(String label, AdaptiveCostModel model) {
+        ActionRegistry registry = new ActionRegistry(List.of(
+            step("prepare", List.of(), "prepared", 2),
+            step("oven", List.of(new SimpleCondition("prepared", true)), "baked", 4),
+            step("stone_oven", List.of(new SimpleCondition("prepared", true)), "baked", 6),
+            step("serve", List.of(new SimpleCondition("baked", true)), "served", 1)));
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()));
+        Goal goal = new SimpleGoal(Map.of("served", true));
+        Random random = new Random(42);
+        
+        long calzoneNanos = 0;
+        long otherNanos = 0;
+        int calzones = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            String type = PIZZA_TYPES[random.nextInt(PIZZA_TYPES.length)];
+            long start = System.nanoTime();
+            if (model != null) {
+                model.refresh(registry, type).join();
+            }
+            WorldState state = new HashMapWorldState();
+            state.setProperty("type", type);
+            Plan plan = registry.current().createPlan(planner, state, goal);
+            for (Action action : plan.getActions()) {
+                long stepStart = System.nanoTime();
+                action.execute(state);
+                state = action.applyEffects(state);
+                if (model != null) {
+                    model.getStats().record(action.getId(), type, System.nanoTime() - stepStart, true);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (type.equals("Calzone")) {
+                calzoneNanos += elapsed;
+                calzones++;
+            } else {
+                otherNanos += elapsed;
+            }
+        }
+        System.out.printf("%-8s  %9.2f  %10.2f  %9.2f  %17d%n", label,
+            (calzoneNanos + otherNanos) / (double) ORDERS / MILLIS, calzoneNanos / (double) calzones / MILLIS,
+            otherNanos / (double) (ORDERS - calzones) / MILLIS, registry.current().getVersion());
+    }
+    
+    /**
+     * The real latency of a step: the declared cost in milliseconds, except that the
+     * regular oven takes 12 ms for a Calzone
+     */
+    private static long latencyNanos(String actionId, String type, float declaredCost) {
+        if (actionId.equals("oven") && type.equals("Calzone")) {
+            return 12 * MILLIS;
+        }
+        return (long) (declaredCost * MILLIS);
+    }
+    
+    private static Action step(String id, List<Condition> preconditions,
+                               String effectKey, float cost) {
+        return new BaseAction(id, id, preconditions, List.of(new SimpleEffect(effectKey, true)), cost, false) {
+            @Override
+            public ActionResult execute(WorldState state) {
+                LockSupport.parkNanos(latencyNanos(id, (String) state.getProperty("type"), cost));
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        };
+    }
+}
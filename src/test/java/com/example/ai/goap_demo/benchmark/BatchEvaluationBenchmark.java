@@ -0,0 +1,136 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.AStarPathfinder;
+import com.example.ai.goap_demo.goap.impl.BatchSuccessorEvaluator;
+import com.example.ai.goap_demo.goap.impl.SimpleHeuristic;
+
+import java.util.*;
+
+/**
+ * Compares evaluating the successors of a state one action at a time with the bit-packed
+ * BatchSuccessorEvaluator: the precondition test alone, a full expansion with goal counts,
+ * and A* searches with and without batch evaluation.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.BatchEvaluationBenchmark
+ */
+public class BatchEvaluationBenchmark {
+    private static final int STATES = 256;
+    private static final int ROUNDS = 200;
+    private static final int SEARCH_RUNS = 10;
+    
+    public static void main(String[] args) {
+        DiagnosticLog.setSink(null);
+        SimpleHeuristic heuristic = new SimpleHeuristic();
+        
+        System.out.println("domain          actions  facts  scalar test ns  batch test ns  "
+            + "scalar expand ns  batch expand ns");
+        for (BenchmarkDomains.Problem problem : List.of(BenchmarkDomains.pizza(), BenchmarkDomains.kitchen(6, 5),
+                                                          BenchmarkDomains.kitchen(16, 8))) {
+            BatchSuccessorEvaluator evaluator = BatchSuccessorEvaluator.of(problem.goal, problem.actions);
+            List<WorldState> states = sampleStates(problem);
+            List<long[]> bits = new ArrayList<>();
+            for (WorldState state : states) {
+                bits.add(evaluator.encode(state));
+            }
+            
+            long sink = 0;
+            double[] best = { Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE };
+            for (int run = 0; run < 5; run++) {
+                long start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (WorldState state : states) {
+                        for (Action action : problem.actions) {
+                            sink += action.checkPreconditions(state) ? 1 : 0;
+                        }
+                    }
+                }
+                best[0] = Math.min(best[0], perState(start));
+                
+                start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (long[] stateBits : bits) {
+                        sink += evaluator.applicable(stateBits)[0];
+                    }
+                }
+                best[1] = Math.min(best[1], perState(start));
+                
+                start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (WorldState state : states) {
+                        for (Action action : problem.actions) {
+                            if (action.checkPreconditions(state)) {
+                                WorldState next = action.applyEffects(state);
+                                sink += (long) heuristic.calculate(next, problem.goal, problem.actions);
+                            }
+                        }
+                    }
+                }
+                best[2] = Math.min(best[2], perState(start));
+                
+                start = System.nanoTime();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int i = 0; i < states.size(); i++) {
+                        BatchSuccessorEvaluator.Successors successors = evaluator.expand(states.get(i), bits.get(i));
+                        for (int s = 0; s < successors.size(); s++) {
+                            sink += successors.unsatisfiedGoals(s);
+                        }
+                    }
+                }
+                best[3] = Math.min(best[3], perState(start));
+            }
+            if (sink == 42) {
+                System.out.println(sink);
+            }
+            System.out.printf("%-15s %7d  %5d  %14.0f  %13.0f  %16.0f  %15.0f%n", problem.name, problem.actions.size(),
+                evaluator.getFactCount(), best[0], best[1], best[2], best[3]);
+        }
+        
+        System.out.println();
+        System.out.println("domain          scalar A* ms  batch A* ms");
+        for (BenchmarkDomains.Problem problem : List.of(BenchmarkDomains.pizza(), BenchmarkDomains.kitchen(3, 4),
+                                                          BenchmarkDomains.kitchen(6, 5))) {
+            double scalar = searchMillis(new AStarPathfinder(heuristic), problem);
+            double batch = searchMillis(new AStarPathfinder(heuristic, true), problem);
+            System.out.printf("%-15s %12.2f  %11.2f%n", problem.name, scalar, batch);
+        }
+    }
+    
+    private static double perState(long start) {
+        return (System.nanoTime() - start) / (double) (ROUNDS * STATES);
+    }
+    
+    /**
+     * States along random walks from the start state, so that some actions apply
+     */
+    private static List<WorldState> sampleStates(BenchmarkDomains.Problem problem) {
+        Random random = new Random(11);
+        List<WorldState> states = new ArrayList<>();
+        WorldState state = problem.startState;
+        while (states.size() < STATES) {
+            states.add(state);
+            List<Action> applicable = new ArrayList<>();
+            for (Action action : problem.actions) {
+                if (action.checkPreconditions(state)) {
+                    applicable.add(action);
+                }
+            }
+            state = applicable.isEmpty() || random.nextInt(8) == 0 ? problem.startState
+                : applicable.get(random.nextInt(applicable.size())).applyEffects(state);
+        }
+        return states;
+    }
+    
+    private static double searchMillis(AStarPathfinder pathfinder, BenchmarkDomains.Problem problem) {
+        double best = Double.MAX_VALUE;
+        for (int run = 0; run < SEARCH_RUNS; run++) {
+            long start = System.nanoTime();
+            pathfinder.search(problem.startState, problem.goal, problem.actions);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+}
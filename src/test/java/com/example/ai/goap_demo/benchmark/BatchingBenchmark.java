@@ -0,0 +1,146 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.AStarPathfinder;
+import com.example.ai.goap_demo.goap.impl.SimpleHeuristic;
+import com.example.ai.goap_demo.pizzabot.actions.BakePizzaAction;
+import com.example.ai.goap_demo.pizzabot.batching.BatchPlan;
+import com.example.ai.goap_demo.pizzabot.batching.BatchPlanner;
+import com.example.ai.goap_demo.pizzabot.batching.OrderBatch;
+import com.example.ai.goap_demo.pizzabot.batching.OrderBatcher;
+import com.example.ai.goap_demo.pizzabot.batching.PizzaOrder;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import com.example.ai.goap_demo.pizzabot.scheduling.KitchenOrder;
+import com.example.ai.goap_demo.pizzabot.scheduling.KitchenScheduler;
+import com.example.ai.goap_demo.pizzabot.scheduling.Schedule;
+
+import java.util.*;
+
+/**
+ * Measures kitchen throughput and planning work per order as a function of the
+ * batch window. Batches are planned with BatchPlanner and their steps scheduled on
+ * one oven with KitchenScheduler; a batch bakes in one go, while dough and toppings
+ * take longer for bigger batches.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.BatchingBenchmark
+ */
+public class BatchingBenchmark {
+    private static final String[] PIZZA_TYPES = { "Margherita", "Pepperoni", "Vegetarian" };
+    private static final int ORDERS = 600;
+    private static final int OVEN_CAPACITY = 4;
+    private static final int ORDERS_PER_HOUR = 20;
+    
+    public static void main(String[] args) {
+        DiagnosticLog.setSink(null);
+        List<PizzaOrder> orders = generate(42);
+        
+        System.out.println(ORDERS + " orders at " + ORDERS_PER_HOUR + "/h, 1 oven holding " + OVEN_CAPACITY + " pizzas");
+        System.out.println("window min  batches  avg size  orders/h  avg flow min  nodes/order  plan us/order");
+        for (int windowMinutes : new int[] { 0, 1, 2, 5, 10, 20 }) {
+            run(orders, windowMinutes);
+        }
+    }
+    
+    private static void run(List<PizzaOrder> orders, int windowMinutes) {
+        long windowMillis = windowMinutes * 60_000L;
+        OrderBatcher batcher = new OrderBatcher(windowMillis, OVEN_CAPACITY);
+        List<OrderBatch> batches = new ArrayList<>();
+        for (PizzaOrder order : orders) {
+            batches.addAll(batcher.offer(order));
+        }
+        batches.addAll(batcher.drain());
+        
+        IngredientInventory inventory = new IngredientInventory();
+        BatchPlanner planner = new BatchPlanner(new AStarPathfinder(new SimpleHeuristic()), inventory);
+        
+        List<KitchenOrder> kitchenOrders = new ArrayList<>();
+        Map<String, Integer> batchSizes = new HashMap<>();
+        long nodes = 0;
+        long planNanos = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            OrderBatch batch = batches.get(i);
+            long start = System.nanoTime();
+            BatchPlan plan = planner.plan(batch);
+            planNanos += System.nanoTime() - start;
+            nodes += plan.getNodesExpanded();
+            
+            // Takes and serves stay per order, the shared steps run once
+            List<Action> steps = new ArrayList<>();
+            for (int o = 0; o < batch.size(); o++) {
+                steps.add(plan.getOrderActions().get(0));
+            }
+            steps.addAll(plan.getSharedPlan().getActions());
+            for (int o = 0; o < batch.size(); o++) {
+                steps.add(plan.getOrderActions().get(plan.getOrderActions().size() - 1));
+            }
+            
+            String id = "batch-" + i;
+            batchSizes.put(id, batch.size());
+            kitchenOrders.add(new KitchenOrder(id, batch.getPizzaType(), new Plan(steps), releaseMinute(batch, windowMillis)));
+        }
+        
+        Schedule schedule = scheduler(batchSizes).schedule(kitchenOrders, KitchenScheduler.Policy.ARRIVAL_ORDER);
+        
+        // Flow time of every order, from its own arrival until its batch is served
+        double flow = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            long completion = schedule.getCompletionMinute("batch-" + i);
+            for (PizzaOrder order : batches.get(i).getOrders()) {
+                flow += completion - order.getArrivalMillis() / 60_000.0;
+            }
+        }
+        long makespan = schedule.getMakespan();
+        
+        System.out.printf("%10d  %7d  %8.2f  %8.1f  %12.1f  %11.1f  %13.1f%n", windowMinutes, batches.size(),
+            (double) orders.size() / batches.size(), orders.size() * 60.0 / makespan, flow / orders.size(),
+            (double) nodes / orders.size(), planNanos / 1e3 / orders.size());
+    }
+    
+    /**
+     * A batch is released when it fills up, or when the window of its first order expires
+     */
+    private static long releaseMinute(OrderBatch batch, long windowMillis) {
+        List<PizzaOrder> members = batch.getOrders();
+        long closed = members.size() >= OVEN_CAPACITY || windowMillis == 0
+            ? members.get(members.size() - 1).getArrivalMillis()
+            : members.get(0).getArrivalMillis() + windowMillis;
+        return (closed + 59_999) / 60_000;
+    }
+    
+    private static KitchenScheduler scheduler(Map<String, Integer> batchSizes) {
+        Map<String, Integer> capacities = Map.of(KitchenScheduler.OVEN, 1, KitchenScheduler.PREP_STATION, 2,
+            KitchenScheduler.COUNTER, 1);
+        Map<String, String> resources = Map.of("take_order", KitchenScheduler.COUNTER,
+            "prepare_dough", KitchenScheduler.PREP_STATION, "use_premade_dough", KitchenScheduler.PREP_STATION,
+            "add_toppings", KitchenScheduler.PREP_STATION, "bake_pizza", KitchenScheduler.OVEN,
+            "serve_pizza", KitchenScheduler.COUNTER);
+        
+        return new KitchenScheduler(capacities, resources, (order, action) -> {
+            int size = batchSizes.get(order.getOrderId());
+            switch (action.getId()) {
+                case "bake_pizza":
+                    return BakePizzaAction.getBakingTime(order.getPizzaType());
+                case "prepare_dough":
+                    return 3 + size;
+                case "add_toppings":
+                    return 1 + size;
+                default:
+                    return 1;
+            }
+        });
+    }
+    
+    private static List<PizzaOrder> generate(long seed) {
+        Random random = new Random(seed);
+        List<PizzaOrder> orders = new ArrayList<>(ORDERS);
+        double millis = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            millis += -Math.log(1 - random.nextDouble()) * 3_600_000.0 / ORDERS_PER_HOUR;
+            orders.add(new PizzaOrder("order-" + i, PIZZA_TYPES[random.nextInt(PIZZA_TYPES.length)], (long) millis));
+        }
+        return orders;
+    }
+}
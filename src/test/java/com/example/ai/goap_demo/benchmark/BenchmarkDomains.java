@@ -0,0 +1,112 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.impl.BaseAction;
+import com.example.ai.goap_demo.goap.impl.DefaultActionResult;
+import com.example.ai.goap_demo.goap.impl.HashMapWorldState;
+import com.example.ai.goap_demo.goap.impl.SimpleCondition;
+import com.example.ai.goap_demo.goap.impl.SimpleEffect;
+import com.example.ai.goap_demo.goap.impl.SimpleGoal;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Planning problems shared by the benchmarks.
+ */
+public final class BenchmarkDomains {
+    
+    private BenchmarkDomains() {
+    }
+    
+    /**
+     * A planning problem: start state, goal and actions
+     */
+    public static final class Problem {
+        public final String name;
+        public final WorldState startState;
+        public final Goal goal;
+        public final List<Action> actions;
+        
+        Problem(String name, WorldState startState, Goal goal, List<Action> actions) {
+            this.name = name;
+            this.startState = startState;
+            this.goal = goal;
+            this.actions = actions;
+        }
+    }
+    
+    /**
+     * The PizzaBot domain, as planned by PizzaBot.createPlan
+     */
+    public static Problem pizza() {
+        List<Action> actions = List.of(
+            new TakeOrderAction(),
+            new CheckIngredientsAction(),
+            new PrepareDoughAction(),
+            new UsePremadeDoughAction(),
+            new AddToppingsAction(),
+            new BakePizzaAction(),
+            new ServePizzaAction()
+        );
+        
+        WorldState state = new HashMapWorldState();
+        state.setProperty("customerPresent", true);
+        
+        Map<String, Object> goalState = new HashMap<>();
+        goalState.put("pizzaServed", true);
+        return new Problem("pizza", state, new SimpleGoal(goalState), actions);
+    }
+    
+    /**
+     * A kitchen with the given number of orders, each a chain of steps that must be done in order.
+     * Every order can be advanced independently, so the state space grows as (steps + 1)^orders.
+     */
+    public static Problem kitchen(int orders, int steps) {
+        List<Action> actions = new ArrayList<>();
+        WorldState state = new HashMapWorldState();
+        Map<String, Object> goalState = new HashMap<>();
+        
+        for (int o = 0; o < orders; o++) {
+            for (int s = 0; s < steps; s++) {
+                String done = step(o, s);
+                state.setProperty(done, false);
+                
+                List<Condition> preconditions = new ArrayList<>();
+                preconditions.add(new SimpleCondition(done, false));
+                if (s > 0) {
+                    preconditions.add(new SimpleCondition(step(o, s - 1), true));
+                }
+                actions.add(action("order" + o + "_step" + s, preconditions,
+                                   List.of(new SimpleEffect(done, true)), 1.0f + (s % 3)));
+            }
+            goalState.put(step(o, steps - 1), true);
+        }
+        
+        return new Problem("kitchen-" + orders + "x" + steps, state, new SimpleGoal(goalState), actions);
+    }
+    
+    private static String step(int order, int step) {
+        return "order" + order + ".step" + step;
+    }
+    
+    /**
+     * Creates an action that always succeeds when executed
+     */
+    public static Action action(String id, List<Condition> preconditions, List<Effect> effects, float cost) {
+        return new BaseAction(id, id, preconditions, effects, cost, false) {
+            @Override
+            public ActionResult execute(WorldState state) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        };
+    }
+}
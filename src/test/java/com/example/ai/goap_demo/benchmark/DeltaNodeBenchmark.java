@@ -0,0 +1,111 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.AStarPathfinder;
+import com.example.ai.goap_demo.goap.impl.DeltaNodePathfinder;
+import com.example.ai.goap_demo.goap.impl.SimpleHeuristic;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.*;
+
+/**
+ * Compares the search memory and time of A* with nodes that hold their states against
+ * DeltaNodePathfinder, whose nodes hold only the step that produced them. Peak memory is
+ * sampled during the search from inside the heuristic, after a full GC, so it counts what
+ * the search keeps alive. The "big world" variants carry 200 properties that no action
+ * touches, as large worlds do.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.DeltaNodeBenchmark
+ */
+public class DeltaNodeBenchmark {
+    private static final int SAMPLE_EVERY = 5_000;
+    private static final int TIMED_RUNS = 3;
+    private static final int STATE_CACHE_SIZE = 256;
+    private static final int MAX_ITERATIONS = 1_000_000;
+    
+    public static void main(String[] args) {
+        DiagnosticLog.setSink(null);
+        
+        System.out.println("problem                     pathfinder  expanded  peak MB  time ms  replayed/state");
+        for (BenchmarkDomains.Problem problem : List.of(BenchmarkDomains.kitchen(5, 5),
+                                                          bigWorld(BenchmarkDomains.kitchen(5, 5), 200))) {
+            report(problem, "A*", heuristic -> new AStarPathfinder(heuristic));
+            report(problem, "delta", heuristic -> new DeltaNodePathfinder(heuristic, STATE_CACHE_SIZE,
+                MAX_ITERATIONS));
+        }
+    }
+    
+    private static BenchmarkDomains.Problem bigWorld(BenchmarkDomains.Problem problem, int properties) {
+        WorldState state = problem.startState.copy();
+        for (int i = 0; i < properties; i++) {
+            state.setProperty("warehouse.shelf" + i, "item" + i);
+        }
+        return new BenchmarkDomains.Problem(problem.name + " big world", state, problem.goal, problem.actions);
+    }
+    
+    private interface Factory {
+        Pathfinder create(HeuristicFunction heuristic);
+    }
+    
+    private static void report(BenchmarkDomains.Problem problem, String label, Factory factory) {
+        SamplingHeuristic sampling = new SamplingHeuristic(new SimpleHeuristic());
+        System.gc();
+        sampling.baseline = usedBytes();
+        Pathfinder sampled = factory.create(sampling);
+        SearchResult result = sampled.search(problem.startState, problem.goal, problem.actions);
+        
+        double best = Double.MAX_VALUE;
+        Pathfinder timed = null;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            timed = factory.create(new SimpleHeuristic());
+            long start = System.nanoTime();
+            timed.search(problem.startState, problem.goal, problem.actions);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        
+        String replayed = "-";
+        if (timed instanceof DeltaNodePathfinder) {
+            DeltaNodePathfinder delta = (DeltaNodePathfinder) timed;
+            replayed = String.format("%.2f", delta.getReplayedStepCount()
+                / (double) Math.max(1, delta.getMaterializedCount() + delta.getCacheHitCount()));
+        }
+        System.out.printf("%-27s %-10s  %8d  %7.1f  %7.0f  %14s%n", problem.name, label, result.getNodesExpanded(),
+            sampling.peak / 1e6, best, replayed);
+    }
+    
+    private static long usedBytes() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+    
+    /**
+     * Delegates to a heuristic, measuring the live heap above the baseline every so many calls
+     */
+    private static final class SamplingHeuristic implements HeuristicFunction {
+        private final HeuristicFunction delegate;
+        long baseline;
+        long peak;
+        int calls;
+        
+        SamplingHeuristic(HeuristicFunction delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public float calculate(WorldState currentState, Goal goal, List<Action> availableActions) {
+            if (++calls % SAMPLE_EVERY == 0) {
+                System.gc();
+                peak = Math.max(peak, usedBytes() - baseline);
+            }
+            return delegate.calculate(currentState, goal, availableActions);
+        }
+    }
+}
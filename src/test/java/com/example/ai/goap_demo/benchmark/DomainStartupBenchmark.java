@@ -0,0 +1,114 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.DomainDefinition;
+import com.example.ai.goap_demo.goap.impl.DomainSnapshot;
+import com.example.ai.goap_demo.goap.impl.HashMapWorldState;
+import com.example.ai.goap_demo.goap.impl.PatternDatabase;
+import com.example.ai.goap_demo.goap.impl.PatternDatabaseHeuristic;
+import com.example.ai.goap_demo.goap.impl.SimpleHeuristic;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Measures how long it takes to get from a domain file to actions and a pattern database
+ * heuristic ready for planning: parsing the file and building the tables at startup,
+ * against memory-mapping a snapshot compiled ahead of time. Runs the pizza domain and a
+ * generated domain of independent order chains.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.DomainStartupBenchmark
+ */
+public class DomainStartupBenchmark {
+    private static final int MAX_ABSTRACT_STATES = 1 << 16;
+    private static final int RUNS = 10;
+    
+    public static void main(String[] args) throws Exception {
+        DiagnosticLog.setSink(null);
+        Path directory = Files.createTempDirectory("domain-startup");
+        
+        String pizza;
+        try (InputStream in = DomainStartupBenchmark.class.getResourceAsStream("/pizza.domain")) {
+            pizza = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        System.out.println("domain              actions   parse+build ms   mmap load ms   snapshot bytes");
+        report("pizza", pizza, "serve_pizza", directory);
+        report("orders 12x8", orders(12, 8), "all_served", directory);
+    }
+    
+    /**
+     * A domain of independent orders, each a chain of steps that must run in order
+     */
+    private static String orders(int orders, int steps) {
+        StringBuilder text = new StringBuilder("domain orders\n");
+        for (int o = 0; o < orders; o++) {
+            for (int s = 0; s < steps; s++) {
+                text.append("property order").append(o).append("_step").append(s).append(" boolean\n");
+            }
+        }
+        text.append("goal all_served\n");
+        for (int o = 0; o < orders; o++) {
+            text.append("  requires order").append(o).append("_step").append(steps - 1).append(" = true\n");
+        }
+        for (int o = 0; o < orders; o++) {
+            for (int s = 0; s < steps; s++) {
+                text.append("action order").append(o).append("_").append(s).append(" \"Order ").append(o)
+                    .append(" step ").append(s).append("\" cost ").append(1 + s % 3).append('\n');
+                if (s > 0) {
+                    text.append("  requires order").append(o).append("_step").append(s - 1).append(" = true\n");
+                }
+                text.append("  sets order").append(o).append("_step").append(s).append(" = true\n");
+            }
+        }
+        return text.toString();
+    }
+    
+    private static void report(String label, String text, String goalName, Path directory) throws Exception {
+        Path snapshotFile = directory.resolve(label.replace(' ', '_') + ".snapshot");
+        DomainSnapshot.compile(DomainDefinition.parse(new StringReader(text), label), snapshotFile,
+            MAX_ABSTRACT_STATES);
+        
+        long[] parse = new long[RUNS];
+        long[] load = new long[RUNS];
+        int actionCount = 0;
+        float sink = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            DomainDefinition definition = DomainDefinition.parse(new StringReader(text), label);
+            List<Action> actions = definition.createActions(List.of());
+            Goal goal = definition.getGoals().get(goalName);
+            HeuristicFunction heuristic = new PatternDatabaseHeuristic(
+                PatternDatabase.build(goal, actions, MAX_ABSTRACT_STATES), new SimpleHeuristic());
+            parse[run] = System.nanoTime() - start;
+            actionCount = actions.size();
+            sink += heuristic.calculate(new HashMapWorldState(), goal, actions);
+            
+            start = System.nanoTime();
+            DomainSnapshot snapshot = DomainSnapshot.load(snapshotFile);
+            actions = snapshot.createActions(List.of());
+            goal = snapshot.getGoal(goalName);
+            heuristic = snapshot.createHeuristic(new SimpleHeuristic());
+            load[run] = System.nanoTime() - start;
+            sink += heuristic.calculate(new HashMapWorldState(), goal, actions);
+        }
+        if (Float.isNaN(sink)) {
+            System.out.println(sink);
+        }
+        System.out.printf("%-18s %8d   %14.2f   %12.2f   %14d%n", label, actionCount, median(parse) / 1e6,
+            median(load) / 1e6, Files.size(snapshotFile));
+    }
+    
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
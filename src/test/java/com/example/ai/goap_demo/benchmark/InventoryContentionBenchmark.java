@@ -0,0 +1,113 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import com.example.ai.goap_demo.pizzabot.inventory.Reservation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures reserve/release throughput of the shared inventory at 1 to 64 threads,
+ * next to a single-lock inventory as the baseline.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.InventoryContentionBenchmark
+ */
+public class InventoryContentionBenchmark {
+    private static final List<String> MARGHERITA = List.of("dough", "tomato sauce", "mozzarella", "basil");
+    private static final long DURATION_MILLIS = 1000;
+    
+    public static void main(String[] args) throws InterruptedException {
+        // Warm up both paths before measuring
+        measure(1);
+        
+        System.out.println("threads  lock-free ops/s  single-lock ops/s");
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            double[] result = measure(threads);
+            System.out.printf("%7d  %15.0f  %17.0f%n", threads, result[0], result[1]);
+        }
+    }
+    
+    private static double[] measure(int threads) throws InterruptedException {
+        IngredientInventory inventory = new IngredientInventory(threads);
+        LockedInventory locked = new LockedInventory();
+        for (String ingredient : MARGHERITA) {
+            inventory.restock(ingredient, 1_000_000);
+            locked.restock(ingredient, 1_000_000);
+        }
+        
+        double lockFree = run(threads, () -> {
+            Reservation reservation = inventory.reserve(MARGHERITA);
+            if (reservation != null) {
+                reservation.release();
+            }
+        });
+        double singleLock = run(threads, () -> {
+            if (locked.reserve(MARGHERITA)) {
+                locked.release(MARGHERITA);
+            }
+        });
+        return new double[] { lockFree, singleLock };
+    }
+    
+    private static double run(int threads, Runnable operation) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + DURATION_MILLIS * 1_000_000;
+        
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    long count = 0;
+                    while (System.nanoTime() < deadline) {
+                        operation.run();
+                        count++;
+                    }
+                    operations.add(count);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        
+        start.countDown();
+        done.await();
+        return operations.sum() * 1000.0 / DURATION_MILLIS;
+    }
+    
+    /**
+     * Baseline inventory guarded by one lock
+     */
+    private static class LockedInventory {
+        private final Map<String, Long> stock = new HashMap<>();
+        
+        synchronized void restock(String ingredient, long quantity) {
+            stock.merge(ingredient, quantity, Long::sum);
+        }
+        
+        synchronized boolean reserve(List<String> ingredients) {
+            for (String ingredient : ingredients) {
+                if (stock.getOrDefault(ingredient, 0L) <= 0) {
+                    return false;
+                }
+            }
+            for (String ingredient : ingredients) {
+                stock.merge(ingredient, -1L, Long::sum);
+            }
+            return true;
+        }
+        
+        synchronized void release(List<String> ingredients) {
+            for (String ingredient : ingredients) {
+                stock.merge(ingredient, 1L, Long::sum);
+            }
+        }
+    }
+}
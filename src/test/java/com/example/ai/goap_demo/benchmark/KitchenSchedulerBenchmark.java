@@ -0,0 +1,61 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.pizzabot.PizzaBot;
+import com.example.ai.goap_demo.pizzabot.scheduling.KitchenOrder;
+import com.example.ai.goap_demo.pizzabot.scheduling.KitchenScheduler;
+import com.example.ai.goap_demo.pizzabot.scheduling.Schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares orders completed per hour with one oven under serial FIFO (every order
+ * owns the kitchen) and under interleaved list scheduling, for several arrival rates.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.KitchenSchedulerBenchmark
+ */
+public class KitchenSchedulerBenchmark {
+    private static final String[] PIZZA_TYPES = { "Margherita", "Pepperoni", "Vegetarian" };
+    private static final int ORDERS = 200;
+    
+    public static void main(String[] args) {
+        DiagnosticLog.setSink(null);
+        Plan plan = new PizzaBot().createPlan();
+        
+        for (int ovens = 1; ovens <= 2; ovens++) {
+            KitchenScheduler scheduler = KitchenScheduler.forPizzaKitchen(ovens, 2);
+            System.out.println("ovens=" + ovens + ", prep stations=2, " + ORDERS + " orders");
+            System.out.println("arrivals/h  serial-fifo/h  arrival-order/h  longest-remaining/h  flow min (serial/list)");
+            
+            for (int rate : new int[] { 4, 6, 8, 12, 30 }) {
+                List<KitchenOrder> orders = generate(plan, rate, 42);
+                Schedule serial = scheduler.schedule(orders, KitchenScheduler.Policy.SERIAL_FIFO);
+                Schedule arrival = scheduler.schedule(orders, KitchenScheduler.Policy.ARRIVAL_ORDER);
+                Schedule longest = scheduler.schedule(orders, KitchenScheduler.Policy.LONGEST_REMAINING);
+                System.out.printf("%10d  %13.1f  %15.1f  %19.1f  %8.1f / %.1f%n", rate,
+                    serial.getOrdersPerHour(), arrival.getOrdersPerHour(), longest.getOrdersPerHour(),
+                    serial.getAverageFlowMinutes(), longest.getAverageFlowMinutes());
+            }
+            System.out.println();
+        }
+    }
+    
+    /**
+     * Generates orders with exponentially distributed inter-arrival times
+     */
+    private static List<KitchenOrder> generate(Plan plan, int ordersPerHour, long seed) {
+        Random random = new Random(seed);
+        List<KitchenOrder> orders = new ArrayList<>(ORDERS);
+        double minute = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            minute += -Math.log(1 - random.nextDouble()) * 60.0 / ordersPerHour;
+            String type = PIZZA_TYPES[random.nextInt(PIZZA_TYPES.length)];
+            orders.add(new KitchenOrder("order-" + i, type, plan, (long) minute));
+        }
+        return orders;
+    }
+}
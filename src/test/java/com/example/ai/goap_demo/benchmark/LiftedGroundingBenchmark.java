@@ -0,0 +1,154 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.*;
+
+import java.util.*;
+
+/**
+ * Compares a kitchen domain grounded up front, with one action per order, station and
+ * oven combination, against the same domain as two action schemas grounded lazily.
+ * Only one order is open, so the relevant groundings are a small fraction of the product.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.LiftedGroundingBenchmark
+ */
+public class LiftedGroundingBenchmark {
+    private static final int STATIONS = 10;
+    private static final int OVENS = 10;
+    
+    public static void main(String[] args) {
+        DiagnosticLog.setSink(null);
+        System.out.println("orders  ground actions  setup ms  heap MB  plan ms  |  lifted groundings  setup ms  heap MB  plan ms");
+        
+        for (int orders : new int[] { 100, 500, 2000 }) {
+            WorldState state = state(orders);
+            Goal goal = new SimpleGoal(Map.of("baked.order" + (orders / 2), true));
+            
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            List<Action> grounded = groundAll(orders);
+            long groundedSetup = System.nanoTime() - start;
+            long groundedHeap = usedHeap() - heapBefore;
+            long groundedPlan = plan(state, goal, grounded);
+            int groundedCount = grounded.size();
+            grounded = null;
+            
+            heapBefore = usedHeap();
+            start = System.nanoTime();
+            List<ActionSchema> schemas = schemas();
+            long liftedSetup = System.nanoTime() - start;
+            long liftedPlan = plan(state, goal, new ArrayList<>(schemas));
+            long liftedHeap = usedHeap() - heapBefore;
+            int liftedCount = 0;
+            for (ActionSchema schema : schemas) {
+                liftedCount += schema.getGroundedCount();
+            }
+            
+            System.out.printf("%6d  %14d  %8.1f  %7.1f  %7.1f  |  %17d  %8.1f  %7.1f  %7.1f%n", orders,
+                groundedCount, groundedSetup / 1e6, groundedHeap / 1048576.0, groundedPlan / 1e6,
+                liftedCount, liftedSetup / 1e6, liftedHeap / 1048576.0, liftedPlan / 1e6);
+        }
+    }
+    
+    private static long plan(WorldState state, Goal goal, List<Action> actions) {
+        long start = System.nanoTime();
+        SearchResult result = new AStarPathfinder(new SimpleHeuristic()).search(state, goal, actions);
+        long elapsed = System.nanoTime() - start;
+        if (!result.isFound()) {
+            throw new IllegalStateException("No plan found");
+        }
+        return elapsed;
+    }
+    
+    private static WorldState state(int orders) {
+        List<String> orderNames = new ArrayList<>();
+        for (int o = 0; o < orders; o++) {
+            orderNames.add("order" + o);
+        }
+        List<String> stations = new ArrayList<>();
+        for (int s = 0; s < STATIONS; s++) {
+            stations.add("station" + s);
+        }
+        List<String> ovens = new ArrayList<>();
+        for (int v = 0; v < OVENS; v++) {
+            ovens.add("oven" + v);
+        }
+        
+        WorldState state = new HashMapWorldState();
+        state.setProperty(ActionSchema.objectsKey("order"), orderNames);
+        state.setProperty(ActionSchema.objectsKey("station"), stations);
+        state.setProperty(ActionSchema.objectsKey("oven"), ovens);
+        state.setProperty("open.order" + (orders / 2), true);
+        for (int s = 0; s < STATIONS; s++) {
+            state.setProperty("stationFree.station" + s, s % 3 == 0);
+        }
+        for (int v = 0; v < OVENS; v++) {
+            state.setProperty("ovenHot.oven" + v, v % 2 == 0);
+        }
+        return state;
+    }
+    
+    private static List<ActionSchema> schemas() {
+        ActionSchema prepare = new ActionSchema("prepare", "Prepare",
+            List.of(new ActionSchema.Parameter("order", "order"), new ActionSchema.Parameter("station", "station")),
+            List.of(new LiftedCondition("open.{order}", true), new LiftedCondition("preparedAt.{order}", null),
+                new LiftedCondition("stationFree.{station}", true)),
+            List.of(new LiftedEffect("preparedAt.{order}", "{station}")), 1.0f, false) {
+            @Override
+            protected ActionResult execute(WorldState state, Map<String, String> binding) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        };
+        ActionSchema bake = new ActionSchema("bake", "Bake",
+            List.of(new ActionSchema.Parameter("order", "order"), new ActionSchema.Parameter("station", "station"),
+                new ActionSchema.Parameter("oven", "oven")),
+            List.of(new LiftedCondition("open.{order}", true), new LiftedCondition("preparedAt.{order}", "{station}"),
+                new LiftedCondition("baked.{order}", true, true), new LiftedCondition("ovenHot.{oven}", true)),
+            List.of(new LiftedEffect("baked.{order}", true)), 2.0f, true) {
+            @Override
+            protected ActionResult execute(WorldState state, Map<String, String> binding) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        };
+        return List.of(prepare, bake);
+    }
+    
+    private static List<Action> groundAll(int orders) {
+        List<Action> actions = new ArrayList<>();
+        for (int o = 0; o < orders; o++) {
+            String order = "order" + o;
+            for (int s = 0; s < STATIONS; s++) {
+                String station = "station" + s;
+                List<Condition> preconditions = List.of(new SimpleCondition("open." + order, true),
+                    new SimpleCondition("preparedAt." + order, null), new SimpleCondition("stationFree." + station, true));
+                actions.add(BenchmarkDomains.action("prepare(" + order + "," + station + ")", preconditions,
+                    List.of(new SimpleEffect("preparedAt." + order, station)), 1.0f));
+                
+                for (int v = 0; v < OVENS; v++) {
+                    String oven = "oven" + v;
+                    preconditions = List.of(new SimpleCondition("open." + order, true),
+                        new SimpleCondition("preparedAt." + order, station),
+                        new NotCondition("baked." + order, true), new SimpleCondition("ovenHot." + oven, true));
+                    actions.add(BenchmarkDomains.action("bake(" + order + "," + station + "," + oven + ")",
+                        preconditions, List.of(new SimpleEffect("baked." + order, true)), 2.0f));
+                }
+            }
+        }
+        return actions;
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import com.example.ai.goap_demo.pizzabot.pipeline.OrderPipeline;
+import com.example.ai.goap_demo.pizzabot.pipeline.OrderSink;
+import com.example.ai.goap_demo.pizzabot.pipeline.PipelineStage;
+import com.example.ai.goap_demo.pizzabot.pipeline.SyntheticOrderGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offers orders to the pipeline faster than execution can serve them and prints
+ * queue depth and latency per stage every second. Queues stay at their capacity
+ * and the overload shows up as generator backpressure.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.OrderPipelineBenchmark
+ */
+public class OrderPipelineBenchmark {
+    
+    public static void main(String[] args) throws InterruptedException {
+        DiagnosticLog.setSink(null);
+        
+        int orders = 60;
+        double ordersPerSecond = 20;
+        SyntheticOrderGenerator generator = new SyntheticOrderGenerator(ordersPerSecond, orders,
+            List.of("Margherita", "Pepperoni", "Vegetarian"), 42);
+        OrderPipeline pipeline = new OrderPipeline(IngredientInventory.getDefault(), 8, 2, 4);
+        
+        long start = System.nanoTime();
+        pipeline.start(generator);
+        OrderSink sink = pipeline.getCompletion();
+        while (!sink.await(1, TimeUnit.SECONDS)) {
+            System.out.printf("t=%.0fs published=%d served=%d generator backpressure=%.0fms%n",
+                (System.nanoTime() - start) / 1e9, generator.getPublishedCount(), sink.getServedCount(),
+                generator.getBackpressureMillis());
+            for (PipelineStage<?, ?> stage : pipeline.getStages()) {
+                System.out.println("  " + stage);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        System.out.printf("%nOffered %.0f orders/s, served %d, failed %d in %.1fs (%.1f orders/s)%n",
+            ordersPerSecond, sink.getServedCount(), sink.getFailedCount(), seconds, sink.getServedCount() / seconds);
+        System.out.printf("End-to-end latency: avg %.0fms, max %.0fms%n", sink.getAverageLatencyMillis(),
+            sink.getMaxLatencyMillis());
+        for (PipelineStage<?, ?> stage : pipeline.getStages()) {
+            System.out.println("  " + stage);
+        }
+        pipeline.close();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Measures plan construction throughput under 64 threads and the retained memory of
+ * cached plans, for plans built the way they used to be (a random UUID and a copied
+ * ArrayList per plan) and for the current representation, with and without prefixes
+ * shared through Plan.extend.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.PlanBenchmark
+ */
+public class PlanBenchmark {
+    private static final int THREADS = 64;
+    private static final int PLANS_PER_THREAD = 50_000;
+    private static final int CACHED_PLANS = 200_000;
+    
+    public static void main(String[] args) throws Exception {
+        DiagnosticLog.setSink(null);
+        List<Action> prefix = List.of(new TakeOrderAction(), new CheckIngredientsAction(), new PrepareDoughAction(),
+            new AddToppingsAction());
+        List<Action> suffix = List.of(new BakePizzaAction(), new ServePizzaAction());
+        List<Action> full = new ArrayList<>(prefix);
+        full.addAll(suffix);
+        Plan shared = new Plan(prefix);
+        
+        System.out.println(THREADS + " threads x " + PLANS_PER_THREAD + " plans of " + full.size() + " steps");
+        System.out.println("representation     Mplans/s   bytes/cached plan");
+        report("uuid + ArrayList", actions -> new UuidPlan(actions), full);
+        report("plan", Plan::new, full);
+        report("plan, shared prefix", actions -> shared.extend(suffix), full);
+    }
+    
+    private static void report(String label, Function<List<Action>, Object> create, List<Action> actions)
+        throws Exception {
+        double best = 0;
+        for (int run = 0; run < 3; run++) {
+            best = Math.max(best, throughput(create, actions));
+        }
+        System.out.printf("%-18s %9.2f   %17.0f%n", label, best / 1e6, retainedBytes(create, actions));
+    }
+    
+    private static double throughput(Function<List<Action>, Object> create, List<Action> actions)
+        throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int sink = 0;
+                for (int i = 0; i < PLANS_PER_THREAD; i++) {
+                    sink += System.identityHashCode(create.apply(actions)) & 1;
+                }
+                return sink;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<Integer> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return (double) THREADS * PLANS_PER_THREAD / (elapsed / 1e9);
+    }
+    
+    private static double retainedBytes(Function<List<Action>, Object> create, List<Action> actions) {
+        long before = usedMemory();
+        Object[] cache = new Object[CACHED_PLANS];
+        for (int i = 0; i < cache.length; i++) {
+            cache[i] = create.apply(actions);
+        }
+        long after = usedMemory();
+        if (cache[cache.length - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before - 16.0 - 4.0 * CACHED_PLANS) / CACHED_PLANS;
+    }
+    
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    /**
+     * A plan as it was built before: a random UUID string and a copied list
+     */
+    private static final class UuidPlan {
+        final String id;
+        final List<Action> actions;
+        
+        UuidPlan(List<Action> actions) {
+            this.id = UUID.randomUUID().toString();
+            this.actions = new ArrayList<>(actions);
+        }
+    }
+}
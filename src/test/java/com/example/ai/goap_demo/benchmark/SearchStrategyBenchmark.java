@@ -0,0 +1,85 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares latency, allocation and plan cost of the search strategies on the benchmark domains.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.SearchStrategyBenchmark
+ */
+public class SearchStrategyBenchmark {
+    private static final int RUNS = 20;
+    
+    public static void main(String[] args) {
+        DiagnosticLog.setSink(null);
+        
+        List<BenchmarkDomains.Problem> problems = List.of(
+            BenchmarkDomains.pizza(),
+            BenchmarkDomains.kitchen(3, 4),
+            BenchmarkDomains.kitchen(6, 5)
+        );
+        
+        SimpleHeuristic heuristic = new SimpleHeuristic();
+        Map<String, Pathfinder> strategies = new LinkedHashMap<>();
+        strategies.put("A*", new AStarPathfinder(heuristic));
+        strategies.put("A*-lm", new AStarPathfinder(new LandmarkHeuristic()));
+        strategies.put("A*-pdb", new AStarPathfinder(
+            new PatternDatabaseHeuristic(Path.of("target", "pdb"), 1 << 16, heuristic)));
+        strategies.put("greedy", new GreedyBestFirstPathfinder(heuristic));
+        strategies.put("greedy-lm", new GreedyBestFirstPathfinder(new LandmarkHeuristic()));
+        strategies.put("ehc", new EnforcedHillClimbingPathfinder(heuristic));
+        strategies.put("beam-4", new BeamSearchPathfinder(heuristic, 4));
+        strategies.put("beam-32", new BeamSearchPathfinder(heuristic, 32));
+        
+        System.out.printf("%-16s %-9s %10s %12s %10s %8s %8s%n",
+            "domain", "strategy", "us/search", "KB alloc", "expanded", "cost", "optimal");
+        for (BenchmarkDomains.Problem problem : problems) {
+            for (Map.Entry<String, Pathfinder> strategy : strategies.entrySet()) {
+                run(problem, strategy.getKey(), strategy.getValue());
+            }
+        }
+    }
+    
+    private static void run(BenchmarkDomains.Problem problem, String name, Pathfinder pathfinder) {
+        // Warm up
+        for (int i = 0; i < RUNS; i++) {
+            pathfinder.search(problem.startState, problem.goal, problem.actions);
+        }
+        
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        SearchResult result = null;
+        for (int i = 0; i < RUNS; i++) {
+            result = pathfinder.search(problem.startState, problem.goal, problem.actions);
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        
+        float cost = 0;
+        if (result.isFound()) {
+            for (Action action : result.getActions()) {
+                cost += action.getCost();
+            }
+        }
+        
+        System.out.printf("%-16s %-9s %10.1f %12.1f %10d %8s %8s%n",
+            problem.name, name, nanos / 1e3 / RUNS, allocated / 1024.0 / RUNS, result.getNodesExpanded(),
+            result.isFound() ? String.valueOf(cost) : "-", result.isOptimal());
+    }
+    
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.ai.goap_demo.benchmark;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.impl.ShardedPlanner;
+import com.example.ai.goap_demo.goap.impl.SimpleHeuristic;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Plans kitchen problems with 1, 2 and 4 local worker processes, reporting the time,
+ * the coordinator rounds and the total expansions. Worker start-up is timed separately.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.example.ai.goap_demo.benchmark.ShardedPlannerBenchmark
+ */
+public class ShardedPlannerBenchmark {
+    private static final int RUNS = 3;
+    
+    /**
+     * Every kitchen action up to 7 orders of 4 steps, loaded by each worker
+     */
+    public static class KitchenCatalog implements Supplier<List<Action>> {
+        @Override
+        public List<Action> get() {
+            return BenchmarkDomains.kitchen(7, 4).actions;
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        DiagnosticLog.setSink(null);
+        System.out.println("problem      workers  start ms  plan ms  rounds  expansions  cost");
+        
+        for (int workers : new int[] { 1, 2, 4 }) {
+            long start = System.nanoTime();
+            try (ShardedPlanner planner = new ShardedPlanner(workers, KitchenCatalog.class, SimpleHeuristic.class,
+                    10_000_000)) {
+                long startup = System.nanoTime() - start;
+                for (int orders : new int[] { 5, 6, 7 }) {
+                    BenchmarkDomains.Problem problem = BenchmarkDomains.kitchen(orders, 4);
+                    
+                    long best = Long.MAX_VALUE;
+                    Plan plan = null;
+                    for (int run = 0; run < RUNS; run++) {
+                        long begin = System.nanoTime();
+                        plan = planner.createPlan(problem.startState, problem.goal, problem.actions);
+                        best = Math.min(best, System.nanoTime() - begin);
+                    }
+                    
+                    float cost = 0;
+                    for (Action action : plan.getActions()) {
+                        cost += action.getCost();
+                    }
+                    System.out.printf("%-12s %7d  %8.0f  %7.1f  %6d  %10d  %4.0f%n", problem.name, workers,
+                        startup / 1e6, best / 1e6, planner.getLastRoundCount(), planner.getLastExpansionCount(), cost);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ai.goap_demo.goap.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanTest {
+    
+    @Test
+    void testStepsAreCopiedAndUnmodifiable() {
+        List<Action> source = new ArrayList<>(List.of(action("a"), action("b")));
+        Plan plan = new Plan(source, true, 7, false);
+        source.add(action("c"));
+        
+        assertEquals(2, plan.size());
+        assertEquals(List.of("a", "b"), ids(plan));
+        assertSame(plan.getActions(), plan.getActions());
+        assertThrows(UnsupportedOperationException.class, () -> plan.getActions().add(action("d")));
+        assertTrue(plan.isOptimal());
+        assertEquals(7, plan.getRegistryVersion());
+        
+        Plan empty = new Plan(List.of());
+        assertTrue(empty.isEmpty());
+        assertEquals(List.of(), empty.getActions());
+    }
+    
+    @Test
+    void testExtendedPlansShareTheirPrefix() {
+        Plan prefix = new Plan(List.of(action("take_order"), action("check_ingredients")), true);
+        Plan margherita = prefix.extend(List.of(action("prepare_dough"), action("bake")));
+        Plan calzone = prefix.extend(List.of(action("fold"), action("bake")));
+        
+        assertEquals(List.of("take_order", "check_ingredients"), ids(prefix));
+        assertEquals(List.of("take_order", "check_ingredients", "prepare_dough", "bake"), ids(margherita));
+        assertEquals(List.of("take_order", "check_ingredients", "fold", "bake"), ids(calzone));
+        assertFalse(margherita.isOptimal());
+        
+        Plan stamped = margherita.withRegistryVersion(3);
+        assertEquals(3, stamped.getRegistryVersion());
+        assertEquals(ids(margherita), ids(stamped));
+        assertNotEquals(margherita.getId(), stamped.getId());
+        assertTrue(stamped.toString().endsWith("4. bake\n"));
+        assertSame(stamped.toString(), stamped.toString());
+    }
+    
+    @Test
+    void testIdsAreUniqueAcrossThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    List<String> planIds = new ArrayList<>();
+                    for (int i = 0; i < 5000; i++) {
+                        planIds.add(new Plan(List.of()).getId());
+                    }
+                    return planIds;
+                }));
+            }
+            Set<String> unique = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                unique.addAll(future.get());
+            }
+            assertEquals(8 * 5000, unique.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static List<String> ids(Plan plan) {
+        List<String> ids = new ArrayList<>();
+        for (Action action : plan.getActions()) {
+            ids.add(action.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ai.goap_demo.goap.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiagnosticLogTest {
+    
+    @Test
+    void testSinkSelection() {
+        assertNull(DiagnosticLog.createSink("off"));
+        assertTrue(DiagnosticLog.createSink("console") instanceof ConsoleLogSink);
+        // Unknown modes fall back to the console
+        assertTrue(DiagnosticLog.createSink("verbose") instanceof ConsoleLogSink);
+        
+        LogSink async = DiagnosticLog.createSink("async");
+        assertTrue(async instanceof AsyncLogSink);
+        ((AsyncLogSink) async).close();
+    }
+    
+    @Test
+    void testAsyncSinkWritesQueuedLinesOnClose() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        LogSink slowTarget = message -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(message);
+        };
+        
+        AsyncLogSink sink = new AsyncLogSink(slowTarget, 1000);
+        for (int i = 0; i < 200; i++) {
+            sink.log("line " + i);
+        }
+        sink.close();
+        assertEquals(200, written.size());
+        assertEquals("line 199", written.get(199));
+        assertEquals(0, sink.getDroppedCount());
+        
+        // Lines logged after closing are dropped
+        sink.log("late");
+        assertEquals(200, written.size());
+        assertEquals(1, sink.getDroppedCount());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionRegistryTest {
+    
+    private static List<Action> pizzaActions() {
+        return List.of(new TakeOrderAction(), new CheckIngredientsAction(), new PrepareDoughAction(),
+            new UsePremadeDoughAction(), new AddToppingsAction(), new BakePizzaAction(), new ServePizzaAction());
+    }
+    
+    private static WorldState customer() {
+        WorldState state = new HashMapWorldState();
+        state.setProperty("customerPresent", true);
+        return state;
+    }
+    
+    @Test
+    void testUpdatesPublishNewVersionsAndKeepOldSnapshots() {
+        ActionRegistry registry = new ActionRegistry(pizzaActions());
+        ActionRegistry.Snapshot first = registry.current();
+        assertEquals(1, first.getVersion());
+        
+        ActionRegistry.Snapshot second = registry.retire("use_premade_dough").join();
+        assertEquals(2, second.getVersion());
+        assertSame(second, registry.current());
+        assertNull(second.getAction("use_premade_dough"));
+        assertEquals(6, second.getActions().size());
+        
+        // The old snapshot is untouched and its list cannot be changed
+        assertNotNull(first.getAction("use_premade_dough"));
+        assertEquals(7, first.getActions().size());
+        assertThrows(UnsupportedOperationException.class, () -> first.getActions().add(new ServePizzaAction()));
+        
+        // Adding an action with a registered id replaces it
+        Action cheapBake = action("bake_pizza", List.of(new SimpleCondition("toppingsAdded", true)), "pizzaBaked", 1);
+        ActionRegistry.Snapshot third = registry.add(cheapBake).join();
+        assertEquals(3, third.getVersion());
+        assertSame(cheapBake, third.getAction("bake_pizza"));
+        assertEquals(6, third.getActions().size());
+    }
+    
+    @Test
+    void testPlansRecordTheirVersion() {
+        ActionRegistry registry = new ActionRegistry(pizzaActions());
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()));
+        Goal goal = new SimpleGoal(Map.of("pizzaServed", true));
+        
+        Plan plan = registry.current().createPlan(planner, customer(), goal);
+        assertEquals(1, plan.getRegistryVersion());
+        assertEquals(6, plan.getActions().size());
+        
+        registry.retire("prepare_dough").join();
+        assertNull(registry.current().createPlan(planner, customer(), goal));
+        
+        registry.add(new PrepareDoughAction()).join();
+        Plan replanned = registry.current().createPlan(planner, customer(), goal);
+        assertEquals(3, replanned.getRegistryVersion());
+        assertEquals(-1, planner.createPlan(customer(), goal, pizzaActions()).getRegistryVersion());
+    }
+    
+    @Test
+    void testIndexesMatchDirectChecks() {
+        List<Action> actions = pizzaActions();
+        ActionRegistry.Snapshot snapshot = new ActionRegistry(actions).current();
+        
+        // Walk a plan and compare the indexed successors with a scan of every action
+        WorldState state = customer();
+        for (int step = 0; step < 6; step++) {
+            List<Action> expected = new ArrayList<>();
+            for (Action action : actions) {
+                if (action.checkPreconditions(state)) {
+                    expected.add(action);
+                }
+            }
+            List<Action> indexed = SearchSupport.applicableActions(state, snapshot.getActions());
+            assertEquals(expected, indexed);
+            state = indexed.get(0).applyEffects(state);
+        }
+        
+        Goal toppings = new SimpleGoal(Map.of("toppingsAdded", true));
+        Set<String> relevant = new HashSet<>();
+        for (Action action : snapshot.getRelevantActions(toppings)) {
+            relevant.add(action.getId());
+        }
+        assertEquals(Set.of("add_toppings", "prepare_dough", "use_premade_dough", "check_ingredients", "take_order"),
+            relevant);
+        assertTrue(snapshot.getRelevantActions(new SimpleGoal(Map.of("unknown", true))).isEmpty());
+    }
+    
+    @Test
+    void testPlansUseTheRelevantActions() {
+        ActionRegistry.Snapshot snapshot = new ActionRegistry(pizzaActions()).current();
+        List<List<Action>> searched = new ArrayList<>();
+        AStarPathfinder astar = new AStarPathfinder(new SimpleHeuristic());
+        GOAPPlanner planner = new GOAPPlanner((start, goal, actions) -> {
+            searched.add(actions);
+            return astar.search(start, goal, actions);
+        });
+        
+        Plan plan = snapshot.createPlan(planner, customer(), new SimpleGoal(Map.of("toppingsAdded", true)));
+        assertEquals(4, plan.getActions().size());
+        assertEquals(5, searched.get(0).size());
+        assertFalse(searched.get(0).contains(snapshot.getAction("serve_pizza")));
+        
+        // Goals on the same properties plan over the same list, so caches keyed on it hit
+        snapshot.createPlan(planner, customer(), new SimpleGoal(Map.of("toppingsAdded", true)));
+        assertSame(searched.get(0), searched.get(1));
+        snapshot.createPlan(planner, customer(), new SimpleGoal(Map.of("pizzaServed", true)));
+        assertSame(snapshot.getActions(), searched.get(2));
+    }
+    
+    @Test
+    void testNewVersionsIndexKnownGoalsWhenBuilt() {
+        ActionRegistry registry = new ActionRegistry(pizzaActions());
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()));
+        Goal toppings = new SimpleGoal(Map.of("toppingsAdded", true));
+        assertTrue(registry.current().indexedGoals().isEmpty());
+        registry.current().createPlan(planner, customer(), toppings);
+        
+        // The next version already knows the relevant actions of the goal, including the added one
+        Action quickToppings = action("quick_toppings", "doughPrepared", "toppingsAdded", 1);
+        ActionRegistry.Snapshot next = registry.add(quickToppings).join();
+        assertEquals(Set.of(Set.of("toppingsAdded")), next.indexedGoals());
+        assertTrue(next.getRelevantActions(toppings).contains(quickToppings));
+        assertEquals(Set.of(Set.of("toppingsAdded")), next.indexedGoals());
+    }
+    
+    @Test
+    void testPlannersReadWhileUpdatesArePublished() throws Exception {
+        ExecutorService updates = Executors.newSingleThreadExecutor();
+        ExecutorService planners = Executors.newFixedThreadPool(4);
+        ActionRegistry registry = new ActionRegistry(pizzaActions(), updates);
+        Goal goal = new SimpleGoal(Map.of("pizzaServed", true));
+        AtomicInteger plans = new AtomicInteger();
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                readers.add(planners.submit(() -> {
+                    GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()));
+                    for (int i = 0; i < 200; i++) {
+                        ActionRegistry.Snapshot snapshot = registry.current();
+                        Plan plan = snapshot.createPlan(planner, customer(), goal);
+                        assertNotNull(plan);
+                        assertEquals(snapshot.getVersion(), plan.getRegistryVersion());
+                        for (Action action : plan.getActions()) {
+                            assertSame(action, snapshot.getAction(action.getId()));
+                        }
+                        plans.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            
+            List<CompletableFuture<ActionRegistry.Snapshot>> published = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                published.add(registry.retire("use_premade_dough"));
+                published.add(registry.add(new UsePremadeDoughAction()));
+            }
+            CompletableFuture.allOf(published.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            updates.shutdownNow();
+            planners.shutdownNow();
+        }
+        
+        assertEquals(800, plans.get());
+        assertEquals(101, registry.current().getVersion());
+        assertNotNull(registry.current().getAction("use_premade_dough"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionSchemaTest {
+    
+    /**
+     * bake(order, oven): the order must be prepared and the oven free; the oven ends up holding the order
+     */
+    private static ActionSchema bakeSchema(List<Map<String, String>> executed) {
+        return new ActionSchema(
+            "bake",
+            "Bake",
+            List.of(new ActionSchema.Parameter("order", "order"), new ActionSchema.Parameter("oven", "oven")),
+            List.of(
+                new LiftedCondition("prepared.{order}", true),
+                new LiftedCondition("baked.{order}", true, true),
+                new LiftedCondition("ovenFree.{oven}", true)
+            ),
+            List.of(
+                new LiftedEffect("baked.{order}", true),
+                new LiftedEffect("bakedIn.{order}", "{oven}")
+            ),
+            2.0f,
+            true
+        ) {
+            @Override
+            protected ActionResult execute(WorldState state, Map<String, String> binding) {
+                executed.add(binding);
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+            
+            @Override
+            protected float getCost(Map<String, String> binding) {
+                return binding.get("oven").equals("fast") ? 1.0f : 2.0f;
+            }
+        };
+    }
+    
+    private static WorldState kitchen(int orders, String... ovens) {
+        WorldState state = new HashMapWorldState();
+        for (int o = 0; o < orders; o++) {
+            ActionSchema.addObject(state, "order", "o" + o);
+        }
+        for (String oven : ovens) {
+            ActionSchema.addObject(state, "oven", oven);
+            state.setProperty("ovenFree." + oven, true);
+        }
+        return state;
+    }
+    
+    @Test
+    void testGroundsOnlyApplicableBindingsAndMemoizesThem() {
+        ActionSchema bake = bakeSchema(new ArrayList<>());
+        WorldState state = kitchen(3, "left", "right");
+        state.setProperty("prepared.o1", true);
+        state.setProperty("ovenFree.right", false);
+        
+        List<Action> ground = bake.ground(state);
+        assertEquals(1, ground.size());
+        Action action = ground.get(0);
+        assertEquals("bake(o1,left)", action.getId());
+        assertEquals("Bake (o1, left)", action.getName());
+        assertTrue(action.isCritical());
+        assertTrue(action.checkPreconditions(state));
+        
+        WorldState after = action.applyEffects(state);
+        assertEquals(true, after.getProperty("baked.o1"));
+        assertEquals("left", after.getProperty("bakedIn.o1"));
+        assertTrue(bake.ground(after).isEmpty());
+        
+        // The same binding yields the same instance, and unprepared orders never bind an oven
+        assertSame(action, bake.ground(state).get(0));
+        assertEquals(1, bake.getGroundedCount());
+        assertEquals(3 + 2, bake.getBindingCount());
+    }
+    
+    @Test
+    void testPathfinderPlansWithSchemasAndExecutesBinding() {
+        List<Map<String, String>> executed = new ArrayList<>();
+        ActionSchema prepare = new ActionSchema(
+            "prepare",
+            "Prepare",
+            List.of(new ActionSchema.Parameter("order", "order")),
+            List.of(new LiftedCondition("prepared.{order}", true, true)),
+            List.of(new LiftedEffect("prepared.{order}", true)),
+            1.0f,
+            false
+        ) {
+            @Override
+            protected ActionResult execute(WorldState state, Map<String, String> binding) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        };
+        ActionSchema bake = bakeSchema(executed);
+        
+        WorldState state = kitchen(4, "slow", "fast");
+        SimpleGoal goal = new SimpleGoal(Map.of("baked.o2", true));
+        SearchResult result = new AStarPathfinder(new SimpleHeuristic()).search(state, goal, List.of(prepare, bake));
+        
+        assertTrue(result.isFound());
+        List<String> ids = new ArrayList<>();
+        for (Action action : result.getActions()) {
+            ids.add(action.getId());
+        }
+        assertEquals(List.of("prepare(o2)", "bake(o2,fast)"), ids);
+        
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()));
+        assertTrue(planner.isPlanValid(planner.createPlan(state, goal, List.of(prepare, bake)), state, goal));
+        
+        result.getActions().get(1).execute(state);
+        assertEquals(List.of(Map.of("order", "o2", "oven", "fast")), executed);
+        assertThrows(UnsupportedOperationException.class, () -> bake.applyEffects(state));
+    }
+    
+    @Test
+    void testMemoryFollowsRelevantGroundings() {
+        ActionSchema bake = bakeSchema(new ArrayList<>());
+        String[] ovens = new String[50];
+        for (int i = 0; i < ovens.length; i++) {
+            ovens[i] = "oven" + i;
+        }
+        WorldState state = kitchen(2000, ovens);
+        state.setProperty("prepared.o7", true);
+        
+        assertEquals(50, bake.ground(state).size());
+        
+        // 2000 x 50 combinations exist, but only the prepared order is extended by ovens
+        assertEquals(50, bake.getGroundedCount());
+        assertEquals(2000 + 50, bake.getBindingCount());
+    }
+    
+    @Test
+    void testDropsBindingsOfRemovedObjectsAtLimit() {
+        ActionSchema bake = bakeSchema(new ArrayList<>());
+        WorldState first = kitchen(0, "left", "right");
+        WorldState second = kitchen(0, "left", "right");
+        for (int o = 0; o < 10; o++) {
+            ActionSchema.addObject(first, "order", "a" + o);
+            first.setProperty("prepared.a" + o, true);
+            ActionSchema.addObject(second, "order", "b" + o);
+            second.setProperty("prepared.b" + o, true);
+        }
+        
+        assertEquals(20, bake.ground(first).size());
+        assertEquals(10 + 20, bake.getBindingCount());
+        bake.setMaxBindings(30);
+        
+        // The orders of the first state are gone, so their bindings make room
+        assertEquals(20, bake.ground(second).size());
+        assertEquals(10 + 20, bake.getBindingCount());
+        Action action = bake.ground(second).get(0);
+        assertSame(action, bake.ground(second).get(0));
+        
+        // Past the limit, bindings are still grounded but not kept
+        bake.setMaxBindings(0);
+        assertEquals(20, bake.ground(first).size());
+        assertEquals(0, bake.getBindingCount());
+        assertThrows(IllegalArgumentException.class, () -> bake.setMaxBindings(-1));
+    }
+    
+    @Test
+    void testRejectsUnknownParameter() {
+        assertThrows(IllegalArgumentException.class, () -> new ActionSchema(
+            "broken", "Broken", List.of(new ActionSchema.Parameter("order", "order")),
+            List.of(new LiftedCondition("ready.{oven}", true)), List.of(), 1.0f, false) {
+            @Override
+            protected ActionResult execute(WorldState state, Map<String, String> binding) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.pizzabot.PizzaBot;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveCostModelTest {
+    
+    private static final double MILLIS = 1_000_000;
+    
+    private static void record(ExecutionStats stats, String actionId, String context, long millis, int times) {
+        for (int i = 0; i < times; i++) {
+            stats.record(actionId, context, (long) (millis * MILLIS), true);
+        }
+    }
+    
+    @Test
+    void testEstimatesConvergeOnMeanQuantileAndFailureRate() {
+        ExecutionStats stats = new ExecutionStats(0.05, 0.9);
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            // Uniform between 0 and 100 ms, failing one time in four
+            stats.record("bake", "Margherita", (long) (random.nextDouble() * 100 * MILLIS), i % 4 != 0);
+        }
+        
+        ExecutionStats.Estimate estimate = stats.getEstimate("bake", "Margherita");
+        assertEquals(5000, estimate.getSamples());
+        assertEquals(1250, estimate.getFailures());
+        assertEquals(50, estimate.getMeanNanos() / MILLIS, 15);
+        assertEquals(90, estimate.getQuantileNanos() / MILLIS, 10);
+        assertEquals(0.25, estimate.getFailureRate(), 0.15);
+        
+        // Every sample also counts towards the estimate over all contexts
+        assertEquals(5000, stats.getEstimate("bake", ExecutionStats.ANY_CONTEXT).getSamples());
+        assertNull(stats.getEstimate("bake", "Hawaiian"));
+        assertNull(stats.getEstimate("serve", ExecutionStats.ANY_CONTEXT));
+    }
+    
+    @Test
+    void testFallsBackToDeclaredCostUntilEstimatesAreTrusted() throws InterruptedException {
+        ExecutionStats stats = new ExecutionStats();
+        Action bake = action("bake", List.of(), "baked", 4);
+        AdaptiveCostModel model = new AdaptiveCostModel(stats, 10 * MILLIS, 5, 50_000_000L, 1);
+        
+        assertEquals(4, model.costOf(bake, "Margherita"));
+        record(stats, "bake", "Hawaiian", 30, 4);
+        assertEquals(4, model.costOf(bake, "Margherita"), "too few samples");
+        
+        // Once trusted, a context without its own samples uses the estimate over all contexts
+        record(stats, "bake", "Hawaiian", 30, 1);
+        assertEquals(3, model.costOf(bake, "Margherita"));
+        assertEquals(3, model.costOf(bake, "Hawaiian"));
+        
+        // Fast executions are clamped to the minimum cost
+        record(stats, "serve", null, 1, 5);
+        assertEquals(1, model.costOf(action("serve", List.of(), "served", 2), "Hawaiian"));
+        
+        Thread.sleep(100);
+        assertEquals(4, model.costOf(bake, "Hawaiian"), "stale estimate");
+    }
+    
+    @Test
+    void testRefreshPublishesOnlyWhenCostsChange() {
+        ExecutionStats stats = new ExecutionStats();
+        ActionRegistry registry = new ActionRegistry(List.of(
+            action("bake", List.of(), "baked", 4), action("serve", List.of(), "served", 1)));
+        AdaptiveCostModel model = new AdaptiveCostModel(stats, 10 * MILLIS, 5, Long.MAX_VALUE, 1);
+        
+        assertEquals(1, model.refresh(registry, "Margherita").join().getVersion());
+        
+        record(stats, "bake", "Margherita", 20, 5);
+        ActionRegistry.Snapshot learned = model.refresh(registry, "Margherita").join();
+        assertEquals(2, learned.getVersion());
+        assertEquals(2, learned.getAction("bake").getCost());
+        assertEquals("bake", AdaptiveCostModel.declaredAction(learned.getAction("bake")).getId());
+        assertEquals(4, AdaptiveCostModel.declaredAction(learned.getAction("bake")).getCost());
+        
+        assertSame(learned, model.refresh(registry, "Margherita").join());
+    }
+    
+    @Test
+    void testPlansSwitchToTheRouteThatIsFasterInPractice() {
+        ExecutionStats stats = new ExecutionStats();
+        List<Action> actions = List.of(
+            action("oven", List.of(), "pizzaBaked", 2),
+            action("stone_oven", List.of(), "pizzaBaked", 3));
+        AdaptiveCostModel model = new AdaptiveCostModel(stats, 10 * MILLIS, 5, Long.MAX_VALUE, 1);
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()));
+        Goal goal = new SimpleGoal(Map.of("pizzaBaked", true));
+        WorldState start = new HashMapWorldState();
+        
+        Plan declared = planner.createPlan(start, goal, model.withCosts(actions, "Calzone"));
+        assertEquals("oven", declared.getActions().get(0).getId());
+        
+        // The oven is busy for Calzones, but fine for everything else
+        record(stats, "oven", "Calzone", 80, 5);
+        record(stats, "oven", "Margherita", 10, 50);
+        record(stats, "stone_oven", "Calzone", 30, 5);
+        
+        Plan calzone = planner.createPlan(start, goal, model.withCosts(actions, "Calzone"));
+        assertEquals("stone_oven", calzone.getActions().get(0).getId());
+        Plan margherita = planner.createPlan(start, goal, model.withCosts(actions, "Margherita"));
+        assertEquals("oven", margherita.getActions().get(0).getId());
+    }
+    
+    @Test
+    void testLearnedCostsKeepSimpleHeuristicAdmissible() {
+        ExecutionStats stats = new ExecutionStats();
+        List<Action> actions = List.of(
+            action("oven", List.of(), "pizzaBaked", 2),
+            action("serve", "pizzaBaked", "pizzaServed", 1));
+        AdaptiveCostModel model = new AdaptiveCostModel(stats, 10 * MILLIS, 5, Long.MAX_VALUE, 1);
+        record(stats, "oven", "Calzone", 50, 5);
+        record(stats, "serve", "Calzone", 1, 5);
+        
+        List<Action> costed = model.withCosts(actions, "Calzone");
+        assertEquals(5, costed.get(0).getCost());
+        assertEquals(1, costed.get(1).getCost());
+        assertNotSame(actions.get(0), costed.get(0));
+        assertTrue(SearchSupport.appliesDeclaredEffects(costed.get(0)));
+        
+        Goal goal = new SimpleGoal(Map.of("pizzaServed", true));
+        assertTrue(new SimpleHeuristic().forSearch(goal, costed).isAdmissible());
+        Plan plan = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()))
+            .createPlan(new HashMapWorldState(), goal, costed);
+        assertTrue(plan.isOptimal());
+    }
+    
+    @Test
+    void testBotsPublishLearnedCostsBeforePlanning() {
+        ExecutionStats stats = new ExecutionStats();
+        record(stats, "bake_pizza", "Calzone", 80, 5);
+        AdaptiveCostModel model = new AdaptiveCostModel(stats, 10 * MILLIS, 5, Long.MAX_VALUE, 1);
+        PizzaBot bot = new PizzaBot(new IngredientInventory(), null, null, null, model);
+        bot.setRequestedPizzaType("Calzone");
+        ActionRegistry.Snapshot costed = bot.getActionRegistry().current();
+        assertEquals(8, costed.getAction("bake_pizza").getCost());
+        
+        // Planning uses the published costs rather than refreshing them itself
+        Plan plan = bot.createPlan();
+        assertEquals(costed.getVersion(), plan.getRegistryVersion());
+        assertSame(costed, bot.getActionRegistry().current());
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSuccessorEvaluatorTest {
+    
+    /**
+     * Orders of chained steps, plus actions with negated, null-valued and numeric conditions,
+     * over more than 64 facts
+     */
+    private static List<Action> mixedActions(int orders, int steps) {
+        List<Action> actions = new ArrayList<>();
+        for (int o = 0; o < orders; o++) {
+            for (int s = 0; s < steps; s++) {
+                List<Condition> preconditions = new ArrayList<>();
+                preconditions.add(new SimpleCondition("o" + o + "s" + s, false));
+                if (s > 0) {
+                    preconditions.add(new SimpleCondition("o" + o + "s" + (s - 1), true));
+                }
+                actions.add(action("o" + o + "_" + s, preconditions, List.of(new SimpleEffect("o" + o + "s" + s, true)),
+                    1 + s % 3));
+            }
+        }
+        actions.add(action("clear", List.of(new NotCondition("o0s0", true), new SimpleCondition("mode", null)),
+            List.of(new SimpleEffect("mode", "cleaning")), 1));
+        actions.add(action("restock", List.of(new NumericCondition("stock", 0, 5)),
+            List.of(new NumericEffect("stock", 10)), 2));
+        actions.add(action("reset", List.of(new SimpleCondition("mode", "cleaning")),
+            List.of(new SimpleEffect("mode", null), new SimpleEffect("o1s0", false)), 1));
+        return actions;
+    }
+    
+    private static Goal mixedGoal(int orders, int steps) {
+        Map<String, Object> goalState = new HashMap<>();
+        for (int o = 0; o < orders; o++) {
+            goalState.put("o" + o + "s" + (steps - 1), true);
+        }
+        return new SimpleGoal(goalState, List.of(new NotCondition("mode", "cleaning"), new NumericCondition("stock", 3,
+            Double.POSITIVE_INFINITY)));
+    }
+    
+    @Test
+    void testBatchMatchesScalarEvaluation() {
+        int orders = 9;
+        int steps = 8;
+        List<Action> actions = mixedActions(orders, steps);
+        Goal goal = mixedGoal(orders, steps);
+        BatchSuccessorEvaluator evaluator = BatchSuccessorEvaluator.of(goal, actions);
+        assertTrue(evaluator.getFactCount() > 64);
+        SimpleHeuristic heuristic = new SimpleHeuristic();
+        
+        Random random = new Random(7);
+        for (int sample = 0; sample < 500; sample++) {
+            WorldState state = new HashMapWorldState();
+            for (int o = 0; o < orders; o++) {
+                for (int s = 0; s < steps; s++) {
+                    if (random.nextInt(4) > 0) {
+                        state.setProperty("o" + o + "s" + s, random.nextBoolean());
+                    }
+                }
+            }
+            if (random.nextBoolean()) {
+                state.setProperty("mode", "cleaning");
+            }
+            state.setNumber("stock", random.nextInt(8));
+            
+            List<Action> expected = new ArrayList<>();
+            for (Action action : actions) {
+                if (action.checkPreconditions(state)) {
+                    expected.add(action);
+                }
+            }
+            long[] bits = evaluator.encode(state);
+            assertEquals((int) heuristic.calculate(state, goal, actions), evaluator.countUnsatisfied(bits, state));
+            
+            BatchSuccessorEvaluator.Successors successors = evaluator.expand(state, bits);
+            assertEquals(expected.size(), successors.size());
+            for (int i = 0; i < successors.size(); i++) {
+                assertSame(expected.get(i), successors.action(i));
+                WorldState next = successors.state(i);
+                assertArrayEquals(evaluator.encode(next), successors.bits(i), successors.action(i).getId());
+                assertEquals((int) heuristic.calculate(next, goal, actions), successors.unsatisfiedGoals(i));
+            }
+        }
+    }
+    
+    @Test
+    void testOverriddenEffectsAreEncoded() {
+        // Take Order sets the requested pizza type, not the declared Margherita
+        List<Action> actions = List.of(new TakeOrderAction(), new CheckIngredientsAction());
+        Goal goal = new SimpleGoal(Map.of("pizzaType", "Pepperoni"));
+        BatchSuccessorEvaluator evaluator = BatchSuccessorEvaluator.of(goal, actions);
+        
+        WorldState state = new HashMapWorldState();
+        state.setProperty("customerPresent", true);
+        state.setProperty(TakeOrderAction.REQUESTED_PIZZA_TYPE_PROPERTY, "Pepperoni");
+        BatchSuccessorEvaluator.Successors successors = evaluator.expand(state, evaluator.encode(state));
+        assertEquals(1, successors.size());
+        assertEquals(0, successors.unsatisfiedGoals(0));
+    }
+    
+    @Test
+    void testBatchSearchFindsSamePlans() {
+        List<Action> pizza = List.of(new TakeOrderAction(), new CheckIngredientsAction(), new PrepareDoughAction(),
+            new UsePremadeDoughAction(), new AddToppingsAction(), new BakePizzaAction(), new ServePizzaAction());
+        WorldState pizzaStart = new HashMapWorldState();
+        pizzaStart.setProperty("customerPresent", true);
+        Goal pizzaGoal = new SimpleGoal(Map.of("pizzaServed", true));
+        
+        List<Action> kitchen = mixedActions(3, 4);
+        WorldState kitchenStart = new HashMapWorldState();
+        for (int o = 0; o < 3; o++) {
+            for (int s = 0; s < 4; s++) {
+                kitchenStart.setProperty("o" + o + "s" + s, false);
+            }
+        }
+        kitchenStart.setNumber("stock", 1);
+        Goal kitchenGoal = mixedGoal(3, 4);
+        
+        AStarPathfinder scalar = new AStarPathfinder(new SimpleHeuristic());
+        AStarPathfinder batch = new AStarPathfinder(new SimpleHeuristic(), true);
+        for (int run = 0; run < 2; run++) {
+            SearchResult expected = scalar.search(pizzaStart, pizzaGoal, pizza);
+            SearchResult actual = batch.search(pizzaStart, pizzaGoal, pizza);
+            assertEquals(expected.getActions(), actual.getActions());
+            assertEquals(expected.getNodesExpanded(), actual.getNodesExpanded());
+            
+            expected = scalar.search(kitchenStart, kitchenGoal, kitchen);
+            actual = batch.search(kitchenStart, kitchenGoal, kitchen);
+            assertTrue(expected.isFound());
+            assertEquals(expected.getActions(), actual.getActions());
+            assertEquals(expected.getNodesExpanded(), actual.getNodesExpanded());
+        }
+    }
+}
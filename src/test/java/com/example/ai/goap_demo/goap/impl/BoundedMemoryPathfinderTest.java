@@ -0,0 +1,133 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedMemoryPathfinderTest {
+    
+    private static final int STEPS = 8;
+    private static final int DISTRACTIONS = 8;
+    
+    /**
+     * A chain of steps to the goal, and distractions that blow up the state space
+     */
+    private static List<Action> actions() {
+        List<Action> actions = new ArrayList<>();
+        for (int i = 1; i <= STEPS; i++) {
+            List<Condition> preconditions = i == 1 ? List.of() : List.of(new SimpleCondition("step" + (i - 1), true));
+            actions.add(action("step" + i, preconditions, "step" + i, 1));
+        }
+        for (int i = 0; i < DISTRACTIONS; i++) {
+            actions.add(action("distraction" + i, List.of(), "distraction" + i, 1));
+        }
+        return actions;
+    }
+    
+    /**
+     * The number of steps still missing, admissible since every step costs 1
+     */
+    private static final HeuristicFunction REMAINING_STEPS = new HeuristicFunction() {
+        @Override
+        public float calculate(WorldState state, Goal goal, List<Action> available) {
+            int done = 0;
+            while (done < STEPS && Boolean.TRUE.equals(state.getProperty("step" + (done + 1)))) {
+                done++;
+            }
+            return STEPS - done;
+        }
+        
+        @Override
+        public boolean isAdmissible() {
+            return true;
+        }
+    };
+    
+    private static final Goal GOAL = new SimpleGoal(Map.of("step" + STEPS, true));
+    
+    @Test
+    void testFindsOptimalPlanWithinBudget() {
+        BoundedMemoryPathfinder pathfinder = new BoundedMemoryPathfinder(REMAINING_STEPS, 64L << 20, 10000);
+        SearchResult result = pathfinder.search(new HashMapWorldState(), GOAL, actions());
+        
+        assertTrue(result.isFound());
+        assertFalse(result.isPartial());
+        assertTrue(result.isOptimal());
+        assertEquals(STEPS, result.getActions().size());
+        assertEquals(0, pathfinder.getEvictedCount());
+    }
+    
+    @Test
+    void testEvictsFrontierNodesWhenTheBudgetIsTight() {
+        // Every expansion adds a successor per distraction; the ones with the highest f go first
+        long budget = 40 * BoundedMemoryPathfinder.estimateBytes(new HashMapWorldState());
+        BoundedMemoryPathfinder pathfinder = new BoundedMemoryPathfinder(REMAINING_STEPS, budget, 100000);
+        SearchResult result = pathfinder.search(new HashMapWorldState(), GOAL, actions());
+        
+        assertTrue(pathfinder.getEvictedCount() > 0);
+        assertTrue(result.isFound());
+        assertEquals(STEPS, result.getActions().size());
+        assertFalse(result.isOptimal(), "optimality is not guaranteed after evictions");
+    }
+    
+    @Test
+    void testReturnsTheMostPromisingPartialPlanWhenExhausted() {
+        BoundedMemoryPathfinder pathfinder = new BoundedMemoryPathfinder(REMAINING_STEPS, 64L << 20, 3);
+        SearchResult result = pathfinder.search(new HashMapWorldState(), GOAL, actions());
+        
+        assertFalse(result.isFound());
+        assertTrue(result.isPartial());
+        assertEquals(List.of("step1", "step2", "step3"), ids(result.getPartialActions()));
+        assertEquals(1, pathfinder.getPartialCount());
+        
+        // A goal that cannot be reached at all is not exhaustion, so there is no partial plan
+        Goal unreachable = new SimpleGoal(Map.of("unknown", true));
+        SearchResult none = new BoundedMemoryPathfinder(REMAINING_STEPS, 64L << 20, 10000)
+            .search(new HashMapWorldState(), unreachable, actions().subList(0, 3));
+        assertFalse(none.isFound());
+        assertFalse(none.isPartial());
+    }
+    
+    @Test
+    void testPartialPlansLetTheExecutorProgressAndReplan() {
+        GOAPPlanner planner = new GOAPPlanner(new BoundedMemoryPathfinder(REMAINING_STEPS, 64L << 20, 3));
+        List<Action> actions = actions();
+        WorldState state = new HashMapWorldState();
+        
+        int plans = 0;
+        while (!GOAL.isSatisfied(state)) {
+            Plan plan = planner.createPlan(state, GOAL, actions);
+            assertNotNull(plan);
+            plans++;
+            for (Action action : plan.getActions()) {
+                assertTrue(action.checkPreconditions(state));
+                state = action.applyEffects(state);
+            }
+            assertEquals(!GOAL.isSatisfied(state), plan.isPartial());
+        }
+        assertEquals(3, plans);
+        
+        // The registry keeps the flag when it stamps its version on a plan
+        Plan partial = new ActionRegistry(actions).current().createPlan(planner, new HashMapWorldState(), GOAL);
+        assertTrue(partial.isPartial());
+        assertTrue(partial.toString().startsWith("Partial plan"));
+    }
+    
+    private static List<String> ids(List<Action> actions) {
+        List<String> ids = new ArrayList<>();
+        for (Action action : actions) {
+            ids.add(action.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingHeuristicTest {
+    
+    @Test
+    void testRepeatedSearchesHitSharedCache() {
+        List<Action> actions = List.of(
+            action("take_order", "customerPresent", "orderTaken", 1),
+            action("prepare_dough", "orderTaken", "doughPrepared", 1),
+            action("bake_pizza", "doughPrepared", "pizzaBaked", 1)
+        );
+        
+        HeuristicCache sharedCache = new HeuristicCache(1024);
+        CachingHeuristic heuristic = new CachingHeuristic(new SimpleHeuristic(), sharedCache);
+        AStarPathfinder pathfinder = new AStarPathfinder(heuristic);
+        
+        Map<String, Object> goalState = new HashMap<>();
+        goalState.put("pizzaBaked", true);
+        
+        WorldState initialState = new HashMapWorldState();
+        initialState.setProperty("customerPresent", true);
+        
+        List<Action> first = pathfinder.findPath(initialState, new SimpleGoal(goalState), actions);
+        long callsAfterFirst = heuristic.getCallCount();
+        assertEquals(0, heuristic.getSharedHits());
+        
+        // An equal goal in a new search is answered from the shared cache
+        List<Action> second = pathfinder.findPath(initialState, new SimpleGoal(goalState), actions);
+        assertEquals(first, second);
+        assertEquals(heuristic.getCallCount() - callsAfterFirst, heuristic.getSharedHits());
+        assertEquals(0.5, heuristic.getHitRate(), 1e-9);
+        
+        // A different goal does not reuse the cached values
+        Map<String, Object> otherGoal = new HashMap<>();
+        otherGoal.put("doughPrepared", true);
+        Goal goal = new SimpleGoal(otherGoal);
+        assertEquals(1.0f, heuristic.calculate(initialState, goal, actions));
+        assertEquals(heuristic.getCallCount() - callsAfterFirst - 1, heuristic.getSharedHits());
+    }
+}
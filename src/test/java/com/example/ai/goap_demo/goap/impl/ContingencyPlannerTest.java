@@ -0,0 +1,113 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.pizzabot.KitchenSimulation;
+import com.example.ai.goap_demo.pizzabot.PizzaBot;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContingencyPlannerTest {
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        KitchenSimulation.reset();
+    }
+    
+    @Test
+    void testDeclaredFailureGetsFallbackPlan() {
+        List<Action> actions = List.of(new TakeOrderAction(), new CheckIngredientsAction(new IngredientInventory()),
+            new PrepareDoughAction(), new UsePremadeDoughAction(), new AddToppingsAction(), new BakePizzaAction(),
+            new ServePizzaAction());
+        Goal goal = new SimpleGoal(Map.of("pizzaServed", true));
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()));
+        WorldState start = new HashMapWorldState();
+        start.setProperty("customerPresent", true);
+        Plan plan = planner.createPlan(start, goal, actions);
+        assertEquals("prepare_dough", plan.getActions().get(2).getId());
+        
+        ContingencyPlanner contingencyPlanner = new ContingencyPlanner(executor, 4, 0.2);
+        ContingencyPlanner.Contingencies contingencies = contingencyPlanner.prepare(plan, start, goal,
+            state -> planner.createPlan(state, goal, actions));
+        
+        // Only the dough step declares how it fails
+        assertEquals(Set.of(2), contingencies.getPreparedSteps());
+        contingencies.stepSucceeded(0);
+        contingencies.stepSucceeded(1);
+        
+        // The actual state has more than the prediction, e.g. the chosen pizza type
+        WorldState actual = plan.getActions().get(1).applyEffects(plan.getActions().get(0).applyEffects(start));
+        actual.setProperty("pizzaType", "margherita");
+        actual.setProperty("doughPreparationFailed", true);
+        Plan fallback = contingencies.forFailure(2, actual);
+        
+        assertNotNull(fallback);
+        assertEquals("use_premade_dough", fallback.getActions().get(0).getId());
+        assertTrue(planner.isPlanValid(fallback, actual, goal));
+        assertEquals(1, contingencyPlanner.getHitCount());
+        assertEquals(1, contingencyPlanner.getPreparedCount());
+    }
+    
+    @Test
+    void testObservedFailuresRankStepsWithinBudget() {
+        Action first = action("first", List.of(), "a", 1);
+        Action flaky = action("flaky", List.of(new SimpleCondition("a", true)), "b", 1);
+        Action last = action("last", List.of(new SimpleCondition("b", true)), "c", 1);
+        List<Action> actions = List.of(first, flaky, last);
+        Goal goal = new SimpleGoal(Map.of("c", true));
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()));
+        
+        ContingencyPlanner contingencyPlanner = new ContingencyPlanner(executor, 1, 0.2);
+        assertEquals(0, contingencyPlanner.getFailureProbability(flaky));
+        for (int i = 0; i < 4; i++) {
+            contingencyPlanner.recordOutcome(flaky, i == 0);
+            contingencyPlanner.recordOutcome(last, i != 0);
+            contingencyPlanner.recordOutcome(first, true);
+        }
+        assertEquals(0.6, contingencyPlanner.getFailureProbability(flaky), 1e-9);
+        assertEquals(0.2, contingencyPlanner.getFailureProbability(last), 1e-9);
+        assertEquals(0, contingencyPlanner.getFailureProbability(first));
+        
+        WorldState start = new HashMapWorldState();
+        Plan plan = planner.createPlan(start, goal, actions);
+        ContingencyPlanner.Contingencies contingencies = contingencyPlanner.prepare(plan, start, goal,
+            state -> planner.createPlan(state, goal, actions));
+        
+        // A budget of one goes to the likeliest failure
+        assertEquals(Set.of(1), contingencies.getPreparedSteps());
+        assertNull(contingencies.forFailure(2, start));
+        assertEquals(1, contingencyPlanner.getMissCount());
+        
+        contingencies.cancelAll();
+        assertTrue(contingencies.getPreparedSteps().isEmpty());
+    }
+    
+    @Test
+    void testBotReplansFromPreparedFallback() {
+        KitchenSimulation.setTimeScale(0);
+        KitchenSimulation.setFailureRate("prepare_dough", 1.0);
+        ContingencyPlanner contingencyPlanner = new ContingencyPlanner(executor, 2, 0.2);
+        PizzaBot bot = new PizzaBot(new IngredientInventory(), null, null, contingencyPlanner);
+        
+        assertNotNull(bot.createPlan());
+        assertTrue(bot.executePlan());
+        assertEquals(true, bot.getWorldState().getProperty("pizzaServed"));
+        assertEquals(1, bot.getReplanNanos().size());
+        assertEquals(1, contingencyPlanner.getHitCount());
+        assertEquals(0, contingencyPlanner.getMissCount());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaNodePathfinderTest {
+    
+    /**
+     * Independent orders, each a chain of steps with costs 1, 2, 3, 1, ...
+     */
+    private static List<Action> orders(int orders, int steps) {
+        List<Action> actions = new ArrayList<>();
+        for (int o = 0; o < orders; o++) {
+            for (int s = 0; s < steps; s++) {
+                List<Condition> preconditions = s == 0 ? List.of()
+                    : List.of(new SimpleCondition("order" + o + ".step" + (s - 1), true));
+                actions.add(action("order" + o + "_step" + s, preconditions, "order" + o + ".step" + s, 1 + s % 3));
+            }
+        }
+        return actions;
+    }
+    
+    private static Goal ordersGoal(int orders, int steps) {
+        Map<String, Object> goalState = new HashMap<>();
+        for (int o = 0; o < orders; o++) {
+            goalState.put("order" + o + ".step" + (steps - 1), true);
+        }
+        return new SimpleGoal(goalState);
+    }
+    
+    private static float cost(SearchResult result) {
+        float cost = 0;
+        for (Action action : result.getActions()) {
+            cost += action.getCost();
+        }
+        return cost;
+    }
+    
+    @Test
+    void testFindsOptimalPlansWithAndWithoutCache() {
+        List<Action> actions = orders(4, 4);
+        Goal goal = ordersGoal(4, 4);
+        SearchResult expected = new AStarPathfinder(new SimpleHeuristic()).search(new HashMapWorldState(), goal,
+            actions);
+        
+        DeltaNodePathfinder uncached = new DeltaNodePathfinder(new SimpleHeuristic(), 0, 100_000);
+        DeltaNodePathfinder cached = new DeltaNodePathfinder(new SimpleHeuristic(), 64, 100_000);
+        for (DeltaNodePathfinder pathfinder : List.of(uncached, cached)) {
+            SearchResult result = pathfinder.search(new HashMapWorldState(), goal, actions);
+            assertTrue(result.isFound());
+            assertTrue(result.isOptimal());
+            assertEquals(cost(expected), cost(result));
+            
+            // The plan leads to the goal when replayed
+            WorldState state = new HashMapWorldState();
+            for (Action action : result.getActions()) {
+                assertTrue(action.checkPreconditions(state));
+                state = action.applyEffects(state);
+            }
+            assertTrue(goal.isSatisfied(state));
+        }
+        
+        // Without a cache every expanded state but the start is rebuilt by replay
+        assertEquals(0, uncached.getCacheHitCount());
+        assertTrue(uncached.getMaterializedCount() > 0);
+        assertTrue(uncached.getReplayedStepCount() >= uncached.getMaterializedCount());
+        // With one, children expanded soon after their parents come from it
+        assertTrue(cached.getCacheHitCount() > 0);
+        assertTrue(cached.getReplayedStepCount() < uncached.getReplayedStepCount());
+    }
+    
+    @Test
+    void testReplaysOverriddenEffects() {
+        // Take Order sets the requested pizza type instead of the declared Margherita
+        List<Action> actions = List.of(new TakeOrderAction(), new CheckIngredientsAction(), new PrepareDoughAction(),
+            new UsePremadeDoughAction(), new AddToppingsAction(), new BakePizzaAction(), new ServePizzaAction());
+        WorldState start = new HashMapWorldState();
+        start.setProperty("customerPresent", true);
+        start.setProperty(TakeOrderAction.REQUESTED_PIZZA_TYPE_PROPERTY, "Pepperoni");
+        Goal goal = new SimpleGoal(Map.of("pizzaServed", true, "pizzaType", "Pepperoni"));
+        
+        DeltaNodePathfinder pathfinder = new DeltaNodePathfinder(new SimpleHeuristic(), 0, 1000);
+        SearchResult result = pathfinder.search(start, goal, actions);
+        assertTrue(result.isFound());
+        assertEquals(6, result.getActions().size());
+        // The start state is never changed by replays
+        assertEquals(2, start.getAllProperties().size());
+    }
+    
+    @Test
+    void testPathDependentHeuristic() {
+        List<Action> actions = orders(3, 4);
+        Goal goal = ordersGoal(3, 4);
+        SearchResult expected = new AStarPathfinder(new LandmarkHeuristic()).search(new HashMapWorldState(), goal,
+            actions);
+        SearchResult result = new DeltaNodePathfinder(new LandmarkHeuristic(), 16, 100_000)
+            .search(new HashMapWorldState(), goal, actions);
+        assertTrue(result.isFound());
+        assertEquals(cost(expected), cost(result));
+    }
+    
+    @Test
+    void testGivesUpAfterMaxIterations() {
+        SearchResult result = new DeltaNodePathfinder(new SimpleHeuristic(), 16, 5)
+            .search(new HashMapWorldState(), ordersGoal(4, 4), orders(4, 4));
+        assertFalse(result.isFound());
+        assertEquals(5, result.getNodesExpanded());
+        
+        assertThrows(IllegalArgumentException.class, () -> new DeltaNodePathfinder(new SimpleHeuristic(), -1, 5));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaNodePathfinder(new SimpleHeuristic(), 1, 0));
+    }
+}
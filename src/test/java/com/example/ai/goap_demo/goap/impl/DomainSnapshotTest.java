@@ -0,0 +1,196 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.HeuristicFunction;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.pizzabot.PizzaBot;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainSnapshotTest {
+    
+    @TempDir
+    Path directory;
+    
+    private Path pizzaDomain() throws IOException {
+        Path file = directory.resolve("pizza.domain");
+        try (InputStream in = getClass().getResourceAsStream("/pizza.domain")) {
+            Files.copy(in, file);
+        }
+        return file;
+    }
+    
+    private static List<Action> pizzaActions() {
+        return List.of(new TakeOrderAction(), new CheckIngredientsAction(), new PrepareDoughAction(),
+            new UsePremadeDoughAction(), new AddToppingsAction(), new BakePizzaAction(), new ServePizzaAction());
+    }
+    
+    private static WorldState pizzaStart() {
+        WorldState start = new HashMapWorldState();
+        start.setProperty("customerPresent", true);
+        return start;
+    }
+    
+    private static List<String> ids(SearchResult result) {
+        List<String> ids = new ArrayList<>();
+        for (Action action : result.getActions()) {
+            ids.add(action.getId());
+        }
+        return ids;
+    }
+    
+    @Test
+    void testParseReportsLineOfError() {
+        String text = "domain test\n"
+            + "property stock integer\n"
+            + "\n"
+            + "action restock \"Restock\" cost 1\n"
+            + "  sets stock += 2\n"
+            + "  sets stock = \"many\"\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> DomainDefinition.parse(new StringReader(text), "test.domain"));
+        assertTrue(e.getMessage().startsWith("test.domain:6:"), e.getMessage());
+        
+        IllegalArgumentException undeclared = assertThrows(IllegalArgumentException.class,
+            () -> DomainDefinition.parse(new StringReader("goal g\n  requires missing = true\n"), "test.domain"));
+        assertTrue(undeclared.getMessage().startsWith("test.domain:2:"), undeclared.getMessage());
+    }
+    
+    @Test
+    void testPizzaDomainMatchesJavaActions() throws IOException {
+        DomainDefinition definition = DomainDefinition.parse(pizzaDomain());
+        List<Action> declared = definition.createActions(pizzaActions());
+        List<Action> java = pizzaActions();
+        
+        assertEquals(java.size(), declared.size());
+        for (int i = 0; i < java.size(); i++) {
+            assertEquals(java.get(i).getId(), declared.get(i).getId());
+            assertEquals(java.get(i).getCost(), declared.get(i).getCost());
+            assertEquals(java.get(i).isCritical(), declared.get(i).isCritical());
+        }
+        // Same conditions and effects, so the same planning problem
+        Goal goal = definition.getGoals().get("serve_pizza");
+        assertEquals(StateFingerprint.of(goal, java), StateFingerprint.of(goal, declared));
+        
+        AStarPathfinder pathfinder = new AStarPathfinder(new SimpleHeuristic());
+        assertEquals(ids(pathfinder.search(pizzaStart(), goal, java)),
+            ids(pathfinder.search(pizzaStart(), goal, declared)));
+    }
+    
+    @Test
+    void testBehavioursAttachById() throws IOException {
+        DomainDefinition definition = DomainDefinition.parse(pizzaDomain());
+        BakePizzaAction bake = new BakePizzaAction();
+        List<Action> actions = definition.createActions(List.of(bake));
+        
+        for (Action action : actions) {
+            Action behaviour = ((DeclaredAction) action).getBehaviour();
+            assertEquals(action.getId().equals("bake_pizza") ? bake : null, behaviour);
+        }
+        // Declared failure effects are visible to the contingency planner
+        Action prepareDough = actions.get(2);
+        assertEquals(List.of(new SimpleEffect("doughPreparationFailed", true)).toString(),
+            prepareDough.getFailureEffects().toString());
+        
+        Action stranger = new BaseAction("juggle", "Juggle", List.of(), List.of(), 1, false) {
+            @Override
+            public com.example.ai.goap_demo.goap.core.ActionResult execute(WorldState state) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        };
+        assertThrows(IllegalArgumentException.class, () -> definition.createActions(List.of(stranger)));
+    }
+    
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        DomainDefinition definition = DomainDefinition.parse(pizzaDomain());
+        Path snapshotFile = directory.resolve("pizza.snapshot");
+        DomainSnapshot.compile(definition, snapshotFile, 1 << 16);
+        DomainSnapshot snapshot = DomainSnapshot.load(snapshotFile);
+        
+        assertEquals(definition.getName(), snapshot.getDefinition().getName());
+        assertEquals(definition.getFingerprint(), snapshot.getDefinition().getFingerprint());
+        assertEquals(definition.getProperties(), snapshot.getDefinition().getProperties());
+        assertEquals(1, snapshot.getPatternDatabases().size());
+        
+        // The mapped tables and the stored successor index plan like the parsed domain
+        Goal goal = snapshot.getGoal("serve_pizza");
+        List<Action> actions = snapshot.createActions(pizzaActions());
+        List<Action> parsed = definition.createActions(pizzaActions());
+        HeuristicFunction heuristic = snapshot.createHeuristic(new SimpleHeuristic());
+        assertNotNull(((PatternDatabaseHeuristic) heuristic).databaseFor(goal, actions));
+        
+        PatternDatabase built = PatternDatabase.build(goal, parsed, 1 << 16);
+        WorldState start = pizzaStart();
+        assertEquals(built.getValue(start), heuristic.calculate(start, goal, actions));
+        assertEquals(ids(new AStarPathfinder(new SimpleHeuristic()).search(start, goal, parsed)),
+            ids(new AStarPathfinder(heuristic).search(start, goal, actions)));
+        
+        // Strings are interned, so keys read from the snapshot share storage
+        assertSame("pizzaServed", goal.getConditions().get(0).getPropertyKey());
+    }
+    
+    @Test
+    void testStaleSnapshotIsRecompiled() throws IOException {
+        Path domainFile = pizzaDomain();
+        Path snapshotFile = directory.resolve("pizza.snapshot");
+        DomainSnapshot first = DomainSnapshot.open(domainFile, snapshotFile, 1 << 16);
+        assertTrue(Files.exists(snapshotFile));
+        assertEquals(3.0f, first.getDefinition().getActions().get(5).getCost());
+        
+        // Unchanged, the snapshot is used as it is
+        long modified = Files.getLastModifiedTime(snapshotFile).toMillis();
+        DomainSnapshot.open(domainFile, snapshotFile, 1 << 16);
+        assertEquals(modified, Files.getLastModifiedTime(snapshotFile).toMillis());
+        
+        String text = Files.readString(domainFile).replace("\"Bake Pizza\" cost 3", "\"Bake Pizza\" cost 5");
+        Files.writeString(domainFile, text);
+        DomainSnapshot second = DomainSnapshot.open(domainFile, snapshotFile, 1 << 16);
+        assertEquals(5.0f, second.getDefinition().getActions().get(5).getCost());
+        assertEquals(DomainDefinition.fingerprint(domainFile), second.getDefinition().getFingerprint());
+    }
+    
+    @Test
+    void testPizzaBotServesFromSnapshot() throws IOException {
+        DomainSnapshot snapshot = DomainSnapshot.open(pizzaDomain(), directory.resolve("pizza.snapshot"), 1 << 16);
+        PizzaBot bot = new PizzaBot(new IngredientInventory(), snapshot);
+        
+        assertNotNull(bot.createPlan());
+        assertTrue(bot.executePlan());
+        assertEquals(true, bot.getWorldState().getProperty("pizzaServed"));
+        assertTrue(bot.getActionRegistry().current().getActions().get(0) instanceof DeclaredAction);
+    }
+    
+    @Test
+    void testPizzaBotServesRequestedTypeFromSnapshot() throws IOException {
+        DomainSnapshot snapshot = DomainSnapshot.open(pizzaDomain(), directory.resolve("pizza.snapshot"), 1 << 16);
+        
+        // Take Order copies the requested type, as its Java behaviour does, instead of the declared Margherita
+        List<Action> actions = snapshot.createActions(pizzaActions());
+        WorldState start = pizzaStart();
+        start.setProperty(TakeOrderAction.REQUESTED_PIZZA_TYPE_PROPERTY, "Pepperoni");
+        assertEquals("Pepperoni", actions.get(0).applyEffects(start).getProperty("pizzaType"));
+        assertFalse(SearchSupport.appliesDeclaredEffects(actions.get(0)));
+        assertTrue(SearchSupport.appliesDeclaredEffects(actions.get(5)));
+        
+        PizzaBot bot = new PizzaBot(new IngredientInventory(), snapshot);
+        bot.setRequestedPizzaType("Pepperoni");
+        assertNotNull(bot.createPlan());
+        assertTrue(bot.executePlan());
+        assertEquals(true, bot.getWorldState().getProperty("pizzaServed"));
+        assertEquals("Pepperoni", bot.getWorldState().getProperty("pizzaType"));
+    }
+}
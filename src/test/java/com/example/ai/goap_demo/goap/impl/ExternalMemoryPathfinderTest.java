@@ -0,0 +1,149 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalMemoryPathfinderTest {
+    
+    @TempDir
+    Path directory;
+    
+    /**
+     * Independent orders, each a chain of steps with costs 1, 2, 3, 1, ...
+     */
+    private static List<Action> orders(int orders, int steps) {
+        List<Action> actions = new ArrayList<>();
+        for (int o = 0; o < orders; o++) {
+            for (int s = 0; s < steps; s++) {
+                String id = "order" + o + "_step" + s;
+                List<Condition> preconditions = s == 0 ? List.of()
+                    : List.of(new SimpleCondition("order" + o + ".step" + (s - 1), true));
+                actions.add(new BaseAction(id, id, preconditions,
+                    List.of(new SimpleEffect("order" + o + ".step" + s, true)), 1 + s % 3, false) {
+                    @Override
+                    public ActionResult execute(WorldState state) {
+                        return new DefaultActionResult(true, new HashMap<>());
+                    }
+                });
+            }
+        }
+        return actions;
+    }
+    
+    private static Goal ordersGoal(int orders, int steps) {
+        Map<String, Object> goalState = new HashMap<>();
+        for (int o = 0; o < orders; o++) {
+            goalState.put("order" + o + ".step" + (steps - 1), true);
+        }
+        return new SimpleGoal(goalState);
+    }
+    
+    private static float cost(List<Action> actions) {
+        float cost = 0;
+        for (Action action : actions) {
+            cost += action.getCost();
+        }
+        return cost;
+    }
+    
+    private static long fileCount(Path directory) throws Exception {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+    
+    @Test
+    void testSpillingSearchFindsOptimalPlan() throws Exception {
+        List<Action> actions = orders(4, 4);
+        Goal goal = ordersGoal(4, 4);
+        WorldState start = new HashMapWorldState();
+        
+        // A budget this small keeps only a few dozen nodes in memory
+        ExternalMemoryPathfinder external = new ExternalMemoryPathfinder(new SimpleHeuristic(), directory,
+            16 * 1024, 100_000);
+        SearchResult result = external.search(start, goal, actions);
+        SearchResult optimal = new AStarPathfinder(new SimpleHeuristic()).search(start, goal, actions);
+        
+        assertTrue(result.isFound());
+        assertTrue(result.isOptimal());
+        assertEquals(cost(optimal.getActions()), cost(result.getActions()));
+        assertTrue(new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()))
+            .isPlanValid(new Plan(result.getActions(), true), start, goal));
+        
+        assertTrue(external.getSpilledNodeCount() > 0);
+        assertTrue(external.getMergeCount() > 0);
+        assertEquals(0, fileCount(directory), "run files are deleted after the search");
+    }
+    
+    @Test
+    void testLargeBudgetNeverSpills() {
+        ExternalMemoryPathfinder external = new ExternalMemoryPathfinder(new SimpleHeuristic(), directory,
+            64L * 1024 * 1024, 100_000);
+        SearchResult result = external.search(new HashMapWorldState(), ordersGoal(3, 3), orders(3, 3));
+        
+        assertTrue(result.isFound());
+        assertEquals(3 * (1 + 2 + 3), cost(result.getActions()));
+        assertEquals(0, external.getSpilledNodeCount());
+    }
+    
+    @Test
+    void testPlannerFallsBackWhenSearchGivesUp() throws Exception {
+        List<Action> actions = orders(6, 4);
+        Goal goal = ordersGoal(6, 4);
+        WorldState start = new HashMapWorldState();
+        
+        // Plain A* stops at its node limit on this problem
+        SearchResult limited = new AStarPathfinder(new SimpleHeuristic()).search(start, goal, actions);
+        assertFalse(limited.isFound());
+        assertTrue(limited.isLimitReached());
+        
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()), new SimpleHeuristic(),
+            directory, 1024 * 1024, 1_000_000);
+        Plan plan = planner.createPlan(start, goal, actions);
+        
+        assertNotNull(plan);
+        assertEquals(6 * (1 + 2 + 3 + 1), cost(plan.getActions()));
+        assertTrue(planner.isPlanValid(plan, start, goal));
+        assertEquals(0, fileCount(directory));
+    }
+    
+    @Test
+    void testPlannerDoesNotFallBackForUnreachableGoals() {
+        List<Action> actions = orders(2, 3);
+        Goal unreachable = new SimpleGoal(Map.of("order0.step5", true));
+        WorldState start = new HashMapWorldState();
+        
+        // A* runs out of states rather than hitting its limit, so the goal is known to be unreachable
+        SearchResult exhausted = new AStarPathfinder(new SimpleHeuristic()).search(start, unreachable, actions);
+        assertFalse(exhausted.isFound());
+        assertFalse(exhausted.isLimitReached());
+        
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic()), new SimpleHeuristic(),
+            directory, 1024 * 1024, 1_000_000);
+        assertNull(planner.createPlan(start, unreachable, actions));
+        
+        // The fallback gives up at its own limit too
+        ExternalMemoryPathfinder external = new ExternalMemoryPathfinder(new SimpleHeuristic(), directory,
+            1024 * 1024, 10);
+        SearchResult limited = external.search(start, ordersGoal(6, 4), orders(6, 4));
+        assertFalse(limited.isFound());
+        assertTrue(limited.isLimitReached());
+        assertEquals(10, limited.getNodesExpanded());
+        assertThrows(IllegalArgumentException.class,
+            () -> new ExternalMemoryPathfinder(new SimpleHeuristic(), directory, 1024, 0));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LandmarkHeuristicTest {
+    
+    /**
+     * A workflow of sequential steps, plus independent side tasks that never help the goal
+     */
+    private static List<Action> workflow(int steps, int sideTasks) {
+        List<Action> actions = new ArrayList<>();
+        for (int s = 0; s < steps; s++) {
+            List<Condition> preconditions = s == 0 ? List.of() : List.of(new SimpleCondition("step" + (s - 1), true));
+            actions.add(action("step" + s, preconditions, "step" + s, 1.0f));
+        }
+        for (int t = 0; t < sideTasks; t++) {
+            actions.add(action("side" + t, List.of(new NotCondition("side" + t, true)), "side" + t, 1.0f));
+        }
+        return actions;
+    }
+    
+    @Test
+    void testExtractsPizzaLandmarks() {
+        List<Action> actions = List.of(new TakeOrderAction(), new CheckIngredientsAction(), new PrepareDoughAction(),
+            new UsePremadeDoughAction(), new AddToppingsAction(), new BakePizzaAction(), new ServePizzaAction());
+        Goal goal = new SimpleGoal(Map.of("pizzaServed", true));
+        
+        Set<String> landmarks = new HashSet<>();
+        for (Condition condition : new LandmarkHeuristic().getLandmarks(goal, actions)) {
+            landmarks.add(condition.toString());
+        }
+        
+        // Both dough actions need checked, available ingredients; neither failure flag is a landmark
+        assertEquals(Set.of("pizzaServed = true", "pizzaBaked = true", "toppingsAdded = true", "doughPrepared = true",
+            "ingredientsChecked = true", "ingredientsAvailable = true", "orderTaken = true", "customerPresent = true"),
+            landmarks);
+        
+        WorldState start = new HashMapWorldState();
+        start.setProperty("customerPresent", true);
+        assertEquals(7, new LandmarkHeuristic().calculate(start, goal, actions));
+        
+        // Replanning after the toppings were added only counts what is left
+        WorldState midway = start.copy();
+        midway.setProperty("toppingsAdded", true);
+        assertEquals(2, new LandmarkHeuristic().calculate(midway, goal, actions));
+    }
+    
+    @Test
+    void testCountsLandmarksReachedAlongThePath() {
+        List<Action> actions = workflow(3, 0);
+        Goal goal = new SimpleGoal(Map.of("step2", true));
+        LandmarkHeuristic heuristic = new LandmarkHeuristic();
+        
+        WorldState state = new HashMapWorldState();
+        BitSet start = heuristic.progress(null, state, goal, actions);
+        assertEquals(3, heuristic.calculate(state, start, goal, actions));
+        
+        WorldState afterFirst = actions.get(0).applyEffects(state);
+        BitSet reached = heuristic.progress(start, afterFirst, goal, actions);
+        assertTrue(start.isEmpty(), "Parent progress must not be modified");
+        assertEquals(2, heuristic.calculate(afterFirst, reached, goal, actions));
+        
+        // A landmark reached earlier on the path stays reached even if it no longer holds
+        WorldState undone = afterFirst.copy();
+        undone.setProperty("step0", false);
+        assertEquals(2, heuristic.calculate(undone, reached, goal, actions));
+    }
+    
+    @Test
+    void testCutsExpansionsOnSequentialWorkflow() {
+        List<Action> actions = workflow(12, 4);
+        Goal goal = new SimpleGoal(Map.of("step11", true));
+        WorldState start = new HashMapWorldState();
+        
+        SearchResult simple = new AStarPathfinder(new SimpleHeuristic()).search(start, goal, actions);
+        SearchResult landmark = new AStarPathfinder(new LandmarkHeuristic()).search(start, goal, actions);
+        
+        assertTrue(simple.isFound());
+        assertTrue(landmark.isFound());
+        assertEquals(simple.getActions().size(), landmark.getActions().size());
+        assertEquals(12, landmark.getActions().size());
+        assertTrue(landmark.getNodesExpanded() * 10 < simple.getNodesExpanded(),
+            "landmark " + landmark.getNodesExpanded() + " vs simple " + simple.getNodesExpanded());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericHeuristicTest {
+    
+    @Test
+    void testMultiPizzaPlanWithRestock() {
+        WorldState initialState = new HashMapWorldState();
+        initialState.setNumber("doughStock", 1);
+        initialState.setProperty("ovenWorking", true);
+        
+        List<Action> actions = new ArrayList<>();
+        
+        // Action 1: Restock dough
+        actions.add(new BaseAction(
+            "restock_dough",
+            "Restock Dough",
+            List.of(NumericCondition.atMost("doughStock", 0)),
+            List.of(NumericEffect.increase("doughStock", 2)),
+            2.0f,
+            false
+        ) {
+            @Override
+            public ActionResult execute(WorldState state) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        });
+        
+        // Action 2: Make a pizza from one unit of dough
+        actions.add(new BaseAction(
+            "make_pizza",
+            "Make Pizza",
+            List.of(NumericCondition.atLeast("doughStock", 1), new SimpleCondition("ovenWorking", true)),
+            List.of(NumericEffect.decrease("doughStock", 1), NumericEffect.increase("pizzasMade", 1)),
+            1.0f,
+            false
+        ) {
+            @Override
+            public ActionResult execute(WorldState state) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        });
+        
+        Map<String, Object> goalState = new HashMap<>();
+        Goal goal = new SimpleGoal(goalState, List.of(NumericCondition.atLeast("pizzasMade", 3)));
+        
+        NumericHeuristic heuristic = new NumericHeuristic();
+        assertEquals(3.0f, heuristic.calculate(initialState, goal, actions));
+        
+        AStarPathfinder pathfinder = new AStarPathfinder(heuristic);
+        List<Action> path = pathfinder.findPath(initialState, goal, actions);
+        
+        assertNotNull(path, "Path should not be null");
+        assertEquals(4, path.size(), "Path should make three pizzas and restock once");
+        assertEquals("Make Pizza", path.get(0).getName());
+        assertEquals("Restock Dough", path.get(1).getName());
+        
+        // Numeric slots are copied, not shared
+        WorldState copy = initialState.copy();
+        copy.setNumber("doughStock", 5);
+        assertEquals(1.0, initialState.getNumber("doughStock"));
+        assertEquals(5.0, copy.getProperty("doughStock"));
+    }
+}
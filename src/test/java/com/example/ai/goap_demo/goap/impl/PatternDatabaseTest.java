@@ -0,0 +1,160 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternDatabaseTest {
+    
+    @TempDir
+    Path directory;
+    
+    /**
+     * Independent orders, each a chain of steps with costs 1, 2, 3, 1, ...
+     */
+    private static List<Action> orders(int orders, int steps) {
+        List<Action> actions = new ArrayList<>();
+        for (int o = 0; o < orders; o++) {
+            for (int s = 0; s < steps; s++) {
+                List<Condition> preconditions = s == 0 ? List.of()
+                    : List.of(new SimpleCondition("order" + o + ".step" + (s - 1), true));
+                actions.add(action("order" + o + "_step" + s, preconditions, "order" + o + ".step" + s, 1 + s % 3));
+            }
+        }
+        return actions;
+    }
+    
+    private static Goal ordersGoal(int orders, int steps) {
+        Map<String, Object> goalState = new HashMap<>();
+        for (int o = 0; o < orders; o++) {
+            goalState.put("order" + o + ".step" + (steps - 1), true);
+        }
+        return new SimpleGoal(goalState);
+    }
+    
+    private static float cost(SearchResult result) {
+        float cost = 0;
+        for (Action action : result.getActions()) {
+            cost += action.getCost();
+        }
+        return cost;
+    }
+    
+    @Test
+    void testPizzaTablesGiveExactCost() {
+        List<Action> actions = List.of(new TakeOrderAction(), new CheckIngredientsAction(), new PrepareDoughAction(),
+            new UsePremadeDoughAction(), new AddToppingsAction(), new BakePizzaAction(), new ServePizzaAction());
+        Goal goal = new SimpleGoal(Map.of("pizzaServed", true));
+        PatternDatabase database = PatternDatabase.build(goal, actions, 1 << 16);
+        
+        WorldState start = new HashMapWorldState();
+        start.setProperty("customerPresent", true);
+        SearchResult optimal = new AStarPathfinder(new SimpleHeuristic()).search(start, goal, actions);
+        assertEquals(cost(optimal), database.getValue(start));
+        
+        // Without a customer the order can never be taken
+        assertEquals(Float.POSITIVE_INFINITY, database.getValue(new HashMapWorldState()));
+    }
+    
+    @Test
+    void testIndependentOrdersAreAdditive() {
+        List<Action> actions = orders(3, 4);
+        Goal goal = ordersGoal(3, 4);
+        PatternDatabase database = PatternDatabase.build(goal, actions, 1 << 16);
+        
+        // Every order is its own pattern, and the sum is the exact cost
+        assertEquals(3, database.getPatterns().size());
+        for (List<String> pattern : database.getPatterns()) {
+            String order = pattern.get(0).substring(0, pattern.get(0).indexOf('.'));
+            for (String key : pattern) {
+                assertTrue(key.startsWith(order + "."), pattern.toString());
+            }
+        }
+        
+        WorldState start = new HashMapWorldState();
+        assertEquals(3 * (1 + 2 + 3 + 1), database.getValue(start));
+        
+        WorldState progressed = start.copy();
+        progressed.setProperty("order1.step0", true);
+        progressed.setProperty("order1.step1", true);
+        assertEquals(3 * 7 - 3, database.getValue(progressed));
+    }
+    
+    @Test
+    void testWrittenTablesAreMappedBack() throws Exception {
+        List<Action> actions = orders(2, 5);
+        Goal goal = ordersGoal(2, 5);
+        PatternDatabase built = PatternDatabase.build(goal, actions, 1 << 16);
+        Path file = directory.resolve("orders.pdb");
+        built.write(file);
+        
+        PatternDatabase loaded = PatternDatabase.load(file);
+        assertEquals(built.getFingerprint(), loaded.getFingerprint());
+        assertEquals(built.getPatterns(), loaded.getPatterns());
+        
+        WorldState state = new HashMapWorldState();
+        for (int s = 0; s < 5; s++) {
+            assertEquals(built.getValue(state), loaded.getValue(state));
+            state.setProperty("order0.step" + s, true);
+        }
+        assertEquals(built.getValue(state), loaded.getValue(state));
+    }
+    
+    @Test
+    void testHeuristicPersistsTablesAndCutsExpansions() {
+        List<Action> actions = orders(3, 4);
+        Goal goal = ordersGoal(3, 4);
+        WorldState start = new HashMapWorldState();
+        
+        PatternDatabaseHeuristic heuristic = new PatternDatabaseHeuristic(directory, 1 << 16, new SimpleHeuristic());
+        SearchResult simple = new AStarPathfinder(new SimpleHeuristic()).search(start, goal, actions);
+        SearchResult pdb = new AStarPathfinder(heuristic).search(start, goal, actions);
+        
+        assertTrue(pdb.isFound());
+        assertEquals(cost(simple), cost(pdb));
+        assertTrue(pdb.getNodesExpanded() * 2 < simple.getNodesExpanded(),
+            "pdb " + pdb.getNodesExpanded() + " vs simple " + simple.getNodesExpanded());
+        
+        Path file = directory.resolve(Long.toHexString(StateFingerprint.of(goal, actions)) + ".pdb");
+        assertTrue(Files.exists(file));
+        
+        // A second heuristic maps the same file instead of rebuilding it
+        PatternDatabaseHeuristic restarted = new PatternDatabaseHeuristic(directory, 1 << 16, new SimpleHeuristic());
+        assertEquals(heuristic.calculate(start, goal, actions), restarted.calculate(start, goal, actions));
+    }
+    
+    @Test
+    void testTablesForOtherActionsAreRebuilt() throws Exception {
+        Goal goal = ordersGoal(2, 3);
+        List<Action> actions = orders(2, 3);
+        long fingerprint = StateFingerprint.of(goal, actions);
+        
+        // Tables of a different action set stored under this fingerprint's name
+        List<Action> cheaper = new ArrayList<>(orders(2, 3));
+        cheaper.set(0, action("order0_step0", List.of(), List.of(new SimpleEffect("order0.step2", true)), 1));
+        Path file = directory.resolve(Long.toHexString(fingerprint) + ".pdb");
+        PatternDatabase stale = PatternDatabase.build(goal, cheaper, 1 << 16);
+        stale.write(file);
+        assertNotEquals(fingerprint, stale.getFingerprint());
+        assertThrows(IOException.class, () -> PatternDatabase.load(file, fingerprint));
+        
+        PatternDatabaseHeuristic heuristic = new PatternDatabaseHeuristic(directory, 1 << 16, new SimpleHeuristic());
+        assertEquals(fingerprint, heuristic.databaseFor(goal, actions).getFingerprint());
+        assertEquals(fingerprint, PatternDatabase.load(file, fingerprint).getFingerprint());
+        assertEquals(PatternDatabase.build(goal, actions, 1 << 16).getValue(new HashMapWorldState()),
+            heuristic.calculate(new HashMapWorldState(), goal, actions));
+    }
+}
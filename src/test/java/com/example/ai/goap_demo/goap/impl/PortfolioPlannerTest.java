@@ -0,0 +1,94 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioPlannerTest {
+    
+    @Test
+    void testFirstValidPlanWinsAndOthersAreCancelled() throws Exception {
+        WorldState initialState = new HashMapWorldState();
+        initialState.setProperty("hasIngredients", true);
+        
+        List<Action> actions = List.of(
+            action("prepare_dough",
+                List.of(new SimpleCondition("hasIngredients", true)),
+                List.of(new SimpleEffect("hasDough", true)), 1),
+            action("bake_pizza",
+                List.of(new SimpleCondition("hasDough", true)),
+                List.of(new SimpleEffect("isPizzaBaked", true)), 1)
+        );
+        
+        Map<String, Object> goalState = new HashMap<>();
+        goalState.put("isPizzaBaked", true);
+        Goal goal = new SimpleGoal(goalState);
+        
+        // A member that never finishes on its own, only when interrupted
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Pathfinder stuck = (state, g, available) -> {
+            started.countDown();
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+            }
+            return SearchResult.notFound(0);
+        };
+        
+        Map<String, Pathfinder> members = new LinkedHashMap<>();
+        members.put("stuck", stuck);
+        // The winner only answers once the loser runs, so there is a running search to interrupt
+        Pathfinder greedyBestFirst = new GreedyBestFirstPathfinder(new SimpleHeuristic());
+        members.put("greedy", (state, g, available) -> {
+            try {
+                started.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return greedyBestFirst.search(state, g, available);
+        });
+        
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            PortfolioPlanner planner = new PortfolioPlanner(members, executor, 5000, true, 1, 1);
+            
+            Plan plan = planner.createPlan(initialState, goal, actions);
+            assertNotNull(plan);
+            assertEquals(2, plan.getActions().size());
+            assertTrue(planner.isPlanValid(plan, initialState, goal));
+            assertTrue(cancelled.await(5, TimeUnit.SECONDS), "Losing search should be interrupted");
+            
+            PortfolioPlanner.Member greedy = planner.getAllMembers().get(1);
+            assertEquals(1, greedy.getWins());
+            
+            // A member that never won is dropped once it has used up its attempts
+            assertEquals(1, planner.getMembers().size());
+            assertEquals("greedy", planner.getMembers().get(0).getName());
+            
+            // Later plans only race the remaining member
+            assertNotNull(planner.createPlan(initialState, goal, actions));
+            assertEquals(2, greedy.getWins());
+            assertEquals(1, planner.getAllMembers().get(0).getAttempts());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Pathfinder;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchStrategyTest {
+    
+    @Test
+    void testEveryStrategyFindsValidPlan() {
+        List<Action> actions = List.of(
+            action("take_order", "customerPresent", "orderTaken", 1.0f),
+            action("prepare_dough", "orderTaken", "doughPrepared", 2.0f),
+            action("use_premade_dough", "orderTaken", "doughPrepared", 3.0f),
+            action("bake_pizza", "doughPrepared", "pizzaBaked", 3.0f)
+        );
+        
+        WorldState initialState = new HashMapWorldState();
+        initialState.setProperty("customerPresent", true);
+        
+        Map<String, Object> goalState = new HashMap<>();
+        goalState.put("pizzaBaked", true);
+        Goal goal = new SimpleGoal(goalState);
+        
+        SimpleHeuristic heuristic = new SimpleHeuristic();
+        GOAPPlanner planner = new GOAPPlanner(new AStarPathfinder(heuristic));
+        
+        Plan optimal = planner.createPlan(initialState, goal, actions);
+        assertTrue(optimal.isOptimal());
+        assertEquals("prepare_dough", optimal.getActions().get(1).getId());
+        
+        List<Pathfinder> strategies = List.of(
+            new GreedyBestFirstPathfinder(heuristic),
+            new EnforcedHillClimbingPathfinder(heuristic),
+            new BeamSearchPathfinder(heuristic, 1)
+        );
+        for (Pathfinder strategy : strategies) {
+            Plan plan = planner.createPlan(initialState, goal, actions, strategy);
+            assertNotNull(plan, strategy.getClass().getSimpleName());
+            assertFalse(plan.isOptimal());
+            assertEquals(3, plan.getActions().size());
+            assertTrue(planner.isPlanValid(plan, initialState, goal));
+        }
+    }
+    
+    @Test
+    void testOptimalityIsClaimedOnlyForAdmissibleHeuristics() {
+        // Checking the ingredients achieves two landmarks at once, so LM-count overestimates
+        List<Action> actions = List.of(
+            action("take_order", "customerPresent", "orderTaken", 1.0f),
+            action("check_ingredients", List.of(new SimpleCondition("orderTaken", true)),
+                List.of(new SimpleEffect("ingredientsChecked", true), new SimpleEffect("ingredientsAvailable", true)),
+                1.0f),
+            action("bake_pizza", List.of(new SimpleCondition("ingredientsChecked", true),
+                new SimpleCondition("ingredientsAvailable", true)), "pizzaBaked", 1.0f)
+        );
+        WorldState initialState = new HashMapWorldState();
+        initialState.setProperty("customerPresent", true);
+        Goal goal = new SimpleGoal(Map.of("pizzaBaked", true));
+        
+        assertFalse(new AStarPathfinder(new LandmarkHeuristic()).search(initialState, goal, actions).isOptimal());
+        assertTrue(new AStarPathfinder(new SimpleHeuristic()).search(initialState, goal, actions).isOptimal());
+        
+        // The goal count overestimates once an action satisfies two goal conditions
+        Goal both = new SimpleGoal(Map.of("ingredientsChecked", true, "ingredientsAvailable", true));
+        assertFalse(new AStarPathfinder(new SimpleHeuristic()).search(initialState, both, actions).isOptimal());
+        assertFalse(new AStarPathfinder(new CachingHeuristic(new SimpleHeuristic())).search(initialState, both, actions)
+            .isOptimal());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.SearchResult;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedPlannerTest {
+    
+    /**
+     * Five independent orders, each a chain of four steps with costs 1, 2, 3, 1, plus a
+     * shortcut that finishes an order at once for a cost of 9
+     */
+    public static class Orders implements Supplier<List<Action>> {
+        @Override
+        public List<Action> get() {
+            List<Action> actions = new ArrayList<>();
+            for (int o = 0; o < 5; o++) {
+                for (int s = 0; s < 4; s++) {
+                    List<Condition> preconditions = s == 0 ? List.of()
+                        : List.of(new SimpleCondition("order" + o + ".step" + (s - 1), true));
+                    actions.add(action("order" + o + "_step" + s, preconditions, "order" + o + ".step" + s,
+                        1 + s % 3));
+                }
+                actions.add(action("order" + o + "_rush", List.of(), "order" + o + ".step3", 9));
+            }
+            return actions;
+        }
+    }
+    
+    private static Goal ordersGoal(int orders) {
+        Map<String, Object> goalState = new HashMap<>();
+        for (int o = 0; o < orders; o++) {
+            goalState.put("order" + o + ".step3", true);
+        }
+        return new SimpleGoal(goalState);
+    }
+    
+    private static float cost(List<Action> actions) {
+        float cost = 0;
+        for (Action action : actions) {
+            cost += action.getCost();
+        }
+        return cost;
+    }
+    
+    @Test
+    void testWorkersAgreeOnOptimalPlan() throws Exception {
+        List<Action> actions = new Orders().get();
+        try (ShardedPlanner planner = new ShardedPlanner(3, Orders.class, SimpleHeuristic.class, 1_000_000)) {
+            assertEquals(3, planner.getWorkerCount());
+            
+            for (int orders = 1; orders <= 4; orders++) {
+                Goal goal = ordersGoal(orders);
+                WorldState start = new HashMapWorldState();
+                start.setProperty("order0.step1", true);
+                
+                Plan plan = planner.createPlan(start, goal, actions);
+                SearchResult optimal = new AStarPathfinder(new SimpleHeuristic()).search(start, goal, actions);
+                
+                assertNotNull(plan);
+                assertTrue(plan.isOptimal());
+                assertTrue(planner.isPlanValid(plan, start, goal));
+                assertEquals(cost(optimal.getActions()), cost(plan.getActions()));
+                assertTrue(planner.getLastRoundCount() > 0);
+            }
+        }
+    }
+    
+    @Test
+    void testUnreachableGoalAndUnknownActions() throws Exception {
+        List<Action> actions = new Orders().get();
+        try (ShardedPlanner planner = new ShardedPlanner(2, Orders.class, SimpleHeuristic.class, 1_000_000)) {
+            // Nothing sets order0.step9, so every worker runs out of nodes
+            Goal unreachable = new SimpleGoal(Map.of("order0.step9", true));
+            assertNull(planner.createPlan(new HashMapWorldState(), unreachable, actions.subList(0, 5)));
+            
+            List<Action> withUnknown = new ArrayList<>(actions);
+            withUnknown.add(action("not_in_catalog", List.of(), "order0.step3", 1));
+            assertThrows(IllegalArgumentException.class,
+                () -> planner.createPlan(new HashMapWorldState(), ordersGoal(1), withUnknown));
+            
+            // Same id as a catalog action, but a different cost or effect
+            List<Action> cheaper = new ArrayList<>(actions);
+            cheaper.set(4, action("order0_rush", List.of(), "order0.step3", 1));
+            IllegalArgumentException costChanged = assertThrows(IllegalArgumentException.class,
+                () -> planner.createPlan(new HashMapWorldState(), ordersGoal(1), cheaper));
+            assertTrue(costChanged.getMessage().contains("order0_rush"), costChanged.getMessage());
+            List<Action> redirected = new ArrayList<>(actions);
+            redirected.set(4, action("order0_rush", List.of(), "order1.step3", 9));
+            assertThrows(IllegalArgumentException.class,
+                () -> planner.createPlan(new HashMapWorldState(), ordersGoal(1), redirected));
+            
+            // The workers keep serving after a rejected problem
+            assertNotNull(planner.createPlan(new HashMapWorldState(), ordersGoal(2), actions));
+        }
+    }
+}
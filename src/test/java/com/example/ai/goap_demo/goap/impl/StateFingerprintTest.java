@@ -0,0 +1,69 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateFingerprintTest {
+    
+    private static WorldState state(Object... entries) {
+        WorldState state = new HashMapWorldState();
+        for (int i = 0; i < entries.length; i += 2) {
+            state.setProperty((String) entries[i], entries[i + 1]);
+        }
+        return state;
+    }
+    
+    @Test
+    void testEqualHashCodesDoNotCollide() {
+        // "Aa" and "BB" share a String hashCode, as do Boolean.TRUE and 1231
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(StateFingerprint.of(state("Aa", true)), StateFingerprint.of(state("BB", true)));
+        assertNotEquals(StateFingerprint.of(state("type", "Aa")), StateFingerprint.of(state("type", "BB")));
+        assertEquals(Boolean.TRUE.hashCode(), Integer.valueOf(1231).hashCode());
+        assertNotEquals(StateFingerprint.of(state("ready", true)), StateFingerprint.of(state("ready", 1231)));
+        // Values that are not equal differ even when they denote the same number
+        assertNotEquals(StateFingerprint.of(state("stock", 1)), StateFingerprint.of(state("stock", 1L)));
+        assertNotEquals(StateFingerprint.of(state("stock", 1.0)), StateFingerprint.of(state("stock", 1.0f)));
+        assertNotEquals(StateFingerprint.of(state("a", null)), StateFingerprint.of(state()));
+        assertNotEquals(StateFingerprint.of(state("a", List.of(1, 2))), StateFingerprint.of(state("a", List.of(2, 1))));
+    }
+    
+    @Test
+    void testFingerprintsFollowContent() {
+        // Equal states fingerprint alike whatever the insertion order or string instances
+        assertEquals(StateFingerprint.of(state("a", true, "b", "Margherita")),
+            StateFingerprint.of(state("b", new String("Margherita"), "a", true)));
+        assertEquals(StateFingerprint.of(state("a", Set.of(1, 2))), StateFingerprint.of(state("a", Set.of(2, 1))));
+        
+        // No collisions among many similar states
+        Set<Long> fingerprints = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            assertTrue(fingerprints.add(StateFingerprint.of(state("order" + (i % 1000), i / 1000, "flag", i % 2 == 0))));
+        }
+    }
+    
+    @Test
+    void testActionFingerprintsCoverConditionsAndEffects() {
+        Goal goal = new SimpleGoal(Map.of("baked", true));
+        long base = StateFingerprint.of(goal, List.of(action("bake", "prepared", "baked", 2)));
+        assertEquals(base, StateFingerprint.of(goal, List.of(action("bake", "prepared", "baked", 2))));
+        
+        // Same id and cost, but different preconditions or effects
+        assertNotEquals(base, StateFingerprint.of(goal, List.of(action("bake", "ready", "baked", 2))));
+        assertNotEquals(base, StateFingerprint.of(goal, List.of(action("bake", "prepared", "done", 2))));
+        assertNotEquals(base, StateFingerprint.of(goal, List.of(action("bake",
+            List.of(new SimpleCondition("prepared", true)), List.of(new SimpleEffect("baked", "true")), 2))));
+        assertNotEquals(base, StateFingerprint.of(goal, List.of(action("bake",
+            List.of(new NotCondition("prepared", false)), "baked", 2))));
+        Action useOne = action("use", List.of(), List.of(new NumericEffect("stock", -1)), 1);
+        Action useTwo = action("use", List.of(), List.of(new NumericEffect("stock", -2)), 1);
+        assertNotEquals(StateFingerprint.of(goal, List.of(useOne)), StateFingerprint.of(goal, List.of(useTwo)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.ActionResult;
+import com.example.ai.goap_demo.goap.core.Condition;
+import com.example.ai.goap_demo.goap.core.Effect;
+import com.example.ai.goap_demo.goap.core.WorldState;
+
+import java.util.*;
+
+/**
+ * Actions for tests, planned from their declared conditions and effects and always
+ * succeeding when executed
+ */
+public final class TestActions {
+    
+    private TestActions() {
+    }
+    
+    public static Action action(String id, List<Condition> preconditions, List<Effect> effects, float cost) {
+        return new BaseAction(id, id, preconditions, effects, cost, false) {
+            @Override
+            public ActionResult execute(WorldState state) {
+                return new DefaultActionResult(true, new HashMap<>());
+            }
+        };
+    }
+    
+    /**
+     * An action that sets a single property to true
+     */
+    public static Action action(String id, List<Condition> preconditions, String effectKey, float cost) {
+        return action(id, preconditions, List.of(new SimpleEffect(effectKey, true)), cost);
+    }
+    
+    /**
+     * An action that requires one property to be true and sets another to true
+     */
+    public static Action action(String id, String precondition, String effectKey, float cost) {
+        return action(id, List.of(new SimpleCondition(precondition, true)), effectKey, cost);
+    }
+    
+    /**
+     * An action without conditions or effects
+     */
+    public static Action action(String id) {
+        return action(id, List.of(), List.of(), 1);
+    }
+}
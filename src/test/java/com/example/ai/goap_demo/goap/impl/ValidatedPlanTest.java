@@ -0,0 +1,104 @@
+package com.example.ai.goap_demo.goap.impl;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.core.Goal;
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.goap.core.WorldState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.ai.goap_demo.goap.impl.TestActions.action;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatedPlanTest {
+    
+    @Test
+    void testRevalidateOnlyAffectedSuffix() {
+        WorldState initialState = new HashMapWorldState();
+        initialState.setProperty("hasIngredients", true);
+        initialState.setProperty("ovenWorking", true);
+        
+        Plan plan = new Plan(List.of(
+            action("prepare_dough",
+                List.of(new SimpleCondition("hasIngredients", true)),
+                List.of(new SimpleEffect("hasDough", true)), 1),
+            action("add_toppings",
+                List.of(new SimpleCondition("hasDough", true)),
+                List.of(new SimpleEffect("hasToppings", true)), 1),
+            action("bake_pizza",
+                List.of(new SimpleCondition("hasToppings", true), new SimpleCondition("ovenWorking", true)),
+                List.of(new SimpleEffect("isPizzaBaked", true)), 1)
+        ));
+        
+        Map<String, Object> goalState = new HashMap<>();
+        goalState.put("isPizzaBaked", true);
+        Goal goal = new SimpleGoal(goalState);
+        
+        ValidatedPlan validatedPlan = new ValidatedPlan(plan, initialState, goal);
+        assertTrue(validatedPlan.isValid());
+        assertEquals(0, validatedPlan.getFirstReader("hasIngredients"));
+        assertEquals(2, validatedPlan.getFirstReader("ovenWorking"));
+        assertEquals(-1, validatedPlan.getFirstReader("hasDough"));
+        
+        // Unrelated properties leave the plan valid
+        initialState.setProperty("customerPresent", true);
+        assertTrue(validatedPlan.revalidate(initialState));
+        
+        // A property read by the last step invalidates the plan
+        initialState.setProperty("ovenWorking", false);
+        assertFalse(validatedPlan.revalidate(initialState, Set.of("ovenWorking")));
+        assertEquals(false, validatedPlan.getStateBefore(2).getProperty("ovenWorking"));
+        
+        // The states handed out are copies, so changing them does not affect the plan
+        validatedPlan.getStateBefore(2).setProperty("ovenWorking", true);
+        assertFalse(validatedPlan.revalidate(initialState, Set.of()));
+        
+        // Restoring it makes the plan valid again, re-simulating only the last step: the
+        // earlier checkpoints are patched in place and only the final state is new
+        WorldState[] before = new WorldState[3];
+        for (int step = 0; step < before.length; step++) {
+            before[step] = validatedPlan.checkpoint(step);
+        }
+        initialState.setProperty("ovenWorking", true);
+        assertTrue(validatedPlan.revalidate(initialState, Set.of("ovenWorking")));
+        for (int step = 0; step < before.length; step++) {
+            assertSame(before[step], validatedPlan.checkpoint(step));
+        }
+        assertEquals(true, validatedPlan.checkpoint(3).getProperty("isPizzaBaked"));
+        
+        // The result matches a full re-simulation
+        initialState.setProperty("hasIngredients", false);
+        assertEquals(new GOAPPlanner(new AStarPathfinder(new SimpleHeuristic())).isPlanValid(plan, initialState, goal),
+            validatedPlan.revalidate(initialState));
+    }
+    
+    @Test
+    void testIncrementsDependOnInitialValue() {
+        WorldState initialState = new HashMapWorldState();
+        initialState.setNumber("stock", 1);
+        
+        Plan plan = new Plan(List.of(
+            action("restock", List.of(), List.of(NumericEffect.increase("stock", 2)), 1),
+            action("bake_pizza",
+                List.of(new NumericCondition("stock", 3, Double.POSITIVE_INFINITY)),
+                List.of(new SimpleEffect("isPizzaBaked", true)), 1)
+        ));
+        Goal goal = new SimpleGoal(Map.of("isPizzaBaked", true));
+        
+        ValidatedPlan validatedPlan = new ValidatedPlan(plan, initialState, goal);
+        assertTrue(validatedPlan.isValid());
+        assertEquals(0, validatedPlan.getFirstReader("stock"));
+        
+        // The increment carries the lower stock into the last step's precondition
+        initialState.setNumber("stock", 0);
+        assertFalse(validatedPlan.revalidate(initialState, Set.of("stock")));
+        assertFalse(new ValidatedPlan(plan, initialState, goal).isValid());
+        
+        initialState.setNumber("stock", 4);
+        assertTrue(validatedPlan.revalidate(initialState, Set.of("stock")));
+    }
+}
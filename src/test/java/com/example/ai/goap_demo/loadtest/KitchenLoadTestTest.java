@@ -0,0 +1,56 @@
+package com.example.ai.goap_demo.loadtest;
+
+import com.example.ai.goap_demo.goap.diagnostics.DiagnosticLog;
+import com.example.ai.goap_demo.goap.diagnostics.LogSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KitchenLoadTestTest {
+    
+    @Test
+    void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(1_000, histogram.getMin());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_500, histogram.getMean(), 1.0);
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 * 0.016);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 * 0.016);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+        
+        // Every value maps to a bucket whose upper bound is not below it
+        for (long value : new long[] { 0, 1, 127, 128, 129, 1_000_003, Long.MAX_VALUE }) {
+            assertTrue(LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value)) >= value);
+        }
+    }
+    
+    @Test
+    void testLoadTestServesOrdersAndReportsJson() throws Exception {
+        LogSink previous = DiagnosticLog.getSink();
+        DiagnosticLog.setSink(null);
+        try {
+            LoadTestConfig config = new LoadTestConfig(40, 400, 4, Map.of("Margherita", 1.0, "Vegetarian", 1.0),
+                Map.of("prepare_dough", 0.5), 0.001, 7, null);
+            LoadTestReport report = KitchenLoadTest.run(config);
+            
+            assertEquals(40, report.getServedCount() + report.getFailedCount());
+            assertEquals(40, report.getPlanLatency().getCount());
+            assertEquals(40, report.getEndToEndLatency().getCount());
+            assertTrue(report.getReplannedOrderCount() > 0, "Injected dough failures should cause replans");
+            assertTrue(report.getReplanLatency().getCount() >= report.getReplannedOrderCount());
+            
+            String json = report.toJson();
+            assertTrue(json.contains("\"endToEnd\": {\"count\": 40"));
+            assertTrue(json.contains("\"prepare_dough\": 0.5000"));
+        } finally {
+            DiagnosticLog.setSink(previous);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.ai.goap_demo.pizzabot.batching;
+
+import com.example.ai.goap_demo.goap.core.Action;
+import com.example.ai.goap_demo.goap.impl.AStarPathfinder;
+import com.example.ai.goap_demo.goap.impl.SimpleHeuristic;
+import com.example.ai.goap_demo.pizzabot.actions.BakePizzaAction;
+import com.example.ai.goap_demo.pizzabot.actions.CheckIngredientsAction;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchPlannerTest {
+    
+    @Test
+    void testSameTypeOrdersShareOneCheckAndOneBake() {
+        OrderBatcher batcher = new OrderBatcher(60_000, 3);
+        List<OrderBatch> batches = new ArrayList<>();
+        batches.addAll(batcher.offer(new PizzaOrder("o1", "Margherita", 0)));
+        batches.addAll(batcher.offer(new PizzaOrder("o2", "Pepperoni", 1_000)));
+        batches.addAll(batcher.offer(new PizzaOrder("o3", "Margherita", 2_000)));
+        assertTrue(batches.isEmpty());
+        
+        // The third Margherita fills its batch
+        batches.addAll(batcher.offer(new PizzaOrder("o4", "Margherita", 3_000)));
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+        
+        // The Pepperoni order leaves on its own once its window expires
+        List<OrderBatch> expired = batcher.poll(61_000);
+        assertEquals(1, expired.size());
+        assertEquals("Pepperoni", expired.get(0).getPizzaType());
+        assertEquals(Long.MAX_VALUE, batcher.getNextDeadline());
+        
+        IngredientInventory inventory = new IngredientInventory();
+        for (String ingredient : List.of("dough", "tomato sauce", "mozzarella", "basil")) {
+            inventory.restock(ingredient, 10);
+        }
+        BatchPlanner planner = new BatchPlanner(new AStarPathfinder(new SimpleHeuristic()), inventory);
+        
+        BatchPlan plan = planner.plan(batches.get(0));
+        assertNotNull(plan);
+        long checks = plan.getSharedPlan().getActions().stream().filter(a -> a instanceof CheckIngredientsAction).count();
+        long bakes = plan.getSharedPlan().getActions().stream().filter(a -> a instanceof BakePizzaAction).count();
+        assertEquals(1, checks);
+        assertEquals(1, bakes);
+        
+        List<Action> orderActions = plan.getOrderActions();
+        assertEquals("take_order", orderActions.get(0).getId());
+        assertEquals("serve_pizza", orderActions.get(orderActions.size() - 1).getId());
+        
+        // One check reserves the ingredients of all three pizzas
+        assertTrue(planner.execute(plan));
+        assertEquals(7, inventory.getAvailable("basil"));
+        for (PizzaOrder order : batches.get(0).getOrders()) {
+            assertEquals(true, plan.getOrderState(order.getOrderId()).getProperty("pizzaServed"));
+            assertEquals("Margherita", plan.getOrderState(order.getOrderId()).getProperty("pizzaType"));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ai.goap_demo.pizzabot.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngredientInventoryTest {
+    
+    @Test
+    void testConcurrentReservationsNeverOversell() throws InterruptedException {
+        IngredientInventory inventory = new IngredientInventory(8);
+        inventory.restock("dough", 500);
+        inventory.restock("mozzarella", 300);
+        
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger doubleEnds = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        
+        for (int i = 0; i < 16; i++) {
+            Thread thread = new Thread(() -> {
+                for (int n = 0; n < 100; n++) {
+                    Reservation reservation = inventory.reserve(List.of("dough", "mozzarella"));
+                    if (reservation == null) {
+                        continue;
+                    }
+                    // Release every other reservation to exercise the rollback path
+                    if (n % 2 == 0) {
+                        reservation.release();
+                    } else if (reservation.commit()) {
+                        committed.incrementAndGet();
+                    }
+                    if (reservation.commit() || reservation.release()) {
+                        doubleEnds.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(0, doubleEnds.get(), "A reservation must end only once");
+        assertTrue(committed.get() <= 300);
+        assertEquals(500 - committed.get(), inventory.getAvailable("dough"));
+        assertEquals(300 - committed.get(), inventory.getAvailable("mozzarella"));
+    }
+    
+    @Test
+    void testShortIngredientRollsBackWholeReservation() {
+        IngredientInventory inventory = new IngredientInventory(4);
+        inventory.restock("dough", 10);
+        inventory.restock("basil", 0);
+        
+        assertNull(inventory.reserve(List.of("dough", "basil")));
+        assertNull(inventory.reserve(List.of("dough", "pineapple")));
+        assertEquals(10, inventory.getAvailable("dough"));
+        assertEquals(2, inventory.getFailedReservationCount());
+    }
+    
+    @Test
+    void testUnlimitedIngredientsNeverRunOut() {
+        IngredientInventory inventory = new IngredientInventory(4);
+        inventory.setUnlimited("dough");
+        inventory.restock("dough", 5);
+        
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(inventory.reserve(List.of("dough", "dough")).commit());
+        }
+        assertEquals(Long.MAX_VALUE, inventory.getAvailable("dough"));
+        assertEquals(Long.MAX_VALUE, IngredientInventory.getDefault().getAvailable("mozzarella"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ai.goap_demo.pizzabot.journal;
+
+import com.example.ai.goap_demo.pizzabot.PizzaBot;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldStateJournalTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void testRecoverFromSnapshotAndRotatedSegments() throws Exception {
+        try (WorldStateJournal journal = WorldStateJournal.open(directory, 4096, 1, Long.MAX_VALUE)) {
+            for (int i = 0; i < 200; i++) {
+                String orderId = "order-" + i;
+                journal.recordSet(orderId, "orderTaken", true);
+                journal.recordSet(orderId, "pizzaType", "Margherita");
+                journal.recordSet(orderId, "doughStock", 2.5);
+                
+                // Snapshot halfway, so recovery needs both the snapshot and the tail
+                if (i == 100) {
+                    journal.snapshot();
+                }
+                if (i % 2 == 0) {
+                    journal.recordComplete(orderId);
+                }
+            }
+            
+            // Objects that cannot be journaled are skipped
+            assertEquals(-1, journal.recordSet("order-1", "reservation", new Object()));
+            journal.sync();
+        }
+        
+        try (WorldStateJournal journal = WorldStateJournal.open(directory, 4096, 1, Long.MAX_VALUE)) {
+            assertEquals(100, journal.getRecoveredOrderIds().size());
+            assertNull(journal.getRecoveredState("order-0"));
+            
+            Map<String, Object> state = journal.getRecoveredState("order-199");
+            assertEquals(true, state.get("orderTaken"));
+            assertEquals("Margherita", state.get("pizzaType"));
+            assertEquals(2.5, state.get("doughStock"));
+            assertFalse(state.containsKey("reservation"));
+            
+            // Appends continue after the recovered sequence
+            journal.recordComplete("order-199");
+        }
+        
+        try (WorldStateJournal journal = WorldStateJournal.open(directory, 4096, 1, Long.MAX_VALUE)) {
+            assertEquals(99, journal.getRecoveredOrderIds().size());
+        }
+    }
+    
+    @Test
+    void testJournaledBotNeedsOrderId() throws Exception {
+        try (WorldStateJournal journal = WorldStateJournal.open(directory, 4096, 1, Long.MAX_VALUE)) {
+            assertThrows(IllegalArgumentException.class,
+                () -> new PizzaBot(IngredientInventory.getDefault(), journal, null));
+        }
+    }
+}
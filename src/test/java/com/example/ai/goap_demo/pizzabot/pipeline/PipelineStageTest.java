@@ -0,0 +1,135 @@
+package com.example.ai.goap_demo.pizzabot.pipeline;
+
+import com.example.ai.goap_demo.pizzabot.batching.PizzaOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineStageTest {
+    
+    @Test
+    void testSlowStageHoldsBackSourceWithBoundedQueues() throws Exception {
+        SyntheticOrderGenerator generator = new SyntheticOrderGenerator(0, 200, List.of("Margherita", "Pepperoni"), 1);
+        
+        PipelineStage<PizzaOrder, String> intake = new PipelineStage<>("intake", 1, 4, PizzaOrder::getOrderId);
+        PipelineStage<String, String> slow = new PipelineStage<>("slow", 2, 3, id -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return id;
+        });
+        
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(1);
+        slow.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+            
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+            
+            @Override
+            public void onNext(String item) {
+                received.add(item);
+                subscription.request(1);
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                done.countDown();
+            }
+            
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+        intake.subscribe(slow);
+        generator.subscribe(intake);
+        
+        assertTrue(done.await(30, TimeUnit.SECONDS), "Pipeline should complete");
+        assertEquals(200, received.size());
+        assertEquals(200, slow.getProcessedCount());
+        assertEquals(0, slow.getDroppedCount());
+        
+        // Buffers never grow past their capacity, and the source was held back
+        assertTrue(intake.getMaxQueueDepth() <= 4);
+        assertTrue(slow.getMaxQueueDepth() <= 3);
+        assertTrue(generator.getBackpressureMillis() > 0);
+        assertTrue(intake.getBackpressureMillis() > 0);
+    }
+    
+    @Test
+    void testUpstreamRequestsAreNeverConcurrent() throws Exception {
+        int total = 500;
+        AtomicInteger requesting = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        // Emits requested items from inside request, as synchronous publishers do
+        Flow.Publisher<Integer> source = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            private int next;
+            
+            @Override
+            public void request(long n) {
+                if (requesting.getAndIncrement() != 0) {
+                    overlapped.set(true);
+                }
+                for (long i = 0; i < n && next < total; i++) {
+                    Thread.yield();
+                    subscriber.onNext(next++);
+                }
+                if (next == total) {
+                    subscriber.onComplete();
+                }
+                requesting.decrementAndGet();
+            }
+            
+            @Override
+            public void cancel() {
+            }
+        });
+        
+        PipelineStage<Integer, Integer> stage = new PipelineStage<>("fan", 8, 2, item -> item);
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        stage.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+            
+            @Override
+            public void onNext(Integer item) {
+                received.incrementAndGet();
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                done.countDown();
+            }
+            
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+        source.subscribe(stage);
+        
+        assertTrue(done.await(30, TimeUnit.SECONDS), "Pipeline should complete");
+        assertFalse(overlapped.get());
+        assertEquals(total, received.get());
+        assertEquals(0, stage.getDroppedCount());
+    }
+}
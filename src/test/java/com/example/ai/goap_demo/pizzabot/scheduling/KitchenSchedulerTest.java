@@ -0,0 +1,63 @@
+package com.example.ai.goap_demo.pizzabot.scheduling;
+
+import com.example.ai.goap_demo.goap.core.Plan;
+import com.example.ai.goap_demo.pizzabot.actions.*;
+import com.example.ai.goap_demo.pizzabot.inventory.IngredientInventory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KitchenSchedulerTest {
+    
+    @Test
+    void testOvenIsSharedAndInterleavingBeatsSerial() {
+        Plan plan = new Plan(List.of(
+            new TakeOrderAction(),
+            new CheckIngredientsAction(new IngredientInventory()),
+            new PrepareDoughAction(),
+            new AddToppingsAction(),
+            new BakePizzaAction(),
+            new ServePizzaAction()
+        ));
+        
+        List<KitchenOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            orders.add(new KitchenOrder("order-" + i, "Margherita", plan, 0));
+        }
+        
+        KitchenScheduler scheduler = KitchenScheduler.forPizzaKitchen(1, 2);
+        Schedule serial = scheduler.schedule(orders, KitchenScheduler.Policy.SERIAL_FIFO);
+        Schedule interleaved = scheduler.schedule(orders, KitchenScheduler.Policy.LONGEST_REMAINING);
+        
+        // Serially every order takes 1 + 1 + 3 + 2 + 8 + 1 minutes
+        assertEquals(4 * 16, serial.getMakespan());
+        assertEquals(24, interleaved.getSteps().size());
+        assertTrue(interleaved.getMakespan() < serial.getMakespan());
+        assertTrue(interleaved.getOrdersPerHour() > serial.getOrdersPerHour());
+        
+        // With one oven the bakes never overlap and each runs for its full baking time
+        long ovenFreeAt = 0;
+        for (ScheduledStep step : interleaved.getSteps()) {
+            if (KitchenScheduler.OVEN.equals(step.getResource())) {
+                assertTrue(step.getStartMinute() >= ovenFreeAt, "Bakes overlap: " + step);
+                assertEquals(8, step.getEndMinute() - step.getStartMinute());
+                ovenFreeAt = step.getEndMinute();
+            }
+        }
+        
+        // Steps of an order stay in plan order
+        for (KitchenOrder order : orders) {
+            long previousEnd = 0;
+            for (ScheduledStep step : interleaved.getSteps()) {
+                if (step.getOrder() == order) {
+                    assertTrue(step.getStartMinute() >= previousEnd);
+                    previousEnd = step.getEndMinute();
+                }
+            }
+            assertEquals(previousEnd, interleaved.getCompletionMinute(order.getOrderId()));
+        }
+    }
+}